@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.events;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.kie.kogito.event.DataEvent;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+/**
+ * Serializes events to JSON directly into UTF-8 bytes, without building intermediate strings.
+ * Writers are prepared once per event type and output buffers are reused per thread.
+ * Events can be serialized to strings as well, for channels configured with a string serializer.
+ */
+public class DataEventSerializer {
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(ByteArrayBuilder::new);
+
+    public DataEventSerializer() {
+        json.setDateFormat(new StdDateFormat().withColonInTimeZone(true).withTimeZone(TimeZone.getDefault()));
+    }
+
+    public byte[] serialize(DataEvent<?> event) throws IOException {
+        ObjectWriter writer = writers.computeIfAbsent(event.getClass(), json::writerFor);
+        ByteArrayBuilder buffer = buffers.get();
+        try {
+            writer.writeValue(buffer, event);
+            return buffer.toByteArray();
+        } finally {
+            buffer.reset();
+        }
+    }
+
+    public String serializeToString(DataEvent<?> event) throws IOException {
+        return writers.computeIfAbsent(event.getClass(), json::writerFor).writeValueAsString(event);
+    }
+
+    /**
+     * Returns the event serialized to the given type of payload.
+     */
+    public Object serialize(DataEvent<?> event, PayloadType type) throws IOException {
+        return type == PayloadType.BYTES ? serialize(event) : serializeToString(event);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kie.kogito.events;
+
+/**
+ * Defines the type of payload events are published as, it must match the serializer of the outgoing channel.
+ */
+public enum PayloadType {
+
+    /**
+     * JSON string, for channels using org.apache.kafka.common.serialization.StringSerializer
+     */
+    STRING,
+    /**
+     * JSON encoded in UTF-8 bytes, for channels using org.apache.kafka.common.serialization.ByteArraySerializer.
+     * Avoids building an intermediate string of every event.
+     */
+    BYTES
+}
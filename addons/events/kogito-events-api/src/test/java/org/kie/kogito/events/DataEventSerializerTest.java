@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kie.kogito.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.event.DataEvent;
+
+public class DataEventSerializerTest {
+
+    private final DataEventSerializer serializer = new DataEventSerializer();
+
+    @Test
+    public void testPayloadTypes() throws Exception {
+        TestEvent event = new TestEvent("1", "\u017elu\u0165ou\u010dk\u00fd k\u016f\u0148");
+
+        String string = serializer.serializeToString(event);
+        byte[] bytes = serializer.serialize(event);
+
+        assertThat(string).contains("\"id\":\"1\"", "\"data\":\"\u017elu\u0165ou\u010dk\u00fd k\u016f\u0148\"");
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(string);
+        assertThat(serializer.serialize(event, PayloadType.STRING)).isEqualTo(string);
+        assertThat(serializer.serialize(event, PayloadType.BYTES)).isEqualTo(bytes);
+    }
+
+    @Test
+    public void testBufferReused() throws Exception {
+        byte[] first = serializer.serialize(new TestEvent("1", "a longer payload of the first event"));
+        byte[] second = serializer.serialize(new TestEvent("2", "short"));
+
+        // buffer is reset between events, nothing of the previous event is left
+        assertThat(new String(second, StandardCharsets.UTF_8)).isEqualTo(serializer.serializeToString(new TestEvent("2", "short")));
+        assertThat(new String(first, StandardCharsets.UTF_8)).contains("first event");
+    }
+
+    public static class TestEvent implements DataEvent<String> {
+
+        private final String id;
+        private final String data;
+
+        public TestEvent(String id, String data) {
+            this.id = id;
+            this.data = data;
+        }
+
+        @Override
+        public String getSpecversion() {
+            return "0.3";
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getType() {
+            return "ProcessInstanceEvent";
+        }
+
+        @Override
+        public String getSource() {
+            return "test";
+        }
+
+        @Override
+        public String getTime() {
+            return null;
+        }
+
+        @Override
+        public String getData() {
+            return data;
+        }
+    }
+}
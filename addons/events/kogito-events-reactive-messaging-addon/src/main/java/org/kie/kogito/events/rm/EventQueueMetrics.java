@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.events.rm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+
+/**
+ * Exposes depth and publishing statistics of topic queues as Prometheus metrics, so that
+ * dropped and failed events show up next to the other metrics of the service.
+ * Only loaded when Prometheus client is on the classpath.
+ */
+public class EventQueueMetrics extends Collector {
+
+    private static final List<String> LABELS = Collections.singletonList("topic");
+
+    private final List<TopicEventQueue> queues;
+
+    public EventQueueMetrics(List<TopicEventQueue> queues) {
+        this.queues = queues;
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+        GaugeMetricFamily buffered = new GaugeMetricFamily("kogito_events_buffered", "Events buffered and not yet published", LABELS);
+        CounterMetricFamily published = new CounterMetricFamily("kogito_events_published_total", "Published events", LABELS);
+        CounterMetricFamily dropped = new CounterMetricFamily("kogito_events_dropped_total", "Events dropped because buffer was full or publishing stopped", LABELS);
+        CounterMetricFamily failed = new CounterMetricFamily("kogito_events_failed_total", "Events failed to be serialized or sent", LABELS);
+        for (TopicEventQueue queue : queues) {
+            List<String> topic = Collections.singletonList(queue.topic());
+            buffered.addMetric(topic, queue.depth());
+            published.addMetric(topic, queue.published());
+            dropped.addMetric(topic, queue.dropped());
+            failed.addMetric(topic, queue.failed());
+        }
+        return Arrays.asList(buffered, published, dropped, failed);
+    }
+
+    public void unregister() {
+        CollectorRegistry.defaultRegistry.unregister(this);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.events.rm;
+
+/**
+ * Defines what happens to an event published when the buffer of its topic is full.
+ */
+public enum OverflowStrategy {
+
+    /**
+     * Caller waits until there is space in the buffer, event is dropped only if publishing is stopped meanwhile
+     */
+    BLOCK,
+    /**
+     * Caller waits until there is space in the buffer, at most the block timeout after which the event is dropped
+     */
+    BLOCK_WITH_TIMEOUT,
+    /**
+     * Published event is dropped
+     */
+    DROP_NEWEST,
+    /**
+     * Oldest buffered event is dropped to make space for the published one
+     */
+    DROP_OLDEST
+}
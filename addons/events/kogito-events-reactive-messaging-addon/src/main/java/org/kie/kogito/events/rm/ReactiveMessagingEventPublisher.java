@@ -15,40 +15,51 @@
 
 package org.kie.kogito.events.rm;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.TimeZone;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.kie.kogito.event.DataEvent;
 import org.kie.kogito.event.EventPublisher;
+import org.kie.kogito.events.DataEventSerializer;
+import org.kie.kogito.events.PayloadType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.util.StdDateFormat;
-
 import io.smallrye.reactive.messaging.annotations.Emitter;
 import io.smallrye.reactive.messaging.annotations.Stream;
 
+/**
+ * Publishes events to reactive messaging streams asynchronously. Events are buffered per topic
+ * in bounded queues and serialized and sent in batches by a worker per topic, only when there
+ * is demand downstream. Behaviour when buffer is full is controlled by the overflow strategy.
+ */
 @Singleton
 public class ReactiveMessagingEventPublisher implements EventPublisher {
     private static final String PI_TOPIC_NAME = "kogito-processinstances-events";
     private static final String UI_TOPIC_NAME = "kogito-usertaskinstances-events";
+    private static final String PROMETHEUS_REGISTRY = "io.prometheus.client.CollectorRegistry";
     
     private static final Logger logger = LoggerFactory.getLogger(ReactiveMessagingEventPublisher.class);
-    private ObjectMapper json = new ObjectMapper();
+    private DataEventSerializer serializer = new DataEventSerializer();
     
     @Inject
     @Stream(PI_TOPIC_NAME)
-    Emitter<String> processInstancesEventsEmitter;
+    Emitter<Object> processInstancesEventsEmitter;
     
     @Inject
     @Stream(UI_TOPIC_NAME)
-    Emitter<String> userTasksEventsEmitter;
+    Emitter<Object> userTasksEventsEmitter;
     
     @Inject
     @ConfigProperty(name = "kogito.events.processinstances.enabled", defaultValue = "true")
@@ -58,19 +69,93 @@ public class ReactiveMessagingEventPublisher implements EventPublisher {
     @ConfigProperty(name = "kogito.events.usertasks.enabled", defaultValue = "true")
     Boolean userTasksEvents;
     
+    @Inject
+    @ConfigProperty(name = "kogito.events.publisher.payload-type", defaultValue = "STRING")
+    PayloadType payloadType;
+    
+    @Inject
+    @ConfigProperty(name = "kogito.events.publisher.buffer-size", defaultValue = "1024")
+    Integer bufferSize;
+    
+    @Inject
+    @ConfigProperty(name = "kogito.events.publisher.batch-size", defaultValue = "100")
+    Integer batchSize;
+    
+    @Inject
+    @ConfigProperty(name = "kogito.events.publisher.batch-delay", defaultValue = "10")
+    Long batchDelay;
+    
+    @Inject
+    @ConfigProperty(name = "kogito.events.publisher.overflow-strategy", defaultValue = "BLOCK_WITH_TIMEOUT")
+    OverflowStrategy overflowStrategy;
+    
+    @Inject
+    @ConfigProperty(name = "kogito.events.publisher.block-timeout", defaultValue = "1000")
+    Long blockTimeout;
+    
+    @Inject
+    @ConfigProperty(name = "kogito.events.publisher.shutdown-timeout", defaultValue = "10000")
+    Long shutdownTimeout;
+    
+    private TopicEventQueue processInstancesQueue;
+    private TopicEventQueue userTasksQueue;
+    private ExecutorService executor;
+    private EventQueueMetrics metrics;
+    
     @PostConstruct
     public void configure() {
-        json.setDateFormat(new StdDateFormat().withColonInTimeZone(true).withTimeZone(TimeZone.getDefault()));
+        processInstancesQueue = new TopicEventQueue(PI_TOPIC_NAME, processInstancesEventsEmitter, serializer, payloadType, bufferSize, overflowStrategy, blockTimeout, batchSize, batchDelay);
+        userTasksQueue = new TopicEventQueue(UI_TOPIC_NAME, userTasksEventsEmitter, serializer, payloadType, bufferSize, overflowStrategy, blockTimeout, batchSize, batchDelay);
+        
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "kogito-event-publisher-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (TopicEventQueue queue : queues()) {
+            executor.execute(queue);
+        }
+        if (isPrometheusAvailable()) {
+            metrics = new EventQueueMetrics(queues()).register();
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (metrics != null) {
+            metrics.unregister();
+        }
+        for (TopicEventQueue queue : queues()) {
+            queue.stop();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Returns queues of all topics, mainly to expose their depth and publishing statistics
+     * which are also registered as Prometheus metrics when Prometheus client is available
+     */
+    public List<TopicEventQueue> queues() {
+        return Arrays.asList(processInstancesQueue, userTasksQueue);
     }
     
     @Override
     public void publish(DataEvent<?> event) {
         if (event.getType().equals("ProcessInstanceEvent") && processInstancesEvents) {
             
-            publishToTopic(event, processInstancesEventsEmitter, PI_TOPIC_NAME);
+            processInstancesQueue.offer(event);
         } else if (event.getType().equals("UserTaskInstanceEvent") && userTasksEvents) {
             
-            publishToTopic(event, userTasksEventsEmitter, UI_TOPIC_NAME);
+            userTasksQueue.offer(event);
         } else {
             logger.warn("Unknown type of event '{}', ignoring", event.getType());
         }
@@ -84,21 +169,12 @@ public class ReactiveMessagingEventPublisher implements EventPublisher {
         }
     }
 
-    
-    protected void publishToTopic(DataEvent<?> event, Emitter<String> emitter, String topic) {
-        if (emitter.isRequested()) {
-            logger.debug("Emitter {} is not ready to send messages", topic);
-        }
-        
-        logger.debug("About to publish event {} to topic {}", event, topic);
+    private static boolean isPrometheusAvailable() {
         try {
-            String eventString = json.writeValueAsString(event);
-            logger.debug("Event payload '{}'", eventString);
-
-            emitter.send(eventString);
-            logger.debug("Successfully published event {} to topic {}", event, topic);
-        } catch (Exception e) {
-            logger.error("Error while publishing event to topic {} for event {}", topic, event, e);
-        }  
+            Class.forName(PROMETHEUS_REGISTRY, false, ReactiveMessagingEventPublisher.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
     }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.events.rm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.kie.kogito.event.DataEvent;
+import org.kie.kogito.events.DataEventSerializer;
+import org.kie.kogito.events.PayloadType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.smallrye.reactive.messaging.annotations.Emitter;
+
+/**
+ * Bounded buffer of events of a single topic drained by a dedicated worker that serializes
+ * events off the publishing thread and sends them in batches, as long as there is demand downstream.
+ */
+public class TopicEventQueue implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopicEventQueue.class);
+    private static final long DEMAND_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long STOP_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String topic;
+    private final Emitter<Object> emitter;
+    private final DataEventSerializer serializer;
+    private final PayloadType payloadType;
+    private final BlockingQueue<DataEvent<?>> queue;
+    private final OverflowStrategy overflowStrategy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long batchDelayNanos;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public TopicEventQueue(String topic, Emitter<Object> emitter, DataEventSerializer serializer, PayloadType payloadType, int bufferSize, OverflowStrategy overflowStrategy, long blockTimeoutMillis, int batchSize, long batchDelayMillis) {
+        this.topic = topic;
+        this.emitter = emitter;
+        this.serializer = serializer;
+        this.payloadType = payloadType;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.overflowStrategy = overflowStrategy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.batchSize = batchSize;
+        this.batchDelayNanos = TimeUnit.MILLISECONDS.toNanos(batchDelayMillis);
+    }
+
+    /**
+     * Buffers given event to be published, applying overflow strategy if the buffer is full.
+     * Events published after the queue has been stopped are dropped.
+     */
+    public void offer(DataEvent<?> event) {
+        if (!running) {
+            dropped.incrementAndGet();
+            logger.warn("Publishing to topic {} stopped, dropping event {}", topic, event);
+            return;
+        }
+        switch (overflowStrategy) {
+            case DROP_NEWEST:
+                if (!queue.offer(event)) {
+                    dropped(event);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(event)) {
+                    DataEvent<?> oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped(oldest);
+                    }
+                }
+                break;
+            case BLOCK_WITH_TIMEOUT:
+                try {
+                    // bounded wait so a stalled downstream cannot hold publishing threads indefinitely
+                    if (!queue.offer(event, blockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                        dropped(event);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped(event);
+                }
+                break;
+            default:
+                try {
+                    // waits in slices to notice the queue being stopped, as nothing would drain it afterwards
+                    while (!queue.offer(event, STOP_POLL_NANOS, TimeUnit.NANOSECONDS)) {
+                        if (!running) {
+                            dropped(event);
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped(event);
+                }
+        }
+    }
+
+    @Override
+    public void run() {
+        List<DataEvent<?>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                DataEvent<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Publishing to topic {} interrupted, {} buffered events not published", topic, batch.size() + queue.size());
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Stops the worker once all buffered events are published.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    /**
+     * Returns number of events buffered and not yet published
+     */
+    public int depth() {
+        return queue.size();
+    }
+
+    public long published() {
+        return published.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    protected void collect(List<DataEvent<?>> batch) throws InterruptedException {
+        // waits at most batch delay for the batch to fill up
+        long deadline = System.nanoTime() + batchDelayNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            DataEvent<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    protected void send(List<DataEvent<?>> batch) throws InterruptedException {
+        List<Object> payloads = new ArrayList<>(batch.size());
+        for (DataEvent<?> event : batch) {
+            try {
+                payloads.add(serializer.serialize(event, payloadType));
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.error("Error while serializing event {} for topic {}", event, topic, e);
+            }
+        }
+        logger.debug("About to publish batch of {} events to topic {}, {} events buffered", payloads.size(), topic, queue.size());
+        for (Object payload : payloads) {
+            awaitDemand();
+            try {
+                emitter.send(payload);
+                published.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.error("Error while publishing event to topic {}", topic, e);
+            }
+        }
+    }
+
+    protected void awaitDemand() throws InterruptedException {
+        boolean waiting = false;
+        while (!emitter.isRequested()) {
+            if (!waiting) {
+                logger.debug("Emitter {} is not ready to send messages, waiting for demand", topic);
+                waiting = true;
+            }
+            LockSupport.parkNanos(DEMAND_POLL_NANOS);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private void dropped(DataEvent<?> event) {
+        long total = dropped.incrementAndGet();
+        logger.warn("Buffer of topic {} is full, dropping event {}, {} events dropped so far", topic, event, total);
+    }
+}
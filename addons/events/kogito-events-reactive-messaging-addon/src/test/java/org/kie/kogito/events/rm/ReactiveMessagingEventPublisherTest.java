@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.events.rm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.event.DataEvent;
+import org.kie.kogito.events.PayloadType;
+
+import io.prometheus.client.CollectorRegistry;
+import io.smallrye.reactive.messaging.annotations.Emitter;
+
+public class ReactiveMessagingEventPublisherTest {
+
+    private final List<Object> processInstanceEvents = Collections.synchronizedList(new ArrayList<>());
+    private final List<Object> userTaskEvents = Collections.synchronizedList(new ArrayList<>());
+    private ReactiveMessagingEventPublisher publisher;
+
+    @BeforeEach
+    public void setup() {
+        publisher = new ReactiveMessagingEventPublisher();
+        publisher.processInstancesEventsEmitter = emitter(processInstanceEvents);
+        publisher.userTasksEventsEmitter = emitter(userTaskEvents);
+        publisher.processInstancesEvents = true;
+        publisher.userTasksEvents = true;
+        publisher.payloadType = PayloadType.BYTES;
+        publisher.bufferSize = 10;
+        publisher.batchSize = 5;
+        publisher.batchDelay = 0L;
+        publisher.overflowStrategy = OverflowStrategy.BLOCK_WITH_TIMEOUT;
+        publisher.blockTimeout = 1000L;
+        publisher.shutdownTimeout = 5000L;
+    }
+
+    @Test
+    public void testEventsPublishedToTopicOfTheirType() {
+        publisher.configure();
+        publisher.publish(Arrays.asList(new TestEvent("1", "ProcessInstanceEvent"),
+                                        new TestEvent("2", "UserTaskInstanceEvent"),
+                                        new TestEvent("3", "ProcessInstanceEvent"),
+                                        new TestEvent("4", "UnknownEvent")));
+        publisher.close();
+
+        assertThat(processInstanceEvents).hasSize(2);
+        assertThat(processInstanceEvents.get(0)).asString().contains("\"id\":\"1\"");
+        assertThat(processInstanceEvents.get(1)).asString().contains("\"id\":\"3\"");
+        assertThat(userTaskEvents).hasSize(1);
+        assertThat(userTaskEvents.get(0)).asString().contains("\"id\":\"2\"");
+        assertThat(publisher.queues()).allSatisfy(queue -> assertThat(queue.depth()).isZero());
+    }
+
+    @Test
+    public void testStringPayload() {
+        List<Object> payloads = Collections.synchronizedList(new ArrayList<>());
+        publisher.processInstancesEventsEmitter = emitter(payloads);
+        publisher.payloadType = PayloadType.STRING;
+        publisher.configure();
+        publisher.publish(new TestEvent("1", "ProcessInstanceEvent"));
+        publisher.close();
+
+        assertThat(payloads).hasSize(1);
+        assertThat(payloads.get(0)).isInstanceOf(String.class).asString().contains("\"id\":\"1\"");
+    }
+
+    @Test
+    public void testDisabledEventsNotPublished() {
+        publisher.userTasksEvents = false;
+        publisher.configure();
+        publisher.publish(new TestEvent("1", "UserTaskInstanceEvent"));
+        publisher.close();
+
+        assertThat(userTaskEvents).isEmpty();
+    }
+
+    @Test
+    public void testEventsPublishedAfterCloseDropped() {
+        publisher.configure();
+        publisher.close();
+        publisher.publish(new TestEvent("1", "ProcessInstanceEvent"));
+
+        assertThat(processInstanceEvents).isEmpty();
+        assertThat(publisher.queues().get(0).dropped()).isEqualTo(1);
+    }
+
+    @Test
+    public void testQueueStatisticsExposedAsMetrics() {
+        String[] labels = {"topic"};
+        String[] topic = {"kogito-processinstances-events"};
+        publisher.configure();
+        publisher.publish(new TestEvent("1", "ProcessInstanceEvent"));
+
+        assertThat(CollectorRegistry.defaultRegistry.getSampleValue("kogito_events_dropped_total", labels, topic)).isZero();
+
+        publisher.close();
+        assertThat(CollectorRegistry.defaultRegistry.getSampleValue("kogito_events_dropped_total", labels, topic)).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Emitter<Object> emitter(List<Object> sent) {
+        Emitter<Object> emitter = mock(Emitter.class);
+        when(emitter.isRequested()).thenReturn(true);
+        doAnswer(invocation -> {
+            Object payload = invocation.getArgument(0);
+            sent.add(payload instanceof byte[] ? new String((byte[]) payload) : payload);
+            return emitter;
+        }).when(emitter).send(any());
+        return emitter;
+    }
+
+    public static class TestEvent implements DataEvent<String> {
+
+        private final String id;
+        private final String type;
+
+        public TestEvent(String id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        @Override
+        public String getSpecversion() {
+            return "0.3";
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public String getSource() {
+            return "test";
+        }
+
+        @Override
+        public String getTime() {
+            return null;
+        }
+
+        @Override
+        public String getData() {
+            return "data";
+        }
+    }
+}
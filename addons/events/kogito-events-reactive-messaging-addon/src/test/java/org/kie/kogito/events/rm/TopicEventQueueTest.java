@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.events.rm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.event.DataEvent;
+import org.kie.kogito.events.DataEventSerializer;
+import org.kie.kogito.events.PayloadType;
+
+import io.smallrye.reactive.messaging.annotations.Emitter;
+
+public class TopicEventQueueTest {
+
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean requested = new AtomicBoolean(true);
+    private Emitter<Object> emitter;
+    private DataEventSerializer serializer;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void setup() throws Exception {
+        emitter = mock(Emitter.class);
+        when(emitter.isRequested()).then(invocation -> requested.get());
+        doAnswer(invocation -> {
+            sent.add(new String(invocation.getArgument(0, byte[].class)));
+            return emitter;
+        }).when(emitter).send(any());
+
+        serializer = mock(DataEventSerializer.class);
+        when(serializer.serialize(any(), eq(PayloadType.BYTES))).then(invocation -> invocation.getArgument(0, DataEvent.class).getId().getBytes());
+    }
+
+    @Test
+    public void testDropNewest() {
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 2, OverflowStrategy.DROP_NEWEST, 0, 10, 0);
+        queue.offer(event("1"));
+        queue.offer(event("2"));
+        queue.offer(event("3"));
+
+        assertThat(queue.depth()).isEqualTo(2);
+        assertThat(queue.dropped()).isEqualTo(1);
+
+        run(queue);
+        assertThat(sent).containsExactly("1", "2");
+    }
+
+    @Test
+    public void testDropOldest() {
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 2, OverflowStrategy.DROP_OLDEST, 0, 10, 0);
+        queue.offer(event("1"));
+        queue.offer(event("2"));
+        queue.offer(event("3"));
+
+        assertThat(queue.depth()).isEqualTo(2);
+        assertThat(queue.dropped()).isEqualTo(1);
+
+        run(queue);
+        assertThat(sent).containsExactly("2", "3");
+    }
+
+    @Test
+    public void testBlockWithTimeoutDropsAfterTimeout() {
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 1, OverflowStrategy.BLOCK_WITH_TIMEOUT, 50, 10, 0);
+        queue.offer(event("1"));
+
+        long start = System.nanoTime();
+        queue.offer(event("2"));
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(queue.depth()).isEqualTo(1);
+        assertThat(queue.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBlockDropsOnlyWhenStopped() throws Exception {
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 1, OverflowStrategy.BLOCK, 0, 10, 0);
+        queue.offer(event("1"));
+
+        Thread publisher = new Thread(() -> queue.offer(event("2")));
+        publisher.start();
+        publisher.join(300);
+        assertThat(publisher.isAlive()).isTrue();
+        assertThat(queue.dropped()).isZero();
+
+        queue.stop();
+        publisher.join(5000);
+        assertThat(publisher.isAlive()).isFalse();
+        assertThat(queue.depth()).isEqualTo(1);
+        assertThat(queue.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBlockWaitsForSpace() throws Exception {
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 1, OverflowStrategy.BLOCK, 0, 10, 0);
+        queue.offer(event("1"));
+
+        Thread worker = new Thread(queue);
+        worker.start();
+        queue.offer(event("2"));
+        queue.stop();
+        worker.join(5000);
+
+        assertThat(queue.dropped()).isZero();
+        assertThat(sent).containsExactly("1", "2");
+    }
+
+    @Test
+    public void testEventsSentInBatches() {
+        List<Integer> batches = new ArrayList<>();
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 100, OverflowStrategy.BLOCK, 0, 10, 0) {
+
+            @Override
+            protected void send(List<DataEvent<?>> batch) throws InterruptedException {
+                batches.add(batch.size());
+                super.send(batch);
+            }
+        };
+        for (int i = 0; i < 25; i++) {
+            queue.offer(event(String.valueOf(i)));
+        }
+
+        run(queue);
+
+        assertThat(batches).containsExactly(10, 10, 5);
+        assertThat(sent).hasSize(25);
+        assertThat(queue.published()).isEqualTo(25);
+    }
+
+    @Test
+    public void testSerializationFailureSkipsEvent() throws Exception {
+        doThrow(new RuntimeException("test")).when(serializer).serialize(argThat(event -> event != null && event.getId().equals("2")), eq(PayloadType.BYTES));
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 10, OverflowStrategy.BLOCK, 0, 10, 0);
+        queue.offer(event("1"));
+        queue.offer(event("2"));
+        queue.offer(event("3"));
+
+        run(queue);
+
+        assertThat(sent).containsExactly("1", "3");
+        assertThat(queue.failed()).isEqualTo(1);
+    }
+
+    @Test
+    public void testWaitsForDemand() throws Exception {
+        requested.set(false);
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 10, OverflowStrategy.BLOCK, 0, 10, 0);
+        queue.offer(event("1"));
+
+        Thread worker = new Thread(queue);
+        worker.start();
+        Thread.sleep(50);
+        assertThat(sent).isEmpty();
+
+        requested.set(true);
+        queue.stop();
+        worker.join(5000);
+        assertThat(sent).containsExactly("1");
+    }
+
+    @Test
+    public void testStopPublishesBufferedEventsAndDropsNewOnes() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TopicEventQueue queue = new TopicEventQueue("test", emitter, serializer, PayloadType.BYTES, 10, OverflowStrategy.BLOCK, 0, 1, 0) {
+
+            @Override
+            protected void send(List<DataEvent<?>> batch) throws InterruptedException {
+                sending.countDown();
+                release.await();
+                super.send(batch);
+            }
+        };
+        queue.offer(event("1"));
+        queue.offer(event("2"));
+
+        Thread worker = new Thread(queue);
+        worker.start();
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        queue.stop();
+        queue.offer(event("3"));
+        release.countDown();
+        worker.join(5000);
+
+        assertThat(worker.isAlive()).isFalse();
+        assertThat(sent).containsExactly("1", "2");
+        assertThat(queue.dropped()).isEqualTo(1);
+    }
+
+    private void run(TopicEventQueue queue) {
+        // worker returns once buffered events are published
+        queue.stop();
+        queue.run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private DataEvent<?> event(String id) {
+        DataEvent<String> event = mock(DataEvent.class);
+        when(event.getId()).thenReturn(id);
+        return event;
+    }
+}
@@ -16,10 +16,11 @@
 package org.kie.kogito.events.spring;
 
 import java.util.Collection;
-import java.util.TimeZone;
 
 import org.kie.kogito.event.DataEvent;
 import org.kie.kogito.event.EventPublisher;
+import org.kie.kogito.events.DataEventSerializer;
+import org.kie.kogito.events.PayloadType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,9 +28,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.util.StdDateFormat;
-
 @Component
 public class KafkaEventPublisher implements EventPublisher {
     
@@ -38,20 +36,20 @@ public class KafkaEventPublisher implements EventPublisher {
     
     private static final Logger logger = LoggerFactory.getLogger(KafkaEventPublisher.class);
 
-    private ObjectMapper json = new ObjectMapper();
+    private DataEventSerializer serializer = new DataEventSerializer();
     
+    // value type depends on the payload type, so templates of either type are accepted
     @Autowired
-    private KafkaTemplate<String, String> eventsEmitter;
+    private KafkaTemplate<String, ?> eventsEmitter;
+    
+    @Value("${kogito.events.publisher.payload-type:STRING}")
+    private PayloadType payloadType;
     
     @Value("${kogito.events.processinstances.enabled:true}")
     private boolean processInstancesEvents;
     
     @Value("${kogito.events.usertasks.enabled:true}")
     private boolean userTasksEvents;
-        
-    public KafkaEventPublisher() {
-        json.setDateFormat(new StdDateFormat().withColonInTimeZone(true).withTimeZone(TimeZone.getDefault()));
-    }
     
     @Override
     public void publish(DataEvent<?> event) {
@@ -73,13 +71,14 @@ public class KafkaEventPublisher implements EventPublisher {
         }
     }
     
-    protected void publishToTopic(DataEvent<?> event, KafkaTemplate<String, String> emitter, String topic) {
+    @SuppressWarnings("unchecked")
+    protected void publishToTopic(DataEvent<?> event, KafkaTemplate<String, ?> emitter, String topic) {
         logger.debug("About to publish event {} to Kafka topic {}", event, topic);
         try {
-            String eventString = json.writeValueAsString(event);
-            logger.debug("Event payload '{}'", eventString);
+            Object payload = serializer.serialize(event, payloadType);
+            logger.debug("Event payload of type {}", payloadType);
             
-            eventsEmitter.send(topic, eventString);
+            ((KafkaTemplate<String, Object>) emitter).send(topic, payload);
             logger.debug("Successfully published event {} to topic {}", event, topic);
         } catch (Exception e) {
             logger.error("Error while publishing event to Kafka topic {} for event {}", topic, event, e);
@@ -15,66 +15,228 @@
 
 package org.kie.kogito.infinispan;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.MetadataValue;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.protostream.MessageMarshaller;
+import org.jbpm.workflow.instance.impl.WorkflowProcessInstanceImpl;
 import org.kie.kogito.process.MutableProcessInstances;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
+import org.kie.kogito.process.ProcessInstanceReadMode;
+import org.kie.kogito.process.ProcessInstances;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
 import org.kie.kogito.process.impl.marshalling.ProcessInstanceMarshaller;
+import org.kie.kogito.process.impl.marshalling.ProcessInstanceMarshallingFormat;
 
 @SuppressWarnings({"rawtypes"})
 public class CacheProcessInstances implements MutableProcessInstances {
-        
+
+    private static final int BATCH_SIZE = 100;
+    // attempts to unmarshall an instance whose variable values were removed by concurrent updates
+    private static final int MAX_UNMARSHALL_ATTEMPTS = 5;
+    // event types the loaded instance was indexed with, kept on the runtime instance as it is not persisted
+    private static final String INDEXED_EVENT_TYPES = "IndexedEventTypes";
+    // references of variable values the loaded instance was stored with
+    private static final String STORED_VARIABLES = "StoredVariables";
+
     private final RemoteCache<String, byte[]> cache;
+    // writes buffered by the thread that started a batch, removals are represented by null data
+    private final ThreadLocal<Map<String, VersionedData>> batch = new ThreadLocal<>();
+    private final ProcessInstanceNearCache nearCache;
+    private final ProcessInstanceEventIndex eventIndex;
+    private final ProcessInstanceVariableStore variableStore;
     private ProcessInstanceMarshaller marshaller;
     
     private org.kie.kogito.process.Process<?> process;
     
     public CacheProcessInstances(Process<?> process, RemoteCacheManager cacheManager, String templateName, String proto, MessageMarshaller<?>...marshallers) {
+        this(process, cacheManager, templateName, 0, proto, marshallers);
+    }
+    
+    public CacheProcessInstances(Process<?> process, RemoteCacheManager cacheManager, String templateName, long nearCacheMaxSize, String proto, MessageMarshaller<?>...marshallers) {
+        this(process, cacheManager, templateName, nearCacheMaxSize, ProcessInstanceMarshallingFormat.DEFAULT, proto, marshallers);
+    }
+    
+    public CacheProcessInstances(Process<?> process, RemoteCacheManager cacheManager, String templateName, long nearCacheMaxSize, ProcessInstanceMarshallingFormat format, String proto, MessageMarshaller<?>...marshallers) {
+        this(process, cacheManager, templateName, nearCacheMaxSize, format, false, proto, marshallers);
+    }
+    
+    public CacheProcessInstances(Process<?> process, RemoteCacheManager cacheManager, String templateName, long nearCacheMaxSize, ProcessInstanceMarshallingFormat format, boolean splitVariables, String proto, MessageMarshaller<?>...marshallers) {
+        this(process, cacheManager, templateName, nearCacheMaxSize, format, splitVariables, false, proto, marshallers);
+    }
+    
+    public CacheProcessInstances(Process<?> process, RemoteCacheManager cacheManager, String templateName, long nearCacheMaxSize, ProcessInstanceMarshallingFormat format, boolean splitVariables, boolean eventIndex, String proto, MessageMarshaller<?>...marshallers) {
         this.process = process;    
         this.cache = cacheManager.administration().getOrCreateCache(process.id() + "_store", ignoreNullOrEmpty(templateName));
+        if (eventIndex) {
+            this.eventIndex = new ProcessInstanceEventIndex(cacheManager.administration().getOrCreateCache(process.id() + "_events", ignoreNullOrEmpty(templateName)));
+        } else {
+            this.eventIndex = null;
+        }
+        if (splitVariables) {
+            this.variableStore = new ProcessInstanceVariableStore(cacheManager.administration().getOrCreateCache(process.id() + "_variables", ignoreNullOrEmpty(templateName)));
+        } else {
+            this.variableStore = null;
+        }
+        
+        this.marshaller = new ProcessInstanceMarshaller(format, new ProtoStreamObjectMarshallingStrategy(proto, marshallers));
         
-        this.marshaller = new ProcessInstanceMarshaller(new ProtoStreamObjectMarshallingStrategy(proto, marshallers));
+        if (nearCacheMaxSize > 0) {
+            this.nearCache = new ProcessInstanceNearCache(nearCacheMaxSize);
+            this.cache.addClientListener(nearCache);
+        } else {
+            this.nearCache = null;
+        }
     }
 
     
     @Override
     public Optional<? extends ProcessInstance> findById(String id) {
-        byte[] data = cache.get(id);
-        if (data == null) {
+        VersionedData data = load(id);
+        if (data == null || data.data == null) {
             return Optional.empty();
         }
         
-        return (Optional<? extends ProcessInstance>) Optional.of(marshaller.unmarshallProcessInstance(data, process));
+        return (Optional<? extends ProcessInstance>) Optional.ofNullable(unmarshall(id, data));
+    }
+
+    @Override
+    public Optional<? extends ProcessInstance> findById(String id, ProcessInstanceReadMode mode) {
+        if (mode != ProcessInstanceReadMode.READ_ONLY) {
+            return findById(id);
+        }
+        VersionedData data = load(id);
+        if (data == null || data.data == null) {
+            return Optional.empty();
+        }
+        
+        return (Optional<? extends ProcessInstance>) Optional.ofNullable(unmarshallLatest(id, data, latest -> marshaller.unmarshallReadOnlyProcessInstance(latest.data, process, variables(null, Collections.emptySet(), latest.createdVariables))));
     }
 
     
     @Override
     public Collection<? extends ProcessInstance> values() {
-        return (Collection<? extends ProcessInstance>) cache.values()
-                .parallelStream()
-                .map(data -> marshaller.unmarshallProcessInstance(data, process))
-                .collect(Collectors.toList());
+        try (Stream<? extends ProcessInstance> instances = stream()) {
+            return instances.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Collection<? extends ProcessInstance> values(int offset, int limit) {
+        ProcessInstances.checkPage(offset, limit);
+        List<ProcessInstance> page = new ArrayList<>();
+        // entries are fetched in batches and only those that belong to the page are unmarshalled
+        try (CloseableIterator<Map.Entry<Object, MetadataValue<Object>>> entries = cache.retrieveEntriesWithMetadata(null, BATCH_SIZE)) {
+            int position = 0;
+            while (entries.hasNext() && page.size() < limit) {
+                Map.Entry<Object, MetadataValue<Object>> entry = entries.next();
+                if (position++ >= offset) {
+                    ProcessInstance instance = unmarshall((String) entry.getKey(), new VersionedData((byte[]) entry.getValue().getValue(), entry.getValue().getVersion()));
+                    if (instance != null) {
+                        page.add(instance);
+                    }
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Stream<? extends ProcessInstance> stream() {
+        CloseableIterator<Map.Entry<Object, MetadataValue<Object>>> entries = cache.retrieveEntriesWithMetadata(null, BATCH_SIZE);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries, Spliterator.NONNULL), false)
+                .onClose(entries::close)
+                .map(entry -> unmarshall((String) entry.getKey(), new VersionedData((byte[]) entry.getValue().getValue(), entry.getValue().getVersion())))
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Stream<? extends ProcessInstance> waitingForEvent(String eventType) {
+        if (eventIndex == null) {
+            return MutableProcessInstances.super.waitingForEvent(eventType);
+        }
+        return eventIndex.waitingFor(eventType).stream()
+                .map(id -> {
+                    VersionedData data = load(id);
+                    if (data == null || data.data == null) {
+                        // instance is gone, drop it from the index so it is not looked up again
+                        eventIndex.remove(id);
+                        return null;
+                    }
+                    return unmarshall(id, data);
+                })
+                .filter(instance -> instance != null && ((AbstractProcessInstance<?>) instance).internalGetEventTypes().contains(eventType));
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public void update(String id, ProcessInstance instance) {
         if (isActive(instance)) {
-            byte[] data = marshaller.marhsallProcessInstance(instance);
+            // event types must be read before marshalling as it disconnects event listeners
+            Set<String> eventTypes = ((AbstractProcessInstance<?>) instance).internalGetEventTypes();
+            Set<String> indexedEventTypes = indexedEventTypes((AbstractProcessInstance<?>) instance);
+            Set<String> storedVariables = storedVariables((AbstractProcessInstance<?>) instance);
+            ProcessInstanceVariableStore.StoredVariables variables = variables(instance.id(), storedVariables);
+            byte[] data = marshaller.marhsallProcessInstance(instance, variables);
+            VersionedData write;
+            if (variables != null) {
+                // changed variables are written under new keys right before the instance, they become visible once instance is written
+                write = new VersionedData(data, ((AbstractProcessInstance<?>) instance).version(), storedVariables, variables.created(), variables.references(), indexedEventTypes, eventTypes);
+            } else {
+                write = new VersionedData(data, ((AbstractProcessInstance<?>) instance).version(), Collections.emptySet(), Collections.emptyMap(), Collections.emptySet(), indexedEventTypes, eventTypes);
+            }
             
-            cache.put(instance.id(), data);
+            Map<String, VersionedData> pending = batch.get();
+            if (pending != null) {
+                // instance written more than once within the batch is still expected at its originally loaded version
+                pending.merge(instance.id(), write, VersionedData::merge);
+            } else {
+                invalidate(instance.id());
+                writeVariables(write.createdVariables);
+                boolean written = write(instance.id(), write);
+                removeVariables(written ? write.obsoleteVariables() : write.createdVariables.keySet());
+                if (!written) {
+                    throw new ProcessInstanceOptimisticLockingException(instance.id());
+                }
+                // index follows the stored instance, it is left untouched when the write failed
+                if (eventIndex != null) {
+                    eventIndex.update(instance.id(), indexedEventTypes, eventTypes);
+                }
+            }
             
             ((AbstractProcessInstance<?>) instance).internalRemoveProcessInstance(() -> {
-                byte[] reloaded = cache.get(id);
-                if (reloaded != null) {
-                    return ((AbstractProcessInstance<?>)marshaller.unmarshallProcessInstance(reloaded, process, (AbstractProcessInstance<?>) instance)).internalGetProcessInstance();                    
+                VersionedData reloaded = load(id);
+                if (reloaded != null && reloaded.data != null) {
+                    AbstractProcessInstance<?> reloadedInstance = unmarshallLatest(id, reloaded, latest -> {
+                        ProcessInstanceVariableStore.StoredVariables reloadedVariables = variables(null, Collections.emptySet(), latest.createdVariables);
+                        AbstractProcessInstance<?> unmarshalled = (AbstractProcessInstance<?>) marshaller.unmarshallProcessInstance(latest.data, process, (AbstractProcessInstance<?>) instance, reloadedVariables);
+                        unmarshalled.internalSetVersion(latest.version);
+                        remember(unmarshalled, reloadedVariables);
+                        return unmarshalled;
+                    });
+                    return reloadedInstance == null ? null : reloadedInstance.internalGetProcessInstance();
                 }
                 
                 return null;
@@ -84,7 +246,241 @@ public class CacheProcessInstances implements MutableProcessInstances {
 
     @Override
     public void remove(String id) {
-        cache.remove(id);
+        VersionedData removal = new VersionedData(null, 0);
+        if (variableStore != null) {
+            VersionedData stored = load(id);
+            Set<String> storedVariables = stored == null || stored.data == null ? Collections.emptySet() : marshaller.externalVariableReferences(stored.data, process);
+            removal = new VersionedData(null, 0, storedVariables, Collections.emptyMap(), Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+        }
+        Map<String, VersionedData> pending = batch.get();
+        if (pending != null) {
+            pending.merge(id, removal, VersionedData::merge);
+        } else {
+            invalidate(id);
+            cache.remove(id);
+            removeVariables(removal.obsoleteVariables());
+            if (eventIndex != null) {
+                eventIndex.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public boolean startBatch() {
+        if (batch.get() == null) {
+            batch.set(new LinkedHashMap<>());
+        }
+        return true;
+    }
+
+    @Override
+    public void abortBatch() {
+        // nothing of the batch has been written yet, variable values included
+        batch.remove();
+    }
+
+    @Override
+    public void flushBatch() {
+        Map<String, VersionedData> pending = batch.get();
+        batch.remove();
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        // values of changed variables of all instances are written at once, before instances refer to them
+        Map<String, byte[]> createdVariables = new LinkedHashMap<>();
+        for (VersionedData data : pending.values()) {
+            createdVariables.putAll(data.createdVariables);
+        }
+        writeVariables(createdVariables);
+        // conditional writes are pipelined and awaited all at once
+        Map<String, CompletableFuture<Boolean>> writes = new LinkedHashMap<>();
+        for (Map.Entry<String, VersionedData> entry : pending.entrySet()) {
+            invalidate(entry.getKey());
+            writes.put(entry.getKey(), writeAsync(entry.getKey(), entry.getValue()));
+        }
+        CompletableFuture.allOf(writes.values().toArray(new CompletableFuture<?>[writes.size()])).join();
+        
+        String conflict = null;
+        boolean committed = false;
+        Set<String> unusedVariables = new LinkedHashSet<>();
+        List<CompletableFuture<Void>> indexWrites = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Boolean>> write : writes.entrySet()) {
+            VersionedData data = pending.get(write.getKey());
+            if (write.getValue().join()) {
+                committed = true;
+                unusedVariables.addAll(data.obsoleteVariables());
+                // index follows stored instances only, changes of conflicting ones are dropped
+                if (eventIndex != null) {
+                    indexWrites.add(data.data == null ? eventIndex.removeAsync(write.getKey()) : eventIndex.updateAsync(write.getKey(), data.indexedEventTypes, data.eventTypes));
+                }
+            } else {
+                unusedVariables.addAll(data.createdVariables.keySet());
+                conflict = conflict == null ? write.getKey() : conflict;
+            }
+        }
+        CompletableFuture.allOf(indexWrites.toArray(new CompletableFuture<?>[indexWrites.size()])).join();
+        removeVariables(unusedVariables);
+        if (conflict != null) {
+            // writes are not atomic across instances, others of the batch might be stored already
+            throw new ProcessInstanceOptimisticLockingException(conflict, committed);
+        }
+    }
+
+    protected boolean write(String id, VersionedData data) {
+        if (data.version == 0) {
+            return cache.withFlags(Flag.FORCE_RETURN_VALUE).putIfAbsent(id, data.data) == null;
+        }
+        return cache.replaceWithVersion(id, data.data, data.version);
+    }
+    
+    protected CompletableFuture<Boolean> writeAsync(String id, VersionedData data) {
+        if (data.data == null) {
+            return cache.removeAsync(id).thenApply(previous -> true);
+        } else if (data.version == 0) {
+            return cache.withFlags(Flag.FORCE_RETURN_VALUE).putIfAbsentAsync(id, data.data).thenApply(Objects::isNull);
+        }
+        return cache.replaceWithVersionAsync(id, data.data, data.version);
+    }
+
+    protected VersionedData load(String id) {
+        Map<String, VersionedData> pending = batch.get();
+        if (pending != null && pending.containsKey(id)) {
+            return pending.get(id);
+        }
+        if (nearCache != null) {
+            ProcessInstanceNearCache.CachedData cached = nearCache.get(id);
+            if (cached != null) {
+                return new VersionedData(cached.data(), cached.version());
+            }
+        }
+        if (nearCache == null) {
+            MetadataValue<byte[]> value = cache.getWithMetadata(id);
+            return value == null ? null : new VersionedData(value.getValue(), value.getVersion());
+        }
+        ProcessInstanceNearCache.Load load = nearCache.startLoad(id);
+        MetadataValue<byte[]> value;
+        try {
+            value = cache.getWithMetadata(id);
+        } catch (RuntimeException e) {
+            nearCache.endLoad(load);
+            throw e;
+        }
+        if (value == null) {
+            nearCache.endLoad(load);
+            return null;
+        }
+        nearCache.put(load, value.getValue(), value.getVersion());
+        return new VersionedData(value.getValue(), value.getVersion());
+    }
+    
+    protected void invalidate(String id) {
+        if (nearCache != null) {
+            nearCache.invalidate(id);
+        }
+    }
+    
+    /**
+     * Unmarshalls given data of the process instance, returns null if the instance was removed in the meantime.
+     */
+    protected ProcessInstance unmarshall(String id, VersionedData data) {
+        return unmarshallLatest(id, data, latest -> {
+            // data pending in a batch might refer to variable values not written yet
+            ProcessInstanceVariableStore.StoredVariables variables = variables(null, Collections.emptySet(), latest.createdVariables);
+            AbstractProcessInstance<?> instance = (AbstractProcessInstance<?>) marshaller.unmarshallProcessInstance(latest.data, process, variables);
+            instance.internalSetVersion(latest.version);
+            remember(instance, variables);
+            return instance;
+        });
+    }
+    
+    /**
+     * Unmarshalls given data of the process instance with given function. Values of variables stored separately
+     * might have been removed by an update of the instance stored after the data was read, the latest data
+     * of the instance is then read and unmarshalled instead.
+     * 
+     * @return unmarshalled instance or null if the instance was removed in the meantime
+     */
+    protected <R> R unmarshallLatest(String id, VersionedData data, Function<VersionedData, R> unmarshaller) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return unmarshaller.apply(data);
+            } catch (RuntimeException e) {
+                Map<String, VersionedData> pending = batch.get();
+                if (!isVariableValueNotFound(e) || attempt == MAX_UNMARSHALL_ATTEMPTS || (pending != null && pending.get(id) == data)) {
+                    throw e;
+                }
+                invalidate(id);
+                MetadataValue<byte[]> latest = cache.getWithMetadata(id);
+                if (latest == null) {
+                    return null;
+                }
+                if (latest.getVersion() == data.version) {
+                    // the instance has not changed so the values are really missing
+                    throw e;
+                }
+                data = new VersionedData(latest.getValue(), latest.getVersion());
+            }
+        }
+    }
+    
+    protected boolean isVariableValueNotFound(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof VariableValueNotFoundException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    protected void remember(AbstractProcessInstance<?> instance, ProcessInstanceVariableStore.StoredVariables variables) {
+        WorkflowProcessInstanceImpl legacyProcessInstance = (WorkflowProcessInstanceImpl) instance.internalGetProcessInstance();
+        legacyProcessInstance.setMetaData(INDEXED_EVENT_TYPES, instance.internalGetEventTypes());
+        if (variables != null) {
+            legacyProcessInstance.setMetaData(STORED_VARIABLES, variables.references());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    protected Set<String> storedVariables(AbstractProcessInstance<?> instance) {
+        Object stored = ((WorkflowProcessInstanceImpl) instance.internalGetProcessInstance()).getMetaData().get(STORED_VARIABLES);
+        return stored == null ? Collections.emptySet() : (Set<String>) stored;
+    }
+    
+    protected ProcessInstanceVariableStore.StoredVariables variables(String id, Set<String> storedVariables) {
+        return variables(id, storedVariables, Collections.emptyMap());
+    }
+    
+    protected ProcessInstanceVariableStore.StoredVariables variables(String id, Set<String> storedVariables, Map<String, byte[]> unwrittenVariables) {
+        return variableStore == null ? null : variableStore.variables(id, storedVariables, unwrittenVariables);
+    }
+    
+    protected void writeVariables(Map<String, byte[]> values) {
+        if (variableStore == null || values.isEmpty()) {
+            return;
+        }
+        try {
+            variableStore.write(values);
+        } catch (RuntimeException e) {
+            // no instance refers to the values yet, those that made it to the cache are not needed
+            try {
+                variableStore.remove(values.keySet());
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+    
+    protected void removeVariables(Set<String> references) {
+        if (variableStore != null) {
+            variableStore.remove(references);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    protected Set<String> indexedEventTypes(AbstractProcessInstance<?> instance) {
+        Object indexed = ((WorkflowProcessInstanceImpl) instance.internalGetProcessInstance()).getMetaData().get(INDEXED_EVENT_TYPES);
+        return indexed == null ? Collections.emptySet() : (Set<String>) indexed;
     }
 
     protected String ignoreNullOrEmpty(String value) {
@@ -94,4 +490,49 @@ public class CacheProcessInstances implements MutableProcessInstances {
         
         return value;
     }
+    
+    private static class VersionedData {
+        
+        private final byte[] data;
+        // version of the entry in the cache, 0 when not stored yet
+        private final long version;
+        // references of variable values when variables are split, see ProcessInstanceVariableStore
+        private final Set<String> storedVariables;
+        // values of changed variables by their references, not written to the cache until the instance is
+        private final Map<String, byte[]> createdVariables;
+        private final Set<String> variables;
+        // event types the instance is indexed with in the cache and those it waits for once this data is written
+        private final Set<String> indexedEventTypes;
+        private final Set<String> eventTypes;
+        
+        VersionedData(byte[] data, long version) {
+            this(data, version, Collections.emptySet(), Collections.emptyMap(), Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+        }
+        
+        VersionedData(byte[] data, long version, Set<String> storedVariables, Map<String, byte[]> createdVariables, Set<String> variables, Set<String> indexedEventTypes, Set<String> eventTypes) {
+            this.data = data;
+            this.version = version;
+            this.storedVariables = storedVariables;
+            this.createdVariables = createdVariables;
+            this.variables = variables;
+            this.indexedEventTypes = indexedEventTypes;
+            this.eventTypes = eventTypes;
+        }
+        
+        // variable values no longer referenced once this data is written
+        Set<String> obsoleteVariables() {
+            Set<String> obsolete = new LinkedHashSet<>(storedVariables);
+            obsolete.removeAll(variables);
+            return obsolete;
+        }
+        
+        // instance written more than once is still expected at its originally loaded version and variables,
+        // values created by earlier writes are kept only while still referenced so they are never written
+        static VersionedData merge(VersionedData previous, VersionedData current) {
+            Map<String, byte[]> created = new LinkedHashMap<>(previous.createdVariables);
+            created.putAll(current.createdVariables);
+            created.keySet().retainAll(current.variables);
+            return new VersionedData(current.data, previous.version, previous.storedVariables, created, current.variables, previous.indexedEventTypes, current.eventTypes);
+        }
+    }
 }
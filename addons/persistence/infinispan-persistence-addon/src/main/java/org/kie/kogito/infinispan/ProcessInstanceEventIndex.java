@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.infinispan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.commons.util.CloseableIterator;
+
+/**
+ * Index of process instances by event types they are waiting for, kept in a dedicated remote cache.
+ * Each pair of event type and instance id is a separate entry, so writers never contend on a shared
+ * entry and each change costs a single write regardless of how many instances wait for the event type.
+ * Each instance additionally has an entry listing its event types so it can be removed from the index
+ * by id alone.
+ *
+ * Looking up instances waiting for an event type streams the keys of the index cache. The index is
+ * allowed to return more instances than are actually waiting for given event, stale entries are removed
+ * once their instance is found to be gone.
+ */
+public class ProcessInstanceEventIndex {
+
+    // not expected in event types nor ids, keys of instance entries start with it
+    private static final String SEPARATOR = "\n";
+    private static final int BATCH_SIZE = 100;
+
+    private final RemoteCache<String, String> cache;
+
+    public ProcessInstanceEventIndex(RemoteCache<String, String> cache) {
+        this.cache = cache;
+    }
+
+    public Set<String> waitingFor(String eventType) {
+        Set<String> ids = new LinkedHashSet<>();
+        String prefix = eventType + SEPARATOR;
+        try (CloseableIterator<Map.Entry<Object, Object>> entries = cache.retrieveEntries(null, BATCH_SIZE)) {
+            while (entries.hasNext()) {
+                Map.Entry<Object, Object> entry = entries.next();
+                String key = (String) entry.getKey();
+                if (eventType.equals(entry.getValue()) && key.startsWith(prefix)) {
+                    ids.add(key.substring(prefix.length()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    public void update(String id, Set<String> previousTypes, Set<String> currentTypes) {
+        updateAsync(id, previousTypes, currentTypes).join();
+    }
+
+    /**
+     * Adds and removes entries of the instance for event types that changed, all writes are sent at once.
+     */
+    public CompletableFuture<Void> updateAsync(String id, Set<String> previousTypes, Set<String> currentTypes) {
+        if (previousTypes.equals(currentTypes)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<?>> writes = new ArrayList<>();
+        for (String type : currentTypes) {
+            if (!previousTypes.contains(type)) {
+                writes.add(cache.putAsync(key(type, id), type));
+            }
+        }
+        for (String type : previousTypes) {
+            if (!currentTypes.contains(type)) {
+                writes.add(cache.removeAsync(key(type, id)));
+            }
+        }
+        if (currentTypes.isEmpty()) {
+            writes.add(cache.removeAsync(instanceKey(id)));
+        } else {
+            writes.add(cache.putAsync(instanceKey(id), String.join(SEPARATOR, currentTypes)));
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[writes.size()]));
+    }
+
+    public void remove(String id) {
+        removeAsync(id).join();
+    }
+
+    /**
+     * Removes all entries of the instance, using the event types listed by its instance entry.
+     */
+    public CompletableFuture<Void> removeAsync(String id) {
+        return cache.getAsync(instanceKey(id)).thenCompose(types -> {
+            if (types == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            List<CompletableFuture<?>> writes = new ArrayList<>();
+            for (String type : split(types)) {
+                writes.add(cache.removeAsync(key(type, id)));
+            }
+            writes.add(cache.removeAsync(instanceKey(id)));
+            return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[writes.size()]));
+        });
+    }
+
+    protected String key(String eventType, String id) {
+        return eventType + SEPARATOR + id;
+    }
+
+    protected String instanceKey(String id) {
+        return SEPARATOR + id;
+    }
+
+    protected Set<String> split(String types) {
+        return types.isEmpty() ? Collections.emptySet() : new LinkedHashSet<>(Arrays.asList(types.split(SEPARATOR)));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.infinispan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryCreated;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryExpired;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryModified;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryRemoved;
+import org.infinispan.client.hotrod.annotation.ClientCacheFailover;
+import org.infinispan.client.hotrod.annotation.ClientListener;
+import org.infinispan.client.hotrod.event.ClientCacheEntryCreatedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryExpiredEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryModifiedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryRemovedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheFailoverEvent;
+
+/**
+ * Local, size bounded cache of marshalled process instances together with their versions
+ * as known by the remote cache. Entries are evicted in least recently used order once 
+ * the total size of cached data exceeds the configured maximum.
+ * 
+ * Coherence with the remote cache is kept by listening to its events - any entry modified or
+ * removed remotely with version different than the cached one is invalidated. Data read from
+ * the remote cache is only cached if no event or invalidation of its entry arrived while it was
+ * being read, see {@link #startLoad(String)}. Stale entries that might still be served are caught
+ * by the versioned writes of the process instances.
+ */
+@ClientListener
+public class ProcessInstanceNearCache {
+
+    private final long maxSize;
+    private long size;
+    // kept in insertion order, entries are moved to the end when accessed
+    private final LinkedHashMap<String, CachedData> entries = new LinkedHashMap<>();
+    private final Map<String, List<Load>> loads = new HashMap<>();
+
+    public ProcessInstanceNearCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public synchronized CachedData get(String id) {
+        CachedData cached = entries.remove(id);
+        if (cached != null) {
+            entries.put(id, cached);
+        }
+        return cached;
+    }
+
+    public synchronized void put(String id, byte[] data, long version) {
+        if (data.length > maxSize) {
+            invalidate(id);
+            return;
+        }
+        CachedData previous = entries.remove(id);
+        if (previous != null) {
+            size -= previous.data.length;
+        }
+        entries.put(id, new CachedData(data, version));
+        size += data.length;
+
+        Iterator<Map.Entry<String, CachedData>> eldest = entries.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().getValue().data.length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Starts load of given entry from the remote cache. Must be invoked before the remote read
+     * and ended by {@link #put(Load, byte[], long)} or {@link #endLoad(Load)}, so that data
+     * changed remotely while being read is not cached.
+     */
+    public synchronized Load startLoad(String id) {
+        Load load = new Load(id);
+        loads.computeIfAbsent(id, k -> new ArrayList<>(1)).add(load);
+        return load;
+    }
+
+    /**
+     * Ends given load and caches the data read unless the entry was changed or invalidated
+     * in the meantime.
+     */
+    public synchronized void put(Load load, byte[] data, long version) {
+        endLoad(load);
+        if (!load.stale) {
+            put(load.id, data, version);
+        }
+    }
+
+    public synchronized void endLoad(Load load) {
+        List<Load> pending = loads.get(load.id);
+        if (pending != null && pending.remove(load) && pending.isEmpty()) {
+            loads.remove(load.id);
+        }
+    }
+
+    public synchronized void invalidate(String id) {
+        CachedData removed = entries.remove(id);
+        if (removed != null) {
+            size -= removed.data.length;
+        }
+        markStale(id);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+        loads.values().forEach(pending -> pending.forEach(load -> load.stale = true));
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    @ClientCacheEntryCreated
+    public void onCreated(ClientCacheEntryCreatedEvent<String> event) {
+        onVersionChanged(event.getKey(), event.getVersion());
+    }
+
+    @ClientCacheEntryModified
+    public void onModified(ClientCacheEntryModifiedEvent<String> event) {
+        onVersionChanged(event.getKey(), event.getVersion());
+    }
+
+    @ClientCacheEntryRemoved
+    public void onRemoved(ClientCacheEntryRemovedEvent<String> event) {
+        invalidate(event.getKey());
+    }
+
+    @ClientCacheEntryExpired
+    public void onExpired(ClientCacheEntryExpiredEvent<String> event) {
+        invalidate(event.getKey());
+    }
+
+    @ClientCacheFailover
+    public void onFailover(ClientCacheFailoverEvent event) {
+        // events might have been missed so nothing cached can be trusted any more
+        clear();
+    }
+
+    protected synchronized void onVersionChanged(String id, long version) {
+        // does not count as access of the entry
+        CachedData cached = entries.get(id);
+        if (cached != null && cached.version != version) {
+            invalidate(id);
+        }
+        // the version read by a pending load is not known yet, so it must not be cached
+        markStale(id);
+    }
+
+    private void markStale(String id) {
+        List<Load> pending = loads.get(id);
+        if (pending != null) {
+            pending.forEach(load -> load.stale = true);
+        }
+    }
+
+    /**
+     * Load of an entry from the remote cache, in progress.
+     */
+    public static class Load {
+
+        private final String id;
+        private boolean stale;
+
+        Load(String id) {
+            this.id = id;
+        }
+    }
+
+    public static class CachedData {
+
+        private final byte[] data;
+        private final long version;
+
+        CachedData(byte[] data, long version) {
+            this.data = data;
+            this.version = version;
+        }
+
+        public byte[] data() {
+            return data;
+        }
+
+        public long version() {
+            return version;
+        }
+    }
+}
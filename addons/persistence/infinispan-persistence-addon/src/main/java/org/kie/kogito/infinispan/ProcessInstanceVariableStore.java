@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.infinispan;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.kie.kogito.id.IdGenerators;
+import org.kie.kogito.process.impl.marshalling.ExternalVariables;
+
+/**
+ * Keeps values of process variables in a dedicated remote cache, one entry per variable value,
+ * so an update of the process instance writes only variables that have changed.
+ *
+ * Every written value gets a new unique key (process instance id, variable name, digest of the value
+ * and unique suffix) so values are never overwritten in place. Process instance entry refers to the
+ * keys and thus is the only commit point. Changed values are kept in memory until the process instance
+ * is about to be written, values that are not referenced anymore are removed after the process instance
+ * has been written and values written for a failed update are removed right away. Reading a value that
+ * has been removed fails with {@link VariableValueNotFoundException}, the process instance has to be read
+ * again then.
+ */
+public class ProcessInstanceVariableStore {
+
+    private static final String SEPARATOR = "/";
+
+    private final RemoteCache<String, byte[]> cache;
+
+    public ProcessInstanceVariableStore(RemoteCache<String, byte[]> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns variables of given process instance.
+     *
+     * @param processInstanceId id of the process instance, might be null when variables are only read
+     * @param storedReferences references of values the process instance was loaded with
+     */
+    public StoredVariables variables(String processInstanceId, Set<String> storedReferences) {
+        return variables(processInstanceId, storedReferences, Collections.emptyMap());
+    }
+
+    /**
+     * Returns variables of given process instance that might refer to values not written to the cache yet.
+     *
+     * @param processInstanceId id of the process instance, might be null when variables are only read
+     * @param storedReferences references of values the process instance was loaded with
+     * @param unwrittenValues values by their references that are read from memory instead of the cache
+     */
+    public StoredVariables variables(String processInstanceId, Set<String> storedReferences, Map<String, byte[]> unwrittenValues) {
+        return new StoredVariables(processInstanceId, storedReferences, unwrittenValues);
+    }
+
+    public void write(Map<String, byte[]> values) {
+        writeAsync(values).join();
+    }
+
+    public CompletableFuture<Void> writeAsync(Map<String, byte[]> values) {
+        if (values.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return cache.putAllAsync(values);
+    }
+
+    public void remove(Collection<String> references) {
+        if (references.isEmpty()) {
+            return;
+        }
+        CompletableFuture<?>[] removals = references.stream()
+                .map(cache::removeAsync)
+                .toArray(CompletableFuture<?>[]::new);
+        CompletableFuture.allOf(removals).join();
+    }
+
+    protected static String digest(byte[] value) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public class StoredVariables implements ExternalVariables {
+
+        private final String processInstanceId;
+        // references of stored values by their content (everything but the unique suffix)
+        private final Map<String, String> stored = new HashMap<>();
+        private final Map<String, byte[]> unwritten;
+        private final Map<String, byte[]> created = new LinkedHashMap<>();
+        private final Set<String> references = new LinkedHashSet<>();
+
+        StoredVariables(String processInstanceId, Set<String> storedReferences, Map<String, byte[]> unwrittenValues) {
+            this.processInstanceId = processInstanceId;
+            this.unwritten = unwrittenValues;
+            for (String reference : storedReferences) {
+                stored.put(reference.substring(0, reference.lastIndexOf(SEPARATOR)), reference);
+            }
+        }
+
+        @Override
+        public String write(String name, byte[] value) {
+            String content = processInstanceId + SEPARATOR + name + SEPARATOR + digest(value);
+            String reference = stored.get(content);
+            if (reference == null) {
+                reference = content + SEPARATOR + IdGenerators.generate();
+                created.put(reference, value);
+            }
+            references.add(reference);
+            return reference;
+        }
+
+        @Override
+        public Map<String, byte[]> read(Collection<String> references) {
+            this.references.addAll(references);
+            Map<String, byte[]> values = new HashMap<>();
+            Set<String> missing = new LinkedHashSet<>();
+            for (String reference : references) {
+                byte[] value = unwritten.get(reference);
+                if (value != null) {
+                    values.put(reference, value);
+                } else {
+                    missing.add(reference);
+                }
+            }
+            if (!missing.isEmpty()) {
+                Map<String, byte[]> read = cache.getAll(missing);
+                for (String reference : missing) {
+                    byte[] value = read.get(reference);
+                    if (value == null) {
+                        // removed by an update of the process instance stored after the instance was read
+                        throw new VariableValueNotFoundException(reference);
+                    }
+                    values.put(reference, value);
+                }
+            }
+            return values;
+        }
+
+        /**
+         * Returns references of all values read or written through these variables.
+         */
+        public Set<String> references() {
+            return Collections.unmodifiableSet(references);
+        }
+
+        /**
+         * Returns values written by these variables by their references, they are not in the cache
+         * until written through {@link ProcessInstanceVariableStore#write(Map)}.
+         */
+        public Map<String, byte[]> created() {
+            return Collections.unmodifiableMap(created);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.infinispan;
+package org.kie.kogito.infinispan;
+
+/**
+ * Thrown when a value of process variable referenced by the process instance is not in the cache,
+ * as it was removed by an update of the process instance that has been stored in the meantime.
+ */
+public class VariableValueNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String reference;
+
+    public VariableValueNotFoundException(String reference) {
+        super("Value of process variable " + reference + " not found");
+        this.reference = reference;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+}
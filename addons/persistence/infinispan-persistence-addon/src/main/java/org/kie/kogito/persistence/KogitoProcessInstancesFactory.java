@@ -23,6 +23,7 @@ import org.infinispan.protostream.MessageMarshaller;
 import org.kie.kogito.infinispan.CacheProcessInstances;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstancesFactory;
+import org.kie.kogito.process.impl.marshalling.ProcessInstanceMarshallingFormat;
 
 /**
  * This class must always have exact FQCN as <code>org.kie.kogito.persistence.KogitoProcessInstancesFactory</code>
@@ -38,7 +39,9 @@ public abstract class KogitoProcessInstancesFactory implements ProcessInstancesF
     
     public CacheProcessInstances createProcessInstances(Process<?> process) {
         List<?> marshallers = marshallers();
-        return new CacheProcessInstances(process, cacheManager, template(), proto(), marshallers.toArray(new MessageMarshaller<?>[marshallers.size()]));
+        return new CacheProcessInstances(process, cacheManager, template(), nearCacheMaxSize(), 
+                                         compactFormat() ? ProcessInstanceMarshallingFormat.COMPACT : ProcessInstanceMarshallingFormat.DEFAULT, 
+                                         splitVariables(), eventIndex(), proto(), marshallers.toArray(new MessageMarshaller<?>[marshallers.size()]));
     }
     
     public String proto() {
@@ -52,4 +55,33 @@ public abstract class KogitoProcessInstancesFactory implements ProcessInstancesF
     public String template() {
         return null;
     }
+    
+    /**
+     * Returns maximum size (in bytes) of process instances kept in local near cache, 0 disables it
+     */
+    public long nearCacheMaxSize() {
+        return 0;
+    }
+    
+    /**
+     * Returns true if process instances should be stored in compact format that does not rely on java serialization
+     */
+    public boolean compactFormat() {
+        return false;
+    }
+    
+    /**
+     * Returns true if process variables should be stored separately from process instances so only changed variables are written
+     */
+    public boolean splitVariables() {
+        return false;
+    }
+    
+    /**
+     * Returns true if process instances should be indexed by event types they are waiting for, so signals are
+     * delivered without loading all instances of the process
+     */
+    public boolean eventIndex() {
+        return false;
+    }
 }
@@ -23,16 +23,28 @@ import static org.kie.api.runtime.process.ProcessInstance.STATE_ERROR;
 
 import static org.mockito.Mockito.*;
 
+import java.util.AbstractMap;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import org.drools.core.io.impl.ClassPathResource;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.MetadataValue;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.RemoteCacheManagerAdmin;
+import org.infinispan.client.hotrod.impl.MetadataValueImpl;
+import org.infinispan.commons.util.CloseableIterator;
 import org.jbpm.process.instance.impl.Action;
 import org.jbpm.workflow.core.DroolsAction;
 import org.jbpm.workflow.core.WorkflowProcess;
@@ -42,12 +54,22 @@ import org.junit.jupiter.api.Test;
 import org.kie.api.definition.process.Node;
 import org.kie.api.runtime.process.ProcessContext;
 import org.kie.kogito.persistence.KogitoProcessInstancesFactory;
+import org.kie.kogito.process.MutableProcessInstances;
 import org.kie.kogito.process.ProcessError;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.ProcessInstanceNotFoundException;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
+import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.WorkItem;
 import org.kie.kogito.process.bpmn2.BpmnProcess;
 import org.kie.kogito.process.bpmn2.BpmnVariables;
+import org.kie.kogito.process.impl.DefaultProcessEventListenerConfig;
+import org.kie.kogito.process.impl.DefaultWorkItemHandlerConfig;
+import org.kie.kogito.process.impl.StaticProcessConfig;
+import org.kie.kogito.services.uow.CollectingUnitOfWorkFactory;
+import org.kie.kogito.services.uow.DefaultUnitOfWorkManager;
+import org.kie.kogito.uow.UnitOfWork;
+import org.kie.kogito.uow.UnitOfWorkManager;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -55,18 +77,36 @@ import org.mockito.stubbing.Answer;
 public class MockCacheProcessInstancesTest {
     
     private final ConcurrentHashMap<Object, Object> mockCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Long> mockVersions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final ConcurrentHashMap<Object, Object> mockVariablesCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Object> mockEventsCache = new ConcurrentHashMap<>();
     private RemoteCacheManager cacheManager;
+    // invoked once by the next read of variable values
+    private Runnable beforeVariablesRead;
     
     @SuppressWarnings("unchecked")
     @BeforeEach
     public void setup() {
         mockCache.clear();
+        mockVersions.clear();
+        mockVariablesCache.clear();
+        mockEventsCache.clear();
+        beforeVariablesRead = null;
         cacheManager = mock(RemoteCacheManager.class);
         RemoteCacheManagerAdmin admin = mock(RemoteCacheManagerAdmin.class);
         RemoteCache<Object, Object> cache = mock(RemoteCache.class);
         
         when(cacheManager.administration()).thenReturn(admin);
         when(admin.getOrCreateCache(any(), (String)any())).thenReturn(cache);
+        RemoteCache<Object, Object> eventsCache = mock(RemoteCache.class);
+        when(admin.getOrCreateCache(endsWith("_events"), (String)any())).thenReturn(eventsCache);
+        when(eventsCache.getAsync(any())).then(invocation -> CompletableFuture.completedFuture(mockEventsCache.get(invocation.getArgument(0))));
+        when(eventsCache.putAsync(any(), any())).then(invocation -> CompletableFuture.completedFuture(mockEventsCache.put(invocation.getArgument(0), invocation.getArgument(1))));
+        when(eventsCache.removeAsync(any())).then(invocation -> CompletableFuture.completedFuture(mockEventsCache.remove(invocation.getArgument(0))));
+        RemoteCache<Object, Object> variablesCache = mock(RemoteCache.class);
+        when(admin.getOrCreateCache(endsWith("_variables"), (String)any())).thenReturn(variablesCache);
+        when(cache.withFlags(Flag.FORCE_RETURN_VALUE)).thenReturn(cache);
         
         when(cache.put(any(), any())).then(new Answer<Object>() {
 
@@ -74,6 +114,7 @@ public class MockCacheProcessInstancesTest {
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object key = invocation.getArgument(0, Object.class);
                 Object value = invocation.getArgument(1, Object.class);
+                mockVersions.put(key, versionSequence.incrementAndGet());
                 return mockCache.put(key, value);
             }
         });
@@ -87,6 +128,155 @@ public class MockCacheProcessInstancesTest {
                 return mockCache.get(key);
             }
         });
+        
+        when(cache.getWithMetadata(any())).then(new Answer<MetadataValue<Object>>() {
+
+            @Override
+            public MetadataValue<Object> answer(InvocationOnMock invocation) throws Throwable {
+                Object key = invocation.getArgument(0, Object.class);               
+                
+                return metadataValue(key);
+            }
+        });
+        
+        when(cache.putIfAbsent(any(), any())).then(new Answer<Object>() {
+
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return putIfAbsent(invocation.getArgument(0, Object.class), invocation.getArgument(1, Object.class));
+            }
+        });
+        
+        when(cache.putIfAbsentAsync(any(), any())).then(new Answer<CompletableFuture<Object>>() {
+
+            @Override
+            public CompletableFuture<Object> answer(InvocationOnMock invocation) throws Throwable {
+                return CompletableFuture.completedFuture(putIfAbsent(invocation.getArgument(0, Object.class), invocation.getArgument(1, Object.class)));
+            }
+        });
+        
+        when(cache.replaceWithVersion(any(), any(), anyLong())).then(new Answer<Boolean>() {
+
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return replaceWithVersion(invocation.getArgument(0, Object.class), invocation.getArgument(1, Object.class), invocation.getArgument(2, Long.class));
+            }
+        });
+        
+        when(cache.replaceWithVersionAsync(any(), any(), anyLong())).then(new Answer<CompletableFuture<Boolean>>() {
+
+            @Override
+            public CompletableFuture<Boolean> answer(InvocationOnMock invocation) throws Throwable {
+                return CompletableFuture.completedFuture(replaceWithVersion(invocation.getArgument(0, Object.class), invocation.getArgument(1, Object.class), invocation.getArgument(2, Long.class)));
+            }
+        });
+        
+        when(cache.remove(any())).then(new Answer<Object>() {
+
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Object key = invocation.getArgument(0, Object.class);
+                mockVersions.remove(key);
+                return mockCache.remove(key);
+            }
+        });
+        
+        when(cache.removeAsync(any())).then(new Answer<CompletableFuture<Object>>() {
+
+            @Override
+            public CompletableFuture<Object> answer(InvocationOnMock invocation) throws Throwable {
+                Object key = invocation.getArgument(0, Object.class);
+                mockVersions.remove(key);
+                return CompletableFuture.completedFuture(mockCache.remove(key));
+            }
+        });
+        
+        when(variablesCache.getAll(any())).then(new Answer<Map<Object, Object>>() {
+
+            @Override
+            public Map<Object, Object> answer(InvocationOnMock invocation) throws Throwable {
+                Runnable before = beforeVariablesRead;
+                beforeVariablesRead = null;
+                if (before != null) {
+                    before.run();
+                }
+                Map<Object, Object> values = new HashMap<>();
+                for (Object key : invocation.getArgument(0, Set.class)) {
+                    if (mockVariablesCache.containsKey(key)) {
+                        values.put(key, mockVariablesCache.get(key));
+                    }
+                }
+                return values;
+            }
+        });
+        
+        when(variablesCache.putAllAsync(any())).then(new Answer<CompletableFuture<Void>>() {
+
+            @Override
+            public CompletableFuture<Void> answer(InvocationOnMock invocation) throws Throwable {
+                mockVariablesCache.putAll(invocation.getArgument(0, Map.class));
+                return CompletableFuture.completedFuture(null);
+            }
+        });
+        
+        when(variablesCache.removeAsync(any())).then(new Answer<CompletableFuture<Object>>() {
+
+            @Override
+            public CompletableFuture<Object> answer(InvocationOnMock invocation) throws Throwable {
+                return CompletableFuture.completedFuture(mockVariablesCache.remove(invocation.getArgument(0, Object.class)));
+            }
+        });
+        
+        when(cache.retrieveEntriesWithMetadata(any(), anyInt())).then(new Answer<CloseableIterator<Map.Entry<Object, MetadataValue<Object>>>>() {
+
+            @Override
+            public CloseableIterator<Map.Entry<Object, MetadataValue<Object>>> answer(InvocationOnMock invocation) throws Throwable {
+                Iterator<Object> keys = mockCache.keySet().iterator();
+                return new CloseableIterator<Map.Entry<Object, MetadataValue<Object>>>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Object, MetadataValue<Object>> next() {
+                        Object key = keys.next();
+                        return new AbstractMap.SimpleEntry<>(key, metadataValue(key));
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        });
+    }
+    
+    private MetadataValue<Object> metadataValue(Object key) {
+        Object value = mockCache.get(key);
+        if (value == null) {
+            return null;
+        }
+        return new MetadataValueImpl<>(0, -1, 0, -1, mockVersions.get(key), value);
+    }
+    
+    private synchronized Object putIfAbsent(Object key, Object value) {
+        Object previous = mockCache.putIfAbsent(key, value);
+        if (previous == null) {
+            mockVersions.put(key, versionSequence.incrementAndGet());
+        }
+        return previous;
+    }
+    
+    private synchronized boolean replaceWithVersion(Object key, Object value, long version) {
+        Long current = mockVersions.get(key);
+        if (current == null || current != version) {
+            return false;
+        }
+        mockCache.put(key, value);
+        mockVersions.put(key, versionSequence.incrementAndGet());
+        return true;
     }
 
     
@@ -110,6 +300,245 @@ public class MockCacheProcessInstancesTest {
         assertThat(processInstance.status()).isEqualTo(STATE_COMPLETED);
     }
     
+    @Test
+    public void testPagedValues() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager));
+        process.configure();
+        
+        for (int i = 0; i < 5; i++) {
+            ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("test", "test")));
+            processInstance.start();
+            assertThat(processInstance.status()).isEqualTo(STATE_ACTIVE);
+        }
+        
+        Collection<? extends ProcessInstance<BpmnVariables>> page = process.instances().values(0, 2);
+        assertThat(page).hasSize(2);
+        
+        page = process.instances().values(4, 2);
+        assertThat(page).hasSize(1);
+        
+        page = process.instances().values(5, 2);
+        assertThat(page).isEmpty();
+        
+        assertThatThrownBy(() -> process.instances().values(-1, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> process.instances().values(0, -1)).isInstanceOf(IllegalArgumentException.class);
+        
+        assertThat(process.instances().stream().count()).isEqualTo(5);
+    }
+    
+    @Test
+    public void testReadOnlyFindById() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager));
+        process.configure();
+                                     
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+
+        processInstance.start();
+        assertThat(processInstance.status()).isEqualTo(STATE_ACTIVE);
+        
+        Optional<? extends ProcessInstance<BpmnVariables>> loaded = process.instances().findById(processInstance.id(), ProcessInstanceReadMode.READ_ONLY);
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().id()).isEqualTo(processInstance.id());
+        assertThat(loaded.get().status()).isEqualTo(STATE_ACTIVE);
+        assertThat(loaded.get().variables().toMap()).containsEntry("s", "test");
+        
+        assertThatThrownBy(() -> loaded.get().abort()).isInstanceOf(UnsupportedOperationException.class);
+    }
+    
+    @Test
+    public void testBatchedUpdatesInUnitOfWork() {
+        
+        UnitOfWorkManager unitOfWorkManager = new DefaultUnitOfWorkManager(new CollectingUnitOfWorkFactory());
+        BpmnProcess definition = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        BpmnProcess process = new BpmnProcess(definition.legacyProcess(), new StaticProcessConfig(new DefaultWorkItemHandlerConfig(), 
+                                                                                                  new DefaultProcessEventListenerConfig(), 
+                                                                                                  unitOfWorkManager));
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager));
+        process.configure();
+        
+        UnitOfWork unitOfWork = unitOfWorkManager.newUnitOfWork();
+        unitOfWork.start();
+        for (int i = 0; i < 3; i++) {
+            ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+            processInstance.start();
+        }
+        assertThat(mockCache).isEmpty();
+        unitOfWork.end();
+        
+        assertThat(mockCache).hasSize(3);
+        assertThat(process.instances().values(0, 10)).hasSize(3);
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testAbortedBatchDiscardsWrites() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager));
+        process.configure();
+        MutableProcessInstances<BpmnVariables> instances = (MutableProcessInstances<BpmnVariables>) process.instances();
+        
+        instances.startBatch();
+        process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test"))).start();
+        instances.abortBatch();
+        assertThat(mockCache).isEmpty();
+        
+        // batch is ended, following writes go straight to the cache
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        processInstance.start();
+        assertThat(mockCache).containsOnlyKeys(processInstance.id());
+    }
+    
+    @Test
+    public void testConcurrentUpdateConflict() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager));
+        process.configure();
+                                     
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        processInstance.start();
+        assertThat(processInstance.status()).isEqualTo(STATE_ACTIVE);
+        
+        ProcessInstance<BpmnVariables> first = process.instances().findById(processInstance.id()).get();
+        ProcessInstance<BpmnVariables> second = process.instances().findById(processInstance.id()).get();
+        
+        first.updateVariables(BpmnVariables.create(Collections.singletonMap("s", "first")));
+        assertThatThrownBy(() -> second.updateVariables(BpmnVariables.create(Collections.singletonMap("s", "second"))))
+            .isInstanceOf(ProcessInstanceOptimisticLockingException.class);
+        
+        ProcessInstance<BpmnVariables> loaded = process.instances().findById(processInstance.id()).get();
+        assertThat(loaded.variables().toMap()).containsEntry("s", "first");
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testBatchedConflictWithOtherInstancesStored() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager));
+        process.configure();
+        MutableProcessInstances<BpmnVariables> instances = (MutableProcessInstances<BpmnVariables>) process.instances();
+        
+        ProcessInstance<BpmnVariables> stored = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        stored.start();
+        ProcessInstance<BpmnVariables> conflicting = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        conflicting.start();
+        ProcessInstance<BpmnVariables> stale = instances.findById(conflicting.id()).get();
+        instances.findById(conflicting.id()).get().updateVariables(BpmnVariables.create(Collections.singletonMap("s", "concurrent")));
+        
+        instances.startBatch();
+        instances.findById(stored.id()).get().updateVariables(BpmnVariables.create(Collections.singletonMap("s", "batched")));
+        stale.updateVariables(BpmnVariables.create(Collections.singletonMap("s", "stale")));
+        assertThatThrownBy(instances::flushBatch)
+            .isInstanceOfSatisfying(ProcessInstanceOptimisticLockingException.class, e -> {
+                assertThat(e.getProcessInstanceId()).isEqualTo(conflicting.id());
+                assertThat(e.hasCommittedChanges()).isTrue();
+            });
+        
+        assertThat(instances.findById(stored.id()).get().variables().toMap()).containsEntry("s", "batched");
+        assertThat(instances.findById(conflicting.id()).get().variables().toMap()).containsEntry("s", "concurrent");
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEventIndexFollowsStoredInstances() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager, false, false, true));
+        process.configure();
+        MutableProcessInstances<BpmnVariables> instances = (MutableProcessInstances<BpmnVariables>) process.instances();
+        
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        processInstance.start();
+        Map<Object, Object> indexed = new HashMap<>(mockEventsCache);
+        
+        ProcessInstance<BpmnVariables> stale = instances.findById(processInstance.id()).get();
+        instances.findById(processInstance.id()).get().updateVariables(BpmnVariables.create(Collections.singletonMap("s", "concurrent")));
+        instances.startBatch();
+        stale.updateVariables(BpmnVariables.create(Collections.singletonMap("s", "stale")));
+        assertThatThrownBy(instances::flushBatch).isInstanceOf(ProcessInstanceOptimisticLockingException.class);
+        // conflicting write leaves index untouched
+        assertThat(mockEventsCache).isEqualTo(indexed);
+        
+        instances.remove(processInstance.id());
+        assertThat(mockEventsCache).isEmpty();
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEventIndexDisabledByDefault() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager));
+        process.configure();
+        
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        processInstance.start();
+        assertThat(mockEventsCache).isEmpty();
+        verify(cacheManager.administration(), never()).getOrCreateCache(endsWith("_events"), (String) any());
+        
+        ((MutableProcessInstances<BpmnVariables>) process.instances()).remove(processInstance.id());
+        assertThat(mockEventsCache).isEmpty();
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testBatchedSplitVariablesWrittenOnFlush() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager, false, true));
+        process.configure();
+        MutableProcessInstances<BpmnVariables> instances = (MutableProcessInstances<BpmnVariables>) process.instances();
+        
+        instances.startBatch();
+        process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test"))).start();
+        instances.abortBatch();
+        assertThat(mockVariablesCache).isEmpty();
+        
+        instances.startBatch();
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        processInstance.start();
+        // pending values are read from the batch
+        ProcessInstance<BpmnVariables> pending = instances.findById(processInstance.id()).get();
+        assertThat(pending.variables().toMap()).containsEntry("s", "test");
+        pending.updateVariables(BpmnVariables.create(Collections.singletonMap("s", "changed")));
+        assertThat(mockVariablesCache).isEmpty();
+        instances.flushBatch();
+        
+        // value replaced within the batch is never written
+        assertThat(mockVariablesCache).hasSize(1);
+        assertThat(instances.findById(processInstance.id()).get().variables().toMap()).containsEntry("s", "changed");
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testReadInterleavedWithSplitVariablesUpdate() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager, false, true));
+        process.configure();
+        MutableProcessInstances<BpmnVariables> instances = (MutableProcessInstances<BpmnVariables>) process.instances();
+        
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        processInstance.start();
+        
+        // instance is updated after the reader got its data but before it read the variable values
+        beforeVariablesRead = () -> instances.findById(processInstance.id()).get().updateVariables(BpmnVariables.create(Collections.singletonMap("s", "concurrent")));
+        assertThat(instances.findById(processInstance.id()).get().variables().toMap()).containsEntry("s", "concurrent");
+        
+        beforeVariablesRead = () -> instances.findById(processInstance.id()).get().updateVariables(BpmnVariables.create(Collections.singletonMap("s", "read only")));
+        assertThat(instances.findById(processInstance.id(), ProcessInstanceReadMode.READ_ONLY).get().variables().toMap()).containsEntry("s", "read only");
+        
+        beforeVariablesRead = () -> instances.findById(processInstance.id()).get().updateVariables(BpmnVariables.create(Collections.singletonMap("s", "listed")));
+        assertThat(instances.values()).hasSize(1);
+        assertThat(instances.values().iterator().next().variables().toMap()).containsEntry("s", "listed");
+    }
+    
     @Test
     public void testProcessInstanceNotFound() {
         
@@ -190,10 +619,112 @@ public class MockCacheProcessInstancesTest {
         assertThat(processInstance.status()).isEqualTo(STATE_COMPLETED);
     }
     
+    @Test
+    public void testBasicFlowWithCompactFormat() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager, true));
+        process.configure();
+                                     
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+
+        processInstance.start();
+        assertThat(processInstance.status()).isEqualTo(STATE_ACTIVE);
+        
+        byte[] data = (byte[]) mockCache.get(processInstance.id());
+        // compact format is not framed by java object stream
+        assertThat(data[0]).isEqualTo((byte) 0x01);
+        
+        Optional<? extends ProcessInstance<BpmnVariables>> loaded = process.instances().findById(processInstance.id());
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().variables().toMap()).containsEntry("s", "test");
+        
+        Optional<? extends ProcessInstance<BpmnVariables>> readOnly = process.instances().findById(processInstance.id(), ProcessInstanceReadMode.READ_ONLY);
+        assertThat(readOnly).isPresent();
+        assertThat(readOnly.get().variables().toMap()).containsEntry("s", "test");
+
+        WorkItem workItem = loaded.get().workItems().get(0);
+        assertThat(workItem).isNotNull();
+        assertThat(workItem.getParameters().get("ActorId")).isEqualTo("john");
+        loaded.get().completeWorkItem(workItem.getId(), null);
+        assertThat(loaded.get().status()).isEqualTo(STATE_COMPLETED);
+    }
+    
+    @Test
+    public void testBasicFlowWithSplitVariables() {
+        
+        BpmnProcess process = (BpmnProcess) BpmnProcess.from(new ClassPathResource("BPMN2-UserTask.bpmn2")).get(0);
+        process.setProcessInstancesFactory(new CacheProcessInstancesFactory(cacheManager, false, true));
+        process.configure();
+                                     
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", "test")));
+
+        processInstance.start();
+        assertThat(processInstance.status()).isEqualTo(STATE_ACTIVE);
+        assertThat(mockVariablesCache).hasSize(1);
+        Object storedValue = mockVariablesCache.keySet().iterator().next();
+        
+        // unchanged variable is not written again
+        ProcessInstance<BpmnVariables> loaded = process.instances().findById(processInstance.id()).get();
+        assertThat(loaded.variables().toMap()).containsEntry("s", "test");
+        loaded.updateVariables(BpmnVariables.create(Collections.singletonMap("s", "test")));
+        assertThat(mockVariablesCache).containsOnlyKeys(storedValue);
+        
+        // changed variable replaces the previous value
+        loaded = process.instances().findById(processInstance.id()).get();
+        loaded.updateVariables(BpmnVariables.create(Collections.singletonMap("s", "changed")));
+        assertThat(mockVariablesCache).hasSize(1).doesNotContainKey(storedValue);
+        
+        Optional<? extends ProcessInstance<BpmnVariables>> readOnly = process.instances().findById(processInstance.id(), ProcessInstanceReadMode.READ_ONLY);
+        assertThat(readOnly).isPresent();
+        assertThat(readOnly.get().variables().toMap()).containsEntry("s", "changed");
+        
+        loaded = process.instances().findById(processInstance.id()).get();
+        WorkItem workItem = loaded.workItems().get(0);
+        assertThat(workItem).isNotNull();
+        loaded.completeWorkItem(workItem.getId(), null);
+        assertThat(loaded.status()).isEqualTo(STATE_COMPLETED);
+        assertThat(mockVariablesCache).isEmpty();
+    }
+    
     private class CacheProcessInstancesFactory extends KogitoProcessInstancesFactory {
         
+        private final boolean compactFormat;
+        private final boolean splitVariables;
+        private final boolean eventIndex;
+        
         CacheProcessInstancesFactory(RemoteCacheManager cacheManager) {
+            this(cacheManager, false);
+        }
+        
+        CacheProcessInstancesFactory(RemoteCacheManager cacheManager, boolean compactFormat) {
+            this(cacheManager, compactFormat, false);
+        }
+        
+        CacheProcessInstancesFactory(RemoteCacheManager cacheManager, boolean compactFormat, boolean splitVariables) {
+            this(cacheManager, compactFormat, splitVariables, false);
+        }
+        
+        CacheProcessInstancesFactory(RemoteCacheManager cacheManager, boolean compactFormat, boolean splitVariables, boolean eventIndex) {
             super(cacheManager);
+            this.compactFormat = compactFormat;
+            this.splitVariables = splitVariables;
+            this.eventIndex = eventIndex;
+        }
+        
+        @Override
+        public boolean compactFormat() {
+            return compactFormat;
+        }
+        
+        @Override
+        public boolean splitVariables() {
+            return splitVariables;
+        }
+        
+        @Override
+        public boolean eventIndex() {
+            return eventIndex;
         }
 
         @Override
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.infinispan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.commons.util.CloseableIterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProcessInstanceEventIndexTest {
+
+    private final ConcurrentHashMap<String, String> mockCache = new ConcurrentHashMap<>();
+    private ProcessInstanceEventIndex index;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void setup() {
+        RemoteCache<String, String> cache = mock(RemoteCache.class);
+
+        when(cache.getAsync(any())).then(invocation -> CompletableFuture.completedFuture(mockCache.get(invocation.getArgument(0, String.class))));
+        when(cache.putAsync(any(), any())).then(invocation -> CompletableFuture.completedFuture(mockCache.put(invocation.getArgument(0, String.class), invocation.getArgument(1, String.class))));
+        when(cache.removeAsync(any())).then(invocation -> CompletableFuture.completedFuture(mockCache.remove(invocation.getArgument(0, String.class))));
+        when(cache.retrieveEntries(any(), anyInt())).then(invocation -> entries());
+
+        index = new ProcessInstanceEventIndex(cache);
+    }
+
+    @Test
+    public void testUpdateAddsAndRemovesEventTypes() {
+        index.update("1", Collections.emptySet(), new LinkedHashSet<>(Arrays.asList("a", "b")));
+        index.update("2", Collections.emptySet(), Collections.singleton("a"));
+
+        assertThat(index.waitingFor("a")).containsExactlyInAnyOrder("1", "2");
+        assertThat(index.waitingFor("b")).containsExactly("1");
+
+        index.update("1", new HashSet<>(Arrays.asList("a", "b")), Collections.singleton("a"));
+
+        assertThat(index.waitingFor("a")).containsExactlyInAnyOrder("1", "2");
+        assertThat(index.waitingFor("b")).isEmpty();
+    }
+
+    @Test
+    public void testUpdateWritesOnlyEntriesOfGivenInstance() {
+        index.update("1", Collections.emptySet(), Collections.singleton("a"));
+        Map<String, String> before = new HashMap<>(mockCache);
+
+        index.update("2", Collections.emptySet(), Collections.singleton("a"));
+
+        // entries of other instances waiting for the same event type are left as they are
+        assertThat(mockCache).containsAllEntriesOf(before).hasSize(before.size() + 2);
+    }
+
+    @Test
+    public void testUpdateToNoEventTypesRemovesInstance() {
+        index.update("1", Collections.emptySet(), Collections.singleton("a"));
+        index.update("1", Collections.singleton("a"), Collections.emptySet());
+
+        assertThat(index.waitingFor("a")).isEmpty();
+        assertThat(mockCache).isEmpty();
+    }
+
+    @Test
+    public void testRemove() {
+        index.update("1", Collections.emptySet(), new LinkedHashSet<>(Arrays.asList("a", "b")));
+        index.update("2", Collections.emptySet(), Collections.singleton("a"));
+        index.remove("1");
+        // removing missing instance is a no-op
+        index.remove("1");
+
+        assertThat(index.waitingFor("a")).containsExactly("2");
+        assertThat(index.waitingFor("b")).isEmpty();
+        assertThat(mockCache).hasSize(2);
+    }
+
+    @Test
+    public void testEventTypeSharingPrefixWithOther() {
+        index.update("1", Collections.emptySet(), Collections.singleton("a"));
+        index.update("2", Collections.emptySet(), Collections.singleton("ab"));
+
+        assertThat(index.waitingFor("a")).containsExactly("1");
+        assertThat(index.waitingFor("ab")).containsExactly("2");
+    }
+
+    private CloseableIterator<Map.Entry<Object, Object>> entries() {
+        Iterator<Map.Entry<String, String>> entries = new HashMap<>(mockCache).entrySet().iterator();
+        return new CloseableIterator<Map.Entry<Object, Object>>() {
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            @Override
+            public Map.Entry<Object, Object> next() {
+                return (Map.Entry) entries.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.infinispan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class ProcessInstanceNearCacheTest {
+
+    @Test
+    public void testEvictionBySize() {
+        ProcessInstanceNearCache nearCache = new ProcessInstanceNearCache(10);
+        
+        nearCache.put("1", new byte[4], 1);
+        nearCache.put("2", new byte[4], 1);
+        // access first so second becomes the least recently used
+        assertThat(nearCache.get("1")).isNotNull();
+        nearCache.put("3", new byte[4], 1);
+        
+        assertThat(nearCache.get("1")).isNotNull();
+        assertThat(nearCache.get("2")).isNull();
+        assertThat(nearCache.get("3")).isNotNull();
+        assertThat(nearCache.size()).isEqualTo(8);
+        
+        // too big to be cached at all
+        nearCache.put("4", new byte[11], 1);
+        assertThat(nearCache.get("4")).isNull();
+    }
+    
+    @Test
+    public void testInvalidationOnVersionChange() {
+        ProcessInstanceNearCache nearCache = new ProcessInstanceNearCache(100);
+        
+        nearCache.put("1", new byte[4], 1);
+        nearCache.onVersionChanged("1", 1);
+        assertThat(nearCache.get("1")).isNotNull();
+        assertThat(nearCache.get("1").version()).isEqualTo(1);
+        
+        nearCache.onVersionChanged("1", 2);
+        assertThat(nearCache.get("1")).isNull();
+        assertThat(nearCache.size()).isEqualTo(0);
+    }
+    
+    @Test
+    public void testRemoteEventsDoNotChangeEvictionOrder() {
+        ProcessInstanceNearCache nearCache = new ProcessInstanceNearCache(10);
+        
+        nearCache.put("1", new byte[4], 1);
+        nearCache.put("2", new byte[4], 1);
+        // event of the eldest entry with its own version is no access
+        nearCache.onVersionChanged("1", 1);
+        nearCache.put("3", new byte[4], 1);
+        
+        assertThat(nearCache.get("1")).isNull();
+        assertThat(nearCache.get("2")).isNotNull();
+        assertThat(nearCache.get("3")).isNotNull();
+    }
+    
+    @Test
+    public void testLoadChangedMeanwhileIsNotCached() {
+        ProcessInstanceNearCache nearCache = new ProcessInstanceNearCache(100);
+        
+        ProcessInstanceNearCache.Load load = nearCache.startLoad("1");
+        nearCache.onVersionChanged("1", 2);
+        nearCache.put(load, new byte[4], 1);
+        assertThat(nearCache.get("1")).isNull();
+        
+        load = nearCache.startLoad("1");
+        nearCache.invalidate("1");
+        nearCache.put(load, new byte[4], 2);
+        assertThat(nearCache.get("1")).isNull();
+        
+        load = nearCache.startLoad("1");
+        nearCache.clear();
+        nearCache.put(load, new byte[4], 2);
+        assertThat(nearCache.get("1")).isNull();
+        
+        load = nearCache.startLoad("1");
+        nearCache.onVersionChanged("2", 1);
+        nearCache.put(load, new byte[4], 2);
+        assertThat(nearCache.get("1")).isNotNull();
+        assertThat(nearCache.get("1").version()).isEqualTo(2L);
+    }
+}
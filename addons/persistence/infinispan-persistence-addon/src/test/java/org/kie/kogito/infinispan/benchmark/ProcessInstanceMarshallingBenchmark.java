@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.infinispan.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.core.io.impl.ClassPathResource;
+import org.kie.kogito.infinispan.ProtoStreamObjectMarshallingStrategy;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.bpmn2.BpmnProcess;
+import org.kie.kogito.process.bpmn2.BpmnVariables;
+import org.kie.kogito.process.impl.marshalling.ProcessInstanceMarshaller;
+import org.kie.kogito.process.impl.marshalling.ProcessInstanceMarshallingFormat;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares default and compact process instance formats. Instance can be marshalled only once after
+ * it has been restored (marshalling disconnects it from the runtime) so it is measured as round trip
+ * of unmarshalling and marshalling, which is what the persistence does on every update.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessInstanceMarshallingBenchmark {
+
+    @Param({"BPMN2-UserTask.bpmn2", "BPMN2-UserTask-Script.bpmn2"})
+    private String processDefinition;
+
+    @Param({"DEFAULT", "COMPACT"})
+    private ProcessInstanceMarshallingFormat format;
+
+    @Param({"16", "16384"})
+    private int variableSize;
+
+    private BpmnProcess process;
+    private ProcessInstanceMarshaller marshaller;
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setUpProcessInstance() {
+        process = BpmnProcess.from(new ClassPathResource(processDefinition)).get(0);
+        marshaller = new ProcessInstanceMarshaller(format, new ProtoStreamObjectMarshallingStrategy(null));
+
+        char[] value = new char[variableSize];
+        Arrays.fill(value, 'x');
+        ProcessInstance<BpmnVariables> processInstance = process.createInstance(BpmnVariables.create(Collections.singletonMap("s", new String(value))));
+        processInstance.start();
+
+        data = marshaller.marhsallProcessInstance(processInstance);
+    }
+
+    @Benchmark
+    public byte[] roundTrip(MarshalledSize size) {
+        byte[] marshalled = marshaller.marhsallProcessInstance(marshaller.unmarshallProcessInstance(data, process));
+        size.bytes = marshalled.length;
+        return marshalled;
+    }
+
+    /**
+     * Reports size of the marshalled instance next to the measured time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MarshalledSize {
+
+        public long bytes;
+    }
+}
@@ -31,4 +31,13 @@ public interface Model {
     
     
     void fromMap(Map<String, Object> params);
+    
+    /**
+     * Populates model from given map of members and assigns it with given identifier
+     * @param id identifier of the model, usually the process instance id it belongs to
+     * @param params map of members of this model type
+     */
+    default void fromMap(String id, Map<String, Object> params) {
+        fromMap(params);
+    }
 }
@@ -50,4 +50,15 @@ public interface EventManager {
      * @param service endpoint of the service
      */
     void setService(String service);
+    
+    /**
+     * Sets whether process instance events should carry only variables changed since the previous event
+     * instead of all variables. All variables are still sent when process instance starts or is no
+     * longer active so consumers can merge the changes into complete state.
+     * Does nothing by default, so all variables are always sent.
+     * @param variablesDiff true if only changed variables should be sent
+     */
+    default void setVariablesDiff(boolean variablesDiff) {
+        // all variables are sent unless overridden
+    }
 }
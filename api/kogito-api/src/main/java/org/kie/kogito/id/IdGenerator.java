@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.id;
+
+/**
+ * Generates identifiers of runtime entities - process instances, node instances, work items,
+ * events and alike. Implementations are called on hot paths by many threads at once, so they
+ * should never block.
+ *
+ * @see IdGenerators
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns new unique identifier.
+     *
+     * @return unique identifier, never null
+     */
+    String generate();
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.id;
+
+/**
+ * Holds the {@link IdGenerator} used by the runtime. By default identifiers are random UUIDs
+ * generated by {@link RandomIdGenerator}, another implementation, such as {@link TimeOrderedIdGenerator},
+ * can be set programmatically or named by system property {@value #ID_GENERATOR_PROPERTY}.
+ */
+public final class IdGenerators {
+
+    public static final String ID_GENERATOR_PROPERTY = "kogito.id.generator";
+
+    private static volatile IdGenerator instance = create(System.getProperty(ID_GENERATOR_PROPERTY));
+
+    private IdGenerators() {
+    }
+
+    public static IdGenerator get() {
+        return instance;
+    }
+
+    public static void set(IdGenerator idGenerator) {
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("Id generator must not be null");
+        }
+        instance = idGenerator;
+    }
+
+    /**
+     * Shortcut for generating new identifier with the current generator.
+     */
+    public static String generate() {
+        return instance.generate();
+    }
+
+    static IdGenerator create(String className) {
+        if (className == null || className.isEmpty()) {
+            return new RandomIdGenerator();
+        }
+        try {
+            return (IdGenerator) Class.forName(className, true, IdGenerators.class.getClassLoader()).newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to create id generator " + className, e);
+        }
+    }
+}
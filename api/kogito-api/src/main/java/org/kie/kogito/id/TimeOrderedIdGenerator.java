@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.id;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates time ordered UUIDs laid out as version 7 UUIDs - 48 bits of milliseconds since
+ * the epoch, 12 bits of counter and 62 random bits. Identifiers of the same thread are strictly
+ * increasing, identifiers of different threads are ordered by the millisecond they were created in,
+ * so they keep indexes of the storage compact as new entries are appended at their end.
+ *
+ * State is kept per thread and random bits are drawn from a per thread generator seeded from
+ * {@link SecureRandom}, so threads only touch the shared secure random once, unlike
+ * {@link UUID#randomUUID()} that draws from it for every identifier. Identifiers expose their
+ * creation time and are not as unpredictable as random UUIDs, so this generator has to be enabled
+ * explicitly, see {@link IdGenerators}.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long COUNTER_MASK = 0xFFFL;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public String generate() {
+        return generateUUID().toString();
+    }
+
+    public UUID generateUUID() {
+        State current = state.get();
+        current.next(System.currentTimeMillis());
+        return new UUID((current.millis << 16) | VERSION | current.counter, VARIANT | (current.random.nextLong() & RANDOM_MASK));
+    }
+
+    /**
+     * Returns milliseconds since the epoch of given time ordered identifier.
+     */
+    public static long timestamp(String id) {
+        return UUID.fromString(id).getMostSignificantBits() >>> 16;
+    }
+
+    private static class State {
+
+        private final SplittableRandom random = new SplittableRandom(SEEDS.nextLong());
+        private long millis = -1;
+        private long counter;
+
+        void next(long now) {
+            if (now > millis) {
+                millis = now;
+                // counter starts randomly in the lower half so there is room to increment it
+                counter = random.nextLong() & (COUNTER_MASK >>> 1);
+            } else if (counter < COUNTER_MASK) {
+                counter++;
+            } else {
+                // counter exhausted or clock went back, borrow from the next millisecond
+                millis++;
+                counter = 0;
+            }
+        }
+    }
+}
@@ -24,4 +24,31 @@ public interface MutableProcessInstances<T> extends ProcessInstances<T> {
     default boolean isActive(ProcessInstance<T> instance) {
         return instance.status() == ProcessInstance.STATE_ACTIVE || instance.status() == ProcessInstance.STATE_ERROR;        
     }
+    
+    /**
+     * Starts batch of updates and removals performed by the calling thread. Implementations
+     * might buffer them until {@link #flushBatch()} is invoked by the same thread.
+     * 
+     * @return true if updates and removals are buffered until the batch is flushed, false if
+     * they are still performed right away
+     */
+    default boolean startBatch() {
+        return false;
+    }
+    
+    /**
+     * Writes all updates and removals buffered since the batch was started by the calling thread.
+     * The batch is ended even if writing fails.
+     */
+    default void flushBatch() {
+        
+    }
+    
+    /**
+     * Discards all updates and removals buffered since the batch was started by the calling thread
+     * and ends the batch.
+     */
+    default void abortBatch() {
+        
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.process;
+
+/**
+ * Thrown when process instance cannot be stored as it was modified concurrently 
+ * since it has been loaded. Operation can be retried with freshly loaded process instance,
+ * unless other changes made together with it were already stored, see {@link #hasCommittedChanges()}.
+ *
+ */
+public class ProcessInstanceOptimisticLockingException extends RuntimeException {
+
+    private static final long serialVersionUID = -4716354829133528315L;
+
+    private String processInstanceId;
+    private boolean committedChanges;
+    
+    public ProcessInstanceOptimisticLockingException(String processInstanceId) {
+        this(processInstanceId, false);
+    }
+    
+    public ProcessInstanceOptimisticLockingException(String processInstanceId, boolean committedChanges) {
+        super("Process instance with id " + processInstanceId + " was modified concurrently" + 
+              (committedChanges ? ", other changes of the same unit of work were already stored" : ""));
+        this.processInstanceId = processInstanceId;
+        this.committedChanges = committedChanges;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+    
+    /**
+     * Returns true if other changes made together with the conflicting one were already stored,
+     * in which case repeating the whole operation would apply them again.
+     */
+    public boolean hasCommittedChanges() {
+        return committedChanges;
+    }
+
+}
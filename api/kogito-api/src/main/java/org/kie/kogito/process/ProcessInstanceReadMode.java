@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.process;
+
+/**
+ * Describes how process instances should be loaded from the underlying storage.
+ *
+ */
+public enum ProcessInstanceReadMode {
+
+    /**
+     * Fully restores the process instance so it can be signaled, have its work items completed etc.
+     */
+    MUTABLE,
+    /**
+     * Restores only the process variables and basic information of the process instance,
+     * any attempt to modify such process instance will fail.
+     */
+    READ_ONLY;
+}
@@ -17,11 +17,77 @@ package org.kie.kogito.process;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface ProcessInstances<T> {
 
     Optional<? extends ProcessInstance<T>> findById(String i);
 
+    /**
+     * Finds process instance with given id using given read mode.
+     * 
+     * @param id id of the process instance
+     * @param mode read mode that instructs how much of the process instance should be loaded
+     * @return process instance if found
+     */
+    default Optional<? extends ProcessInstance<T>> findById(String id, ProcessInstanceReadMode mode) {
+        return findById(id);
+    }
+
     Collection<? extends ProcessInstance<T>> values();
 
+    /**
+     * Returns single page of process instances, loading only instances that belong to the page.
+     * <p>
+     * Paging is offset based, skipped instances are still walked through though not loaded.
+     * No continuation cursor is offered as the stores keep no stable order of instances
+     * a listing could be resumed from.
+     * 
+     * @param offset number of instances to be skipped, must not be negative
+     * @param limit maximum number of instances to be returned, must not be negative
+     * @return collection of process instances that belong to requested page
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    default Collection<? extends ProcessInstance<T>> values(int offset, int limit) {
+        checkPage(offset, limit);
+        try (Stream<? extends ProcessInstance<T>> stream = stream()) {
+            return stream.skip(offset).limit(limit).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns lazily evaluated stream of process instances. Returned stream might hold
+     * resources of the underlying storage and thus should be closed after use.
+     * 
+     * @return stream of process instances
+     */
+    default Stream<? extends ProcessInstance<T>> stream() {
+        return values().stream();
+    }
+
+    /**
+     * Validates page requested from {@link #values(int, int)}.
+     * 
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative, got offset " + offset + " and limit " + limit);
+        }
+    }
+
+    /**
+     * Returns lazily evaluated stream of process instances that might be waiting for given event type.
+     * Returned instances are a superset of those that will accept the event, so implementations that
+     * do not maintain an index of event types can simply return all instances.
+     * Returned stream might hold resources of the underlying storage and thus should be closed after use.
+     *
+     * @param eventType type of the event
+     * @return stream of process instances that might be waiting for given event type
+     */
+    default Stream<? extends ProcessInstance<T>> waitingForEvent(String eventType) {
+        return stream();
+    }
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeOrderedIdGeneratorTest {
+
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+
+    @Test
+    public void testVersion7Layout() {
+        long before = System.currentTimeMillis();
+        String id = generator.generate();
+        long after = System.currentTimeMillis();
+
+        UUID uuid = UUID.fromString(id);
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(36, id.length());
+        long timestamp = TimeOrderedIdGenerator.timestamp(id);
+        assertTrue(timestamp >= before && timestamp <= after + 1);
+    }
+
+    @Test
+    public void testIdsOfThreadAreIncreasing() {
+        String previous = generator.generate();
+        for (int i = 0; i < 100000; i++) {
+            String id = generator.generate();
+            assertTrue(id.compareTo(previous) > 0, id + " is not after " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testIdsOfThreadsAreUnique() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50000; i++) {
+                        assertTrue(ids.add(generator.generate()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(200000, ids.size());
+    }
+
+    @Test
+    public void testRandomBitsDifferAcrossGenerators() {
+        long random = UUID.fromString(generator.generate()).getLeastSignificantBits();
+        long other = UUID.fromString(new TimeOrderedIdGenerator().generate()).getLeastSignificantBits();
+        assertNotEquals(random, other);
+    }
+
+    @Test
+    public void testDefaultAndConfiguredGenerator() {
+        assertTrue(IdGenerators.create(null) instanceof RandomIdGenerator);
+        assertTrue(IdGenerators.create("") instanceof RandomIdGenerator);
+        assertTrue(IdGenerators.create(TimeOrderedIdGenerator.class.getName()) instanceof TimeOrderedIdGenerator);
+        assertThrows(IllegalStateException.class, () -> IdGenerators.create("org.kie.kogito.id.Missing"));
+    }
+}
@@ -17,9 +17,9 @@ package org.kie.kogito.services.event;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 import org.kie.kogito.event.DataEvent;
+import org.kie.kogito.id.IdGenerators;
 
 public abstract class AbstractProcessDataEvent<T> implements DataEvent<T> {
     
@@ -51,7 +51,7 @@ public abstract class AbstractProcessDataEvent<T> implements DataEvent<T> {
                                     String kogitoProcessinstanceState) {
         
         this.specversion = SPEC_VERSION;
-        this.id = UUID.randomUUID().toString();
+        this.id = IdGenerators.generate();
         this.source = source;
         this.type = this.getClass().getSimpleName();
         this.time = ZonedDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
@@ -75,7 +75,7 @@ public abstract class AbstractProcessDataEvent<T> implements DataEvent<T> {
                              String kogitoRootProcessId,
                              String kogitoProcessinstanceState) {
         this.specversion = SPEC_VERSION;
-        this.id = UUID.randomUUID().toString();
+        this.id = IdGenerators.generate();
         this.source = source;
         this.type = type;
         this.time = ZonedDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
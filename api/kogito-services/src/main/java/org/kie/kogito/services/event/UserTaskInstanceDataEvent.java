@@ -18,9 +18,9 @@ package org.kie.kogito.services.event;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.UUID;
 
 import org.kie.kogito.event.DataEvent;
+import org.kie.kogito.id.IdGenerators;
 import org.kie.kogito.services.event.impl.ProcessInstanceEventBody;
 import org.kie.kogito.services.event.impl.UserTaskInstanceEventBody;
 
@@ -42,7 +42,7 @@ public class UserTaskInstanceDataEvent implements DataEvent<UserTaskInstanceEven
 
     public UserTaskInstanceDataEvent(String source, Map<String, String> metaData, UserTaskInstanceEventBody body) {
         this.specversion = "0.3";
-        this.id = UUID.randomUUID().toString();
+        this.id = IdGenerators.generate();
         this.source = source;
         this.type = "UserTaskInstanceEvent";
         this.time = ZonedDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
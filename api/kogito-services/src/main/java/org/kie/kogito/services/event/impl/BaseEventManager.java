@@ -27,11 +27,12 @@ import org.kie.kogito.event.EventPublisher;
 public class BaseEventManager implements EventManager {
 
     private String service;
+    private boolean variablesDiff;
     private Set<EventPublisher> publishers = new LinkedHashSet<>();
     
     @Override
     public EventBatch newBatch() {
-        return new ProcessInstanceEventBatch(service);
+        return new ProcessInstanceEventBatch(service, variablesDiff);
     }
 
     @Override
@@ -55,4 +56,9 @@ public class BaseEventManager implements EventManager {
         this.service = service;
     }
 
+    @Override
+    public void setVariablesDiff(boolean variablesDiff) {
+        this.variablesDiff = variablesDiff;
+    }
+
 }
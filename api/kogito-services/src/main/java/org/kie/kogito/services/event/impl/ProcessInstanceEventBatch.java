@@ -17,15 +17,23 @@ package org.kie.kogito.services.event.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.kie.api.event.process.ProcessCompletedEvent;
 import org.kie.api.event.process.ProcessEvent;
 import org.kie.api.event.process.ProcessNodeEvent;
 import org.kie.api.event.process.ProcessNodeLeftEvent;
 import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.event.process.ProcessStartedEvent;
+import org.kie.api.event.process.ProcessVariableChangedEvent;
 import org.kie.api.event.process.ProcessWorkItemTransitionEvent;
 import org.kie.api.runtime.process.HumanTaskWorkItem;
 import org.kie.api.runtime.process.NodeInstance;
@@ -41,10 +49,21 @@ import org.kie.kogito.services.event.UserTaskInstanceDataEvent;
 public class ProcessInstanceEventBatch implements EventBatch {
     
     private final String service;
+    private final boolean variablesDiff;
     private List<ProcessEvent> rawEvents = new ArrayList<>();
 
     public ProcessInstanceEventBatch(String service) {
+        this(service, false);
+    }
+    
+    /**
+     * @param service endpoint of the service attached to events as source
+     * @param variablesDiff if true process instance events carry only variables changed within the batch
+     * unless the process instance has just started or is no longer active, in which case all variables are sent
+     */
+    public ProcessInstanceEventBatch(String service, boolean variablesDiff) {
         this.service = service;
+        this.variablesDiff = variablesDiff;
     }
 
     @Override
@@ -58,11 +77,20 @@ public class ProcessInstanceEventBatch implements EventBatch {
     public Collection<DataEvent<?>> events() {
         Map<String, ProcessInstanceEventBody> processInstances = new LinkedHashMap<>();
         Map<String, UserTaskInstanceEventBody> userTaskInstances = new LinkedHashMap<>();
+        Map<String, Set<String>> changedVariables = new HashMap<>();
+        Set<String> startedInstances = new HashSet<>();
         
         for (ProcessEvent event : rawEvents) {
             ProcessInstanceEventBody body = processInstances.computeIfAbsent(event.getProcessInstance().getId(), key -> create(event));
             
-            if (event instanceof ProcessNodeTriggeredEvent) {
+            if (event instanceof ProcessVariableChangedEvent) {
+                ProcessVariableChangedEvent variableChangedEvent = (ProcessVariableChangedEvent) event;
+                if (isProcessVariable(variableChangedEvent) && isChanged(variableChangedEvent)) {
+                    changedVariables.computeIfAbsent(body.getId(), key -> new LinkedHashSet<>()).add(variableChangedEvent.getVariableId());
+                }
+            } else if (event instanceof ProcessStartedEvent) {
+                startedInstances.add(body.getId());
+            } else if (event instanceof ProcessNodeTriggeredEvent) {
                 
                 NodeInstanceEventBody nodeInstanceBody = create((ProcessNodeEvent)event);
                 if (!body.getNodeInstances().contains(nodeInstanceBody)) {
@@ -91,6 +119,16 @@ public class ProcessInstanceEventBatch implements EventBatch {
             
         }
         
+        if (variablesDiff) {
+            for (ProcessInstanceEventBody body : processInstances.values()) {
+                if (!startedInstances.contains(body.getId()) && body.getState() == ProcessInstance.STATE_ACTIVE) {
+                    body.update()
+                    .variables(select(body.getVariables(), changedVariables.getOrDefault(body.getId(), Collections.emptySet())))
+                    .partialVariables(true);
+                }
+            }
+        }
+        
         Collection<DataEvent<?>> processedEvents = new ArrayList<>();
                 
         processInstances.values().stream().map(pi -> new ProcessInstanceDataEvent(extractProcessId(pi.metaData()), pi.metaData(), pi)).forEach(processedEvents::add);
@@ -99,6 +137,24 @@ public class ProcessInstanceEventBatch implements EventBatch {
         return processedEvents;
     }
 
+    protected boolean isProcessVariable(ProcessVariableChangedEvent event) {
+        // variables of sub processes and other nested scopes are prefixed with id of the container
+        return event.getVariableId().indexOf(':') == -1;
+    }
+    
+    protected boolean isChanged(ProcessVariableChangedEvent event) {
+        // same instance might have been modified in place so only distinct but equal values are considered unchanged
+        return event.getOldValue() == event.getNewValue() || !Objects.equals(event.getOldValue(), event.getNewValue());
+    }
+    
+    protected Map<String, Object> select(Map<String, Object> variables, Set<String> names) {
+        Map<String, Object> selected = new HashMap<>();
+        for (String name : names) {
+            selected.put(name, variables.get(name));
+        }
+        return selected;
+    }
+
     private UserTaskInstanceEventBody createUserTask(ProcessWorkItemTransitionEvent workItemTransitionEvent) {
         WorkflowProcessInstance pi = (WorkflowProcessInstance) workItemTransitionEvent.getProcessInstance();
         HumanTaskWorkItem workItem = (HumanTaskWorkItem) workItemTransitionEvent.getWorkItem();
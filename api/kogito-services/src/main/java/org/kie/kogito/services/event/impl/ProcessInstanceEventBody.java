@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class ProcessInstanceEventBody {
     
     public static final String ID_META_DATA = "kogito.processinstance.id";
@@ -46,6 +48,9 @@ public class ProcessInstanceEventBody {
     private Set<NodeInstanceEventBody> nodeInstances = new LinkedHashSet<>();
 
     private Map<String, Object> variables;
+    // variables hold only those changed since the previous event, set only when variables are diffed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean partialVariables;
     
     private ProcessErrorEventBody error;
     
@@ -102,6 +107,10 @@ public class ProcessInstanceEventBody {
         return variables;
     }    
     
+    public Boolean getPartialVariables() {
+        return partialVariables;
+    }
+    
     public List<String> getRoles() {
         return roles;
     }
@@ -218,6 +227,11 @@ public class ProcessInstanceEventBody {
             return this;
         }
         
+        public Builder partialVariables(Boolean partialVariables) {
+            instance.partialVariables = partialVariables;
+            return this;
+        }
+        
         public Builder error(ProcessErrorEventBody error) {
             instance.error = error;
             return this;
@@ -18,12 +18,18 @@ package org.kie.kogito.services.uow;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.kie.kogito.event.EventBatch;
 import org.kie.kogito.event.EventManager;
+import org.kie.kogito.process.MutableProcessInstances;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
+import org.kie.kogito.process.ProcessInstances;
 import org.kie.kogito.uow.UnitOfWork;
 import org.kie.kogito.uow.WorkUnit;
 
@@ -58,11 +64,31 @@ public class CollectingUnitOfWork implements UnitOfWork {
     public void end() {
         checkStarted();
         EventBatch batch = eventManager.newBatch();        
-        
-        for (WorkUnit<?> work : sorted()) {
-            batch.append(work.data());
-            work.perform();
+        Collection<WorkUnit<?>> sortedWork = sorted();
+        // process instance stores take part in a batch so they can write all instances at once
+        Collection<MutableProcessInstances<?>> stores = processInstanceStores(sortedWork);
+        Set<MutableProcessInstances<?>> batchingStores = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (MutableProcessInstances<?> store : stores) {
+            if (store.startBatch()) {
+                batchingStores.add(store);
+            }
+        }
+        boolean performed = false;
+        try {
+            for (WorkUnit<?> work : sortedWork) {
+                batch.append(work.data());
+                work.perform();
+                performed = performed || !isBatched(work, batchingStores);
+            }
+        } catch (RuntimeException e) {
+            abortBatches(stores, e);
+            // work performed before the conflict might have had effects outside of the batches
+            throw committedConflict(e, performed);
+        } catch (Error e) {
+            abortBatches(stores, e);
+            throw e;
         }
+        flushBatches(stores);
         eventManager.publish(batch);
         done();
     }
@@ -95,6 +121,79 @@ public class CollectingUnitOfWork implements UnitOfWork {
     }
 
     
+    protected Collection<MutableProcessInstances<?>> processInstanceStores(Collection<WorkUnit<?>> work) {
+        Set<MutableProcessInstances<?>> stores = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (WorkUnit<?> unit : work) {
+            if (unit instanceof ProcessInstanceWorkUnit && unit.data() != null) {
+                ProcessInstances<?> instances = ((ProcessInstance<?>) unit.data()).process().instances();
+                if (instances instanceof MutableProcessInstances) {
+                    stores.add((MutableProcessInstances<?>) instances);
+                }
+            }
+        }
+        return stores;
+    }
+    
+    /**
+     * Returns true if effects of given work are only buffered in the batch of one of given stores,
+     * thus discarded when the batches are aborted.
+     */
+    protected boolean isBatched(WorkUnit<?> work, Set<MutableProcessInstances<?>> batchingStores) {
+        return work instanceof ProcessInstanceWorkUnit && work.data() != null
+                && batchingStores.contains(((ProcessInstance<?>) work.data()).process().instances());
+    }
+    
+    /**
+     * Flushes batches of all given stores, even if some of them fail. The first failure is rethrown
+     * with the others added as suppressed.
+     */
+    protected void flushBatches(Collection<MutableProcessInstances<?>> stores) {
+        RuntimeException failure = null;
+        boolean flushed = false;
+        for (MutableProcessInstances<?> store : stores) {
+            try {
+                store.flushBatch();
+                flushed = true;
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw committedConflict(failure, flushed);
+        }
+    }
+    
+    /**
+     * Marks optimistic locking failure as having committed changes when other changes of this unit
+     * of work were already stored, so the unit of work is not retried as a whole.
+     */
+    protected RuntimeException committedConflict(RuntimeException failure, boolean committed) {
+        if (committed && failure instanceof ProcessInstanceOptimisticLockingException && !((ProcessInstanceOptimisticLockingException) failure).hasCommittedChanges()) {
+            ProcessInstanceOptimisticLockingException conflict = new ProcessInstanceOptimisticLockingException(((ProcessInstanceOptimisticLockingException) failure).getProcessInstanceId(), true);
+            conflict.initCause(failure);
+            return conflict;
+        }
+        return failure;
+    }
+    
+    /**
+     * Aborts batches of all given stores after the work failed, failures to abort are added
+     * as suppressed to the failure of the work.
+     */
+    protected void abortBatches(Collection<MutableProcessInstances<?>> stores, Throwable failure) {
+        for (MutableProcessInstances<?> store : stores) {
+            try {
+                store.abortBatch();
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+    
     protected void checkDone() {
         if (done) {
             throw new IllegalStateException("Unit of work is already done (ended or aborted)");
@@ -18,12 +18,39 @@ package org.kie.kogito.services.uow;
 import java.util.function.Supplier;
 
 import org.kie.kogito.process.ProcessInstanceExecutionException;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
 import org.kie.kogito.uow.UnitOfWork;
 import org.kie.kogito.uow.UnitOfWorkManager;
 
 public class UnitOfWorkExecutor {
+    
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
 
     public static <T> T executeInUnitOfWork(UnitOfWorkManager uowManager, Supplier<T> supplier) {
+        return executeInUnitOfWork(uowManager, supplier, DEFAULT_MAX_ATTEMPTS);
+    }
+    
+    /**
+     * Executes given supplier in new unit of work, in case process instances were modified
+     * concurrently the complete unit of work is retried up to given number of attempts.
+     * It is retried only if none of its changes were stored, otherwise the conflict is
+     * thrown to the caller right away.
+     */
+    public static <T> T executeInUnitOfWork(UnitOfWorkManager uowManager, Supplier<T> supplier, int maxAttempts) {
+        int attempt = 1;
+        while (true) {
+            try {
+                return execute(uowManager, supplier);
+            } catch (ProcessInstanceOptimisticLockingException e) {
+                if (attempt >= maxAttempts || e.hasCommittedChanges()) {
+                    throw e;
+                }
+                attempt++;
+            }
+        }
+    }
+
+    protected static <T> T execute(UnitOfWorkManager uowManager, Supplier<T> supplier) {
         T result = null;
         UnitOfWork uow = uowManager.newUnitOfWork();
         
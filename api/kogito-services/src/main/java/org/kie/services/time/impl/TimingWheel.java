@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.impl;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel measured in ticks. Every level has {@value #WHEEL_SIZE} buckets,
+ * a bucket of the first level covers single tick, a bucket of every next level covers all the ticks
+ * of the previous one. Entries are placed in the lowest level that reaches their deadline and
+ * whenever the lower level completes a round, the current bucket of the level above is cascaded
+ * down, so entries end up in the first level by the time they are due.
+ *
+ * Adding and removing an entry takes constant time regardless of the number of entries, advancing
+ * by a tick touches only entries that are due or cascaded. Entries further than the wheel reaches
+ * are kept in the last level and placed again when it is cascaded.
+ *
+ * Wheel is not thread safe, it is meant to be owned by a single thread.
+ */
+class TimingWheel {
+
+    static final int WHEEL_BITS = 8;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    static final int LEVELS = 4;
+    static final long MAX_TICKS = 1L << (WHEEL_BITS * LEVELS);
+
+    private final Bucket[][] buckets = new Bucket[LEVELS][WHEEL_SIZE];
+    private long currentTick;
+    private int size;
+
+    TimingWheel() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                buckets[level][i] = new Bucket();
+            }
+        }
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds given entry to the wheel, entry that is already due is passed to given consumer right away.
+     */
+    void add(Entry entry, Consumer<Entry> expired) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            expired.accept(entry);
+            return;
+        }
+        long expires = delta < MAX_TICKS ? entry.deadlineTick : currentTick + MAX_TICKS - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && expires - currentTick >= 1L << ((level + 1) * WHEEL_BITS)) {
+            level++;
+        }
+        buckets[level][(int) ((expires >>> (level * WHEEL_BITS)) & WHEEL_MASK)].add(entry);
+        size++;
+    }
+
+    void remove(Entry entry) {
+        if (entry.bucket != null) {
+            entry.bucket.remove(entry);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the wheel by one tick and passes entries that became due to given consumer.
+     */
+    void advance(Consumer<Entry> expired) {
+        currentTick++;
+        int cascaded = 0;
+        while (cascaded < LEVELS - 1 && (currentTick & ((1L << ((cascaded + 1) * WHEEL_BITS)) - 1)) == 0) {
+            cascaded++;
+        }
+        // levels are cascaded top down so entries can travel more levels within single tick
+        for (int level = cascaded; level > 0; level--) {
+            Entry entry = buckets[level][(int) ((currentTick >>> (level * WHEEL_BITS)) & WHEEL_MASK)].clear();
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                size--;
+                add(entry, expired);
+                entry = next;
+            }
+        }
+        Entry entry = buckets[0][(int) (currentTick & WHEEL_MASK)].clear();
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.next = null;
+            size--;
+            expired.accept(entry);
+            entry = next;
+        }
+    }
+
+    /**
+     * Entry of the wheel, subclasses carry what is scheduled.
+     */
+    static class Entry {
+
+        final long deadlineTick;
+
+        private Bucket bucket;
+        private Entry prev;
+        private Entry next;
+
+        Entry(long deadlineTick) {
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    /**
+     * Doubly linked list of entries so that an entry can be unlinked without looking for it.
+     */
+    private static class Bucket {
+
+        private Entry head;
+        private Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = tail;
+            entry.next = null;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        void remove(Entry entry) {
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.bucket = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        /**
+         * Detaches all entries and returns the first of them, entries stay linked through next.
+         */
+        Entry clear() {
+            Entry first = head;
+            for (Entry entry = head; entry != null; entry = entry.next) {
+                entry.bucket = null;
+                entry.prev = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.impl;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kie.api.time.SessionClock;
+import org.kie.services.time.InternalSchedulerService;
+import org.kie.services.time.Job;
+import org.kie.services.time.JobContext;
+import org.kie.services.time.JobHandle;
+import org.kie.services.time.TimerService;
+import org.kie.services.time.Trigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduler implementation meant for large number of pending timers. Jobs are kept in
+ * a {@link TimingWheel} advanced by a single ticker thread, so scheduling and cancelling a job
+ * takes constant time - both only enqueue the job for the ticker - and due jobs are fired
+ * in parallel by a pool of worker threads.
+ *
+ * Jobs fire on the first tick at or after their fire time, so the tick is the precision
+ * of the scheduler and the upper bound of the delay of every job.
+ */
+public class TimingWheelTimerService
+        implements
+        TimerService,
+        SessionClock,
+        InternalSchedulerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheelTimerService.class);
+
+    public static final long DEFAULT_TICK = 10;
+
+    // limits number of jobs moved to the wheel within a tick so that the ticker keeps pace
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final long tick;
+    private final int workers;
+
+    private final AtomicLong idCounter = new AtomicLong(0L);
+
+    private volatile Ticker ticker;
+
+    protected TimerJobFactoryManager jobFactoryManager = DefaultTimerJobFactoryManager.instance;
+
+    public TimingWheelTimerService() {
+        this(DEFAULT_TICK, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param tick duration of a tick of the wheel in milliseconds
+     * @param workers number of threads firing due jobs
+     */
+    public TimingWheelTimerService(long tick, int workers) {
+        if (tick <= 0 || workers <= 0) {
+            throw new IllegalArgumentException("Tick and number of workers must be positive");
+        }
+        this.tick = tick;
+        this.workers = workers;
+        this.ticker = new Ticker();
+    }
+
+    public void setTimerJobFactoryManager(TimerJobFactoryManager timerJobFactoryManager) {
+        this.jobFactoryManager = timerJobFactoryManager;
+    }
+
+    public TimerJobFactoryManager getTimerJobFactoryManager() {
+        return this.jobFactoryManager;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    public void reset() {
+        if (idCounter.get() != 0L) {
+            this.ticker.stop();
+            this.ticker = new Ticker();
+            this.idCounter.set(0L);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        this.ticker.stop();
+    }
+
+    public JobHandle scheduleJob(Job job,
+                                 JobContext ctx,
+                                 Trigger trigger) {
+        Date date = trigger.hasNextFireTime();
+        if (date != null) {
+            TimingWheelJobHandle jobHandle = new TimingWheelJobHandle(idCounter.getAndIncrement());
+
+            TimerJobInstance jobInstance = jobFactoryManager.createTimerJobInstance(job,
+                                                                                    ctx,
+                                                                                    trigger,
+                                                                                    jobHandle,
+                                                                                    this);
+            jobHandle.setTimerJobInstance(jobInstance);
+            internalSchedule(jobInstance);
+
+            return jobHandle;
+        } else {
+            return null;
+        }
+    }
+
+    public void internalSchedule(TimerJobInstance timerJobInstance) {
+        Date date = timerJobInstance.getTrigger().hasNextFireTime();
+        TimingWheelJobHandle jobHandle = (TimingWheelJobHandle) timerJobInstance.getJobHandle();
+
+        Timeout timeout = ticker.schedule(timerJobInstance, date.getTime());
+        jobHandle.setTimeout(timeout);
+        jobFactoryManager.addTimerJobInstance(timerJobInstance);
+    }
+
+    public boolean removeJob(JobHandle jobHandle) {
+        jobHandle.setCancel(true);
+        TimingWheelJobHandle wheelJobHandle = (TimingWheelJobHandle) jobHandle;
+        jobFactoryManager.removeTimerJobInstance(wheelJobHandle.getTimerJobInstance());
+        Timeout timeout = wheelJobHandle.getTimeout();
+        return timeout != null && timeout.cancel();
+    }
+
+    public long getTimeToNextJob() {
+        return 0;
+    }
+
+    public Collection<TimerJobInstance> getTimerJobInstances(long id) {
+        return jobFactoryManager.getTimerJobInstances();
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns number of jobs that wait in the wheel, jobs scheduled or cancelled since the last
+     * tick are not reflected yet.
+     */
+    public int getPendingJobs() {
+        return ticker.wheel.size();
+    }
+
+    public static class TimingWheelJobHandle extends DefaultJobHandle
+            implements
+            JobHandle {
+
+        private static final long serialVersionUID = 510l;
+
+        private transient volatile Timeout timeout;
+
+        public TimingWheelJobHandle(long id) {
+            super(id);
+        }
+
+        public Timeout getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Timeout timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Single scheduling of a job, it is either fired or cancelled.
+     */
+    public static class Timeout extends TimingWheel.Entry {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimerJobInstance timerJobInstance;
+        private final Ticker ticker;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Timeout(TimerJobInstance timerJobInstance, long deadlineTick, Ticker ticker) {
+            super(deadlineTick);
+            this.timerJobInstance = timerJobInstance;
+            this.ticker = ticker;
+        }
+
+        public boolean cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                ticker.cancelled.add(this);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private boolean expire() {
+            return state.compareAndSet(WAITING, EXPIRED);
+        }
+    }
+
+    /**
+     * Owner of the wheel, other threads only pass it jobs to be scheduled and cancelled through
+     * queues that are drained on every tick. Ticker thread is started with the first scheduled job.
+     */
+    private class Ticker implements Runnable {
+
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int STOPPED = 2;
+
+        private final TimingWheel wheel = new TimingWheel();
+        private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+        private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private final long startTime = System.currentTimeMillis();
+
+        private ExecutorService executor;
+        private Thread thread;
+
+        Timeout schedule(TimerJobInstance timerJobInstance, long fireTime) {
+            long elapsed = fireTime - startTime;
+            // rounded up so the job is never fired before its time
+            long deadlineTick = elapsed <= 0 ? 0 : (elapsed + tick - 1) / tick;
+            Timeout timeout = new Timeout(timerJobInstance, deadlineTick, this);
+            scheduled.add(timeout);
+            if (state.get() == NEW) {
+                start();
+            }
+            return timeout;
+        }
+
+        private synchronized void start() {
+            if (state.compareAndSet(NEW, RUNNING)) {
+                AtomicInteger threads = new AtomicInteger();
+                executor = Executors.newFixedThreadPool(workers, r -> {
+                    Thread worker = new Thread(r, "kogito-timer-" + threads.incrementAndGet());
+                    worker.setDaemon(true);
+                    return worker;
+                });
+                thread = new Thread(this, "kogito-timer-ticker");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        synchronized void stop() {
+            if (state.getAndSet(STOPPED) == RUNNING) {
+                thread.interrupt();
+                // like the JDK timer service, shutdown does not wait for running jobs
+                executor.shutdownNow();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (state.get() == RUNNING) {
+                long sleep = startTime + (wheel.currentTick() + 1) * tick - System.currentTimeMillis();
+                if (sleep > 0) {
+                    try {
+                        Thread.sleep(sleep);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                wheel.advance(this::fire);
+                removeCancelled();
+                transferScheduled();
+            }
+        }
+
+        private void removeCancelled() {
+            Timeout timeout;
+            while ((timeout = cancelled.poll()) != null) {
+                wheel.remove(timeout);
+            }
+        }
+
+        private void transferScheduled() {
+            Timeout timeout;
+            for (int i = 0; i < MAX_TRANSFERS_PER_TICK && (timeout = scheduled.poll()) != null; i++) {
+                if (!timeout.isCancelled()) {
+                    wheel.add(timeout, this::fire);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void fire(TimingWheel.Entry entry) {
+            Timeout timeout = (Timeout) entry;
+            if (timeout.expire()) {
+                try {
+                    executor.submit((Callable<Void>) timeout.timerJobInstance);
+                } catch (RuntimeException e) {
+                    logger.warn("Unable to fire timer job {}", timeout.timerJobInstance.getJobHandle().getId(), e);
+                }
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class TimerInstance implements Serializable{
     private static final long serialVersionUID = 9161292833931227195L;
     
     private long id;
+    private String uniqueId;
     private long timerId;
     private long delay;
     private long period;
@@ -49,6 +50,18 @@ public class TimerInstance implements Serializable{
         this.id = id;
     }
     
+    /**
+     * Returns identifier of the timer that stays unique across loads of its process instance,
+     * unlike {@link #getId()} that is only unique within the timer manager that registered it.
+     */
+    public String getUniqueId() {
+        return uniqueId;
+    }
+
+    public void setUniqueId(String uniqueId) {
+        this.uniqueId = uniqueId;
+    }
+
     public long getTimerId() {
 		return timerId;
 	}
@@ -131,7 +144,7 @@ public class TimerInstance implements Serializable{
 
     @Override
     public String toString() {
-        return "TimerInstance [id=" + id + ", timerId=" + timerId + ", delay=" + delay + ", period=" + period + ", jobHandle=" + jobHandle + ", activated=" + activated + ", lastTriggered=" + lastTriggered + ", processInstanceId=" + processInstanceId
+        return "TimerInstance [id=" + id + ", uniqueId=" + uniqueId + ", timerId=" + timerId + ", delay=" + delay + ", period=" + period + ", jobHandle=" + jobHandle + ", activated=" + activated + ", lastTriggered=" + lastTriggered + ", processInstanceId=" + processInstanceId
                + "]";
     }
 
@@ -22,9 +22,11 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.kie.api.runtime.process.ProcessInstance;
 import org.kie.api.time.SessionClock;
+import org.kie.kogito.id.IdGenerators;
 import org.kie.services.time.Job;
 import org.kie.services.time.JobContext;
 import org.kie.services.time.JobHandle;
@@ -42,7 +44,7 @@ public class TimerManager {
 
     private static final Logger logger = LoggerFactory.getLogger(TimerManager.class);
 
-    private long timerId = 0;
+    private final AtomicLong timerId = new AtomicLong();
 
     private TimerManagerRuntime runtime;
     private TimerService timerService;
@@ -59,7 +61,8 @@ public class TimerManager {
         try {
             runtime.startOperation();
 
-            timer.setId(++timerId);
+            timer.setId(timerId.incrementAndGet());
+            timer.setUniqueId(IdGenerators.generate());
             timer.setProcessInstanceId(processInstance.getId());
             timer.setSessionId(runtime.getIdentifier());
             timer.setActivated(new Date());
@@ -90,7 +93,7 @@ public class TimerManager {
         try {
             runtime.startOperation();
 
-            timer.setId(++timerId);
+            timer.setId(timerId.incrementAndGet());
             timer.setProcessInstanceId(null);
             timer.setSessionId(runtime.getIdentifier());
             timer.setActivated(new Date());
@@ -182,11 +185,11 @@ public class TimerManager {
     }
 
     public long internalGetTimerId() {
-        return timerId;
+        return timerId.get();
     }
 
     public void internalSetTimerId(long timerId) {
-        this.timerId = timerId;
+        this.timerId.set(timerId);
     }
 
     public void setTimerService(TimerService timerService) {
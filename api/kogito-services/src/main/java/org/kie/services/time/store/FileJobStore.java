@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Job store that keeps every job in its own file of given directory. Directory can be placed on
+ * a volume shared by several nodes, all changes are done under an exclusive lock of the directory
+ * and files are replaced atomically so readers never see partially written jobs.
+ *
+ * Polling for due jobs reads all jobs of the directory, so this store suits deployments with
+ * moderate number of pending timers.
+ */
+public class FileJobStore implements JobStore {
+
+    private static final String SUFFIX = ".job";
+    private static final String LOCK_FILE = ".lock";
+
+    private final Path directory;
+    private final Path lockFile;
+
+    public FileJobStore(Path directory) {
+        this.directory = directory;
+        this.lockFile = directory.resolve(LOCK_FILE);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create job store directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void store(StoredJob job) {
+        locked(() -> {
+            StoredJob stored = job.copy();
+            stored.release();
+            write(stored);
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(String id) {
+        locked(() -> {
+            try {
+                Files.deleteIfExists(path(id));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to remove timer job " + id, e);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public boolean claim(String id, long fireTime, String owner, long leaseDuration) {
+        return locked(() -> {
+            long now = System.currentTimeMillis();
+            StoredJob job = read(path(id));
+            if (job == null || job.getNextFireTime() > fireTime || !job.isClaimable(now)) {
+                return false;
+            }
+            job.claim(owner, now + leaseDuration);
+            write(job);
+            return true;
+        });
+    }
+
+    @Override
+    public List<StoredJob> claimDue(String processId, long dueBy, int limit, String owner, long leaseDuration) {
+        return locked(() -> {
+            long now = System.currentTimeMillis();
+            List<StoredJob> due = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    StoredJob job = read(file);
+                    if (job != null && processId.equals(job.getProcessId()) && job.getNextFireTime() <= dueBy && job.isClaimable(now)) {
+                        due.add(job);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to list timer jobs in " + directory, e);
+            }
+            due.sort(Comparator.comparingLong(StoredJob::getNextFireTime));
+            List<StoredJob> claimed = due.size() > limit ? new ArrayList<>(due.subList(0, limit)) : due;
+            for (StoredJob job : claimed) {
+                job.claim(owner, now + leaseDuration);
+                write(job);
+            }
+            return claimed;
+        });
+    }
+
+    protected Path path(String id) {
+        try {
+            return directory.resolve(URLEncoder.encode(id, "UTF-8") + SUFFIX);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected StoredJob read(Path file) {
+        try {
+            return StoredJob.fromBytes(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read timer job " + file, e);
+        }
+    }
+
+    protected void write(StoredJob job) {
+        Path file = path(job.getId());
+        try {
+            Path tmp = Files.createTempFile(directory, null, ".tmp");
+            Files.write(tmp, StoredJob.toBytes(job));
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write timer job " + job.getId(), e);
+        }
+    }
+
+    /**
+     * Runs given action while holding both the monitor of this store (file locks are held
+     * on behalf of the whole JVM) and the lock of the directory.
+     */
+    private synchronized <T> T locked(Supplier<T> action) {
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            return action.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to lock job store " + directory, e);
+        }
+    }
+}
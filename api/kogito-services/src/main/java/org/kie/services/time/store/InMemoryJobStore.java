@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Job store that keeps jobs in memory of the current JVM, it does not survive restarts
+ * and is meant for single node deployments and tests. Jobs are indexed by their fire time
+ * so polling for due jobs does not go through the jobs that are not due yet.
+ */
+public class InMemoryJobStore implements JobStore {
+
+    private static final Comparator<StoredJob> BY_FIRE_TIME = Comparator.comparingLong(StoredJob::getNextFireTime).thenComparing(StoredJob::getId);
+
+    private final Map<String, StoredJob> jobs = new HashMap<>();
+    private final NavigableSet<StoredJob> due = new TreeSet<>(BY_FIRE_TIME);
+
+    @Override
+    public synchronized void store(StoredJob job) {
+        StoredJob stored = job.copy();
+        stored.release();
+        remove(job.getId());
+        jobs.put(stored.getId(), stored);
+        due.add(stored);
+    }
+
+    @Override
+    public synchronized void remove(String id) {
+        StoredJob removed = jobs.remove(id);
+        if (removed != null) {
+            due.remove(removed);
+        }
+    }
+
+    @Override
+    public synchronized boolean claim(String id, long fireTime, String owner, long leaseDuration) {
+        long now = System.currentTimeMillis();
+        StoredJob job = jobs.get(id);
+        if (job == null || job.getNextFireTime() > fireTime || !job.isClaimable(now)) {
+            return false;
+        }
+        job.claim(owner, now + leaseDuration);
+        return true;
+    }
+
+    @Override
+    public synchronized List<StoredJob> claimDue(String processId, long dueBy, int limit, String owner, long leaseDuration) {
+        long now = System.currentTimeMillis();
+        List<StoredJob> claimed = new ArrayList<>();
+        Iterator<StoredJob> it = due.iterator();
+        while (it.hasNext() && claimed.size() < limit) {
+            StoredJob job = it.next();
+            if (job.getNextFireTime() > dueBy) {
+                break;
+            }
+            if (processId.equals(job.getProcessId()) && job.isClaimable(now)) {
+                job.claim(owner, now + leaseDuration);
+                claimed.add(job.copy());
+            }
+        }
+        return claimed;
+    }
+
+    public synchronized int size() {
+        return jobs.size();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import java.util.List;
+
+/**
+ * Persistent storage of timer jobs that lets timers outlive the runtime that has scheduled them.
+ * Store can be shared by several nodes, every firing of a job is claimed first so only one
+ * of them fires it; claim is held for a lease after which the job can be claimed again
+ * in case its owner failed before the job was stored or removed.
+ */
+public interface JobStore {
+
+    /**
+     * Inserts or replaces given job, stored job is not claimed by anyone.
+     *
+     * @param job job to be stored
+     */
+    void store(StoredJob job);
+
+    /**
+     * Removes job with given id, if any.
+     *
+     * @param id id of the job
+     */
+    void remove(String id);
+
+    /**
+     * Claims single firing of given job.
+     *
+     * @param id id of the job
+     * @param fireTime time of the firing to be claimed, claim fails when the job has already
+     *        been rescheduled past it by another node
+     * @param owner identifier of the claiming node
+     * @param leaseDuration number of milliseconds the claim is held for
+     * @return true if the job exists and has been claimed by given owner
+     */
+    boolean claim(String id, long fireTime, String owner, long leaseDuration);
+
+    /**
+     * Claims batch of jobs of given process that are due, ordered by their fire time.
+     *
+     * @param processId id of the process the jobs belong to
+     * @param dueBy jobs that should have been fired at this time or earlier are claimed
+     * @param limit maximum number of jobs to be claimed
+     * @param owner identifier of the claiming node
+     * @param leaseDuration number of milliseconds the claims are held for
+     * @return claimed jobs, never null
+     */
+    List<StoredJob> claimDue(String processId, long dueBy, int limit, String owner, long leaseDuration);
+}
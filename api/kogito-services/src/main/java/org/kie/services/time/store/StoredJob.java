@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+
+import org.kie.services.time.Trigger;
+import org.kie.services.time.manager.TimerInstance;
+
+/**
+ * Timer job as kept by {@link JobStore}, holds everything that is needed to fire the timer
+ * without the runtime that has scheduled it - the timer itself, its trigger and the process
+ * instance it belongs to. Job that is being fired is claimed by its owner until the lease expires.
+ */
+public class StoredJob implements Serializable {
+
+    private static final long serialVersionUID = 2391527628013795224L;
+
+    private final String id;
+    private final String processId;
+    private final String processInstanceId;
+    private final TimerInstance timer;
+    private final Trigger trigger;
+    private long nextFireTime;
+    private String owner;
+    private long leaseExpiration;
+
+    public StoredJob(String id, String processId, String processInstanceId, TimerInstance timer, Trigger trigger, long nextFireTime) {
+        this.id = id;
+        this.processId = processId;
+        this.processInstanceId = processInstanceId;
+        this.timer = timer;
+        this.trigger = trigger;
+        this.nextFireTime = nextFireTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public TimerInstance getTimer() {
+        return timer;
+    }
+
+    public Trigger getTrigger() {
+        return trigger;
+    }
+
+    public long getNextFireTime() {
+        return nextFireTime;
+    }
+
+    public void setNextFireTime(long nextFireTime) {
+        this.nextFireTime = nextFireTime;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getLeaseExpiration() {
+        return leaseExpiration;
+    }
+
+    /**
+     * Returns true if the job is not claimed by anyone or the lease of its owner has expired.
+     */
+    public boolean isClaimable(long now) {
+        return owner == null || leaseExpiration <= now;
+    }
+
+    public void claim(String owner, long leaseExpiration) {
+        this.owner = owner;
+        this.leaseExpiration = leaseExpiration;
+    }
+
+    public void release() {
+        this.owner = null;
+        this.leaseExpiration = 0;
+    }
+
+    /**
+     * Returns deep copy of this job so that stores never share the timer and trigger
+     * with the runtime or with jobs handed out to their callers.
+     */
+    public StoredJob copy() {
+        return fromBytes(toBytes(this));
+    }
+
+    /**
+     * Returns copy of given timer instance without its job handle that is bound to local scheduler.
+     */
+    public static TimerInstance copyOf(TimerInstance timer) {
+        TimerInstance copy = new TimerInstance();
+        copy.setId(timer.getId());
+        copy.setUniqueId(timer.getUniqueId());
+        copy.setTimerId(timer.getTimerId());
+        copy.setDelay(timer.getDelay());
+        copy.setPeriod(timer.getPeriod());
+        copy.setActivated(timer.getActivated());
+        copy.setLastTriggered(timer.getLastTriggered());
+        copy.setProcessInstanceId(timer.getProcessInstanceId());
+        copy.setRepeatLimit(timer.getRepeatLimit());
+        copy.setSessionId(timer.getSessionId());
+        copy.setCronExpression(timer.getCronExpression());
+        return copy;
+    }
+
+    public static byte[] toBytes(StoredJob job) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(job);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write timer job " + job.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static StoredJob fromBytes(byte[] data) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (StoredJob) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read timer job", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to read timer job", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StoredJob [id=" + id + ", processInstanceId=" + processInstanceId + ", nextFireTime=" + nextFireTime + ", owner=" + owner + "]";
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.kie.services.time.Trigger;
+import org.kie.services.time.manager.TimerInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically claims due jobs of a process from the {@link JobStore} and fires them through
+ * given handler. Jobs fired locally are claimed on time, so the poller only picks up jobs that
+ * are overdue by more than the grace period - those whose node has gone or evicted them, or
+ * whose previous firing failed and its lease expired. Due jobs are claimed in batches until
+ * there are none left.
+ *
+ * Handler is given job with the timer already updated for the firing and returns false when
+ * the process instance does not exist anymore, in which case the job is removed.
+ */
+public class StoredJobPoller implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoredJobPoller.class);
+
+    public static final long DEFAULT_POLL_INTERVAL = 1000;
+    public static final long DEFAULT_GRACE_PERIOD = 5000;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final StoredTimerJobFactoryManager manager;
+    private final Predicate<StoredJob> handler;
+    private final long pollInterval;
+    private final long gracePeriod;
+    private final int batchSize;
+
+    private ScheduledExecutorService executor;
+
+    public StoredJobPoller(StoredTimerJobFactoryManager manager, Predicate<StoredJob> handler) {
+        this(manager, handler, DEFAULT_POLL_INTERVAL, DEFAULT_GRACE_PERIOD, DEFAULT_BATCH_SIZE);
+    }
+
+    public StoredJobPoller(StoredTimerJobFactoryManager manager, Predicate<StoredJob> handler, long pollInterval, long gracePeriod, int batchSize) {
+        this.manager = manager;
+        this.handler = handler;
+        this.pollInterval = pollInterval;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+    }
+
+    public synchronized void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "kogito-timer-poller-" + manager.getProcessId());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::pollSafely, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Fires all jobs that are overdue at the moment of the call.
+     *
+     * @return number of fired jobs
+     */
+    public int poll() {
+        JobStore jobStore = manager.getJobStore();
+        long dueBy = System.currentTimeMillis() - gracePeriod;
+        int fired = 0;
+        List<StoredJob> jobs;
+        do {
+            jobs = jobStore.claimDue(manager.getProcessId(), dueBy, batchSize, manager.getOwner(), manager.getLeaseDuration());
+            for (StoredJob job : jobs) {
+                if (fire(jobStore, job)) {
+                    fired++;
+                }
+            }
+        } while (jobs.size() == batchSize);
+        return fired;
+    }
+
+    protected boolean fire(JobStore jobStore, StoredJob job) {
+        try {
+            Trigger trigger = job.getTrigger();
+            trigger.nextFireTime();
+            Date next = trigger.hasNextFireTime();
+
+            TimerInstance timer = job.getTimer();
+            timer.setLastTriggered(new Date());
+            if (next == null) {
+                // no more firings, reset period so the node instance waiting for the timer completes
+                timer.setPeriod(0);
+            }
+
+            boolean exists = handler.test(job);
+            if (next == null || !exists) {
+                jobStore.remove(job.getId());
+            } else {
+                job.setNextFireTime(next.getTime());
+                jobStore.store(job);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // job stays claimed and is fired again once its lease expires
+            logger.warn("Unable to fire stored timer job {}", job, e);
+            return false;
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to poll timer jobs of process {}", manager.getProcessId(), e);
+        }
+    }
+}
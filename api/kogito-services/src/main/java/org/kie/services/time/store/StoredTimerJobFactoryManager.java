@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.kie.services.time.InternalSchedulerService;
+import org.kie.services.time.Job;
+import org.kie.services.time.JobContext;
+import org.kie.services.time.JobHandle;
+import org.kie.services.time.Trigger;
+import org.kie.services.time.impl.TimerJobFactoryManager;
+import org.kie.services.time.impl.TimerJobInstance;
+import org.kie.services.time.manager.TimerInstance;
+import org.kie.services.time.manager.TimerManager.ProcessJobContext;
+import org.kie.services.time.manager.TimerManager.StartProcessJobContext;
+
+/**
+ * Timer job factory manager that mirrors timers of process instances in a {@link JobStore}.
+ * Jobs are still fired by the local scheduler, but every firing is claimed in the store first
+ * so the job is fired once even if the process instance has been loaded by several nodes.
+ * Jobs whose runtime is gone are picked up from the store by {@link StoredJobPoller}.
+ *
+ * Timers that start processes are kept only locally as every node registers them on its own.
+ */
+public class StoredTimerJobFactoryManager implements TimerJobFactoryManager {
+
+    public static final long DEFAULT_LEASE_DURATION = 60000;
+
+    private final JobStore jobStore;
+    private final String processId;
+    private final String owner;
+    private final long leaseDuration;
+    private final Map<Long, TimerJobInstance> timerInstances = new ConcurrentHashMap<>();
+
+    public StoredTimerJobFactoryManager(JobStore jobStore, String processId) {
+        this(jobStore, processId, ManagementFactory.getRuntimeMXBean().getName(), DEFAULT_LEASE_DURATION);
+    }
+
+    public StoredTimerJobFactoryManager(JobStore jobStore, String processId, String owner, long leaseDuration) {
+        this.jobStore = jobStore;
+        this.processId = processId;
+        this.owner = owner;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Override
+    public TimerJobInstance createTimerJobInstance(Job job,
+                                                   JobContext ctx,
+                                                   Trigger trigger,
+                                                   JobHandle handle,
+                                                   InternalSchedulerService scheduler) {
+        ctx.setJobHandle(handle);
+        return new StoredTimerJobInstance(this, job, ctx, trigger, handle, scheduler);
+    }
+
+    @Override
+    public void addTimerJobInstance(TimerJobInstance instance) {
+        timerInstances.put(instance.getJobHandle().getId(), instance);
+        Date nextFireTime = instance.getTrigger().hasNextFireTime();
+        if (isStored(instance) && nextFireTime != null) {
+            ProcessJobContext ctx = (ProcessJobContext) instance.getJobContext();
+            jobStore.store(new StoredJob(jobId(ctx),
+                                         processId,
+                                         ctx.getProcessInstanceId(),
+                                         StoredJob.copyOf(ctx.getTimer()),
+                                         instance.getTrigger(),
+                                         nextFireTime.getTime()));
+        }
+    }
+
+    @Override
+    public void removeTimerJobInstance(TimerJobInstance instance) {
+        timerInstances.remove(instance.getJobHandle().getId());
+        if (isStored(instance)) {
+            jobStore.remove(jobId((ProcessJobContext) instance.getJobContext()));
+        }
+    }
+
+    @Override
+    public Collection<TimerJobInstance> getTimerJobInstances() {
+        return timerInstances.values();
+    }
+
+    public JobStore getJobStore() {
+        return jobStore;
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    /**
+     * Claims firing of given job that is due at given time.
+     *
+     * @return true if the job should be fired by this node
+     */
+    protected boolean claim(TimerJobInstance instance, long fireTime) {
+        return !isStored(instance) || jobStore.claim(jobId((ProcessJobContext) instance.getJobContext()), fireTime, owner, leaseDuration);
+    }
+
+    protected boolean isStored(TimerJobInstance instance) {
+        JobContext ctx = instance.getJobContext();
+        return ctx instanceof ProcessJobContext && !(ctx instanceof StartProcessJobContext);
+    }
+
+    /**
+     * Returns id of the job, the unique id of its timer. Timer ids are allocated again from the start
+     * every time the process instance is loaded, so they would clash with jobs stored by earlier loads.
+     * Timers restored without unique id fall back to the timer id within the process instance.
+     */
+    public static String jobId(ProcessJobContext ctx) {
+        TimerInstance timer = ctx.getTimer();
+        return timer.getUniqueId() != null ? timer.getUniqueId() : ctx.getProcessInstanceId() + "_" + timer.getId();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import java.util.Date;
+
+import org.kie.services.time.InternalSchedulerService;
+import org.kie.services.time.Job;
+import org.kie.services.time.JobContext;
+import org.kie.services.time.JobHandle;
+import org.kie.services.time.Trigger;
+import org.kie.services.time.impl.DefaultTimerJobInstance;
+
+/**
+ * Timer job instance that fires only when it manages to claim the firing in the job store,
+ * otherwise the firing has already been handled by another node.
+ */
+public class StoredTimerJobInstance extends DefaultTimerJobInstance {
+
+    private static final long serialVersionUID = 4617296130569302357L;
+
+    private final transient StoredTimerJobFactoryManager manager;
+
+    public StoredTimerJobInstance(StoredTimerJobFactoryManager manager,
+                                  Job job,
+                                  JobContext ctx,
+                                  Trigger trigger,
+                                  JobHandle handle,
+                                  InternalSchedulerService scheduler) {
+        super(job, ctx, trigger, handle, scheduler);
+        this.manager = manager;
+    }
+
+    @Override
+    public Void call() throws Exception {
+        Date fireTime = getTrigger().hasNextFireTime();
+        if (fireTime != null && !manager.claim(this, fireTime.getTime())) {
+            logger.debug("Timer job {} has already been fired by another node", getJobHandle().getId());
+            return null;
+        }
+        return super.call();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.services.uow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.process.MutableProcessInstances;
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
+import org.kie.kogito.services.event.impl.BaseEventManager;
+import org.kie.kogito.uow.WorkUnit;
+
+public class CollectingUnitOfWorkTest {
+
+    @Test
+    public void testFailedFlushDoesNotSkipOtherStores() {
+        BatchingStore first = new BatchingStore(new IllegalStateException("first"));
+        BatchingStore second = new BatchingStore(new IllegalStateException("second"));
+        BatchingStore third = new BatchingStore(null);
+        CollectingUnitOfWork unit = unitOfWork(first, second, third);
+        
+        unit.start();
+        unit.intercept(new BaseWorkUnit(null, d -> {}));
+        IllegalStateException e = assertThrows(IllegalStateException.class, unit::end);
+        
+        assertThat(e).hasMessage("first");
+        assertThat(e.getSuppressed()).extracting(Throwable::getMessage).containsExactly("second");
+        assertThat(first.flushed).isTrue();
+        assertThat(second.flushed).isTrue();
+        assertThat(third.flushed).isTrue();
+        assertThat(first.inBatch || second.inBatch || third.inBatch).isFalse();
+    }
+    
+    @Test
+    public void testConflictAfterOtherStoreFlushedHasCommittedChanges() {
+        BatchingStore first = new BatchingStore(null);
+        BatchingStore second = new BatchingStore(new ProcessInstanceOptimisticLockingException("id"));
+        CollectingUnitOfWork unit = unitOfWork(first, second);
+        
+        unit.start();
+        unit.intercept(new BaseWorkUnit(null, d -> {}));
+        ProcessInstanceOptimisticLockingException e = assertThrows(ProcessInstanceOptimisticLockingException.class, unit::end);
+        
+        assertThat(e.getProcessInstanceId()).isEqualTo("id");
+        assertThat(e.hasCommittedChanges()).isTrue();
+    }
+    
+    @Test
+    public void testConflictOfOnlyStoreHasNoCommittedChanges() {
+        BatchingStore store = new BatchingStore(new ProcessInstanceOptimisticLockingException("id"));
+        CollectingUnitOfWork unit = unitOfWork(store);
+        
+        unit.start();
+        unit.intercept(new BaseWorkUnit(null, d -> {}));
+        ProcessInstanceOptimisticLockingException e = assertThrows(ProcessInstanceOptimisticLockingException.class, unit::end);
+        
+        assertThat(e.hasCommittedChanges()).isFalse();
+    }
+    
+    @Test
+    public void testFailedWorkAbortsBatches() {
+        BatchingStore first = new BatchingStore(null);
+        BatchingStore second = new BatchingStore(null);
+        CollectingUnitOfWork unit = unitOfWork(first, second);
+        
+        unit.start();
+        unit.intercept(new BaseWorkUnit(null, d -> {
+            throw new IllegalArgumentException("work");
+        }));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, unit::end);
+        
+        assertThat(e).hasMessage("work");
+        assertThat(first.aborted).isTrue();
+        assertThat(second.aborted).isTrue();
+        assertThat(first.flushed || second.flushed).isFalse();
+        assertThat(first.inBatch || second.inBatch).isFalse();
+    }
+    
+    @Test
+    public void testConflictOfSecondBatchedInstanceHasNoCommittedChanges() {
+        BatchingStore store = new BatchingStore(null);
+        CollectingUnitOfWork unit = unitOfWork(store);
+        
+        unit.start();
+        unit.intercept(new ProcessInstanceWorkUnit<>(processInstance(store), d -> {}));
+        unit.intercept(new ProcessInstanceWorkUnit<>(processInstance(store), d -> {
+            throw new ProcessInstanceOptimisticLockingException("id");
+        }));
+        ProcessInstanceOptimisticLockingException e = assertThrows(ProcessInstanceOptimisticLockingException.class, unit::end);
+        
+        assertThat(e.hasCommittedChanges()).isFalse();
+        assertThat(store.aborted).isTrue();
+        assertThat(store.flushed).isFalse();
+    }
+    
+    @Test
+    public void testConflictAfterInstanceOfStoreWithoutBatchHasCommittedChanges() {
+        BatchingStore store = new BatchingStore(null) {
+            
+            @Override
+            public boolean startBatch() {
+                return false;
+            }
+        };
+        CollectingUnitOfWork unit = unitOfWork(store);
+        
+        unit.start();
+        unit.intercept(new ProcessInstanceWorkUnit<>(processInstance(store), d -> {}));
+        unit.intercept(new ProcessInstanceWorkUnit<>(processInstance(store), d -> {
+            throw new ProcessInstanceOptimisticLockingException("id");
+        }));
+        ProcessInstanceOptimisticLockingException e = assertThrows(ProcessInstanceOptimisticLockingException.class, unit::end);
+        
+        assertThat(e.hasCommittedChanges()).isTrue();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private ProcessInstance<Object> processInstance(MutableProcessInstances<Object> store) {
+        Process<Object> process = (Process<Object>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Process.class}, (proxy, method, args) -> {
+            return method.getName().equals("instances") ? store : null;
+        });
+        return (ProcessInstance<Object>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProcessInstance.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "process":
+                    return process;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+            }
+        });
+    }
+    
+    private CollectingUnitOfWork unitOfWork(MutableProcessInstances<?>... stores) {
+        return new CollectingUnitOfWork(new BaseEventManager()) {
+            
+            @Override
+            protected Collection<MutableProcessInstances<?>> processInstanceStores(Collection<WorkUnit<?>> work) {
+                return Arrays.asList(stores);
+            }
+        };
+    }
+    
+    private static class BatchingStore implements MutableProcessInstances<Object> {
+        
+        private final RuntimeException flushFailure;
+        private boolean inBatch;
+        private boolean flushed;
+        private boolean aborted;
+        
+        BatchingStore(RuntimeException flushFailure) {
+            this.flushFailure = flushFailure;
+        }
+
+        @Override
+        public Optional<? extends ProcessInstance<Object>> findById(String id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Collection<? extends ProcessInstance<Object>> values() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void update(String id, ProcessInstance<Object> instance) {
+        }
+
+        @Override
+        public void remove(String id) {
+        }
+
+        @Override
+        public boolean startBatch() {
+            inBatch = true;
+            return true;
+        }
+
+        @Override
+        public void flushBatch() {
+            inBatch = false;
+            flushed = true;
+            if (flushFailure != null) {
+                throw flushFailure;
+            }
+        }
+
+        @Override
+        public void abortBatch() {
+            inBatch = false;
+            aborted = true;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
 import org.kie.kogito.uow.UnitOfWork;
 import org.kie.kogito.uow.UnitOfWorkManager;
 import org.kie.kogito.uow.WorkUnit;
@@ -133,4 +134,40 @@ public class DefaultUnitOfWorkManagerTest {
         assertThat(counter.get()).isEqualTo(1);
         assertThat(picounter.get()).isEqualTo(0);
     }
+    
+    @Test
+    public void testUnitOfWorkExecutorRetriesOnConflict() {
+        
+        final AtomicInteger attempts = new AtomicInteger(0);
+        
+        String result = UnitOfWorkExecutor.executeInUnitOfWork(unitOfWorkManager, () -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new ProcessInstanceOptimisticLockingException("test");
+            }
+            return "done";
+        });
+        
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts.get()).isEqualTo(2);
+        
+        attempts.set(0);
+        assertThrows(ProcessInstanceOptimisticLockingException.class, () -> UnitOfWorkExecutor.executeInUnitOfWork(unitOfWorkManager, () -> {
+            attempts.incrementAndGet();
+            throw new ProcessInstanceOptimisticLockingException("test");
+        }, 2));
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+    
+    @Test
+    public void testUnitOfWorkExecutorDoesNotRetryPartiallyStoredWork() {
+        
+        final AtomicInteger attempts = new AtomicInteger(0);
+        
+        ProcessInstanceOptimisticLockingException e = assertThrows(ProcessInstanceOptimisticLockingException.class, () -> UnitOfWorkExecutor.executeInUnitOfWork(unitOfWorkManager, () -> {
+            attempts.incrementAndGet();
+            throw new ProcessInstanceOptimisticLockingException("test", true);
+        }));
+        assertThat(e.hasCommittedChanges()).isTrue();
+        assertThat(attempts.get()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.kie.services.time.Job;
+import org.kie.services.time.JobContext;
+import org.kie.services.time.JobHandle;
+import org.kie.services.time.TimerService;
+import org.kie.services.time.impl.IntervalTrigger;
+import org.kie.services.time.impl.JDKTimerService;
+import org.kie.services.time.impl.TimingWheelTimerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares timer services holding given number of pending timers, measured as scheduling of
+ * a timer followed by its cancellation - the typical life of SLA and reminder timers that are
+ * cancelled once their task completes.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimerServiceBenchmark {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final Job NO_OP = ctx -> {};
+
+    @Param({"JDK", "TIMING_WHEEL"})
+    private String implementation;
+
+    @Param({"10000", "1000000"})
+    private int pendingTimers;
+
+    private TimerService timerService;
+
+    @Setup(Level.Trial)
+    public void setUpTimerService() {
+        timerService = "JDK".equals(implementation) ? new JDKTimerService() : new TimingWheelTimerService();
+        for (int i = 0; i < pendingTimers; i++) {
+            schedule();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownTimerService() {
+        timerService.shutdown();
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        return timerService.removeJob(schedule());
+    }
+
+    private JobHandle schedule() {
+        long delay = HOUR + ThreadLocalRandom.current().nextLong(HOUR);
+        IntervalTrigger trigger = new IntervalTrigger(timerService.getCurrentTime(), null, null, -1, delay, 0, null, null);
+        return timerService.scheduleJob(NO_OP, new BenchmarkJobContext(), trigger);
+    }
+
+    private static class BenchmarkJobContext implements JobContext {
+
+        private static final long serialVersionUID = 1L;
+
+        private JobHandle jobHandle;
+
+        @Override
+        public void setJobHandle(JobHandle jobHandle) {
+            this.jobHandle = jobHandle;
+        }
+
+        @Override
+        public JobHandle getJobHandle() {
+            return jobHandle;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel();
+    private final Map<TimingWheel.Entry, Long> expired = new HashMap<>();
+
+    private TimingWheel.Entry add(long deadlineTick) {
+        TimingWheel.Entry entry = new TimingWheel.Entry(deadlineTick);
+        wheel.add(entry, this::expire);
+        return entry;
+    }
+
+    private void expire(TimingWheel.Entry entry) {
+        assertThat(expired.put(entry, wheel.currentTick())).isNull();
+    }
+
+    private void advance(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            wheel.advance(this::expire);
+        }
+    }
+
+    @Test
+    public void testEntriesExpireAtTheirTickOnEveryLevel() {
+        long[] deadlines = {1, 2, 255, 256, 257, 511, 65535, 65536, 65537, 100000, 300000};
+        List<TimingWheel.Entry> entries = new ArrayList<>();
+        for (long deadline : deadlines) {
+            entries.add(add(deadline));
+        }
+        assertThat(wheel.size()).isEqualTo(deadlines.length);
+
+        advance(300000);
+
+        for (TimingWheel.Entry entry : entries) {
+            assertThat(expired.get(entry)).isEqualTo(entry.deadlineTick);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void testEntriesAddedWhileAdvancing() {
+        advance(1000);
+        TimingWheel.Entry near = add(1001);
+        TimingWheel.Entry cascaded = add(1000 + 70000);
+
+        advance(70000);
+
+        assertThat(expired).containsEntry(near, 1001L).containsEntry(cascaded, 71000L);
+    }
+
+    @Test
+    public void testDueEntryExpiresRightAway() {
+        advance(10);
+        TimingWheel.Entry due = add(5);
+
+        assertThat(expired).containsEntry(due, 10L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void testRemovedEntryDoesNotExpire() {
+        TimingWheel.Entry removed = add(300);
+        TimingWheel.Entry kept = add(300);
+        wheel.remove(removed);
+        wheel.remove(removed);
+
+        advance(400);
+
+        assertThat(expired).containsOnlyKeys(kept);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void testEntryBeyondWheelIsKept() {
+        add(TimingWheel.MAX_TICKS + 10);
+
+        advance(1000);
+
+        assertThat(expired).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.services.time.JobContext;
+import org.kie.services.time.JobHandle;
+import org.kie.services.time.Trigger;
+
+public class TimingWheelTimerServiceTest {
+
+    private final TimingWheelTimerService timerService = new TimingWheelTimerService(5, 2);
+
+    @AfterEach
+    public void cleanup() {
+        timerService.shutdown();
+    }
+
+    private Trigger trigger(long delay, long period) {
+        return new IntervalTrigger(timerService.getCurrentTime(), null, null, -1, delay, period, null, null);
+    }
+
+    @Test
+    public void testJobFiredNotBeforeItsTime() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long scheduledAt = timerService.getCurrentTime();
+
+        timerService.scheduleJob(ctx -> {
+            firedAt.set(System.currentTimeMillis());
+            latch.countDown();
+        }, new TestJobContext(), trigger(100, 0));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(firedAt.get()).isGreaterThanOrEqualTo(scheduledAt + 100);
+    }
+
+    @Test
+    public void testCancelledJobNotFired() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        JobHandle handle = timerService.scheduleJob(ctx -> fired.incrementAndGet(), new TestJobContext(), trigger(1000, 0));
+        timerService.scheduleJob(ctx -> latch.countDown(), new TestJobContext(), trigger(1500, 0));
+        assertThat(timerService.removeJob(handle)).isTrue();
+        assertThat(timerService.removeJob(handle)).isFalse();
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fired.get()).isZero();
+    }
+
+    @Test
+    public void testRepeatedJob() throws Exception {
+        CountDownLatch latch = new CountDownLatch(3);
+
+        JobHandle handle = timerService.scheduleJob(ctx -> latch.countDown(), new TestJobContext(), trigger(10, 20));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        timerService.removeJob(handle);
+    }
+
+    @Test
+    public void testJobWithoutFireTimeNotScheduled() {
+        Trigger trigger = trigger(10, 0);
+        trigger.nextFireTime();
+
+        assertThat(timerService.scheduleJob(ctx -> {}, new TestJobContext(), trigger)).isNull();
+    }
+
+    private static class TestJobContext implements JobContext {
+
+        private static final long serialVersionUID = 1L;
+
+        private JobHandle jobHandle;
+
+        @Override
+        public void setJobHandle(JobHandle jobHandle) {
+            this.jobHandle = jobHandle;
+        }
+
+        @Override
+        public JobHandle getJobHandle() {
+            return jobHandle;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.kie.services.time.impl.IntervalTrigger;
+import org.kie.services.time.manager.TimerInstance;
+
+public abstract class AbstractJobStoreTest {
+
+    protected static final String PROCESS_ID = "timers";
+
+    protected abstract JobStore jobStore();
+
+    protected static StoredJob job(String id, String processId, long nextFireTime) {
+        TimerInstance timer = new TimerInstance();
+        timer.setId(1);
+        timer.setDelay(1000);
+        timer.setActivated(new Date());
+        IntervalTrigger trigger = new IntervalTrigger(nextFireTime - 1000, null, null, -1, 1000, 0, null, null);
+        return new StoredJob(id, processId, id, timer, trigger, nextFireTime);
+    }
+
+    @Test
+    public void testClaimDueInFireTimeOrder() {
+        JobStore store = jobStore();
+        store.store(job("late", PROCESS_ID, 3000));
+        store.store(job("early", PROCESS_ID, 1000));
+        store.store(job("middle", PROCESS_ID, 2000));
+        store.store(job("future", PROCESS_ID, 10000));
+        store.store(job("other", "other-process", 1000));
+
+        List<StoredJob> claimed = store.claimDue(PROCESS_ID, 5000, 2, "node1", 60000);
+        assertThat(claimed).extracting(StoredJob::getId).containsExactly("early", "middle");
+        assertThat(claimed).allMatch(job -> "node1".equals(job.getOwner()));
+
+        assertThat(store.claimDue(PROCESS_ID, 5000, 10, "node2", 60000)).extracting(StoredJob::getId).containsExactly("late");
+        assertThat(store.claimDue(PROCESS_ID, 5000, 10, "node2", 60000)).isEmpty();
+    }
+
+    @Test
+    public void testClaimOnce() {
+        JobStore store = jobStore();
+        store.store(job("job", PROCESS_ID, 1000));
+
+        assertThat(store.claim("job", 1000, "node1", 60000)).isTrue();
+        assertThat(store.claim("job", 1000, "node2", 60000)).isFalse();
+        assertThat(store.claimDue(PROCESS_ID, 5000, 10, "node2", 60000)).isEmpty();
+    }
+
+    @Test
+    public void testClaimAfterLeaseExpired() {
+        JobStore store = jobStore();
+        store.store(job("job", PROCESS_ID, 1000));
+
+        assertThat(store.claim("job", 1000, "node1", -1)).isTrue();
+        assertThat(store.claimDue(PROCESS_ID, 5000, 10, "node2", 60000)).extracting(StoredJob::getOwner).containsExactly("node2");
+    }
+
+    @Test
+    public void testClaimOfRescheduledFiring() {
+        JobStore store = jobStore();
+        store.store(job("job", PROCESS_ID, 1000));
+        assertThat(store.claim("job", 1000, "node1", 60000)).isTrue();
+
+        // node1 fired the job and stored its next firing, the firing node2 is late for is gone
+        store.store(job("job", PROCESS_ID, 2000));
+        assertThat(store.claim("job", 1000, "node2", 60000)).isFalse();
+        assertThat(store.claim("job", 2000, "node2", 60000)).isTrue();
+    }
+
+    @Test
+    public void testRemove() {
+        JobStore store = jobStore();
+        store.store(job("job", PROCESS_ID, 1000));
+        store.remove("job");
+        store.remove("missing");
+
+        assertThat(store.claim("job", 1000, "node1", 60000)).isFalse();
+        assertThat(store.claimDue(PROCESS_ID, 5000, 10, "node1", 60000)).isEmpty();
+    }
+
+    @Test
+    public void testClaimedJobIsCopy() {
+        JobStore store = jobStore();
+        store.store(job("job", PROCESS_ID, 1000));
+
+        StoredJob claimed = store.claimDue(PROCESS_ID, 5000, 10, "node1", -1).get(0);
+        claimed.getTimer().setPeriod(42);
+        claimed.getTrigger().nextFireTime();
+
+        StoredJob reclaimed = store.claimDue(PROCESS_ID, 5000, 10, "node1", 60000).get(0);
+        assertThat(reclaimed.getTimer().getPeriod()).isZero();
+        assertThat(reclaimed.getTrigger().hasNextFireTime()).isNotNull();
+    }
+}
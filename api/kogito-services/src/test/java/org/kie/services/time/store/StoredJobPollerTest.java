@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.services.time.impl.IntervalTrigger;
+import org.kie.services.time.manager.TimerInstance;
+
+public class StoredJobPollerTest {
+
+    private static final String PROCESS_ID = "timers";
+
+    private InMemoryJobStore store;
+    private StoredTimerJobFactoryManager manager;
+    private List<StoredJob> fired;
+
+    @BeforeEach
+    public void setup() {
+        store = new InMemoryJobStore();
+        manager = new StoredTimerJobFactoryManager(store, PROCESS_ID, "node1", 60000);
+        fired = new ArrayList<>();
+    }
+
+    private StoredJob job(String id, long period) {
+        long start = System.currentTimeMillis() - 10000;
+        TimerInstance timer = new TimerInstance();
+        timer.setId(1);
+        timer.setDelay(1000);
+        timer.setPeriod(period);
+        timer.setActivated(new Date(start));
+        IntervalTrigger trigger = new IntervalTrigger(start, null, null, -1, 1000, period, null, null);
+        return new StoredJob(id, PROCESS_ID, id, timer, trigger, trigger.hasNextFireTime().getTime());
+    }
+
+    private StoredJobPoller poller(boolean exists) {
+        return new StoredJobPoller(manager, job -> fired.add(job) && exists, 1000, 0, 2);
+    }
+
+    @Test
+    public void testOverdueJobsFiredInBatches() {
+        for (int i = 0; i < 5; i++) {
+            store.store(job("instance" + i, 0));
+        }
+
+        assertThat(poller(true).poll()).isEqualTo(5);
+        assertThat(fired).hasSize(5).allMatch(job -> job.getTimer().getLastTriggered() != null && job.getTimer().getPeriod() == 0);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    public void testRepeatedJobRescheduled() {
+        StoredJob job = job("instance", 1000);
+        store.store(job);
+
+        assertThat(poller(true).poll()).isEqualTo(1);
+        assertThat(fired.get(0).getTimer().getPeriod()).isEqualTo(1000);
+        assertThat(store.size()).isEqualTo(1);
+
+        StoredJob rescheduled = store.claimDue(PROCESS_ID, Long.MAX_VALUE, 1, "node2", 60000).get(0);
+        assertThat(rescheduled.getNextFireTime()).isEqualTo(job.getNextFireTime() + 1000);
+        assertThat(rescheduled.getTimer().getLastTriggered()).isNotNull();
+    }
+
+    @Test
+    public void testJobOfMissingProcessInstanceRemoved() {
+        store.store(job("instance", 1000));
+
+        assertThat(poller(false).poll()).isEqualTo(1);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    public void testFailedJobStaysClaimed() {
+        store.store(job("instance", 0));
+        StoredJobPoller poller = new StoredJobPoller(manager, job -> {
+            throw new IllegalStateException("failed");
+        }, 1000, 0, 2);
+
+        assertThat(poller.poll()).isZero();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.claimDue(PROCESS_ID, Long.MAX_VALUE, 1, "node2", 60000)).isEmpty();
+    }
+}
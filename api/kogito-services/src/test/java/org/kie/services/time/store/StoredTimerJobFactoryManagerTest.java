@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.services.time.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.services.time.impl.DefaultJobHandle;
+import org.kie.services.time.impl.IntervalTrigger;
+import org.kie.services.time.impl.TimerJobInstance;
+import org.kie.services.time.manager.TimerInstance;
+import org.kie.services.time.manager.TimerManager;
+import org.kie.services.time.manager.TimerManager.ProcessJobContext;
+
+public class StoredTimerJobFactoryManagerTest {
+
+    private static final String PROCESS_INSTANCE_ID = "instance";
+
+    private InMemoryJobStore store;
+    private StoredTimerJobFactoryManager manager;
+    private long handleId;
+
+    @BeforeEach
+    public void setup() {
+        store = new InMemoryJobStore();
+        manager = new StoredTimerJobFactoryManager(store, "timers", "node1", 60000);
+    }
+
+    private TimerJobInstance schedule(String uniqueId) {
+        long start = System.currentTimeMillis();
+        TimerInstance timer = new TimerInstance();
+        // every load of the process instance allocates timer ids from the start
+        timer.setId(1);
+        timer.setUniqueId(uniqueId);
+        timer.setDelay(60000);
+        timer.setActivated(new Date(start));
+        IntervalTrigger trigger = new IntervalTrigger(start, null, null, -1, 60000, 0, null, null);
+        ProcessJobContext ctx = new ProcessJobContext(timer, trigger, PROCESS_INSTANCE_ID, null);
+        TimerJobInstance instance = manager.createTimerJobInstance(TimerManager.processJob, ctx, trigger, new DefaultJobHandle(++handleId), null);
+        manager.addTimerJobInstance(instance);
+        return instance;
+    }
+
+    @Test
+    public void testTimersOfDifferentLoadsStoredAsDifferentJobs() {
+        TimerJobInstance first = schedule("a");
+        schedule("b");
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.claim("a", Long.MAX_VALUE, "node2", 60000)).isTrue();
+
+        manager.removeTimerJobInstance(first);
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.claim("b", Long.MAX_VALUE, "node2", 60000)).isTrue();
+    }
+
+    @Test
+    public void testTimerWithoutUniqueIdStoredByTimerId() {
+        schedule(null);
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.claim(PROCESS_INSTANCE_ID + "_1", Long.MAX_VALUE, "node2", 60000)).isTrue();
+    }
+}
@@ -19,15 +19,23 @@ package org.kie.kogito.index.event;
 import java.net.URI;
 import java.time.ZonedDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.kie.kogito.index.model.ProcessInstance;
 
+import static org.kie.kogito.index.json.JsonUtils.getObjectMapper;
+
 public class KogitoProcessCloudEvent extends KogitoCloudEvent<ProcessInstance> {
 
     @JsonProperty("kogitoProcessinstanceState")
     private Integer state;
     @JsonProperty("kogitoParentProcessinstanceId")
     private String parentProcessInstanceId;
+    // variables of the data hold only those changed since the previous event, only read while indexing
+    @JsonIgnore
+    private boolean partialVariables;
 
     public static Builder builder() {
         return new Builder();
@@ -51,6 +59,24 @@ public class KogitoProcessCloudEvent extends KogitoCloudEvent<ProcessInstance> {
         this.state = state;
     }
 
+    public boolean isPartialVariables() {
+        return partialVariables;
+    }
+
+    public void setPartialVariables(boolean partialVariables) {
+        this.partialVariables = partialVariables;
+    }
+
+    @JsonSetter("data")
+    public void setDataJson(ObjectNode data) {
+        // partialVariables is sent within the data but is not part of the indexed process instance
+        if (data != null) {
+            partialVariables = data.path("partialVariables").asBoolean(false);
+            data.remove("partialVariables");
+        }
+        setData(data == null ? null : getObjectMapper().convertValue(data, ProcessInstance.class));
+    }
+
     @Override
     public void setSource(URI source) {
         super.setSource(source);
@@ -64,6 +90,7 @@ public class KogitoProcessCloudEvent extends KogitoCloudEvent<ProcessInstance> {
         return "KogitoProcessCloudEvent{" +
                "state=" + state +
                ", parentProcessInstanceId='" + parentProcessInstanceId + '\'' +
+               ", partialVariables=" + partialVariables +
                "} " + super.toString();
     }
 
@@ -140,6 +167,11 @@ public class KogitoProcessCloudEvent extends KogitoCloudEvent<ProcessInstance> {
             return this;
         }
 
+        public Builder partialVariables(boolean partialVariables) {
+            event.setPartialVariables(partialVariables);
+            return this;
+        }
+
         public Builder kogitoReferenceId(String kogitoReferenceId) {
             event.setKogitoReferenceId(kogitoReferenceId);
             return this;
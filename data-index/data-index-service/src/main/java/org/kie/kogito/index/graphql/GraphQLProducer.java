@@ -16,11 +16,15 @@
 
 package org.kie.kogito.index.graphql;
 
+import java.util.Arrays;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
 
 import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
 
 @ApplicationScoped
 public class GraphQLProducer {
@@ -34,7 +38,7 @@ public class GraphQLProducer {
     @Produces
     public GraphQL createGraphQL() {
         return GraphQL.newGraphQL(manager.getGraphQLSchema())
-                .instrumentation(instrumentation)
+                .instrumentation(new ChainedInstrumentation(Arrays.asList(instrumentation, new DataLoaderDispatcherInstrumentation())))
                 .build();
     }
 }
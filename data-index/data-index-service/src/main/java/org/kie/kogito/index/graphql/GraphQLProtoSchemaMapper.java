@@ -29,6 +29,7 @@ import javax.inject.Inject;
 import graphql.Scalars;
 import graphql.schema.GraphQLArgument;
 import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLList;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLOutputType;
@@ -39,6 +40,7 @@ import org.kie.kogito.index.domain.DomainDescriptor;
 import org.kie.kogito.index.event.DomainModelRegisteredEvent;
 import org.kie.kogito.index.model.ProcessInstanceMeta;
 import org.kie.kogito.index.model.UserTaskInstanceMeta;
+import org.kie.kogito.index.query.QueryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +62,9 @@ public class GraphQLProtoSchemaMapper {
     @Inject
     GraphQLSchemaManager schemaManager;
 
+    @Inject
+    QueryService queryService;
+
     private static String getTypeName(String type) {
         return type.contains(".") ? type.substring(type.lastIndexOf(".") + 1) : type;
     }
@@ -86,8 +91,15 @@ public class GraphQLProtoSchemaMapper {
                     qBuilder.clearFields();
                     qBuilder.fields(schema.getQueryType().getFieldDefinitions().stream().filter(field -> rootType.getName().equals(field.getName()) == false).collect(toList()));
                 }
-                GraphQLArgument argument = newArgument().name("query").type(Scalars.GraphQLString).build();
-                qBuilder.field(newFieldDefinition().name(rootType.getName()).type(GraphQLList.list(rootType)).argument(argument));
+                GraphQLFieldDefinition.Builder field = newFieldDefinition().name(rootType.getName()).type(GraphQLList.list(rootType));
+                if (queryService.supportsDomainQueries()) {
+                    GraphQLArgument argument = newArgument().name("query").type(Scalars.GraphQLString).build();
+                    field.argument(argument);
+                } else {
+                    // queries are rejected as unknown argument when validated, before reaching the storage
+                    LOGGER.debug("Storage does not support domain queries, {} can only be listed", rootType.getName());
+                }
+                qBuilder.field(field);
             });
             builder.query(query);
 
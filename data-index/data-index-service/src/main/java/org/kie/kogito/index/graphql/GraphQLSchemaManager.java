@@ -18,13 +18,19 @@ package org.kie.kogito.index.graphql;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -36,26 +42,35 @@ import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.GraphQLScalarType;
 import graphql.schema.GraphQLSchema;
+import graphql.schema.SelectedField;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.SchemaGenerator;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
-import io.quarkus.arc.Arc;
-import io.vertx.axle.core.eventbus.EventBus;
-import io.vertx.axle.core.eventbus.Message;
-import io.vertx.axle.core.eventbus.MessageConsumer;
-import io.vertx.axle.core.eventbus.MessageProducer;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.kie.kogito.index.cache.CacheService;
 import org.kie.kogito.index.model.ProcessInstance;
 import org.kie.kogito.index.model.ProcessInstanceState;
 import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.query.Cursor;
 import org.kie.kogito.index.query.ProcessInstanceFilter;
 import org.kie.kogito.index.query.QueryService;
+import org.kie.kogito.index.query.UserTaskInstanceFilter;
+import org.kie.kogito.index.service.CachedQueryService;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.kie.kogito.index.json.JsonUtils.getObjectMapper;
 
 @ApplicationScoped
@@ -66,27 +81,51 @@ public class GraphQLSchemaManager {
     private static final String PROCESS_INSTANCE_UPDATED = "ProcessInstanceUpdated";
     private static final String USER_TASK_INSTANCE_ADDED = "UserTaskInstanceAdded";
     private static final String USER_TASK_INSTANCE_UPDATED = "UserTaskInstanceUpdated";
+    private static final String CHILD_PROCESS_INSTANCE_ID = "childProcessInstanceId";
+    private static final String CURSOR = "cursor";
+    private static final String CHILD_PROCESS_INSTANCES_LOADER = "childProcessInstances";
+    // bounds number of values in the in(...) condition of a single batched query
+    private static final int MAX_LOADER_BATCH_SIZE = 1000;
 
     @Inject
     QueryService queryService;
 
+    @Inject
+    CachedQueryService cachedQueryService;
+
     @Inject
     CacheService cacheService;
 
     @Inject
     GraphQLScalarType qlDateTimeScalarType;
 
-    private ConcurrentMap<String, MessageProducer> producers = new ConcurrentHashMap<>();
+    @Inject
+    @ConfigProperty(name = "kogito.dataindex.subscription.buffer-size", defaultValue = "100")
+    Integer subscriptionBufferSize;
+
+    @Inject
+    @ConfigProperty(name = "kogito.dataindex.subscription.overflow", defaultValue = "LATEST")
+    SubscriptionOverflow subscriptionOverflow;
+
+    private ConcurrentMap<String, SubscriptionChannel> channels = new ConcurrentHashMap<>();
+    private ExecutorService subscriptionExecutor;
     private GraphQLSchema schema;
 
     @PostConstruct
     public void setup() {
         schema = createSchema();
+        AtomicInteger threads = new AtomicInteger();
+        subscriptionExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "kogito-data-index-subscription-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @PreDestroy
     public void destroy() {
-        producers.values().forEach(MessageProducer::close);
+        channels.clear();
+        subscriptionExecutor.shutdownNow();
     }
 
     private GraphQLSchema createSchema() {
@@ -102,7 +141,12 @@ public class GraphQLSchemaManager {
                     return builder;
                 })
                 .type("ProcessInstance", builder -> {
-                    builder.dataFetcher("childProcessInstanceId", this::getChildProcessInstancesValues);
+                    builder.dataFetcher(CHILD_PROCESS_INSTANCE_ID, this::getChildProcessInstancesValues);
+                    builder.dataFetcher(CURSOR, env -> Cursor.of((ProcessInstance) env.getSource()));
+                    return builder;
+                })
+                .type("UserTaskInstance", builder -> {
+                    builder.dataFetcher(CURSOR, env -> Cursor.of((UserTaskInstance) env.getSource()));
                     return builder;
                 })
                 .type("ProcessInstanceState", builder -> {
@@ -123,72 +167,121 @@ public class GraphQLSchemaManager {
         return schemaGenerator.makeExecutableSchema(typeDefinitionRegistry, runtimeWiring);
     }
 
-    private Set<String> getChildProcessInstancesValues(DataFetchingEnvironment env) {
+    /**
+     * Creates data loaders of relation fields. Loaders collect keys requested on one level of the query
+     * and load all of them with a single query, values are cached by the loader so it must be created
+     * for every request.
+     */
+    public DataLoaderRegistry createDataLoaderRegistry() {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        registry.register(CHILD_PROCESS_INSTANCES_LOADER, DataLoader.newDataLoader(this::loadChildProcessInstances, DataLoaderOptions.newOptions().setMaxBatchSize(MAX_LOADER_BATCH_SIZE)));
+        return registry;
+    }
+
+    private Object getChildProcessInstancesValues(DataFetchingEnvironment env) {
         ProcessInstance source = env.getSource();
-        Collection<ProcessInstance> pil = queryService.queryProcessInstances(ProcessInstanceFilter.builder().parentProcessInstanceId(singletonList(source.getId())).build());
-        return pil.stream().map(pi -> pi.getId()).collect(Collectors.toSet());
+        DataLoader<String, Set<String>> loader = env.getDataLoader(CHILD_PROCESS_INSTANCES_LOADER);
+        if (loader == null) {
+            // request executed without data loaders, e.g. over web socket
+            Collection<ProcessInstance> pil = queryService.queryProcessInstances(ProcessInstanceFilter.builder().parentProcessInstanceId(singletonList(source.getId())).build());
+            return pil.stream().map(pi -> pi.getId()).collect(toSet());
+        }
+        return loader.load(source.getId());
+    }
+
+    private CompletionStage<List<Set<String>>> loadChildProcessInstances(List<String> parentProcessInstanceIds) {
+        Collection<ProcessInstance> pil = queryService.queryProcessInstances(ProcessInstanceFilter.builder().parentProcessInstanceId(new ArrayList<>(parentProcessInstanceIds)).build());
+        Map<String, Set<String>> children = pil.stream().collect(groupingBy(ProcessInstance::getParentProcessInstanceId, mapping(ProcessInstance::getId, toSet())));
+        return completedFuture(parentProcessInstanceIds.stream().map(id -> children.getOrDefault(id, emptySet())).collect(toList()));
     }
 
     private Collection<ProcessInstance> getProcessInstancesValues(DataFetchingEnvironment env) {
         Map<String, Object> filter = env.getArgument("filter");
-        return queryService.queryProcessInstances(new ProcessInstanceFilterMapper().apply(filter));
+        ProcessInstanceFilter processInstanceFilter = filter == null ? new ProcessInstanceFilter() : new ProcessInstanceFilterMapper().apply(filter);
+        processInstanceFilter.setProjection(getSelectedAttributes(env, Cursor.processInstanceAttributes()));
+        return cachedQueryService.queryProcessInstances(processInstanceFilter);
     }
 
     private Collection<UserTaskInstance> getUserTaskInstancesValues(DataFetchingEnvironment env) {
         Map<String, Object> filter = env.getArgument("filter");
-        return queryService.queryUserTaskInstances(new UserTaskInstanceFilterMapper().apply(filter));
+        UserTaskInstanceFilter userTaskInstanceFilter = filter == null ? new UserTaskInstanceFilter() : new UserTaskInstanceFilterMapper().apply(filter);
+        userTaskInstanceFilter.setProjection(getSelectedAttributes(env, Cursor.userTaskInstanceAttributes()));
+        return cachedQueryService.queryUserTaskInstances(userTaskInstanceFilter);
+    }
+
+    /**
+     * Returns attributes of the queried type read by the selection set, so only those are loaded.
+     */
+    private Set<String> getSelectedAttributes(DataFetchingEnvironment env, Set<String> cursorAttributes) {
+        Set<String> attributes = env.getSelectionSet().getFields().stream()
+                .map(SelectedField::getQualifiedName)
+                .filter(name -> !name.contains("/") && !name.startsWith("__"))
+                // child process instances are loaded by the id of their parent
+                .map(name -> CHILD_PROCESS_INSTANCE_ID.equals(name) ? "id" : name)
+                .collect(toSet());
+        attributes.add("id");
+        if (attributes.remove(CURSOR)) {
+            attributes.addAll(cursorAttributes);
+        }
+        return attributes;
     }
 
     private DataFetcher<Publisher<ObjectNode>> getProcessInstanceAddedDataFetcher() {
         return env -> {
-            return createPublisher(PROCESS_INSTANCE_ADDED, producer -> cacheService.getProcessInstancesCache().addObjectCreatedListener(pi -> producer.write(getObjectMapper().convertValue(pi, ObjectNode.class))));
+            return createPublisher(PROCESS_INSTANCE_ADDED, getProcessInstanceSubscriptionFilter(env), channel -> cacheService.getProcessInstancesCache().addObjectCreatedListener(pi -> channel.publish(getObjectMapper().convertValue(pi, ObjectNode.class))));
         };
     }
 
     private DataFetcher<Publisher<ObjectNode>> getProcessInstanceUpdatedDataFetcher() {
         return env -> {
-            return createPublisher(PROCESS_INSTANCE_UPDATED, producer -> cacheService.getProcessInstancesCache().addObjectUpdatedListener(pi -> producer.write(getObjectMapper().convertValue(pi, ObjectNode.class))));
+            return createPublisher(PROCESS_INSTANCE_UPDATED, getProcessInstanceSubscriptionFilter(env), channel -> cacheService.getProcessInstancesCache().addObjectUpdatedListener(pi -> channel.publish(getObjectMapper().convertValue(pi, ObjectNode.class))));
         };
     }
 
     private DataFetcher<Publisher<ObjectNode>> getUserTaskInstanceAddedDataFetcher() {
         return env -> {
-            return createPublisher(USER_TASK_INSTANCE_ADDED, producer -> cacheService.getUserTaskInstancesCache().addObjectCreatedListener(ut -> producer.write(getObjectMapper().convertValue(ut, ObjectNode.class))));
+            return createPublisher(USER_TASK_INSTANCE_ADDED, getUserTaskInstanceSubscriptionFilter(env), channel -> cacheService.getUserTaskInstancesCache().addObjectCreatedListener(ut -> channel.publish(getObjectMapper().convertValue(ut, ObjectNode.class))));
         };
     }
 
     private DataFetcher<Publisher<ObjectNode>> getUserTaskInstanceUpdatedDataFetcher() {
         return env -> {
-            return createPublisher(USER_TASK_INSTANCE_UPDATED, producer -> cacheService.getUserTaskInstancesCache().addObjectUpdatedListener(ut -> producer.write(getObjectMapper().convertValue(ut, ObjectNode.class))));
+            return createPublisher(USER_TASK_INSTANCE_UPDATED, getUserTaskInstanceSubscriptionFilter(env), channel -> cacheService.getUserTaskInstancesCache().addObjectUpdatedListener(ut -> channel.publish(getObjectMapper().convertValue(ut, ObjectNode.class))));
         };
     }
 
-    private Publisher<ObjectNode> createPublisher(String address, Consumer<MessageProducer<ObjectNode>> consumer) {
-        EventBus eventBus = Arc.container().instance(EventBus.class).get();
-
-        LOGGER.debug("Creating new message consumer for EventBus address: {}", address);
-        MessageConsumer<ObjectNode> messageConsumer = eventBus.consumer(address);
-        Publisher<ObjectNode> publisher = messageConsumer.toPublisherBuilder().map(Message::body).buildRs();
+    private Predicate<ObjectNode> getProcessInstanceSubscriptionFilter(DataFetchingEnvironment env) {
+        Map<String, Object> filter = env.getArgument("filter");
+        return SubscriptionFilters.of(filter == null ? null : new ProcessInstanceFilterMapper().apply(filter));
+    }
 
-        producers.computeIfAbsent(address, key -> {
-            LOGGER.debug("Creating new message publisher for EventBus address: {}", address);
-            MessageProducer<ObjectNode> producer = eventBus.publisher(address);
-            consumer.accept(producer);
-            return producer;
-        });
+    private Predicate<ObjectNode> getUserTaskInstanceSubscriptionFilter(DataFetchingEnvironment env) {
+        Map<String, Object> filter = env.getArgument("filter");
+        return SubscriptionFilters.of(filter == null ? null : new UserTaskInstanceFilterMapper().apply(filter));
+    }
 
-        return publisher;
+    /**
+     * Subscribes to the channel of the given name. Channel is created with the first subscription, which
+     * registers the cache listener publishing changes to it, all later subscriptions share the channel.
+     */
+    private Publisher<ObjectNode> createPublisher(String name, Predicate<ObjectNode> filter, Consumer<SubscriptionChannel> listener) {
+        return channels.computeIfAbsent(name, key -> {
+            LOGGER.debug("Creating new subscription channel: {}", name);
+            SubscriptionChannel channel = new SubscriptionChannel(subscriptionBufferSize, subscriptionOverflow, subscriptionExecutor);
+            listener.accept(channel);
+            return channel;
+        }).subscribe(filter);
     }
 
     protected DataFetcher<Publisher<ObjectNode>> getDomainModelUpdatedDataFetcher(String processId) {
         return env -> {
-            return createPublisher(processId + "Updated", producer -> cacheService.getDomainModelCache(processId).addObjectUpdatedListener(domain -> producer.write(domain)));
+            return createPublisher(processId + "Updated", domain -> true, channel -> cacheService.getDomainModelCache(processId).addObjectUpdatedListener(domain -> channel.publish(domain)));
         };
     }
 
     protected DataFetcher<Publisher<ObjectNode>> getDomainModelAddedDataFetcher(String processId) {
         return env -> {
-            return createPublisher(processId + "Added", producer -> cacheService.getDomainModelCache(processId).addObjectCreatedListener(domain -> producer.write(domain)));
+            return createPublisher(processId + "Added", domain -> true, channel -> cacheService.getDomainModelCache(processId).addObjectCreatedListener(domain -> channel.publish(domain)));
         };
     }
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.graphql;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Bounded buffer of changes for a single GraphQL subscriber, published as a reactive stream.
+ * Changes are offered without blocking, those not matching the subscriber's filter are skipped and
+ * when the buffer is full the overflow policy decides which changes are dropped. Buffered changes are
+ * delivered on the given executor as the subscriber requests them, so a slow subscriber never holds
+ * up the thread offering the changes.
+ */
+class SubscriptionBuffer implements Publisher<ObjectNode>, Subscription {
+
+    private final Predicate<ObjectNode> filter;
+    private final int capacity;
+    private final SubscriptionOverflow overflow;
+    private final Executor executor;
+    private final Consumer<SubscriptionBuffer> onCancel;
+
+    private final Deque<ObjectNode> buffer = new ArrayDeque<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile Subscriber<? super ObjectNode> subscriber;
+
+    SubscriptionBuffer(Predicate<ObjectNode> filter, int capacity, SubscriptionOverflow overflow, Executor executor, Consumer<SubscriptionBuffer> onCancel) {
+        this.filter = filter;
+        this.capacity = capacity;
+        this.overflow = overflow;
+        this.executor = executor;
+        this.onCancel = onCancel;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ObjectNode> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Subscription publisher allows only one subscriber"));
+            return;
+        }
+        this.subscriber = subscriber;
+        subscriber.onSubscribe(this);
+    }
+
+    /**
+     * Buffers the change if it matches the filter of the subscriber.
+     */
+    void offer(ObjectNode change) {
+        if (cancelled || !filter.test(change)) {
+            return;
+        }
+        synchronized (buffer) {
+            if (buffer.size() >= capacity) {
+                dropped.incrementAndGet();
+                if (overflow == SubscriptionOverflow.DROP) {
+                    return;
+                }
+                buffer.pollFirst();
+            }
+            buffer.addLast(change);
+        }
+        scheduleDrain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancel();
+            subscriber.onError(new IllegalArgumentException("Requested number of changes must be positive, was " + n));
+            return;
+        }
+        requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        scheduleDrain();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            synchronized (buffer) {
+                buffer.clear();
+            }
+            onCancel.accept(this);
+        }
+    }
+
+    /**
+     * Returns number of changes dropped because the subscriber did not keep up.
+     */
+    long dropped() {
+        return dropped.get();
+    }
+
+    int size() {
+        synchronized (buffer) {
+            return buffer.size();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (subscriber != null && pendingDrains.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            while (!cancelled && requested.get() > 0) {
+                ObjectNode change;
+                synchronized (buffer) {
+                    change = buffer.pollFirst();
+                }
+                if (change == null) {
+                    break;
+                }
+                requested.decrementAndGet();
+                subscriber.onNext(change);
+            }
+            missed = pendingDrains.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
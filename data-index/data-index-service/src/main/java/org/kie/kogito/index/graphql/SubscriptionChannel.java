@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.graphql;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.reactivestreams.Publisher;
+
+/**
+ * Fans out changes of one kind (e.g. added process instances) to all GraphQL subscribers of that kind.
+ * Each change is published once, already converted to JSON, and the same instance is shared by all
+ * subscribers, each of which gets it through its own {@link SubscriptionBuffer}.
+ */
+class SubscriptionChannel {
+
+    private final Set<SubscriptionBuffer> subscribers = ConcurrentHashMap.newKeySet();
+    private final int bufferSize;
+    private final SubscriptionOverflow overflow;
+    private final Executor executor;
+
+    SubscriptionChannel(int bufferSize, SubscriptionOverflow overflow, Executor executor) {
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.executor = executor;
+    }
+
+    void publish(ObjectNode change) {
+        subscribers.forEach(subscriber -> subscriber.offer(change));
+    }
+
+    /**
+     * Returns publisher of changes matching the given filter, changes are buffered from now on.
+     */
+    Publisher<ObjectNode> subscribe(Predicate<ObjectNode> filter) {
+        SubscriptionBuffer buffer = new SubscriptionBuffer(filter, bufferSize, overflow, executor, subscribers::remove);
+        subscribers.add(buffer);
+        return buffer;
+    }
+
+    int subscribers() {
+        return subscribers.size();
+    }
+}
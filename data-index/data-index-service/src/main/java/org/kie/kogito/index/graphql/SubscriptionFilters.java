@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.graphql;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.kie.kogito.index.query.ProcessInstanceFilter;
+import org.kie.kogito.index.query.UserTaskInstanceFilter;
+
+/**
+ * Evaluates filter arguments of GraphQL subscriptions against changed objects, so subscribers get only
+ * changes they are interested in. Every given attribute must match one of its values, attributes holding
+ * multiple values match when any of them does. Paging and ordering of the filter do not apply.
+ */
+final class SubscriptionFilters {
+
+    private SubscriptionFilters() {
+    }
+
+    static Predicate<ObjectNode> of(ProcessInstanceFilter filter) {
+        if (filter == null) {
+            return change -> true;
+        }
+        return matches("state", filter.getState())
+                .and(matches("id", filter.getId()))
+                .and(matches("processId", filter.getProcessId()))
+                .and(matches("parentProcessInstanceId", filter.getParentProcessInstanceId()))
+                .and(matches("rootProcessInstanceId", filter.getRootProcessInstanceId()));
+    }
+
+    static Predicate<ObjectNode> of(UserTaskInstanceFilter filter) {
+        if (filter == null) {
+            return change -> true;
+        }
+        return matches("state", filter.getState())
+                .and(matches("id", filter.getId()))
+                .and(matches("processInstanceId", filter.getProcessInstanceId()))
+                .and(matches("actualOwner", filter.getActualOwner()))
+                .and(matches("potentialUsers", filter.getPotentialUsers()))
+                .and(matches("potentialGroups", filter.getPotentialGroups()));
+    }
+
+    private static Predicate<ObjectNode> matches(String attribute, List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return change -> true;
+        }
+        return change -> {
+            JsonNode value = change.get(attribute);
+            if (value == null || value.isNull()) {
+                return values.contains(null);
+            }
+            if (value.isArray()) {
+                return StreamSupport.stream(value.spliterator(), false).anyMatch(item -> contains(values, item));
+            }
+            return contains(values, value);
+        };
+    }
+
+    private static boolean contains(List<?> values, JsonNode value) {
+        String text = value.asText();
+        return values.stream().anyMatch(v -> v != null && v.toString().equals(text));
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.graphql;
+
+/**
+ * What happens when a GraphQL subscriber does not keep up and its buffer is full.
+ */
+public enum SubscriptionOverflow {
+    /**
+     * New changes are dropped until the subscriber catches up
+     */
+    DROP,
+    /**
+     * Oldest buffered changes are dropped so the subscriber always gets the latest ones,
+     * with buffer size of one the subscriber gets only the latest change
+     */
+    LATEST
+}
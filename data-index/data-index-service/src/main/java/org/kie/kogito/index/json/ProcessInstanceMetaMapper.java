@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.kie.kogito.index.event.KogitoProcessCloudEvent;
 import org.kie.kogito.index.model.ProcessInstance;
 
+import static org.kie.kogito.index.Constants.PARTIAL_VARIABLES_ATTRIBUTE;
 import static org.kie.kogito.index.Constants.PROCESS_INSTANCES_DOMAIN_ATTRIBUTE;
 import static org.kie.kogito.index.json.JsonUtils.getObjectMapper;
 
@@ -40,6 +41,9 @@ public class ProcessInstanceMetaMapper implements Function<KogitoProcessCloudEve
             json.put("processId", event.getRootProcessId() == null ? event.getProcessId() : event.getRootProcessId());
             json.withArray(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE).add(getProcessJson(event, pi));
             json.setAll((ObjectNode) event.getData().getVariables());
+            if (event.isPartialVariables()) {
+                json.put(PARTIAL_VARIABLES_ATTRIBUTE, true);
+            }
             return json;
         }
     }
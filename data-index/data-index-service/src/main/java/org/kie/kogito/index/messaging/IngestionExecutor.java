@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.index.service.IndexingBatch;
+import org.kie.kogito.index.service.IndexingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes indexing of incoming events on a fixed number of shards, each processing its events in order
+ * on a dedicated thread. Events are assigned to shards by key (process instance id) so events of one
+ * process instance are always indexed in the order they arrived while different process instances are
+ * indexed in parallel. Each shard has a bounded queue, submitting to a full shard fails right away instead
+ * of blocking the caller, which is usually a messaging thread. Callers wait for the returned future before
+ * submitting further events, which keeps the number of events in flight below the queue size.
+ *
+ * Shard takes the events already waiting in its queue, up to the batch size, and indexes them as one batch.
+ * It never waits for more events to arrive, batches grow with the backlog that builds up while the previous
+ * batch is being indexed. Events are acknowledged only after their batch is stored.
+ * Shards run on an executor owned by this bean; stopping it indexes the events already queued before
+ * the shard threads end.
+ */
+@ApplicationScoped
+public class IngestionExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestionExecutor.class);
+
+    @Inject
+    IndexingService indexingService;
+
+    @Inject
+    @ConfigProperty(name = "kogito.dataindex.ingestion.shards", defaultValue = "4")
+    Integer shardCount;
+
+    @Inject
+    @ConfigProperty(name = "kogito.dataindex.ingestion.queue-size", defaultValue = "1000")
+    Integer queueSize;
+
+    @Inject
+    @ConfigProperty(name = "kogito.dataindex.ingestion.batch-size", defaultValue = "100")
+    Integer batchSize;
+
+    private Shard[] shards;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public IngestionExecutor() {
+    }
+
+    public IngestionExecutor(IndexingService indexingService, int shardCount, int queueSize, int batchSize) {
+        this.indexingService = indexingService;
+        this.shardCount = shardCount;
+        this.queueSize = queueSize;
+        this.batchSize = batchSize;
+        start();
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "kogito-data-index-ingestion-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+            executor.execute(shards[i]);
+        }
+        LOGGER.info("Started ingestion executor with {} shards", shards.length);
+    }
+
+    /**
+     * Stops accepting events and waits for the shards to index the events already in their queues.
+     * Events that could not be indexed in time are completed exceptionally.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Ingestion shards did not index queued events in time, stopping them");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        RejectedExecutionException stopped = new RejectedExecutionException("Ingestion executor stopped");
+        for (Shard shard : shards) {
+            Task task;
+            while ((task = shard.queue.poll()) != null) {
+                task.result.completeExceptionally(stopped);
+            }
+        }
+    }
+
+    /**
+     * Submits event to the shard of the given key. Never blocks, if the queue of the shard is full or the
+     * executor is stopped the returned future is completed exceptionally with {@link RejectedExecutionException}.
+     * @param key key that determines the shard, events of the same key are indexed in submission order
+     * @param event adds the event to the batch it is indexed with
+     * @return future completed once the batch with the event is indexed
+     */
+    public CompletableFuture<Void> submit(String key, Consumer<IndexingBatch> event) {
+        Task task = new Task(key, event);
+        int shard = shard(key);
+        if (!running) {
+            task.result.completeExceptionally(new RejectedExecutionException("Ingestion executor stopped"));
+        } else if (!shards[shard].queue.offer(task)) {
+            task.result.completeExceptionally(new RejectedExecutionException("Ingestion queue of shard " + shard + " is full"));
+        } else if (!running && shards[shard].queue.remove(task)) {
+            // stopped meanwhile, the shard might not take the task anymore
+            task.result.completeExceptionally(new RejectedExecutionException("Ingestion executor stopped"));
+        }
+        return task.result;
+    }
+
+    public int shards() {
+        return shards.length;
+    }
+
+    /**
+     * Returns maximum number of events waiting in the queue of a single shard
+     */
+    public int queueCapacity() {
+        return queueSize;
+    }
+
+    /**
+     * Returns number of events waiting in the queue of the given shard
+     */
+    public int queueDepth(int shard) {
+        return shards[shard].queue.size();
+    }
+
+    /**
+     * Returns number of events indexed by the given shard
+     */
+    public long executed(int shard) {
+        return shards[shard].executed.get();
+    }
+
+    /**
+     * Returns number of batches indexed by the given shard
+     */
+    public long batches(int shard) {
+        return shards[shard].batches.get();
+    }
+
+    protected int shard(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), shards.length);
+    }
+
+    private static class Task {
+
+        private final String key;
+        private final Consumer<IndexingBatch> event;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        Task(String key, Consumer<IndexingBatch> event) {
+            this.key = key;
+            this.event = event;
+        }
+    }
+
+    private class Shard implements Runnable {
+
+        private final BlockingQueue<Task> queue;
+        private final AtomicLong executed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+
+        Shard() {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Task task = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        index(collect(task));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private List<Task> collect(Task first) {
+            List<Task> tasks = new ArrayList<>(batchSize);
+            tasks.add(first);
+            queue.drainTo(tasks, batchSize - 1);
+            return tasks;
+        }
+
+        private void index(List<Task> tasks) {
+            try {
+                IndexingBatch batch = new IndexingBatch();
+                tasks.forEach(task -> task.event.accept(batch));
+                indexingService.index(batch);
+                tasks.forEach(task -> task.result.complete(null));
+            } catch (Exception e) {
+                LOGGER.error("Error indexing batch of {} events with keys {}: {}", tasks.size(), tasks.stream().map(task -> task.key).distinct().toArray(), e.getMessage(), e);
+                tasks.forEach(task -> task.result.completeExceptionally(e));
+            }
+            executed.addAndGet(tasks.size());
+            batches.incrementAndGet();
+        }
+    }
+}
@@ -16,116 +16,199 @@
 
 package org.kie.kogito.index.messaging;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
-import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.vertx.core.eventbus.EventBus;
-import io.vertx.core.eventbus.Message;
-import io.vertx.core.eventbus.MessageConsumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Acknowledgment;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
-import org.kie.kogito.index.event.DomainModelRegisteredEvent;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.kie.kogito.index.event.KogitoProcessCloudEvent;
 import org.kie.kogito.index.event.KogitoUserTaskCloudEvent;
 import org.kie.kogito.index.json.ProcessInstanceMetaMapper;
 import org.kie.kogito.index.json.UserTaskInstanceMetaMapper;
-import org.kie.kogito.index.service.IndexingService;
-import org.kie.kogito.index.vertx.ObjectNodeMessageCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static java.lang.String.format;
-
+/**
+ * Consumes Kogito events and submits them to the {@link IngestionExecutor}. Messages are acknowledged once
+ * the batch with their event is indexed. Channels deliver the next message as soon as the previous one is
+ * submitted, so events queue up and are indexed in batches, until the number of events of the channel
+ * still being indexed reaches the configured maximum. The maximum is capped so that events in flight of all
+ * channels fit in the queue of a single shard, hence submitting never fails because a shard is full.
+ *
+ * Messaging API in use cannot negatively acknowledge a message, so when an event fails to be indexed its
+ * channel fails instead: no further messages of the channel are acknowledged or submitted, and the
+ * unacknowledged ones are delivered again once the service is restarted.
+ */
 @ApplicationScoped
 public class ReactiveMessagingEventConsumer {
 
-    protected static final String KOGITO_DOMAIN_EVENTS = "kogito-domain-events-%s";
     private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveMessagingEventConsumer.class);
     private static final String KOGITO_PROCESSINSTANCES_EVENTS = "kogito-processinstances-events";
     private static final String KOGITO_PROCESSDOMAIN_EVENTS = "kogito-processdomain-events";
     private static final String KOGITO_USERTASKDOMAIN_EVENTS = "kogito-usertaskdomain-events";
     private static final String KOGITO_USERTASKINSTANCES_EVENTS = "kogito-usertaskinstances-events";
+    private static final int CHANNELS = 4;
 
     @Inject
-    IndexingService indexingService;
+    IngestionExecutor ingestionExecutor;
 
     @Inject
-    EventBus eventBus;
-    
-    @Inject
-    ObjectNodeMessageCodec codec;
-    
+    @ConfigProperty(name = "kogito.dataindex.ingestion.max-in-flight", defaultValue = "200")
+    Integer maxInFlight;
+
+    private InFlightEvents processInstanceEvents;
+    private InFlightEvents processDomainEvents;
+    private InFlightEvents userTaskInstanceEvents;
+    private InFlightEvents userTaskDomainEvents;
+
     @PostConstruct
-    public void setup(){
-        eventBus.registerDefaultCodec(ObjectNode.class, codec);
+    public void init() {
+        int max = maxInFlight;
+        // events of all channels may hash to the same shard
+        int shardLimit = Math.max(1, ingestionExecutor.queueCapacity() / CHANNELS);
+        if (max > shardLimit) {
+            LOGGER.warn("Maximum of {} events in flight per channel does not fit in ingestion queue of {} events, using {}", max, ingestionExecutor.queueCapacity(), shardLimit);
+            max = shardLimit;
+        }
+        processInstanceEvents = new InFlightEvents(KOGITO_PROCESSINSTANCES_EVENTS, max);
+        processDomainEvents = new InFlightEvents(KOGITO_PROCESSDOMAIN_EVENTS, max);
+        userTaskInstanceEvents = new InFlightEvents(KOGITO_USERTASKINSTANCES_EVENTS, max);
+        userTaskDomainEvents = new InFlightEvents(KOGITO_USERTASKDOMAIN_EVENTS, max);
     }
 
-    private Map<String, MessageConsumer<ObjectNode>> consumers = new HashMap<>();
+    @Incoming(KOGITO_PROCESSINSTANCES_EVENTS)
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onProcessInstanceMessage(Message<KogitoProcessCloudEvent> message) {
+        return processInstanceEvents.add(message, () -> onProcessInstanceEvent(message.getPayload()));
+    }
 
-    public void onDomainModelRegisteredEvent(@Observes DomainModelRegisteredEvent event) {
-        LOGGER.info("New domain model registered for Process Id: {}", event.getProcessId());
-        consumers.computeIfAbsent(event.getProcessId(), f -> {
-            MessageConsumer<ObjectNode> consumer = eventBus.consumer(format(KOGITO_DOMAIN_EVENTS, event.getProcessId()), e -> onDomainEvent(e));
-            LOGGER.info("Consumer registered for address: {}", consumer.address());
-            return consumer;
-        });
+    @Incoming(KOGITO_PROCESSDOMAIN_EVENTS)
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onProcessInstanceDomainMessage(Message<KogitoProcessCloudEvent> message) {
+        return processDomainEvents.add(message, () -> onProcessInstanceDomainEvent(message.getPayload()));
+    }
+
+    @Incoming(KOGITO_USERTASKINSTANCES_EVENTS)
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onUserTaskInstanceMessage(Message<KogitoUserTaskCloudEvent> message) {
+        return userTaskInstanceEvents.add(message, () -> onUserTaskInstanceEvent(message.getPayload()));
+    }
+
+    @Incoming(KOGITO_USERTASKDOMAIN_EVENTS)
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onUserTaskInstanceDomainMessage(Message<KogitoUserTaskCloudEvent> message) {
+        return userTaskDomainEvents.add(message, () -> onUserTaskInstanceDomainEvent(message.getPayload()));
     }
 
-    @Incoming(KOGITO_PROCESSINSTANCES_EVENTS)
     public CompletionStage<Void> onProcessInstanceEvent(KogitoProcessCloudEvent event) {
         LOGGER.debug("Process instance consumer received KogitoCloudEvent: \n{}", event);
-        return CompletableFuture.runAsync(() -> indexingService.indexProcessInstance(event.getData()));
+        return ingestionExecutor.submit(ingestionKey(event.getRootProcessInstanceId(), event.getProcessInstanceId()), batch -> batch.addProcessInstance(event.getData(), event.isPartialVariables()));
     }
 
-    @Incoming(KOGITO_PROCESSDOMAIN_EVENTS)
     public CompletionStage<Void> onProcessInstanceDomainEvent(KogitoProcessCloudEvent event) {
         LOGGER.debug("Process domain consumer received KogitoCloudEvent: \n{}", event);
         ObjectNode json = new ProcessInstanceMetaMapper().apply(event);
-        return sendMessage(json);
+        return ingestionExecutor.submit(ingestionKey(event.getRootProcessInstanceId(), event.getProcessInstanceId()), batch -> batch.addModel(json));
     }
 
-    @Incoming(KOGITO_USERTASKINSTANCES_EVENTS)
     public CompletionStage<Void> onUserTaskInstanceEvent(KogitoUserTaskCloudEvent event) {
         LOGGER.debug("Task instance received KogitoUserTaskCloudEvent \n{}", event);
-        return CompletableFuture.runAsync(() -> indexingService.indexUserTaskInstance(event.getData()));
+        return ingestionExecutor.submit(ingestionKey(event.getRootProcessInstanceId(), event.getProcessInstanceId()), batch -> batch.addUserTaskInstance(event.getData()));
     }
 
-    @Incoming(KOGITO_USERTASKDOMAIN_EVENTS)
     public CompletionStage<Void> onUserTaskInstanceDomainEvent(KogitoUserTaskCloudEvent event) {
         LOGGER.debug("Task domain received KogitoUserTaskCloudEvent \n{}", event);
         ObjectNode json = new UserTaskInstanceMetaMapper().apply(event);
-        return sendMessage(json);
+        return ingestionExecutor.submit(ingestionKey(event.getRootProcessInstanceId(), event.getProcessInstanceId()), batch -> batch.addModel(json));
     }
 
-    private CompletableFuture<Void> sendMessage(ObjectNode json) {
-        CompletableFuture<Void> cf = new CompletableFuture<>();
-        String processId = json.get("processId").asText();
-        eventBus.request(format(KOGITO_DOMAIN_EVENTS, processId), json, async -> cf.complete(null));
-        return cf;
+    private String ingestionKey(String rootProcessInstanceId, String processInstanceId) {
+        // events of the whole process instance hierarchy are indexed in order
+        return rootProcessInstanceId == null ? processInstanceId : rootProcessInstanceId;
     }
 
-    private void onDomainEvent(Message<ObjectNode> message) {
-        try {
-            LOGGER.debug("Processing domain message: {}", message);
-            indexingService.indexModel(message.body());
-            message.reply(null);
-        } catch (Exception ex) {
-            LOGGER.error("Error processing domain event: {}", ex.getMessage(), ex);
-            message.fail(0, ex.getMessage());
+    /**
+     * Events of one channel submitted but not indexed yet. Channel waits for the stage returned by
+     * {@link #add(Message, Supplier)} before delivering the next message, which is delayed only
+     * while the maximum number of events is in flight. Once an event fails, stages returned for the
+     * following messages fail with the same error.
+     */
+    static class InFlightEvents {
+
+        private final String channel;
+        private final int max;
+        private int count;
+        private CompletableFuture<Void> waiting;
+        private Throwable failure;
+
+        InFlightEvents(String channel, int max) {
+            this.channel = channel;
+            this.max = max;
         }
-    }
 
-    @PreDestroy
-    public void destroy() {
-        consumers.values().forEach(c -> c.unregister());
-        consumers.clear();
+        CompletionStage<Void> add(Message<?> message, Supplier<CompletionStage<Void>> submit) {
+            CompletableFuture<Void> result;
+            synchronized (this) {
+                if (failure != null) {
+                    return failed(failure);
+                }
+                count++;
+                if (count < max) {
+                    result = CompletableFuture.completedFuture(null);
+                } else {
+                    waiting = new CompletableFuture<>();
+                    result = waiting;
+                }
+            }
+            submit.get().whenComplete((r, e) -> done(message, e));
+            return result;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        private void done(Message<?> message, Throwable error) {
+            CompletableFuture<Void> next = null;
+            Throwable failed;
+            synchronized (this) {
+                count--;
+                if (error != null && failure == null) {
+                    LOGGER.error("Error indexing event from channel {}, channel stops acknowledging messages: {}", channel, error.getMessage(), error);
+                    failure = error;
+                }
+                failed = failure;
+                if (waiting != null && (count < max || failed != null)) {
+                    next = waiting;
+                    waiting = null;
+                }
+            }
+            // acknowledging messages after a failed one would commit past it
+            if (failed == null) {
+                message.ack();
+            }
+            if (next == null) {
+                return;
+            }
+            if (failed == null) {
+                next.complete(null);
+            } else {
+                next.completeExceptionally(failed);
+            }
+        }
+
+        private static CompletableFuture<Void> failed(Throwable failure) {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(failure);
+            return result;
+        }
     }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Typed;
+import javax.inject.Inject;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.index.cache.Cache;
+import org.kie.kogito.index.cache.CacheService;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.query.AbstractFilter;
+import org.kie.kogito.index.query.ProcessInstanceFilter;
+import org.kie.kogito.index.query.QueryService;
+import org.kie.kogito.index.query.UserTaskInstanceFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Optional cache of process and user task instance query results, in front of the storage {@link QueryService}.
+ * Results are kept by the normalized filter and dropped as soon as the storage reports a change of an instance
+ * that might affect them: an instance that is in the results, or that matches the filter after the change.
+ * Results of queries with an offset are dropped on any change, as a change before the page shifts it.
+ * Domain queries are passed to the storage as they are.
+ */
+@ApplicationScoped
+@Typed(CachedQueryService.class)
+public class CachedQueryService implements QueryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachedQueryService.class);
+
+    @Inject
+    QueryService queryService;
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    @ConfigProperty(name = "kogito.dataindex.query-cache.enabled", defaultValue = "false")
+    Boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "kogito.dataindex.query-cache.max-entries", defaultValue = "1000")
+    Integer maxEntries;
+
+    private Results<ProcessInstance> processInstances;
+    private Results<UserTaskInstance> userTaskInstances;
+
+    @PostConstruct
+    public void setup() {
+        if (enabled) {
+            processInstances = new Results<>(ProcessInstance::getId, maxEntries);
+            processInstances.listen(cacheService.getProcessInstancesCache());
+            userTaskInstances = new Results<>(UserTaskInstance::getId, maxEntries);
+            userTaskInstances.listen(cacheService.getUserTaskInstancesCache());
+        }
+    }
+
+    @Override
+    public Collection<ObjectNode> queryDomain(String domain, String query) {
+        return queryService.queryDomain(domain, query);
+    }
+
+    @Override
+    public boolean supportsDomainQueries() {
+        return queryService.supportsDomainQueries();
+    }
+
+    @Override
+    public Collection<ProcessInstance> queryProcessInstances(ProcessInstanceFilter filter) {
+        if (processInstances == null || filter == null) {
+            return queryService.queryProcessInstances(filter);
+        }
+        List<Object> key = Arrays.asList(normalize(filter.getState()), normalize(filter.getId()), normalize(filter.getProcessId()),
+                                         normalize(filter.getParentProcessInstanceId()), normalize(filter.getRootProcessInstanceId()), page(filter));
+        Predicate<ProcessInstance> matches = matches(ProcessInstance::getState, filter.getState())
+                .and(matches(ProcessInstance::getId, filter.getId()))
+                .and(matches(ProcessInstance::getProcessId, filter.getProcessId()))
+                .and(matches(ProcessInstance::getParentProcessInstanceId, filter.getParentProcessInstanceId()))
+                .and(matches(ProcessInstance::getRootProcessInstanceId, filter.getRootProcessInstanceId()));
+        return processInstances.get(key, filter, matches, () -> queryService.queryProcessInstances(filter));
+    }
+
+    @Override
+    public Collection<UserTaskInstance> queryUserTaskInstances(UserTaskInstanceFilter filter) {
+        if (userTaskInstances == null || filter == null) {
+            return queryService.queryUserTaskInstances(filter);
+        }
+        List<Object> key = Arrays.asList(normalize(filter.getState()), normalize(filter.getId()), normalize(filter.getProcessInstanceId()),
+                                         normalize(filter.getActualOwner()), normalize(filter.getPotentialUsers()), normalize(filter.getPotentialGroups()), page(filter));
+        Predicate<UserTaskInstance> matches = matches(UserTaskInstance::getState, filter.getState())
+                .and(matches(UserTaskInstance::getId, filter.getId()))
+                .and(matches(UserTaskInstance::getProcessInstanceId, filter.getProcessInstanceId()))
+                .and(matches(UserTaskInstance::getActualOwner, filter.getActualOwner()))
+                .and(matchesAny(UserTaskInstance::getPotentialUsers, filter.getPotentialUsers()))
+                .and(matchesAny(UserTaskInstance::getPotentialGroups, filter.getPotentialGroups()));
+        return userTaskInstances.get(key, filter, matches, () -> queryService.queryUserTaskInstances(filter));
+    }
+
+    /**
+     * Values of a filter attribute in a canonical order, so the same filter written differently has the same key.
+     */
+    private static Set<String> normalize(List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> normalized = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        values.forEach(value -> normalized.add(value == null ? null : value.toString()));
+        return normalized;
+    }
+
+    private static List<Object> page(AbstractFilter filter) {
+        Set<String> projection = filter.getProjection() == null ? null : new TreeSet<>(filter.getProjection());
+        List<List<Object>> orderBy = filter.getOrderBy() == null ? Collections.emptyList() : new ArrayList<>();
+        if (filter.getOrderBy() != null) {
+            filter.getOrderBy().forEach(order -> orderBy.add(Arrays.asList(order.getAttribute(), order.getDirection())));
+        }
+        return Arrays.asList(filter.getLimit(), filter.getOffset(), filter.getAfter(), orderBy, projection);
+    }
+
+    private static <T> Predicate<T> matches(Function<T, ?> getter, List<?> values) {
+        Set<String> normalized = normalize(values);
+        if (normalized.isEmpty()) {
+            return value -> true;
+        }
+        return value -> normalized.contains(Objects.toString(getter.apply(value), null));
+    }
+
+    private static <T> Predicate<T> matchesAny(Function<T, ? extends Collection<?>> getter, List<?> values) {
+        Set<String> normalized = normalize(values);
+        if (normalized.isEmpty()) {
+            return value -> true;
+        }
+        return value -> {
+            Collection<?> attribute = getter.apply(value);
+            if (attribute == null || attribute.isEmpty()) {
+                return normalized.contains(null);
+            }
+            return attribute.stream().anyMatch(item -> normalized.contains(Objects.toString(item, null)));
+        };
+    }
+
+    private static class Results<T> {
+
+        private final ConcurrentMap<List<Object>, Result<T>> results = new ConcurrentHashMap<>();
+        // incremented with every change, results of queries running concurrently with a change are not kept
+        private final AtomicLong changes = new AtomicLong();
+        private final Function<T, String> id;
+        private final int maxEntries;
+
+        Results(Function<T, String> id, int maxEntries) {
+            this.id = id;
+            this.maxEntries = maxEntries;
+        }
+
+        void listen(Cache<String, T> cache) {
+            cache.addObjectCreatedListener(this::changed);
+            cache.addObjectUpdatedListener(this::changed);
+            cache.addObjectRemovedListener(this::removed);
+        }
+
+        Collection<T> get(List<Object> key, AbstractFilter filter, Predicate<T> matches, Supplier<Collection<T>> query) {
+            Result<T> result = results.get(key);
+            if (result != null) {
+                return result.values;
+            }
+            long before = changes.get();
+            Collection<T> values = Collections.unmodifiableCollection(query.get());
+            if (changes.get() != before) {
+                return values;
+            }
+            if (results.size() >= maxEntries) {
+                LOGGER.debug("Query result cache reached {} entries, clearing it", maxEntries);
+                results.clear();
+            }
+            Result<T> computed = new Result<>(values, values.stream().map(id).collect(toSet()), matches, filter.getOffset() != null && filter.getOffset() > 0);
+            results.put(key, computed);
+            if (changes.get() != before) {
+                // change arrived while storing the result, it might have missed it
+                results.remove(key, computed);
+            }
+            return values;
+        }
+
+        private void changed(T value) {
+            changes.incrementAndGet();
+            String changedId = id.apply(value);
+            results.values().removeIf(result -> result.offset || result.ids.contains(changedId) || result.matches.test(value));
+        }
+
+        private void removed(String removedId) {
+            changes.incrementAndGet();
+            results.values().removeIf(result -> result.offset || result.ids.contains(removedId));
+        }
+    }
+
+    private static class Result<T> {
+
+        private final Collection<T> values;
+        private final Set<String> ids;
+        private final Predicate<T> matches;
+        private final boolean offset;
+
+        Result(Collection<T> values, Set<String> ids, Predicate<T> matches, boolean offset) {
+            this.values = values;
+            this.ids = ids;
+            this.matches = matches;
+            this.offset = offset;
+        }
+    }
+}
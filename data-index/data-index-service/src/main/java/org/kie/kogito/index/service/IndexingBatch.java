@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+
+/**
+ * Events collected to be indexed together by {@link IndexingService#index(IndexingBatch)}.
+ * Events are grouped by the id of the indexed entry, keeping the order in which they were added,
+ * so all events of one entry are merged in memory and the entry is written only once.
+ */
+public class IndexingBatch {
+
+    private final Map<String, List<ProcessInstance>> processInstances = new LinkedHashMap<>();
+    private final Set<ProcessInstance> partialVariables = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<String, UserTaskInstance> userTaskInstances = new LinkedHashMap<>();
+    private final Map<String, Map<String, List<ObjectNode>>> models = new LinkedHashMap<>();
+    private int size;
+
+    public void addProcessInstance(ProcessInstance pi) {
+        addProcessInstance(pi, false);
+    }
+
+    /**
+     * Adds process instance event, with partialVariables set when its variables hold only those changed
+     * since the previous event and must be merged into the indexed ones.
+     */
+    public void addProcessInstance(ProcessInstance pi, boolean partialVariables) {
+        processInstances.computeIfAbsent(pi.getId(), id -> new ArrayList<>()).add(pi);
+        if (partialVariables) {
+            this.partialVariables.add(pi);
+        }
+        size++;
+    }
+
+    public void addUserTaskInstance(UserTaskInstance ut) {
+        // user task instance events always carry the whole task, the latest one wins
+        userTaskInstances.put(ut.getId(), ut);
+        size++;
+    }
+
+    public void addModel(ObjectNode json) {
+        models.computeIfAbsent(json.get("processId").asText(), processId -> new LinkedHashMap<>())
+                .computeIfAbsent(json.get("id").asText(), id -> new ArrayList<>())
+                .add(json);
+        size++;
+    }
+
+    /**
+     * Returns process instance events by process instance id.
+     */
+    public Map<String, List<ProcessInstance>> getProcessInstances() {
+        return processInstances;
+    }
+
+    /**
+     * Returns true if variables of the process instance event hold only those changed since the previous event.
+     */
+    public boolean isPartialVariables(ProcessInstance pi) {
+        return partialVariables.contains(pi);
+    }
+
+    /**
+     * Returns the latest user task instance event by user task instance id.
+     */
+    public Map<String, UserTaskInstance> getUserTaskInstances() {
+        return userTaskInstances;
+    }
+
+    /**
+     * Returns domain model events by process id and process instance id.
+     */
+    public Map<String, Map<String, List<ObjectNode>>> getModels() {
+        return models;
+    }
+
+    /**
+     * Returns number of events added to the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -16,8 +16,13 @@
 
 package org.kie.kogito.index.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -32,7 +37,7 @@ import org.kie.kogito.index.model.UserTaskInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static java.util.stream.Collectors.toList;
+import static org.kie.kogito.index.Constants.PARTIAL_VARIABLES_ATTRIBUTE;
 import static org.kie.kogito.index.Constants.PROCESS_INSTANCES_DOMAIN_ATTRIBUTE;
 import static org.kie.kogito.index.Constants.USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE;
 import static org.kie.kogito.index.json.JsonUtils.getObjectMapper;
@@ -47,12 +52,89 @@ public class IndexingService {
     CacheService manager;
 
     public void indexProcessInstance(ProcessInstance pi) {
-        ProcessInstance previousPI = manager.getProcessInstancesCache().get(pi.getId());
-        if (previousPI != null) {
-            List<NodeInstance> nodes = previousPI.getNodes().stream().filter(n -> !pi.getNodes().contains(n)).collect(toList());
-            pi.getNodes().addAll(nodes);
+        indexProcessInstance(pi, false);
+    }
+
+    public void indexProcessInstance(ProcessInstance pi, boolean partialVariables) {
+        manager.getProcessInstancesCache().upsert(pi.getId(), pi, processInstanceMerge(pi, partialVariables));
+    }
+
+    /**
+     * Indexes all events of the batch, reading and writing each cache together for all its entries. Events of
+     * the same entry are merged in memory in the order they were added to the batch, into the stored value.
+     * Entries are written with a version check, an entry updated concurrently is read and merged again.
+     */
+    public void index(IndexingBatch batch) {
+        if (!batch.getProcessInstances().isEmpty()) {
+            Map<String, UnaryOperator<ProcessInstance>> updates = new HashMap<>();
+            batch.getProcessInstances().forEach((id, events) -> {
+                List<BinaryOperator<ProcessInstance>> merges = new ArrayList<>(events.size());
+                events.forEach(pi -> merges.add(processInstanceMerge(pi, batch.isPartialVariables(pi))));
+                updates.put(id, stored -> fold(stored, events, merges, pi -> pi));
+            });
+            manager.getProcessInstancesCache().upsertAll(updates);
+        }
+        if (!batch.getUserTaskInstances().isEmpty()) {
+            manager.getUserTaskInstancesCache().putAll(batch.getUserTaskInstances());
+        }
+        batch.getModels().forEach(this::indexModels);
+    }
+
+    private void indexModels(String processId, Map<String, List<ObjectNode>> events) {
+        String type = getModelFromProcessId(processId);
+        if (type == null) {
+//          Unknown process type, ignore
+            LOGGER.debug("Ignoring Kogito cloud events for unknown process: {}", processId);
+            return;
+        }
+        Map<String, UnaryOperator<ObjectNode>> updates = new HashMap<>();
+        events.forEach((id, jsons) -> {
+            List<BinaryOperator<ObjectNode>> merges = new ArrayList<>(jsons.size());
+            jsons.forEach(json -> merges.add(modelMerge(type, json)));
+            updates.put(id, stored -> fold(stored, jsons, merges, json -> newModel(type, json)));
+        });
+        manager.getDomainModelCache(processId).upsertAll(updates);
+    }
+
+    /**
+     * Merges events into the stored value one by one, the first event creates the value when there is none.
+     * Merges are created up front, as the fold is repeated on concurrent update.
+     */
+    private static <T> T fold(T stored, List<T> events, List<BinaryOperator<T>> merges, UnaryOperator<T> create) {
+        T current = stored;
+        for (int i = 0; i < events.size(); i++) {
+            current = current == null ? create.apply(events.get(i)) : merges.get(i).apply(current, events.get(i));
+        }
+        return current;
+    }
+
+    private BinaryOperator<ProcessInstance> processInstanceMerge(ProcessInstance pi, boolean partialVariables) {
+        // values of the event are captured up front, the merge might be repeated on concurrent update
+        List<NodeInstance> nodes = pi.getNodes();
+        JsonNode variables = pi.getVariables();
+        return (previousPI, current) -> {
+            current.setNodes(mergeNodes(previousPI.getNodes(), nodes));
+            if (partialVariables && previousPI.getVariables() instanceof ObjectNode && variables instanceof ObjectNode) {
+                // event carries only changed variables, merge them into the ones already indexed
+                ObjectNode merged = ((ObjectNode) previousPI.getVariables()).deepCopy();
+                merged.setAll((ObjectNode) variables);
+                current.setVariables(merged);
+            } else {
+                current.setVariables(variables);
+            }
+            return current;
+        };
+    }
+
+    private List<NodeInstance> mergeNodes(List<NodeInstance> previousNodes, List<NodeInstance> nodes) {
+        Map<String, NodeInstance> merged = new LinkedHashMap<>();
+        if (nodes != null) {
+            nodes.forEach(n -> merged.put(n.getId(), n));
         }
-        manager.getProcessInstancesCache().put(pi.getId(), pi);
+        if (previousNodes != null) {
+            previousNodes.forEach(n -> merged.putIfAbsent(n.getId(), n));
+        }
+        return new ArrayList<>(merged.values());
     }
 
     private String getModelFromProcessId(String processId) {
@@ -73,43 +155,50 @@ public class IndexingService {
         }
 
         String processInstanceId = json.get("id").asText();
+        BinaryOperator<ObjectNode> merge = modelMerge(type, json);
+        manager.getDomainModelCache(processId).upsert(processInstanceId, newModel(type, json), merge);
+    }
 
-        Map<String, ObjectNode> cache = manager.getDomainModelCache(processId);
-        ObjectNode model = cache.get(processInstanceId);
-        if (model == null) {
-            ObjectNode builder = getObjectMapper().createObjectNode();
-            builder.put("_type", type);
-            json.remove(PROCESS_ID);
-            builder.setAll(json);
-            cache.put(processInstanceId, builder);
-        } else {
-            ObjectNode builder = getObjectMapper().createObjectNode();
-            builder.put("_type", type);
-            ArrayNode indexPIArray = (ArrayNode) json.get(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE);
-            if (indexPIArray != null) {
-                json.remove(PROCESS_ID);
-                JsonNode id = indexPIArray.get(0).get("id");
-                if(processInstanceId.equals(id.asText())){
-                    //For processes simply copy all values
-                    builder.setAll(json);
-                } else {
-                    //For sub-process merge with current values
-                    builder.setAll(model);
-                    builder.setAll(json);
-                }
-                ArrayNode utArray = (ArrayNode) model.get(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE);
-                if (utArray != null) {
-                    builder.set(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE, utArray);
-                }
-                copyJsonArray(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE, model, builder, indexPIArray);
-            }
-            ArrayNode indexTIArray = (ArrayNode) json.get(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE);
-            if (indexTIArray != null) {
+    private BinaryOperator<ObjectNode> modelMerge(String type, ObjectNode json) {
+        String processInstanceId = json.get("id").asText();
+        boolean partialVariables = json.remove(PARTIAL_VARIABLES_ATTRIBUTE) != null;
+        json.remove(PROCESS_ID);
+        return (model, created) -> mergeModel(type, processInstanceId, partialVariables, model, json);
+    }
+
+    private ObjectNode newModel(String type, ObjectNode json) {
+        ObjectNode builder = getObjectMapper().createObjectNode();
+        builder.put("_type", type);
+        builder.setAll(json);
+        return builder;
+    }
+
+    private ObjectNode mergeModel(String type, String processInstanceId, boolean partialVariables, ObjectNode model, ObjectNode json) {
+        ObjectNode builder = getObjectMapper().createObjectNode();
+        builder.put("_type", type);
+        ArrayNode indexPIArray = (ArrayNode) json.get(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE);
+        if (indexPIArray != null) {
+            JsonNode id = indexPIArray.get(0).get("id");
+            if(processInstanceId.equals(id.asText()) && !partialVariables){
+                //For processes simply copy all values
+                builder.setAll(json);
+            } else {
+                //For sub-process or changed variables only merge with current values
                 builder.setAll(model);
-                copyJsonArray(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE, model, builder, indexTIArray);
+                builder.setAll(json);
             }
-            cache.put(processInstanceId, builder);
+            ArrayNode utArray = (ArrayNode) model.get(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE);
+            if (utArray != null) {
+                builder.set(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE, utArray);
+            }
+            copyJsonArray(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE, model, builder, indexPIArray);
+        }
+        ArrayNode indexTIArray = (ArrayNode) json.get(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE);
+        if (indexTIArray != null) {
+            builder.setAll(model);
+            copyJsonArray(USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE, model, builder, indexTIArray);
         }
+        return builder;
     }
 
     private void copyJsonArray(String attribute, ObjectNode model, ObjectNode builder, ArrayNode arrayNode) {
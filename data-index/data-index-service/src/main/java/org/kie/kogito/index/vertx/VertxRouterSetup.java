@@ -33,6 +33,7 @@ import io.vertx.ext.web.handler.graphql.GraphiQLHandler;
 import io.vertx.ext.web.handler.graphql.GraphiQLHandlerOptions;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.index.graphql.GraphQLSchemaManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,12 +53,15 @@ public class VertxRouterSetup {
     @Inject
     GraphQL graphQL;
 
+    @Inject
+    GraphQLSchemaManager graphQLSchemaManager;
+
     void setupRouter(@Observes Router router) {
         if (authEnabled) {
             router.route().handler(routeContext -> authCheck(routeContext));
         }
         router.route("/graphql").handler(ApolloWSHandler.create(graphQL));
-        router.route("/graphql").handler(GraphQLHandler.create(graphQL, new GraphQLHandlerOptions()));
+        router.route("/graphql").handler(GraphQLHandler.create(graphQL, new GraphQLHandlerOptions()).dataLoaderRegistry(rc -> graphQLSchemaManager.createDataLoaderRegistry()));
         router.route("/graphiql/*").handler(GraphiQLHandler.create(new GraphiQLHandlerOptions().setEnabled(true)));
         router.route("/").handler(ctx -> ctx.reroute("/graphiql"));
         router.route().handler(LoggerHandler.create());
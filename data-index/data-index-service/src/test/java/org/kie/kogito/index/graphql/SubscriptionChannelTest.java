@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.graphql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.query.ProcessInstanceFilter;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.index.json.JsonUtils.getObjectMapper;
+
+public class SubscriptionChannelTest {
+
+    @Test
+    public void testChangeSharedBySubscribers() {
+        SubscriptionChannel channel = new SubscriptionChannel(10, SubscriptionOverflow.DROP, Runnable::run);
+        TestSubscriber first = subscribe(channel.subscribe(change -> true), Long.MAX_VALUE);
+        TestSubscriber second = subscribe(channel.subscribe(change -> true), Long.MAX_VALUE);
+
+        ObjectNode change = processInstance("1", "travels", 1);
+        channel.publish(change);
+
+        assertThat(first.changes).containsExactly(change);
+        assertThat(second.changes).hasSize(1);
+        assertThat(second.changes.get(0)).isSameAs(change);
+    }
+
+    @Test
+    public void testFilter() {
+        SubscriptionChannel channel = new SubscriptionChannel(10, SubscriptionOverflow.DROP, Runnable::run);
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().processId(singletonList("travels")).state(asList(1, 2)).build();
+        TestSubscriber subscriber = subscribe(channel.subscribe(SubscriptionFilters.of(filter)), Long.MAX_VALUE);
+
+        channel.publish(processInstance("1", "travels", 1));
+        channel.publish(processInstance("2", "deals", 1));
+        channel.publish(processInstance("3", "travels", 3));
+        channel.publish(processInstance("4", "travels", 2));
+
+        assertThat(subscriber.changes).extracting(change -> change.get("id").asText()).containsExactly("1", "4");
+    }
+
+    @Test
+    public void testNullFilterValue() {
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().parentProcessInstanceId(singletonList(null)).build();
+
+        assertThat(SubscriptionFilters.of(filter).test(processInstance("1", "travels", 1))).isTrue();
+        assertThat(SubscriptionFilters.of(filter).test(processInstance("2", "travels", 1).put("parentProcessInstanceId", "1"))).isFalse();
+    }
+
+    @Test
+    public void testDropOverflow() {
+        SubscriptionChannel channel = new SubscriptionChannel(2, SubscriptionOverflow.DROP, Runnable::run);
+        SubscriptionBuffer buffer = (SubscriptionBuffer) channel.subscribe(change -> true);
+        TestSubscriber subscriber = subscribe(buffer, 0);
+
+        for (int i = 1; i <= 4; i++) {
+            channel.publish(processInstance(String.valueOf(i), "travels", 1));
+        }
+        subscriber.subscription.request(10);
+
+        assertThat(buffer.dropped()).isEqualTo(2);
+        assertThat(subscriber.changes).extracting(change -> change.get("id").asText()).containsExactly("1", "2");
+    }
+
+    @Test
+    public void testLatestOverflow() {
+        SubscriptionChannel channel = new SubscriptionChannel(2, SubscriptionOverflow.LATEST, Runnable::run);
+        SubscriptionBuffer buffer = (SubscriptionBuffer) channel.subscribe(change -> true);
+        TestSubscriber subscriber = subscribe(buffer, 0);
+
+        for (int i = 1; i <= 4; i++) {
+            channel.publish(processInstance(String.valueOf(i), "travels", 1));
+        }
+        subscriber.subscription.request(10);
+
+        assertThat(buffer.dropped()).isEqualTo(2);
+        assertThat(subscriber.changes).extracting(change -> change.get("id").asText()).containsExactly("3", "4");
+    }
+
+    @Test
+    public void testRequestedChangesOnly() {
+        SubscriptionChannel channel = new SubscriptionChannel(10, SubscriptionOverflow.DROP, Runnable::run);
+        SubscriptionBuffer buffer = (SubscriptionBuffer) channel.subscribe(change -> true);
+        TestSubscriber subscriber = subscribe(buffer, 1);
+
+        channel.publish(processInstance("1", "travels", 1));
+        channel.publish(processInstance("2", "travels", 1));
+
+        assertThat(subscriber.changes).hasSize(1);
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCancel() {
+        SubscriptionChannel channel = new SubscriptionChannel(10, SubscriptionOverflow.DROP, Runnable::run);
+        TestSubscriber subscriber = subscribe(channel.subscribe(change -> true), Long.MAX_VALUE);
+        assertThat(channel.subscribers()).isEqualTo(1);
+
+        subscriber.subscription.cancel();
+        channel.publish(processInstance("1", "travels", 1));
+
+        assertThat(channel.subscribers()).isZero();
+        assertThat(subscriber.changes).isEmpty();
+    }
+
+    private static ObjectNode processInstance(String id, String processId, int state) {
+        return getObjectMapper().createObjectNode().put("id", id).put("processId", processId).put("state", state);
+    }
+
+    private static TestSubscriber subscribe(Publisher<ObjectNode> publisher, long request) {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        if (request > 0) {
+            subscriber.subscription.request(request);
+        }
+        return subscriber;
+    }
+
+    private static class TestSubscriber implements Subscriber<ObjectNode> {
+
+        private final List<ObjectNode> changes = new ArrayList<>();
+        private Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ObjectNode change) {
+            changes.add(change);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
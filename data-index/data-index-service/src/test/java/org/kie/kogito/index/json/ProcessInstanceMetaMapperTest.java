@@ -25,6 +25,7 @@ import org.kie.kogito.index.model.ProcessInstanceState;
 
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.index.Constants.PARTIAL_VARIABLES_ATTRIBUTE;
 import static org.kie.kogito.index.Constants.PROCESS_INSTANCES_DOMAIN_ATTRIBUTE;
 import static org.kie.kogito.index.TestUtils.getProcessCloudEvent;
 
@@ -57,4 +58,19 @@ public class ProcessInstanceMetaMapperTest {
                 a -> a.node(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE + "[0].end").isEqualTo(event.getData().getEnd().toInstant().toEpochMilli())
         );
     }
+
+    @Test
+    public void testProcessInstanceMapperWithPartialVariables() {
+        String processId = "travels";
+        String processInstanceId = UUID.randomUUID().toString();
+        KogitoProcessCloudEvent event = getProcessCloudEvent(processId, processInstanceId, ProcessInstanceState.ACTIVE, null, null, null);
+        event.setPartialVariables(true);
+        ObjectNode json = new ProcessInstanceMetaMapper().apply(event);
+        assertThat(json).isNotNull();
+        assertThatJson(json.toString()).and(
+                a -> a.node("id").isEqualTo(processInstanceId),
+                a -> a.node(PARTIAL_VARIABLES_ATTRIBUTE).isEqualTo(true),
+                a -> a.node("traveller.firstName").isEqualTo("Maciej")
+        );
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.kogito.index.messaging;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.service.IndexingBatch;
+import org.kie.kogito.index.service.IndexingService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class IngestionExecutorTest {
+
+    private IndexingService indexingService = mock(IndexingService.class);
+    private List<IndexingBatch> batches = new CopyOnWriteArrayList<>();
+    private IngestionExecutor executor;
+
+    @BeforeEach
+    public void start() {
+        doAnswer(invocation -> batches.add(invocation.getArgument(0))).when(indexingService).index(any());
+        executor = new IngestionExecutor(indexingService, 4, 10, 5);
+    }
+
+    @AfterEach
+    public void stop() {
+        executor.stop();
+    }
+
+    @Test
+    public void testEventsOfSameKeyIndexedInOrder() throws Exception {
+        CompletableFuture<?>[] results = IntStream.range(0, 100)
+                .mapToObj(i -> executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", i))))
+                .toArray(CompletableFuture<?>[]::new);
+        CompletableFuture.allOf(results).get();
+
+        List<String> indexed = batches.stream()
+                .flatMap(batch -> batch.getProcessInstances().get("processInstanceId").stream())
+                .map(ProcessInstance::getProcessId)
+                .collect(Collectors.toList());
+        assertThat(indexed).isEqualTo(IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList()));
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.size()).isBetween(1, 5));
+        int shard = executor.shard("processInstanceId");
+        assertThat(executor.executed(shard)).isEqualTo(100);
+        assertThat(executor.batches(shard)).isEqualTo(batches.size());
+        assertThat(executor.queueDepth(shard)).isZero();
+    }
+
+    @Test
+    public void testFailedBatchCompletesExceptionally() {
+        doThrow(new IllegalStateException("failed")).when(indexingService).index(any());
+
+        CompletableFuture<Void> result = executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", 0)));
+
+        assertThatThrownBy(() -> result.get()).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testSubmitToFullQueueFailsWithoutBlocking() throws Exception {
+        executor.stop();
+        CountDownLatch indexing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            indexing.countDown();
+            release.await();
+            return batches.add(invocation.getArgument(0));
+        }).when(indexingService).index(any());
+        executor = new IngestionExecutor(indexingService, 1, 2, 1);
+
+        CompletableFuture<Void> indexed = executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", 0)));
+        assertThat(indexing.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> first = executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", 1)));
+        CompletableFuture<Void> second = executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", 2)));
+        CompletableFuture<Void> rejected = executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", 3)));
+
+        assertThatThrownBy(() -> rejected.getNow(null)).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.queueDepth(0)).isEqualTo(2);
+
+        release.countDown();
+        CompletableFuture.allOf(indexed, first, second).get(10, TimeUnit.SECONDS);
+        assertThat(executor.executed(0)).isEqualTo(3);
+    }
+
+    @Test
+    public void testStopIndexesQueuedEvents() throws Exception {
+        executor.stop();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return batches.add(invocation.getArgument(0));
+        }).when(indexingService).index(any());
+        executor = new IngestionExecutor(indexingService, 1, 10, 1);
+
+        CompletableFuture<?>[] results = IntStream.range(0, 5)
+                .mapToObj(i -> executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", i))))
+                .toArray(CompletableFuture<?>[]::new);
+        release.countDown();
+        executor.stop();
+
+        assertThat(results).allSatisfy(result -> assertThat(result).isCompleted());
+        assertThat(batches.stream().mapToInt(IndexingBatch::size).sum()).isEqualTo(5);
+        assertThat(executor.queueDepth(0)).isZero();
+    }
+
+    @Test
+    public void testSubmitAfterStopFails() {
+        executor.stop();
+
+        CompletableFuture<Void> result = executor.submit("processInstanceId", batch -> batch.addProcessInstance(processInstance("processInstanceId", 0)));
+
+        assertThatThrownBy(() -> result.getNow(null)).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    private ProcessInstance processInstance(String id, int sequence) {
+        ProcessInstance pi = new ProcessInstance();
+        pi.setId(id);
+        pi.setProcessId(String.valueOf(sequence));
+        return pi;
+    }
+}
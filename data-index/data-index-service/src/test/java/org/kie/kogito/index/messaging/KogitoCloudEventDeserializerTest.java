@@ -21,12 +21,15 @@ import java.io.InputStream;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.Test;
 import org.kie.kogito.index.event.KogitoProcessCloudEvent;
 import org.kie.kogito.index.event.KogitoUserTaskCloudEvent;
 
 import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.index.json.JsonUtils.getObjectMapper;
 
 public class KogitoCloudEventDeserializerTest {
 
@@ -70,6 +73,18 @@ public class KogitoCloudEventDeserializerTest {
         softly.assertAll();
     }
 
+    @Test
+    public void testProcessPartialVariablesDeserializer() throws Exception {
+        ObjectNode json = (ObjectNode) getObjectMapper().readTree(getJsonEventBytes("process_instance_event.json"));
+        ((ObjectNode) json.get("data")).put("partialVariables", true);
+        KogitoProcessCloudEvent event = new KogitoProcessCloudEventDeserializer().deserialize(null, getObjectMapper().writeValueAsBytes(json));
+        assertThat(event.isPartialVariables()).isTrue();
+        assertThat(event.getData().getId()).isEqualTo("c2fa5c5e-3002-44c7-aef7-bce82297e3fe");
+
+        event = new KogitoProcessCloudEventDeserializer().deserialize(null, getJsonEventBytes("process_instance_event.json"));
+        assertThat(event.isPartialVariables()).isFalse();
+    }
+
     @Test
     public void testProcessEmptyIdsDeserializer() throws Exception {
         KogitoProcessCloudEvent event = new KogitoProcessCloudEventDeserializer().deserialize(null, getJsonEventBytes("process_instance_empty_event.json"));
@@ -16,30 +16,40 @@
 
 package org.kie.kogito.index.messaging;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.vertx.core.Handler;
-import io.vertx.core.eventbus.EventBus;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.kie.kogito.index.event.KogitoProcessCloudEvent;
 import org.kie.kogito.index.event.KogitoUserTaskCloudEvent;
 import org.kie.kogito.index.model.ProcessInstanceState;
+import org.kie.kogito.index.service.IndexingBatch;
 import org.kie.kogito.index.service.IndexingService;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import static java.lang.String.format;
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.kie.kogito.index.TestUtils.getProcessCloudEvent;
 import static org.kie.kogito.index.TestUtils.getUserTaskCloudEvent;
-import static org.kie.kogito.index.messaging.ReactiveMessagingEventConsumer.KOGITO_DOMAIN_EVENTS;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,31 +57,22 @@ import static org.mockito.Mockito.when;
 public class ReactiveMessagingEventConsumerTest {
 
     @Mock
-    IndexingService service;
-
-    @Mock
-    EventBus eventBus;
+    IngestionExecutor ingestionExecutor;
 
     @InjectMocks
     ReactiveMessagingEventConsumer consumer;
 
     @Test
     public void testOnProcessInstanceDomainEvent() throws Exception {
-        when(eventBus.request(any(), any(), any(Handler.class))).thenAnswer(invocation -> {
-            ((Handler) invocation.getArgument(2)).handle(null);
-            return null;
-        });
-
         String processId = "travels";
         String processInstanceId = UUID.randomUUID().toString();
 
         KogitoProcessCloudEvent event = getProcessCloudEvent(processId, processInstanceId, ProcessInstanceState.ACTIVE, null, null, null);
 
-        consumer.onProcessInstanceDomainEvent(event).toCompletableFuture().get();
-        ArgumentCaptor<ObjectNode> captor = ArgumentCaptor.forClass(ObjectNode.class);
-        verify(eventBus).request(eq(format(KOGITO_DOMAIN_EVENTS, processId)), captor.capture(), any(Handler.class));
+        IndexingBatch batch = submitted(processInstanceId, () -> consumer.onProcessInstanceDomainEvent(event));
 
-        assertThatJson(captor.getValue().toString())
+        assertThat(batch.getModels().get(processId)).containsOnlyKeys(processInstanceId);
+        assertThatJson(batch.getModels().get(processId).get(processInstanceId).get(0).toString())
                 .isObject()
                 .containsEntry("id", processInstanceId)
                 .containsEntry("processId", processId);
@@ -79,22 +80,16 @@ public class ReactiveMessagingEventConsumerTest {
 
     @Test
     public void testOnUserTaskInstanceDomainEvent() throws Exception {
-        when(eventBus.request(any(), any(), any(Handler.class))).thenAnswer(invocation -> {
-            ((Handler) invocation.getArgument(2)).handle(null);
-            return null;
-        });
-
         String taskId = UUID.randomUUID().toString();
         String processId = "travels";
         String processInstanceId = UUID.randomUUID().toString();
 
         KogitoUserTaskCloudEvent event = getUserTaskCloudEvent(taskId, processId, processInstanceId, null, null, "InProgress");
 
-        consumer.onUserTaskInstanceDomainEvent(event).toCompletableFuture().get();
-        ArgumentCaptor<ObjectNode> captor = ArgumentCaptor.forClass(ObjectNode.class);
-        verify(eventBus).request(eq(format(KOGITO_DOMAIN_EVENTS, processId)), captor.capture(), any(Handler.class));
+        IndexingBatch batch = submitted(processInstanceId, () -> consumer.onUserTaskInstanceDomainEvent(event));
 
-        assertThatJson(captor.getValue().toString())
+        assertThat(batch.getModels().get(processId)).containsOnlyKeys(processInstanceId);
+        assertThatJson(batch.getModels().get(processId).get(processInstanceId).get(0).toString())
                 .isObject()
                 .containsEntry("id", processInstanceId)
                 .containsEntry("processId", processId);
@@ -102,15 +97,136 @@ public class ReactiveMessagingEventConsumerTest {
 
     @Test
     public void testOnProcessInstanceEvent() throws Exception {
-        KogitoProcessCloudEvent event = mock(KogitoProcessCloudEvent.class);
-        consumer.onProcessInstanceEvent(event).toCompletableFuture().get();
-        verify(service).indexProcessInstance(event.getData());
+        String processInstanceId = UUID.randomUUID().toString();
+        KogitoProcessCloudEvent event = getProcessCloudEvent("travels", processInstanceId, ProcessInstanceState.ACTIVE, null, null, null);
+
+        IndexingBatch batch = submitted(processInstanceId, () -> consumer.onProcessInstanceEvent(event));
+
+        assertThat(batch.getProcessInstances().get(processInstanceId)).containsExactly(event.getData());
     }
 
     @Test
     public void testOnUserTaskInstanceEvent() throws Exception {
-        KogitoUserTaskCloudEvent event = mock(KogitoUserTaskCloudEvent.class);
-        consumer.onUserTaskInstanceEvent(event).toCompletableFuture().get();
-        verify(service).indexUserTaskInstance(event.getData());
+        String taskId = UUID.randomUUID().toString();
+        String processInstanceId = UUID.randomUUID().toString();
+        KogitoUserTaskCloudEvent event = getUserTaskCloudEvent(taskId, "travels", processInstanceId, null, null, "InProgress");
+
+        IndexingBatch batch = submitted(processInstanceId, () -> consumer.onUserTaskInstanceEvent(event));
+
+        assertThat(batch.getUserTaskInstances()).containsEntry(taskId, event.getData());
+    }
+
+    @Test
+    public void testMessagesIndexedInBatches() throws Exception {
+        IndexingService indexingService = mock(IndexingService.class);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return batchSizes.add(invocation.<IndexingBatch>getArgument(0).size());
+        }).when(indexingService).index(any());
+        IngestionExecutor executor = new IngestionExecutor(indexingService, 2, 100, 50);
+        ReactiveMessagingEventConsumer batchingConsumer = new ReactiveMessagingEventConsumer();
+        batchingConsumer.ingestionExecutor = executor;
+        batchingConsumer.maxInFlight = 10;
+        batchingConsumer.init();
+        try {
+            String processInstanceId = UUID.randomUUID().toString();
+            CountDownLatch acked = new CountDownLatch(10);
+            List<CompletableFuture<Void>> delivered = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                KogitoProcessCloudEvent event = getProcessCloudEvent("travels", processInstanceId, ProcessInstanceState.ACTIVE, null, null, null);
+                delivered.add(batchingConsumer.onProcessInstanceMessage(Message.of(event, () -> {
+                    acked.countDown();
+                    return CompletableFuture.completedFuture(null);
+                })).toCompletableFuture());
+            }
+
+            // next messages are delivered while the first batch is indexed, until the in flight maximum is reached
+            assertThat(delivered.subList(0, 9)).allMatch(CompletableFuture::isDone);
+            assertThat(delivered.get(9)).isNotDone();
+
+            release.countDown();
+            delivered.get(9).get(10, TimeUnit.SECONDS);
+            assertThat(acked.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+            assertThat(batchSizes).anyMatch(size -> size > 1);
+        } finally {
+            release.countDown();
+            executor.stop();
+        }
+    }
+
+    @Test
+    public void testFailedMessageFailsChannel() {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("failed"));
+        when(ingestionExecutor.submit(anyString(), any())).thenReturn(failed);
+        consumer.maxInFlight = 1;
+        consumer.init();
+        AtomicBoolean acked = new AtomicBoolean();
+
+        KogitoProcessCloudEvent event = getProcessCloudEvent("travels", UUID.randomUUID().toString(), ProcessInstanceState.ACTIVE, null, null, null);
+        CompletableFuture<Void> delivered = consumer.onProcessInstanceMessage(Message.of(event, () -> {
+            acked.set(true);
+            return CompletableFuture.completedFuture(null);
+        })).toCompletableFuture();
+
+        assertThat(delivered).isCompleted();
+        assertThat(acked).isFalse();
+
+        // following messages are neither submitted nor acknowledged, so they are delivered again after restart
+        CompletableFuture<Void> next = consumer.onProcessInstanceMessage(Message.of(event, () -> {
+            acked.set(true);
+            return CompletableFuture.completedFuture(null);
+        })).toCompletableFuture();
+
+        assertThat(next).isCompletedExceptionally();
+        assertThat(acked).isFalse();
+        verify(ingestionExecutor, times(1)).submit(anyString(), any());
+    }
+
+    @Test
+    public void testEventsInFlightFitInShardQueue() throws Exception {
+        IndexingService indexingService = mock(IndexingService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(indexingService).index(any());
+        IngestionExecutor executor = new IngestionExecutor(indexingService, 2, 8, 1);
+        ReactiveMessagingEventConsumer boundedConsumer = new ReactiveMessagingEventConsumer();
+        boundedConsumer.ingestionExecutor = executor;
+        boundedConsumer.maxInFlight = 100;
+        boundedConsumer.init();
+        try {
+            String processInstanceId = UUID.randomUUID().toString();
+            List<CompletableFuture<Void>> delivered = new ArrayList<>();
+            // channel delivers next message once the previous one is done
+            do {
+                KogitoProcessCloudEvent event = getProcessCloudEvent("travels", processInstanceId, ProcessInstanceState.ACTIVE, null, null, null);
+                delivered.add(boundedConsumer.onProcessInstanceMessage(Message.of(event)).toCompletableFuture());
+            } while (delivered.get(delivered.size() - 1).isDone() && delivered.size() < 100);
+
+            // queue of 8 events is shared by 4 channels
+            assertThat(delivered).hasSize(2);
+            assertThat(delivered).noneMatch(CompletableFuture::isCompletedExceptionally);
+
+            release.countDown();
+            delivered.get(1).get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.stop();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private IndexingBatch submitted(String key, Runnable consume) {
+        ArgumentCaptor<Consumer<IndexingBatch>> captor = ArgumentCaptor.forClass(Consumer.class);
+        consume.run();
+        verify(ingestionExecutor).submit(eq(key), captor.capture());
+        IndexingBatch batch = new IndexingBatch();
+        captor.getValue().accept(batch);
+        return batch;
     }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.service;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.cache.Cache;
+import org.kie.kogito.index.cache.CacheService;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.ProcessInstanceState;
+import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.query.ProcessInstanceFilter;
+import org.kie.kogito.index.query.QueryService;
+import org.mockito.ArgumentCaptor;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.index.TestUtils.getProcessInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachedQueryServiceTest {
+
+    private QueryService queryService = mock(QueryService.class);
+    private CachedQueryService cachedQueryService = new CachedQueryService();
+    private Consumer<ProcessInstance> created;
+    private Consumer<ProcessInstance> updated;
+    private Consumer<String> removed;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Cache<String, ProcessInstance> processInstances = mock(Cache.class);
+        CacheService cacheService = mock(CacheService.class);
+        when(cacheService.getProcessInstancesCache()).thenReturn(processInstances);
+        when(cacheService.getUserTaskInstancesCache()).thenReturn((Cache<String, UserTaskInstance>) mock(Cache.class));
+        when(queryService.queryProcessInstances(any())).thenReturn(singletonList(getProcessInstance("travels", "1", ProcessInstanceState.ACTIVE.ordinal(), null, null)));
+
+        cachedQueryService.queryService = queryService;
+        cachedQueryService.cacheService = cacheService;
+        cachedQueryService.enabled = true;
+        cachedQueryService.maxEntries = 10;
+        cachedQueryService.setup();
+
+        ArgumentCaptor<Consumer<ProcessInstance>> createdCaptor = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Consumer<ProcessInstance>> updatedCaptor = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Consumer<String>> removedCaptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(processInstances).addObjectCreatedListener(createdCaptor.capture());
+        verify(processInstances).addObjectUpdatedListener(updatedCaptor.capture());
+        verify(processInstances).addObjectRemovedListener(removedCaptor.capture());
+        created = createdCaptor.getValue();
+        updated = updatedCaptor.getValue();
+        removed = removedCaptor.getValue();
+    }
+
+    @Test
+    public void testSameFilterServedFromCache() {
+        Collection<ProcessInstance> first = cachedQueryService.queryProcessInstances(ProcessInstanceFilter.builder().processId(asList("travels", "deals")).build());
+        Collection<ProcessInstance> second = cachedQueryService.queryProcessInstances(ProcessInstanceFilter.builder().processId(asList("deals", "travels")).build());
+
+        assertThat(second).isSameAs(first);
+        verify(queryService).queryProcessInstances(any());
+    }
+
+    @Test
+    public void testDifferentPageQueried() {
+        cachedQueryService.queryProcessInstances(ProcessInstanceFilter.builder().processId(singletonList("travels")).limit(10).build());
+        cachedQueryService.queryProcessInstances(ProcessInstanceFilter.builder().processId(singletonList("travels")).limit(20).build());
+
+        verify(queryService, times(2)).queryProcessInstances(any());
+    }
+
+    @Test
+    public void testMatchingInstanceCreated() {
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().processId(singletonList("travels")).build();
+        cachedQueryService.queryProcessInstances(filter);
+
+        created.accept(getProcessInstance("deals", "2", ProcessInstanceState.ACTIVE.ordinal(), null, null));
+        cachedQueryService.queryProcessInstances(filter);
+        verify(queryService).queryProcessInstances(any());
+
+        created.accept(getProcessInstance("travels", "3", ProcessInstanceState.ACTIVE.ordinal(), null, null));
+        cachedQueryService.queryProcessInstances(filter);
+        verify(queryService, times(2)).queryProcessInstances(any());
+    }
+
+    @Test
+    public void testResultInstanceUpdated() {
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().state(singletonList(ProcessInstanceState.ACTIVE.ordinal())).build();
+        cachedQueryService.queryProcessInstances(filter);
+
+        // no longer matches the filter, but it is in the results
+        updated.accept(getProcessInstance("travels", "1", ProcessInstanceState.COMPLETED.ordinal(), null, null));
+        cachedQueryService.queryProcessInstances(filter);
+
+        verify(queryService, times(2)).queryProcessInstances(any());
+    }
+
+    @Test
+    public void testResultInstanceRemoved() {
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().processId(singletonList("travels")).build();
+        cachedQueryService.queryProcessInstances(filter);
+
+        removed.accept("2");
+        cachedQueryService.queryProcessInstances(filter);
+        verify(queryService).queryProcessInstances(any());
+
+        removed.accept("1");
+        cachedQueryService.queryProcessInstances(filter);
+        verify(queryService, times(2)).queryProcessInstances(any());
+    }
+
+    @Test
+    public void testOffsetPageDroppedOnAnyChange() {
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().processId(singletonList("travels")).offset(10).build();
+        cachedQueryService.queryProcessInstances(filter);
+
+        removed.accept("2");
+        cachedQueryService.queryProcessInstances(filter);
+
+        verify(queryService, times(2)).queryProcessInstances(any());
+    }
+
+    @Test
+    public void testDisabled() {
+        CachedQueryService disabled = new CachedQueryService();
+        disabled.queryService = queryService;
+        disabled.enabled = false;
+        disabled.setup();
+
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().processId(singletonList("travels")).build();
+        disabled.queryProcessInstances(filter);
+        disabled.queryProcessInstances(filter);
+
+        verify(queryService, times(2)).queryProcessInstances(any());
+    }
+}
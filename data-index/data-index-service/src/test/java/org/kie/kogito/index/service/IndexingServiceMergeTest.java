@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.service;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.cache.Cache;
+import org.kie.kogito.index.cache.CacheService;
+import org.kie.kogito.index.model.NodeInstance;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kie.kogito.index.Constants.PARTIAL_VARIABLES_ATTRIBUTE;
+import static org.kie.kogito.index.Constants.PROCESS_INSTANCES_DOMAIN_ATTRIBUTE;
+import static org.kie.kogito.index.json.JsonUtils.getObjectMapper;
+
+public class IndexingServiceMergeTest {
+
+    private static final String PROCESS_INSTANCE_ID = "pi";
+
+    private final MapCache<String, ProcessInstance> processInstances = new MapCache<>();
+    private final MapCache<String, ObjectNode> models = new MapCache<>();
+    private IndexingService indexingService;
+
+    @BeforeEach
+    public void setup() {
+        MapCache<String, String> processIdModels = new MapCache<>();
+        processIdModels.put("travels", "Travels");
+        indexingService = new IndexingService();
+        indexingService.manager = new CacheService() {
+
+            @Override
+            public Cache<String, ProcessInstance> getProcessInstancesCache() {
+                return processInstances;
+            }
+
+            @Override
+            public Cache<String, UserTaskInstance> getUserTaskInstancesCache() {
+                return new MapCache<>();
+            }
+
+            @Override
+            public Cache<String, String> getProcessIdModelCache() {
+                return processIdModels;
+            }
+
+            @Override
+            public Cache<String, ObjectNode> getDomainModelCache(String processId) {
+                return models;
+            }
+        };
+    }
+
+    @Test
+    public void testNodesOfEventReplaceIndexedOnesWithSameId() {
+        indexingService.indexProcessInstance(processInstance(variables("a", 1), node("1", null)));
+        indexingService.indexProcessInstance(processInstance(variables("a", 1), node("1", ZonedDateTime.now()), node("2", null)));
+        indexingService.indexProcessInstance(processInstance(variables("a", 1), node("3", null)));
+
+        ProcessInstance indexed = processInstances.get(PROCESS_INSTANCE_ID);
+        assertThat(indexed.getNodes()).extracting(NodeInstance::getId).containsExactly("3", "1", "2");
+        assertThat(indexed.getNodes().get(1).getExit()).isNotNull();
+    }
+
+    @Test
+    public void testPartialVariablesMergedIntoIndexedOnes() {
+        ObjectNode variables = variables("a", 1);
+        variables.put("b", 2);
+        indexingService.indexProcessInstance(processInstance(variables));
+        indexingService.indexProcessInstance(processInstance(variables("b", 3)), true);
+
+        assertThat(processInstances.get(PROCESS_INSTANCE_ID).getVariables().toString()).isEqualTo("{\"a\":1,\"b\":3}");
+
+        // event with all variables replaces indexed ones
+        indexingService.indexProcessInstance(processInstance(variables("c", 4)));
+
+        assertThat(processInstances.get(PROCESS_INSTANCE_ID).getVariables().toString()).isEqualTo("{\"c\":4}");
+    }
+
+    @Test
+    public void testPartialVariablesMergedIntoIndexedModel() {
+        ObjectNode json = model();
+        json.put("traveller", "john");
+        json.put("hotel", "hilton");
+        indexingService.indexModel(json);
+
+        ObjectNode changed = model();
+        changed.put(PARTIAL_VARIABLES_ATTRIBUTE, true);
+        changed.put("hotel", "marriott");
+        indexingService.indexModel(changed);
+
+        ObjectNode indexed = models.get(PROCESS_INSTANCE_ID);
+        assertThat(indexed.get("_type").asText()).isEqualTo("Travels");
+        assertThat(indexed.get("traveller").asText()).isEqualTo("john");
+        assertThat(indexed.get("hotel").asText()).isEqualTo("marriott");
+        assertThat(indexed.has(PARTIAL_VARIABLES_ATTRIBUTE)).isFalse();
+        assertThat(indexed.get(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE)).hasSize(1);
+    }
+
+    @Test
+    public void testModelWithAllVariablesReplacesIndexedOnes() {
+        ObjectNode json = model();
+        json.put("traveller", "john");
+        indexingService.indexModel(json);
+
+        ObjectNode replaced = model();
+        replaced.put("hotel", "marriott");
+        indexingService.indexModel(replaced);
+
+        ObjectNode indexed = models.get(PROCESS_INSTANCE_ID);
+        assertThat(indexed.has("traveller")).isFalse();
+        assertThat(indexed.get("hotel").asText()).isEqualTo("marriott");
+    }
+
+    @Test
+    public void testBatchMergesEventsIntoIndexedProcessInstance() {
+        ObjectNode variables = variables("a", 1);
+        variables.put("b", 2);
+        indexingService.indexProcessInstance(processInstance(variables, node("1", null)));
+
+        IndexingBatch batch = new IndexingBatch();
+        batch.addProcessInstance(processInstance(variables("b", 3), node("1", ZonedDateTime.now())), true);
+        batch.addProcessInstance(processInstance(variables("c", 4), node("2", null)), true);
+        indexingService.index(batch);
+
+        ProcessInstance indexed = processInstances.get(PROCESS_INSTANCE_ID);
+        assertThat(indexed.getVariables().toString()).isEqualTo("{\"a\":1,\"b\":3,\"c\":4}");
+        assertThat(indexed.getNodes()).extracting(NodeInstance::getId).containsExactly("2", "1");
+        assertThat(indexed.getNodes().get(1).getExit()).isNotNull();
+    }
+
+    @Test
+    public void testBatchMergesIntoValueUpdatedConcurrently() {
+        indexingService.indexProcessInstance(processInstance(variables("a", 1)));
+        IndexingBatch batch = new IndexingBatch();
+        batch.addProcessInstance(processInstance(variables("b", 2)), true);
+        // entry changes between the first read and the write, merge is repeated with the new value
+        processInstances.beforeWrite = () -> {
+            processInstances.beforeWrite = null;
+            processInstances.put(PROCESS_INSTANCE_ID, processInstance(variables("c", 3)));
+        };
+        indexingService.index(batch);
+
+        assertThat(processInstances.get(PROCESS_INSTANCE_ID).getVariables().toString()).isEqualTo("{\"c\":3,\"b\":2}");
+    }
+
+    @Test
+    public void testBatchMergesModelEvents() {
+        ObjectNode json = model();
+        json.put("traveller", "john");
+        json.put("hotel", "hilton");
+        ObjectNode changed = model();
+        changed.put(PARTIAL_VARIABLES_ATTRIBUTE, true);
+        changed.put("hotel", "marriott");
+        IndexingBatch batch = new IndexingBatch();
+        batch.addModel(json);
+        batch.addModel(changed);
+        indexingService.index(batch);
+
+        ObjectNode indexed = models.get(PROCESS_INSTANCE_ID);
+        assertThat(indexed.get("_type").asText()).isEqualTo("Travels");
+        assertThat(indexed.get("traveller").asText()).isEqualTo("john");
+        assertThat(indexed.get("hotel").asText()).isEqualTo("marriott");
+    }
+
+    private static ProcessInstance processInstance(ObjectNode variables, NodeInstance... nodes) {
+        ProcessInstance pi = new ProcessInstance();
+        pi.setId(PROCESS_INSTANCE_ID);
+        pi.setProcessId("travels");
+        pi.setVariables(variables);
+        pi.setNodes(Arrays.asList(nodes));
+        return pi;
+    }
+
+    private static NodeInstance node(String id, ZonedDateTime exit) {
+        NodeInstance node = new NodeInstance();
+        node.setId(id);
+        node.setExit(exit);
+        return node;
+    }
+
+    private static ObjectNode variables(String name, int value) {
+        return getObjectMapper().createObjectNode().put(name, value);
+    }
+
+    private static ObjectNode model() {
+        ObjectNode json = getObjectMapper().createObjectNode();
+        json.put("id", PROCESS_INSTANCE_ID);
+        json.put("processId", "travels");
+        json.withArray(PROCESS_INSTANCES_DOMAIN_ATTRIBUTE).addObject().put("id", PROCESS_INSTANCE_ID);
+        return json;
+    }
+
+    /**
+     * Cache backed by a map, upserting single entries through its atomic merge and several entries
+     * optimistically, running the hook between reading and writing each entry.
+     */
+    static class MapCache<K, V> extends ConcurrentHashMap<K, V> implements Cache<K, V> {
+
+        volatile Runnable beforeWrite;
+
+        @Override
+        public Map<K, V> getAll(Set<? extends K> keys) {
+            Map<K, V> values = new HashMap<>();
+            keys.forEach(key -> {
+                V value = get(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            });
+            return values;
+        }
+
+        @Override
+        public V upsert(K key, V value, BiFunction<? super V, ? super V, ? extends V> mergeFunction) {
+            return merge(key, value, mergeFunction);
+        }
+
+        @Override
+        public Map<K, V> upsertAll(Map<K, UnaryOperator<V>> updates) {
+            Map<K, V> stored = new HashMap<>();
+            updates.forEach((key, function) -> {
+                V value;
+                do {
+                    V current = get(key);
+                    value = function.apply(current);
+                    if (beforeWrite != null) {
+                        beforeWrite.run();
+                    }
+                    if (!write(key, current, value)) {
+                        value = null;
+                    }
+                } while (value == null);
+                stored.put(key, value);
+            });
+            return stored;
+        }
+
+        private synchronized boolean write(K key, V expected, V value) {
+            // compares by identity, as a version check would
+            if (get(key) != expected) {
+                return false;
+            }
+            put(key, value);
+            return true;
+        }
+
+        @Override
+        public void addObjectCreatedListener(Consumer<V> consumer) {
+        }
+
+        @Override
+        public void addObjectUpdatedListener(Consumer<V> consumer) {
+        }
+
+        @Override
+        public void addObjectRemovedListener(Consumer<K> consumer) {
+        }
+    }
+}
@@ -23,8 +23,12 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -50,6 +54,8 @@ import static io.restassured.config.EncoderConfig.encoderConfig;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.hamcrest.CoreMatchers.is;
@@ -591,6 +597,90 @@ public class IndexingServiceTest {
         validateProcessInstance(toGraphQLString(ProcessInstanceFilter.builder().id(singletonList(subProcessInstanceId)).parentProcessInstanceId(asList(processInstanceId, null)).build()), event);
     }
 
+    @Test
+    public void testProcessInstancesOrderedWithCursor() throws Exception {
+        String processId = "travels";
+        List<String> processInstanceIds = Stream.generate(() -> UUID.randomUUID().toString()).limit(3).sorted(Comparator.reverseOrder()).collect(toList());
+        for (String processInstanceId : processInstanceIds) {
+            indexProcessCloudEvent(getProcessCloudEvent(processId, processInstanceId, ProcessInstanceState.ACTIVE, null, null, null));
+        }
+
+        String filter = "id: [" + processInstanceIds.stream().map(id -> "\\\"" + id + "\\\"").collect(joining(", ")) + "], orderBy: [{ attribute: \\\"id\\\", direction: DESC }], limit: 2";
+        String cursor = given().contentType(ContentType.JSON).body("{ \"query\" : \"{ ProcessInstances(filter: { " + filter + " }) { id, cursor } }\" }")
+                .when().post("/graphql")
+                .then().log().ifValidationFails().statusCode(200)
+                .body("data.ProcessInstances.size()", is(2))
+                .body("data.ProcessInstances[0].id", is(processInstanceIds.get(0)))
+                .body("data.ProcessInstances[1].id", is(processInstanceIds.get(1)))
+                .extract().path("data.ProcessInstances[1].cursor");
+
+        given().contentType(ContentType.JSON).body("{ \"query\" : \"{ ProcessInstances(filter: { " + filter + ", after: \\\"" + cursor + "\\\" }) { id, cursor } }\" }")
+                .when().post("/graphql")
+                .then().log().ifValidationFails().statusCode(200)
+                .body("data.ProcessInstances.size()", is(1))
+                .body("data.ProcessInstances[0].id", is(processInstanceIds.get(2)));
+    }
+
+    @Test
+    public void testProcessInstancesPagedAcrossNullEnd() throws Exception {
+        String processId = "travels";
+        List<String> active = Stream.generate(() -> UUID.randomUUID().toString()).limit(2).sorted().collect(toList());
+        List<String> completed = Stream.generate(() -> UUID.randomUUID().toString()).limit(2).collect(toList());
+        for (String processInstanceId : active) {
+            indexProcessCloudEvent(getProcessCloudEvent(processId, processInstanceId, ProcessInstanceState.ACTIVE, null, null, null));
+        }
+        ZonedDateTime end = ZonedDateTime.now();
+        for (int i = 0; i < completed.size(); i++) {
+            KogitoProcessCloudEvent event = getProcessCloudEvent(processId, completed.get(i), ProcessInstanceState.COMPLETED, null, null, null);
+            event.getData().setEnd(end.plusSeconds(i));
+            indexProcessCloudEvent(event);
+        }
+
+        List<String> ascending = new ArrayList<>(active);
+        ascending.addAll(completed);
+        List<String> descending = new ArrayList<>(completed);
+        Collections.reverse(descending);
+        descending.addAll(active);
+        String ids = "id: [" + ascending.stream().map(id -> "\\\"" + id + "\\\"").collect(joining(", ")) + "], ";
+
+        // null end values are ordered first in ascending order and last in descending order
+        assertThat(pagedIds(ids + "orderBy: [{ attribute: \\\"end\\\", direction: ASC }]", 1)).containsExactlyElementsOf(ascending);
+        assertThat(pagedIds(ids + "orderBy: [{ attribute: \\\"end\\\", direction: DESC }]", 1)).containsExactlyElementsOf(descending);
+
+        // without other filters the cursor condition is the only one of the query
+        String ascendingOrder = "orderBy: [{ attribute: \\\"end\\\", direction: ASC }]";
+        assertThat(pagedIds(ascendingOrder, 2)).isEqualTo(orderedIds(ascendingOrder)).containsSubsequence(ascending);
+        String descendingOrder = "orderBy: [{ attribute: \\\"end\\\", direction: DESC }]";
+        assertThat(pagedIds(descendingOrder, 2)).isEqualTo(orderedIds(descendingOrder)).containsSubsequence(descending);
+    }
+
+    private List<String> pagedIds(String filter, int limit) {
+        List<String> ids = new ArrayList<>();
+        String after = "";
+        List<String> page;
+        do {
+            List<Map<String, String>> instances = given().contentType(ContentType.JSON)
+                    .body("{ \"query\" : \"{ ProcessInstances(filter: { " + filter + ", limit: " + limit + after + " }) { id, cursor } }\" }")
+                    .when().post("/graphql")
+                    .then().log().ifValidationFails().statusCode(200)
+                    .extract().path("data.ProcessInstances");
+            page = instances.stream().map(instance -> instance.get("id")).collect(toList());
+            ids.addAll(page);
+            if (!instances.isEmpty()) {
+                after = ", after: \\\"" + instances.get(instances.size() - 1).get("cursor") + "\\\"";
+            }
+        } while (page.size() == limit);
+        return ids;
+    }
+
+    private List<String> orderedIds(String filter) {
+        return given().contentType(ContentType.JSON)
+                .body("{ \"query\" : \"{ ProcessInstances(filter: { " + filter + " }) { id } }\" }")
+                .when().post("/graphql")
+                .then().log().ifValidationFails().statusCode(200)
+                .extract().path("data.ProcessInstances.id");
+    }
+
     @Test
     public void testUserTaskInstanceIndex() throws Exception {
         String taskId = UUID.randomUUID().toString();
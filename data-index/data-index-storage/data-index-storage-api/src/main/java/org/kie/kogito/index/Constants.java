@@ -22,5 +22,6 @@ public final class Constants {
 
     public static final String PROCESS_INSTANCES_DOMAIN_ATTRIBUTE = "processInstances";
     public static final String USER_TASK_INSTANCES_DOMAIN_ATTRIBUTE = "userTasks";
+    public static final String PARTIAL_VARIABLES_ATTRIBUTE = "_partialVariables";
 
 }
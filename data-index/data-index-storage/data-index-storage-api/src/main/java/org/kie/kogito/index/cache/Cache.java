@@ -16,11 +16,48 @@
 
 package org.kie.kogito.index.cache;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 public interface Cache<K, V> extends ConcurrentMap<K, V> {
 
+    /**
+     * Returns values of the given keys in a single call, keys without any value are not in the result.
+     */
+    Map<K, V> getAll(Set<? extends K> keys);
+
+    /**
+     * Atomically stores the value if there is none for the key yet, otherwise replaces the stored value
+     * with the result of merging it with the given one. When the entry is concurrently updated the merge
+     * is retried with the new stored value, so the merge function might be called more than once and
+     * must compute its result only from its arguments and values captured beforehand. Implementations
+     * give up after a bounded number of retries.
+     *
+     * @param key the key of the entry
+     * @param value the value to store or merge into the stored one
+     * @param mergeFunction function called with the stored and given value, returning the value to store
+     * @return the value that has been stored
+     * @throws java.util.ConcurrentModificationException if the entry kept being concurrently updated
+     */
+    V upsert(K key, V value, BiFunction<? super V, ? super V, ? extends V> mergeFunction);
+
+    /**
+     * Atomically updates each of the given entries, as {@link #upsert(Object, Object, BiFunction)} does, while
+     * reading and writing the entries together. Each function is called with the stored value of its key, null
+     * when there is none, and returns the value to store. Functions of concurrently updated entries are called
+     * again with the new stored value, so they must compute their result only from their argument and values
+     * captured beforehand. Implementations give up after a bounded number of retries.
+     *
+     * @param updates functions computing the value to store by key
+     * @return the values that have been stored by key
+     * @throws java.util.ConcurrentModificationException if an entry kept being concurrently updated
+     */
+    Map<K, V> upsertAll(Map<K, UnaryOperator<V>> updates);
+
     void addObjectCreatedListener(Consumer<V> consumer);
 
     void addObjectUpdatedListener(Consumer<V> consumer);
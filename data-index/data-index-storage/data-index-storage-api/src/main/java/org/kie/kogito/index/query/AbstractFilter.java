@@ -16,10 +16,18 @@
 
 package org.kie.kogito.index.query;
 
+import java.util.List;
+import java.util.Set;
+
 public abstract class AbstractFilter {
 
     private Integer limit;
     private Integer offset;
+    // attributes the caller reads from the results, null when the whole objects are needed
+    private Set<String> projection;
+    private List<OrderBy> orderBy;
+    // cursor of the last object of the previous page, see Cursor
+    private String after;
 
     public Integer getLimit() {
         return limit;
@@ -37,11 +45,38 @@ public abstract class AbstractFilter {
         this.offset = offset;
     }
 
+    public Set<String> getProjection() {
+        return projection;
+    }
+
+    public void setProjection(Set<String> projection) {
+        this.projection = projection;
+    }
+
+    public List<OrderBy> getOrderBy() {
+        return orderBy;
+    }
+
+    public void setOrderBy(List<OrderBy> orderBy) {
+        this.orderBy = orderBy;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
     @Override
     public String toString() {
         return "AbstractFilter{" +
                 "limit=" + limit +
                 ", offset=" + offset +
+                ", projection=" + projection +
+                ", orderBy=" + orderBy +
+                ", after='" + after + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.query;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+
+/**
+ * Opaque position of an object in query results, used to continue the query right after that object
+ * (keyset pagination). The cursor holds values of all sortable attributes of the object together with
+ * its id, which breaks ties, so it can be used with any order of the query it was returned from.
+ * Dates are kept as epoch milliseconds, the way they are stored.
+ */
+public final class Cursor {
+
+    public static final String ID = "id";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> VALUES_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private static final Map<String, Function<ProcessInstance, Object>> PROCESS_INSTANCE_ATTRIBUTES = new LinkedHashMap<>();
+    private static final Map<String, Function<UserTaskInstance, Object>> USER_TASK_INSTANCE_ATTRIBUTES = new LinkedHashMap<>();
+
+    static {
+        PROCESS_INSTANCE_ATTRIBUTES.put(ID, ProcessInstance::getId);
+        PROCESS_INSTANCE_ATTRIBUTES.put("processId", ProcessInstance::getProcessId);
+        PROCESS_INSTANCE_ATTRIBUTES.put("processName", ProcessInstance::getProcessName);
+        PROCESS_INSTANCE_ATTRIBUTES.put("state", ProcessInstance::getState);
+        PROCESS_INSTANCE_ATTRIBUTES.put("start", pi -> toMillis(pi.getStart()));
+        PROCESS_INSTANCE_ATTRIBUTES.put("end", pi -> toMillis(pi.getEnd()));
+
+        USER_TASK_INSTANCE_ATTRIBUTES.put(ID, UserTaskInstance::getId);
+        USER_TASK_INSTANCE_ATTRIBUTES.put("name", UserTaskInstance::getName);
+        USER_TASK_INSTANCE_ATTRIBUTES.put("priority", UserTaskInstance::getPriority);
+        USER_TASK_INSTANCE_ATTRIBUTES.put("processId", UserTaskInstance::getProcessId);
+        USER_TASK_INSTANCE_ATTRIBUTES.put("state", UserTaskInstance::getState);
+        USER_TASK_INSTANCE_ATTRIBUTES.put("actualOwner", UserTaskInstance::getActualOwner);
+        USER_TASK_INSTANCE_ATTRIBUTES.put("started", ut -> toMillis(ut.getStarted()));
+        USER_TASK_INSTANCE_ATTRIBUTES.put("completed", ut -> toMillis(ut.getCompleted()));
+    }
+
+    private Cursor() {
+    }
+
+    /**
+     * Returns attributes process instances can be ordered by.
+     */
+    public static Set<String> processInstanceAttributes() {
+        return Collections.unmodifiableSet(PROCESS_INSTANCE_ATTRIBUTES.keySet());
+    }
+
+    /**
+     * Returns attributes user task instances can be ordered by.
+     */
+    public static Set<String> userTaskInstanceAttributes() {
+        return Collections.unmodifiableSet(USER_TASK_INSTANCE_ATTRIBUTES.keySet());
+    }
+
+    public static String of(ProcessInstance pi) {
+        return encode(PROCESS_INSTANCE_ATTRIBUTES, pi);
+    }
+
+    public static String of(UserTaskInstance ut) {
+        return encode(USER_TASK_INSTANCE_ATTRIBUTES, ut);
+    }
+
+    /**
+     * Returns values of the sortable attributes of the process instance, the same as {@link #decode(String)}
+     * returns for its cursor.
+     */
+    public static Map<String, Object> values(ProcessInstance pi) {
+        return values(PROCESS_INSTANCE_ATTRIBUTES, pi);
+    }
+
+    /**
+     * Returns values of the sortable attributes of the user task instance, the same as {@link #decode(String)}
+     * returns for its cursor.
+     */
+    public static Map<String, Object> values(UserTaskInstance ut) {
+        return values(USER_TASK_INSTANCE_ATTRIBUTES, ut);
+    }
+
+    /**
+     * Returns values of the attributes by their name.
+     * @throws IllegalArgumentException when the cursor was not created by this class
+     */
+    public static Map<String, Object> decode(String cursor) {
+        Map<String, Object> values;
+        try {
+            values = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), VALUES_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (values == null || values.get(ID) == null) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return values;
+    }
+
+    private static <T> Map<String, Object> values(Map<String, Function<T, Object>> attributes, T object) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        attributes.forEach((name, getter) -> values.put(name, getter.apply(object)));
+        return values;
+    }
+
+    private static <T> String encode(Map<String, Function<T, Object>> attributes, T object) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsString(values(attributes, object)).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create cursor", e);
+        }
+    }
+
+    private static Long toMillis(ZonedDateTime date) {
+        return date == null ? null : date.toInstant().toEpochMilli();
+    }
+}
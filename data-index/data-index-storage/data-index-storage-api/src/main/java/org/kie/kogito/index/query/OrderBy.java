@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.query;
+
+public class OrderBy {
+
+    private String attribute;
+    private OrderDirection direction = OrderDirection.ASC;
+
+    public OrderBy() {
+    }
+
+    public OrderBy(String attribute, OrderDirection direction) {
+        this.attribute = attribute;
+        this.direction = direction;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public void setAttribute(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public OrderDirection getDirection() {
+        return direction;
+    }
+
+    public void setDirection(OrderDirection direction) {
+        this.direction = direction == null ? OrderDirection.ASC : direction;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBy{" +
+                "attribute='" + attribute + '\'' +
+                ", direction=" + direction +
+                '}';
+    }
+}
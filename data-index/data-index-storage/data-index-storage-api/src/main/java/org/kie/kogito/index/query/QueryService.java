@@ -24,8 +24,20 @@ import org.kie.kogito.index.model.UserTaskInstance;
 
 public interface QueryService {
 
+    /**
+     * Returns models of the domain matching the Ickle query, or all of them when the query is null.
+     * @throws UnsupportedOperationException when the query is given and {@link #supportsDomainQueries()} is false
+     */
     Collection<ObjectNode> queryDomain(String domain, String query);
 
+    /**
+     * Returns whether the storage evaluates query strings of domain queries,
+     * otherwise domain models can only be listed all at once.
+     */
+    default boolean supportsDomainQueries() {
+        return true;
+    }
+
     Collection<ProcessInstance> queryProcessInstances(ProcessInstanceFilter filter);
 
     Collection<UserTaskInstance> queryUserTaskInstances(UserTaskInstanceFilter filter);
@@ -17,6 +17,7 @@
 package org.kie.kogito.index.query;
 
 import java.util.List;
+import java.util.Set;
 
 public class UserTaskInstanceFilter extends AbstractFilter {
 
@@ -109,6 +110,21 @@ public class UserTaskInstanceFilter extends AbstractFilter {
             return this;
         }
 
+        public Builder projection(Set<String> projection) {
+            filter.setProjection(projection);
+            return this;
+        }
+
+        public Builder orderBy(List<OrderBy> orderBy) {
+            filter.setOrderBy(orderBy);
+            return this;
+        }
+
+        public Builder after(String after) {
+            filter.setAfter(after);
+            return this;
+        }
+
         public Builder state(List<String> state) {
             filter.setState(state);
             return this;
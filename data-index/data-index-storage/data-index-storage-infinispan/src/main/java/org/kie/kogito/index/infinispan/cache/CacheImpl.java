@@ -17,13 +17,20 @@
 package org.kie.kogito.index.infinispan.cache;
 
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.MetadataValue;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.kie.kogito.index.cache.Cache;
 import org.kie.kogito.index.infinispan.listener.CacheObjectCreatedListener;
@@ -35,6 +42,7 @@ import org.slf4j.LoggerFactory;
 public class CacheImpl<K, V> implements Cache<K, V> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheImpl.class);
+    static final int MAX_UPSERT_ATTEMPTS = 10;
 
     private RemoteCache<K, V> delegate;
 
@@ -87,6 +95,63 @@ public class CacheImpl<K, V> implements Cache<K, V> {
         return delegate.merge(key, value, remappingFunction);
     }
 
+    @Override
+    public Map<K, V> getAll(Set<? extends K> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public V upsert(K key, V value, BiFunction<? super V, ? super V, ? extends V> mergeFunction) {
+        for (int attempt = 1; attempt <= MAX_UPSERT_ATTEMPTS; attempt++) {
+            MetadataValue<V> current = delegate.getWithMetadata(key);
+            if (current == null) {
+                if (delegate.withFlags(Flag.FORCE_RETURN_VALUE).putIfAbsent(key, value) == null) {
+                    return value;
+                }
+            } else {
+                V merged = mergeFunction.apply(current.getValue(), value);
+                if (delegate.replaceWithVersion(key, merged, current.getVersion())) {
+                    return merged;
+                }
+            }
+            LOGGER.debug("Entry {} in cache {} concurrently updated, retrying merge", key, delegate.getName());
+        }
+        throw new ConcurrentModificationException("Entry " + key + " in cache " + delegate.getName() + " concurrently updated, merge failed after " + MAX_UPSERT_ATTEMPTS + " attempts");
+    }
+
+    @Override
+    public Map<K, V> upsertAll(Map<K, UnaryOperator<V>> updates) {
+        Map<K, V> stored = new HashMap<>();
+        Map<K, UnaryOperator<V>> pending = updates;
+        for (int attempt = 1; attempt <= MAX_UPSERT_ATTEMPTS; attempt++) {
+            Map<K, V> values = new HashMap<>();
+            Map<K, CompletableFuture<Boolean>> writes = new HashMap<>();
+            pending.forEach((key, function) -> {
+                MetadataValue<V> current = delegate.getWithMetadata(key);
+                V value = function.apply(current == null ? null : current.getValue());
+                values.put(key, value);
+                // writes of all entries are sent together, each checking the version it merged into
+                writes.put(key, current == null ?
+                        delegate.withFlags(Flag.FORCE_RETURN_VALUE).putIfAbsentAsync(key, value).thenApply(Objects::isNull) :
+                        delegate.replaceWithVersionAsync(key, value, current.getVersion()));
+            });
+            Map<K, UnaryOperator<V>> conflicts = new HashMap<>();
+            for (Map.Entry<K, CompletableFuture<Boolean>> write : writes.entrySet()) {
+                if (write.getValue().join()) {
+                    stored.put(write.getKey(), values.get(write.getKey()));
+                } else {
+                    conflicts.put(write.getKey(), pending.get(write.getKey()));
+                }
+            }
+            if (conflicts.isEmpty()) {
+                return stored;
+            }
+            LOGGER.debug("Entries {} in cache {} concurrently updated, retrying merge", conflicts.keySet(), delegate.getName());
+            pending = conflicts;
+        }
+        throw new ConcurrentModificationException("Entries " + pending.keySet() + " in cache " + delegate.getName() + " concurrently updated, merge failed after " + MAX_UPSERT_ATTEMPTS + " attempts");
+    }
+
     @Override
     public int size() {
         return delegate.size();
@@ -18,6 +18,9 @@ package org.kie.kogito.index.infinispan.cache;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -36,6 +39,7 @@ import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.query.remote.client.ProtobufMetadataManagerConstants;
 import org.kie.kogito.index.cache.Cache;
 import org.kie.kogito.index.cache.CacheService;
+import org.kie.kogito.index.event.DomainModelRegisteredEvent;
 import org.kie.kogito.index.model.ProcessInstance;
 import org.kie.kogito.index.model.UserTaskInstance;
 import org.slf4j.Logger;
@@ -48,6 +52,10 @@ public class InfinispanCacheManager implements CacheService {
     private static final String PROCESS_INSTANCES_CACHE = "processinstances";
     private static final String USER_TASK_INSTANCES_CACHE = "usertaskinstances";
     private static final String PROCESS_ID_MODEL_CACHE = "processidmodel";
+    private static final String DOMAIN_CACHE_SUFFIX = "_domain";
+
+    // resolved cache handles by cache name, remote lookup and administration are done only once per cache
+    private final ConcurrentMap<String, Cache<?, ?>> caches = new ConcurrentHashMap<>();
 
     @Inject
     JsonDataFormatMarshaller marshaller;
@@ -69,6 +77,7 @@ public class InfinispanCacheManager implements CacheService {
 
     @PreDestroy
     public void destroy() {
+        caches.clear();
         manager.stop();
         try {
             manager.close();
@@ -81,6 +90,16 @@ public class InfinispanCacheManager implements CacheService {
         destroy();
     }
 
+    public void onDomainModelRegisteredEvent(@Observes DomainModelRegisteredEvent event) {
+        // domain cache might have been created before the model was (re)registered, resolve it again
+        caches.remove(event.getProcessId() + DOMAIN_CACHE_SUFFIX);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <K, V> Cache<K, V> getCache(String name, Function<String, RemoteCache<K, V>> resolver) {
+        return (Cache<K, V>) caches.computeIfAbsent(name, n -> new CacheImpl<>(resolver.apply(n)));
+    }
+
     /**
      * Gets the cache if exists, otherwise tries to create one with the given template.
      * If the template does not exist on the server, creates the cache based on a default configuration.
@@ -110,12 +129,12 @@ public class InfinispanCacheManager implements CacheService {
 
     @Override
     public Cache<String, ProcessInstance> getProcessInstancesCache() {
-        return new CacheImpl<>(getOrCreateCache(PROCESS_INSTANCES_CACHE, cacheTemplateName));
+        return getCache(PROCESS_INSTANCES_CACHE, name -> getOrCreateCache(name, cacheTemplateName));
     }
 
     @Override
     public Cache<String, UserTaskInstance> getUserTaskInstancesCache() {
-        return new CacheImpl<>(getOrCreateCache(USER_TASK_INSTANCES_CACHE, cacheTemplateName));
+        return getCache(USER_TASK_INSTANCES_CACHE, name -> getOrCreateCache(name, cacheTemplateName));
     }
 
     public Map<String, String> getProtobufCache() {
@@ -124,11 +143,11 @@ public class InfinispanCacheManager implements CacheService {
 
     @Override
     public Cache<String, String> getProcessIdModelCache() {
-        return new CacheImpl<>(manager.administration().getOrCreateCache(PROCESS_ID_MODEL_CACHE, (String) null));
+        return getCache(PROCESS_ID_MODEL_CACHE, name -> manager.administration().getOrCreateCache(name, (String) null));
     }
 
     @Override
     public Cache<String, ObjectNode> getDomainModelCache(String processId) {
-        return new CacheImpl<>(getOrCreateCache(processId + "_domain", cacheTemplateName).withDataFormat(jsonDataFormat));
+        return getCache(processId + DOMAIN_CACHE_SUFFIX, name -> this.<String, ObjectNode>getOrCreateCache(name, cacheTemplateName).withDataFormat(jsonDataFormat));
     }
 }
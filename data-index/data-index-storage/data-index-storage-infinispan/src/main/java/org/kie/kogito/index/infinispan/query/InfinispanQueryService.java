@@ -17,25 +17,35 @@
 package org.kie.kogito.index.infinispan.query;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.infinispan.client.hotrod.Search;
+import org.infinispan.query.dsl.FilterConditionContext;
 import org.infinispan.query.dsl.FilterConditionContextQueryBuilder;
 import org.infinispan.query.dsl.FilterConditionEndContext;
 import org.infinispan.query.dsl.Query;
 import org.infinispan.query.dsl.QueryBuilder;
 import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.SortOrder;
 import org.kie.kogito.index.infinispan.cache.CacheImpl;
 import org.kie.kogito.index.infinispan.cache.InfinispanCacheManager;
 import org.kie.kogito.index.model.ProcessInstance;
 import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.query.AbstractFilter;
+import org.kie.kogito.index.query.Cursor;
+import org.kie.kogito.index.query.OrderBy;
+import org.kie.kogito.index.query.OrderDirection;
 import org.kie.kogito.index.query.ProcessInstanceFilter;
 import org.kie.kogito.index.query.QueryService;
 import org.kie.kogito.index.query.UserTaskInstanceFilter;
@@ -55,6 +65,37 @@ public class InfinispanQueryService implements QueryService {
     @Inject
     ObjectMapper mapper;
 
+    // repeated attributes (roles, nodes, users and groups) cannot be projected
+    private final QueryProjection<ProcessInstance> processInstanceProjection = new QueryProjection<>(ProcessInstance::new)
+            .attribute("id", (pi, value) -> pi.setId((String) value))
+            .attribute("processId", (pi, value) -> pi.setProcessId((String) value))
+            .attribute("processName", (pi, value) -> pi.setProcessName((String) value))
+            .attribute("parentProcessInstanceId", (pi, value) -> pi.setParentProcessInstanceId((String) value))
+            .attribute("rootProcessInstanceId", (pi, value) -> pi.setRootProcessInstanceId((String) value))
+            .attribute("rootProcessId", (pi, value) -> pi.setRootProcessId((String) value))
+            .attribute("state", (pi, value) -> pi.setState((Integer) value))
+            .attribute("endpoint", (pi, value) -> pi.setEndpoint((String) value))
+            .attribute("variables", (pi, value) -> pi.setVariables(readJson(value)))
+            .attribute("start", (pi, value) -> pi.setStart(QueryProjection.toZonedDateTime(value)))
+            .attribute("end", (pi, value) -> pi.setEnd(QueryProjection.toZonedDateTime(value)));
+
+    private final QueryProjection<UserTaskInstance> userTaskInstanceProjection = new QueryProjection<>(UserTaskInstance::new)
+            .attribute("id", (ut, value) -> ut.setId((String) value))
+            .attribute("description", (ut, value) -> ut.setDescription((String) value))
+            .attribute("name", (ut, value) -> ut.setName((String) value))
+            .attribute("priority", (ut, value) -> ut.setPriority((String) value))
+            .attribute("processInstanceId", (ut, value) -> ut.setProcessInstanceId((String) value))
+            .attribute("processId", (ut, value) -> ut.setProcessId((String) value))
+            .attribute("rootProcessInstanceId", (ut, value) -> ut.setRootProcessInstanceId((String) value))
+            .attribute("rootProcessId", (ut, value) -> ut.setRootProcessId((String) value))
+            .attribute("state", (ut, value) -> ut.setState((String) value))
+            .attribute("actualOwner", (ut, value) -> ut.setActualOwner((String) value))
+            .attribute("completed", (ut, value) -> ut.setCompleted(QueryProjection.toZonedDateTime(value)))
+            .attribute("started", (ut, value) -> ut.setStarted(QueryProjection.toZonedDateTime(value)))
+            .attribute("inputs", (ut, value) -> ut.setInputs(readJson(value)))
+            .attribute("outputs", (ut, value) -> ut.setOutputs(readJson(value)))
+            .attribute("referenceName", (ut, value) -> ut.setReferenceName((String) value));
+
     @Override
     public Collection<ObjectNode> queryDomain(String domain, String query) {
         if (query == null) {
@@ -82,13 +123,15 @@ public class InfinispanQueryService implements QueryService {
             filterBuilder = filterList("processId", filter.getProcessId(), filterBuilder, qb);
             filterBuilder = filterList("parentProcessInstanceId", filter.getParentProcessInstanceId(), filterBuilder, qb);
             filterBuilder = filterList("rootProcessInstanceId", filter.getRootProcessInstanceId(), filterBuilder, qb);
-            filterList("id", filter.getId(), filterBuilder, qb);
+            filterBuilder = filterList("id", filter.getId(), filterBuilder, qb);
+            order(qf, qb, filterBuilder, filter, Cursor.processInstanceAttributes());
             if (filter.getLimit() != null) {
                 qb.maxResults(filter.getLimit());
             }
             if (filter.getOffset() != null) {
                 qb.startOffset(filter.getOffset());
             }
+            return list(qb, processInstanceProjection, filter.getProjection());
         }
         return qb.build().list();
     }
@@ -103,17 +146,168 @@ public class InfinispanQueryService implements QueryService {
             filterBuilder = filterList("id", filter.getId(), filterBuilder, qb);
             filterBuilder = filterList("actualOwner", filter.getActualOwner(), filterBuilder, qb);
             filterBuilder = filterList("potentialUsers", filter.getPotentialUsers(), filterBuilder, qb);
-            filterList("potentialGroups", filter.getPotentialGroups(), filterBuilder, qb);
+            filterBuilder = filterList("potentialGroups", filter.getPotentialGroups(), filterBuilder, qb);
+            order(qf, qb, filterBuilder, filter, Cursor.userTaskInstanceAttributes());
             if (filter.getLimit() != null) {
                 qb.maxResults(filter.getLimit());
             }
             if (filter.getOffset() != null) {
                 qb.startOffset(filter.getOffset());
             }
+            return list(qb, userTaskInstanceProjection, filter.getProjection());
         }
         return qb.build().list();
     }
 
+    /**
+     * Orders results and, when the filter has a cursor, restricts them to those following the cursor.
+     * Id is always the last order attribute, so the order is total and the cursor position is exact.
+     */
+    private void order(QueryFactory qf, QueryBuilder qb, FilterConditionContextQueryBuilder filterBuilder, AbstractFilter filter, Set<String> sortable) {
+        if ((filter.getOrderBy() == null || filter.getOrderBy().isEmpty()) && filter.getAfter() == null) {
+            return;
+        }
+        List<OrderBy> orderBy = new ArrayList<>();
+        if (filter.getOrderBy() != null) {
+            for (OrderBy order : filter.getOrderBy()) {
+                if (!sortable.contains(order.getAttribute())) {
+                    throw new IllegalArgumentException("Unable to order by " + order.getAttribute() + ", supported attributes are " + sortable);
+                }
+                orderBy.add(order);
+                if (Cursor.ID.equals(order.getAttribute())) {
+                    // further attributes would never be compared
+                    break;
+                }
+            }
+        }
+        if (orderBy.isEmpty() || !Cursor.ID.equals(orderBy.get(orderBy.size() - 1).getAttribute())) {
+            orderBy.add(new OrderBy(Cursor.ID, OrderDirection.ASC));
+        }
+        orderBy.forEach(order -> qb.orderBy(order.getAttribute(), order.getDirection() == OrderDirection.DESC ? SortOrder.DESC : SortOrder.ASC));
+
+        if (filter.getAfter() != null) {
+            Map<String, Object> values = Cursor.decode(filter.getAfter());
+            if (filterBuilder == null) {
+                // condition is the only filter of the query, it starts from the query builder
+                after(start(qb), qf, orderBy, values);
+            } else {
+                filterBuilder.and(after(start(qf), qf, orderBy, values));
+            }
+        }
+    }
+
+    /**
+     * Builds keyset condition (a1 > v1) or (a1 = v1 and a2 > v2) or ... for the order attributes and values of the cursor.
+     * First predicate is built from the given start, the following ones apart from the query and attached to it.
+     */
+    private FilterConditionContext after(ConditionStart first, QueryFactory qf, List<OrderBy> orderBy, Map<String, Object> values) {
+        ConditionStart detached = start(qf);
+        FilterConditionContext condition = null;
+        for (int i = 0; i < orderBy.size(); i++) {
+            OrderBy order = orderBy.get(i);
+            Object value = values.get(order.getAttribute());
+            if (!hasFollowing(order, value)) {
+                continue;
+            }
+            ConditionStart start = condition == null ? first : detached;
+            FilterConditionContext term;
+            if (i == 0) {
+                term = following(start, qf, order, value);
+            } else {
+                String attribute = orderBy.get(0).getAttribute();
+                term = equal(start, attribute, values.get(attribute));
+                for (int j = 1; j < i; j++) {
+                    attribute = orderBy.get(j).getAttribute();
+                    term = term.and(equal(detached, attribute, values.get(attribute)));
+                }
+                term = term.and(following(detached, qf, order, value));
+            }
+            condition = condition == null ? term : condition.or(term);
+        }
+        return condition;
+    }
+
+    /**
+     * Null values are expected to be ordered first in ascending order and thus last in descending order,
+     * so no value follows null in descending order.
+     */
+    private boolean hasFollowing(OrderBy order, Object value) {
+        return value != null || order.getDirection() != OrderDirection.DESC;
+    }
+
+    /**
+     * Returns condition of values following the given one, in the order of the attribute.
+     */
+    private FilterConditionContext following(ConditionStart start, QueryFactory qf, OrderBy order, Object value) {
+        String attribute = order.getAttribute();
+        if (order.getDirection() == OrderDirection.DESC) {
+            return start.having(attribute).lt(value).or(qf.having(attribute).isNull());
+        }
+        return value == null ? start.notHaving(attribute).isNull() : start.having(attribute).gt(value);
+    }
+
+    private FilterConditionContext equal(ConditionStart start, String attribute, Object value) {
+        return value == null ? start.having(attribute).isNull() : start.having(attribute).eq(value);
+    }
+
+    private static ConditionStart start(QueryBuilder qb) {
+        return new ConditionStart() {
+
+            @Override
+            public FilterConditionEndContext having(String attribute) {
+                return qb.having(attribute);
+            }
+
+            @Override
+            public FilterConditionEndContext notHaving(String attribute) {
+                return qb.not().having(attribute);
+            }
+        };
+    }
+
+    private static ConditionStart start(QueryFactory qf) {
+        return new ConditionStart() {
+
+            @Override
+            public FilterConditionEndContext having(String attribute) {
+                return qf.having(attribute);
+            }
+
+            @Override
+            public FilterConditionEndContext notHaving(String attribute) {
+                return qf.not().having(attribute);
+            }
+        };
+    }
+
+    /**
+     * Starts the predicates of a condition, either on the query builder or apart from any query.
+     */
+    private interface ConditionStart {
+
+        FilterConditionEndContext having(String attribute);
+
+        FilterConditionEndContext notHaving(String attribute);
+    }
+
+    private <T> Collection<T> list(QueryBuilder qb, QueryProjection<T> projection, Set<String> attributes) {
+        String[] selected = projection.select(attributes);
+        if (selected == null) {
+            return qb.build().list();
+        }
+        qb.select(selected);
+        return qb.build().<Object[]>list().stream().map(row -> projection.toObject(selected, row)).collect(toList());
+    }
+
+    private JsonNode readJson(Object value) {
+        try {
+            return value == null ? null : mapper.readTree((String) value);
+        } catch (IOException e) {
+            LOGGER.error("Failed to parse JSON: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
     private FilterConditionContextQueryBuilder filterList(String attribute, List values, FilterConditionContextQueryBuilder filter, QueryBuilder qb) {
         if (values == null || values.isEmpty()) {
             return filter;
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.infinispan.query;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps rows of an Ickle query projection back to model objects. Only single valued attributes can be
+ * projected, when some of the requested attributes are not known as projectable the whole objects
+ * have to be queried instead.
+ */
+class QueryProjection<T> {
+
+    private final Supplier<T> factory;
+    private final Map<String, BiConsumer<T, Object>> attributes = new LinkedHashMap<>();
+
+    QueryProjection(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    QueryProjection<T> attribute(String name, BiConsumer<T, Object> setter) {
+        attributes.put(name, setter);
+        return this;
+    }
+
+    /**
+     * Returns attributes to select for the requested ones, or null when whole objects must be queried.
+     */
+    String[] select(Set<String> requested) {
+        if (requested == null || requested.isEmpty() || !attributes.keySet().containsAll(requested)) {
+            return null;
+        }
+        return requested.toArray(new String[0]);
+    }
+
+    T toObject(String[] selected, Object[] row) {
+        T object = factory.get();
+        for (int i = 0; i < selected.length; i++) {
+            attributes.get(selected[i]).accept(object, row[i]);
+        }
+        return object;
+    }
+
+    static ZonedDateTime toZonedDateTime(Object value) {
+        if (value == null) {
+            return null;
+        }
+        long millis = value instanceof Date ? ((Date) value).getTime() : ((Number) value).longValue();
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.infinispan.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CacheImplTest {
+
+    private RemoteCache<String, String> remoteCache;
+    private CacheImpl<String, String> cache;
+    private List<String> merged;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void setup() {
+        remoteCache = mock(RemoteCache.class);
+        when(remoteCache.getName()).thenReturn("test");
+        when(remoteCache.withFlags(Flag.FORCE_RETURN_VALUE)).thenReturn(remoteCache);
+        cache = new CacheImpl<>(remoteCache);
+        merged = new ArrayList<>();
+    }
+
+    @Test
+    public void testUpsertInsertsMissingEntry() {
+        when(remoteCache.putIfAbsent("1", "ACTIVE")).thenReturn(null);
+
+        assertThat(cache.upsert("1", "ACTIVE", this::merge)).isEqualTo("ACTIVE");
+        assertThat(merged).isEmpty();
+        verify(remoteCache, never()).replaceWithVersion(any(), any(), anyLong());
+    }
+
+    @Test
+    public void testUpsertMergesStoredEntry() {
+        MetadataValue<String> stored = stored("ACTIVE", 1);
+        when(remoteCache.getWithMetadata("1")).thenReturn(stored);
+        when(remoteCache.replaceWithVersion("1", "ACTIVE+COMPLETED", 1)).thenReturn(true);
+
+        assertThat(cache.upsert("1", "COMPLETED", this::merge)).isEqualTo("ACTIVE+COMPLETED");
+        assertThat(merged).containsExactly("ACTIVE+COMPLETED");
+    }
+
+    @Test
+    public void testUpsertRetriesMergeOnConflict() {
+        MetadataValue<String> first = stored("ACTIVE", 1);
+        MetadataValue<String> second = stored("SUSPENDED", 2);
+        when(remoteCache.getWithMetadata("1")).thenReturn(first, second);
+        when(remoteCache.replaceWithVersion("1", "ACTIVE+COMPLETED", 1)).thenReturn(false);
+        when(remoteCache.replaceWithVersion("1", "SUSPENDED+COMPLETED", 2)).thenReturn(true);
+
+        assertThat(cache.upsert("1", "COMPLETED", this::merge)).isEqualTo("SUSPENDED+COMPLETED");
+        assertThat(merged).containsExactly("ACTIVE+COMPLETED", "SUSPENDED+COMPLETED");
+    }
+
+    @Test
+    public void testUpsertRetriesInsertCreatedMeanwhile() {
+        MetadataValue<String> stored = stored("ACTIVE", 1);
+        when(remoteCache.getWithMetadata("1")).thenReturn(null, stored);
+        when(remoteCache.putIfAbsent("1", "COMPLETED")).thenReturn("ACTIVE");
+        when(remoteCache.replaceWithVersion("1", "ACTIVE+COMPLETED", 1)).thenReturn(true);
+
+        assertThat(cache.upsert("1", "COMPLETED", this::merge)).isEqualTo("ACTIVE+COMPLETED");
+    }
+
+    @Test
+    public void testUpsertGivesUpAfterRepeatedConflicts() {
+        MetadataValue<String> stored = stored("ACTIVE", 1);
+        when(remoteCache.getWithMetadata("1")).thenReturn(stored);
+        when(remoteCache.replaceWithVersion("1", "ACTIVE+COMPLETED", 1)).thenReturn(false);
+
+        assertThatThrownBy(() -> cache.upsert("1", "COMPLETED", this::merge))
+                .isInstanceOf(ConcurrentModificationException.class)
+                .hasMessageContaining("Entry 1 in cache test");
+        verify(remoteCache, times(CacheImpl.MAX_UPSERT_ATTEMPTS)).replaceWithVersion("1", "ACTIVE+COMPLETED", 1);
+    }
+
+    @Test
+    public void testUpsertAllRetriesConflictingEntriesOnly() {
+        MetadataValue<String> first = stored("ACTIVE", 1);
+        MetadataValue<String> second = stored("SUSPENDED", 2);
+        when(remoteCache.getWithMetadata("1")).thenReturn(first, second);
+        when(remoteCache.replaceWithVersionAsync("1", "ACTIVE+COMPLETED", 1)).thenReturn(CompletableFuture.completedFuture(false));
+        when(remoteCache.replaceWithVersionAsync("1", "SUSPENDED+COMPLETED", 2)).thenReturn(CompletableFuture.completedFuture(true));
+        when(remoteCache.putIfAbsentAsync("2", "null+COMPLETED")).thenReturn(CompletableFuture.completedFuture(null));
+        Map<String, UnaryOperator<String>> updates = new HashMap<>();
+        updates.put("1", current -> merge(current, "COMPLETED"));
+        updates.put("2", current -> merge(current, "COMPLETED"));
+
+        Map<String, String> stored = cache.upsertAll(updates);
+
+        assertThat(stored).containsEntry("1", "SUSPENDED+COMPLETED").containsEntry("2", "null+COMPLETED");
+        verify(remoteCache, times(1)).getWithMetadata("2");
+        verify(remoteCache, times(2)).getWithMetadata("1");
+    }
+
+    @Test
+    public void testUpsertAllGivesUpAfterRepeatedConflicts() {
+        MetadataValue<String> stored = stored("ACTIVE", 1);
+        when(remoteCache.getWithMetadata("1")).thenReturn(stored);
+        when(remoteCache.replaceWithVersionAsync("1", "ACTIVE+COMPLETED", 1)).thenReturn(CompletableFuture.completedFuture(false));
+
+        assertThatThrownBy(() -> cache.upsertAll(Collections.singletonMap("1", current -> merge(current, "COMPLETED"))))
+                .isInstanceOf(ConcurrentModificationException.class)
+                .hasMessageContaining("Entries [1] in cache test");
+    }
+
+    private String merge(String current, String value) {
+        String result = current + "+" + value;
+        merged.add(result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MetadataValue<String> stored(String value, long version) {
+        MetadataValue<String> metadata = mock(MetadataValue.class);
+        when(metadata.getValue()).thenReturn(value);
+        when(metadata.getVersion()).thenReturn(version);
+        return metadata;
+    }
+}
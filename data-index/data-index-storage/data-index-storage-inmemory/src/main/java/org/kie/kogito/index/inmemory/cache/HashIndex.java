@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Index of cache entries by value of a single attribute, which might hold multiple values (e.g. groups).
+ * Values are compared by their string form, the way filters compare them. Entries without any value
+ * are indexed as well, so they can be looked up by null.
+ */
+public class HashIndex<K, V> {
+
+    private static final Object NULL = new Object();
+
+    private final String attribute;
+    private final Function<V, Collection<?>> extractor;
+    private final ConcurrentMap<Object, Set<K>> keys = new ConcurrentHashMap<>();
+    // index values of each key, stored values might have been modified in place so they are not reliable on removal
+    private final ConcurrentMap<K, Set<Object>> indexed = new ConcurrentHashMap<>();
+
+    private HashIndex(String attribute, Function<V, Collection<?>> extractor) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+    }
+
+    public static <K, V> HashIndex<K, V> of(String attribute, Function<V, ?> extractor) {
+        return new HashIndex<>(attribute, value -> Collections.singletonList(extractor.apply(value)));
+    }
+
+    public static <K, V> HashIndex<K, V> ofCollection(String attribute, Function<V, Collection<?>> extractor) {
+        return new HashIndex<>(attribute, extractor);
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Returns keys of entries having any of the given values.
+     */
+    public Set<K> get(List<?> values) {
+        Set<K> result = new HashSet<>();
+        for (Object value : values) {
+            Set<K> found = keys.get(toIndexValue(value));
+            if (found != null) {
+                result.addAll(found);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reindexes the entry of the given key, null value removes the entry from the index.
+     * Calls for the same key must not run concurrently.
+     */
+    void update(K key, V value) {
+        Set<Object> current = value == null ? Collections.emptySet() : indexValues(value);
+        Set<Object> previous = value == null ? indexed.remove(key) : indexed.put(key, current);
+        if (previous != null) {
+            previous.stream().filter(v -> !current.contains(v)).forEach(v -> keys.computeIfPresent(v, (k, set) -> {
+                set.remove(key);
+                return set.isEmpty() ? null : set;
+            }));
+        }
+        current.stream().filter(v -> previous == null || !previous.contains(v)).forEach(v -> keys.compute(v, (k, set) -> {
+            Set<K> updated = set == null ? ConcurrentHashMap.newKeySet() : set;
+            updated.add(key);
+            return updated;
+        }));
+    }
+
+    private Set<Object> indexValues(V value) {
+        Collection<?> values = extractor.apply(value);
+        if (values == null || values.isEmpty()) {
+            return Collections.singleton(NULL);
+        }
+        return values.stream().map(HashIndex::toIndexValue).collect(toSet());
+    }
+
+    private static Object toIndexValue(Object value) {
+        return value == null ? NULL : value.toString();
+    }
+}
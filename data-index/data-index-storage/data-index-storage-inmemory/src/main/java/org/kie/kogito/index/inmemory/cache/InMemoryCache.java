@@ -0,0 +1,290 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.kie.kogito.index.cache.Cache;
+
+/**
+ * Cache keeping its entries in memory of the service. Values are stored as they are, without any copy,
+ * so they must not be modified once written. Every write goes through a single atomic update of the entry,
+ * which also updates the indexes of the cache, listeners are notified right after the update.
+ * Views of the entries are read only, as writing through them would bypass the indexes.
+ */
+public class InMemoryCache<K, V> implements Cache<K, V> {
+
+    private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<>();
+    private final Map<String, HashIndex<K, V>> hashIndexes = new HashMap<>();
+    private final Map<String, SortedIndex<K, V>> sortedIndexes = new HashMap<>();
+    private final List<Consumer<V>> createdListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<V>> updatedListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<K>> removedListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds index to the cache, indexes must be added before any entry is written.
+     */
+    public InMemoryCache<K, V> withIndex(HashIndex<K, V> index) {
+        hashIndexes.put(index.getAttribute(), index);
+        return this;
+    }
+
+    /**
+     * Adds index to the cache, indexes must be added before any entry is written.
+     */
+    public InMemoryCache<K, V> withIndex(SortedIndex<K, V> index) {
+        sortedIndexes.put(index.getAttribute(), index);
+        return this;
+    }
+
+    public HashIndex<K, V> getHashIndex(String attribute) {
+        return hashIndexes.get(attribute);
+    }
+
+    public SortedIndex<K, V> getSortedIndex(String attribute) {
+        return sortedIndexes.get(attribute);
+    }
+
+    /**
+     * Atomically replaces the entry with the result of the function, returns value before the update.
+     */
+    private V update(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(key);
+        List<V> previous = new ArrayList<>(1);
+        V current = entries.compute(key, (k, value) -> {
+            previous.add(value);
+            V updated = function.apply(k, value);
+            if (value != null || updated != null) {
+                hashIndexes.values().forEach(index -> index.update(k, updated));
+                sortedIndexes.values().forEach(index -> index.update(k, updated));
+            }
+            return updated;
+        });
+        V value = previous.isEmpty() ? null : previous.get(0);
+        notifyListeners(key, value, current);
+        return value;
+    }
+
+    private void notifyListeners(K key, V previous, V current) {
+        if (previous == current) {
+            return;
+        }
+        if (current == null) {
+            if (previous != null) {
+                removedListeners.forEach(listener -> listener.accept(key));
+            }
+        } else if (previous == null) {
+            createdListeners.forEach(listener -> listener.accept(current));
+        } else {
+            updatedListeners.forEach(listener -> listener.accept(current));
+        }
+    }
+
+    @Override
+    public Map<K, V> getAll(Set<? extends K> keys) {
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = entries.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public V upsert(K key, V value, BiFunction<? super V, ? super V, ? extends V> mergeFunction) {
+        Objects.requireNonNull(value);
+        return merge(key, value, mergeFunction);
+    }
+
+    @Override
+    public Map<K, V> upsertAll(Map<K, UnaryOperator<V>> updates) {
+        Map<K, V> stored = new HashMap<>();
+        updates.forEach((key, function) -> stored.put(key, compute(key, (k, current) -> Objects.requireNonNull(function.apply(current)))));
+        return stored;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        return update(key, (k, current) -> value);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        V current = entries.get(key);
+        return current != null ? current : update(key, (k, v) -> v == null ? value : v);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        return entries.containsKey(key) ? update(key, (k, current) -> current == null ? null : value) : null;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        return oldValue.equals(update(key, (k, current) -> oldValue.equals(current) ? newValue : current));
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        entries.keySet().forEach(key -> update(key, (k, current) -> current == null ? null : Objects.requireNonNull(function.apply(k, current))));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        return entries.containsKey(key) ? update((K) key, (k, current) -> null) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        return value != null && entries.containsKey(key) && value.equals(update((K) key, (k, current) -> value.equals(current) ? null : current));
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V current = entries.get(key);
+        if (current != null) {
+            return current;
+        }
+        update(key, (k, value) -> value == null ? mappingFunction.apply(k) : value);
+        return entries.get(key);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (!entries.containsKey(key)) {
+            return null;
+        }
+        update(key, (k, value) -> value == null ? null : remappingFunction.apply(k, value));
+        return entries.get(key);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        List<V> computed = new ArrayList<>(1);
+        update(key, (k, value) -> {
+            V result = remappingFunction.apply(k, value);
+            computed.add(0, result);
+            return result;
+        });
+        return computed.get(0);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        return compute(key, (k, current) -> current == null ? value : remappingFunction.apply(current, value));
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return entries.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public void clear() {
+        entries.keySet().forEach(this::remove);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        // entries of an unmodifiable map do not write through either
+        return Collections.unmodifiableMap(entries).entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return entries.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return entries.hashCode();
+    }
+
+    @Override
+    public void addObjectCreatedListener(Consumer<V> consumer) {
+        createdListeners.add(consumer);
+    }
+
+    @Override
+    public void addObjectUpdatedListener(Consumer<V> consumer) {
+        updatedListeners.add(consumer);
+    }
+
+    @Override
+    public void addObjectRemovedListener(Consumer<K> consumer) {
+        removedListeners.add(consumer);
+    }
+}
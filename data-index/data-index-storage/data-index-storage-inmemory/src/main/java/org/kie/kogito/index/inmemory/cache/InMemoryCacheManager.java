@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.cache;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.kie.kogito.index.cache.CacheService;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+
+/**
+ * Storage keeping all data in memory of the service, without any network or serialization overhead.
+ * Process and user task instances are indexed by the attributes they are usually queried by, so queries
+ * evaluate their filters without going through all stored instances. Data is lost on restart, which makes
+ * the storage suitable for small deployments, development and performance tests of the service.
+ */
+@ApplicationScoped
+public class InMemoryCacheManager implements CacheService {
+
+    private final InMemoryCache<String, ProcessInstance> processInstances = new InMemoryCache<String, ProcessInstance>()
+            .withIndex(HashIndex.of("processId", ProcessInstance::getProcessId))
+            .withIndex(HashIndex.of("state", ProcessInstance::getState))
+            .withIndex(HashIndex.of("parentProcessInstanceId", ProcessInstance::getParentProcessInstanceId))
+            .withIndex(HashIndex.of("rootProcessInstanceId", ProcessInstance::getRootProcessInstanceId))
+            .withIndex(new SortedIndex<>("start", pi -> toMillis(pi.getStart())))
+            .withIndex(new SortedIndex<>("end", pi -> toMillis(pi.getEnd())));
+
+    private final InMemoryCache<String, UserTaskInstance> userTaskInstances = new InMemoryCache<String, UserTaskInstance>()
+            .withIndex(HashIndex.of("state", UserTaskInstance::getState))
+            .withIndex(HashIndex.of("actualOwner", UserTaskInstance::getActualOwner))
+            .withIndex(HashIndex.ofCollection("potentialGroups", UserTaskInstance::getPotentialGroups))
+            .withIndex(new SortedIndex<>("started", ut -> toMillis(ut.getStarted())))
+            .withIndex(new SortedIndex<>("completed", ut -> toMillis(ut.getCompleted())));
+
+    private final InMemoryCache<String, String> processIdModels = new InMemoryCache<>();
+    private final ConcurrentMap<String, InMemoryCache<String, ObjectNode>> domainModels = new ConcurrentHashMap<>();
+
+    @Override
+    public InMemoryCache<String, ProcessInstance> getProcessInstancesCache() {
+        return processInstances;
+    }
+
+    @Override
+    public InMemoryCache<String, UserTaskInstance> getUserTaskInstancesCache() {
+        return userTaskInstances;
+    }
+
+    @Override
+    public InMemoryCache<String, String> getProcessIdModelCache() {
+        return processIdModels;
+    }
+
+    @Override
+    public InMemoryCache<String, ObjectNode> getDomainModelCache(String processId) {
+        return domainModels.computeIfAbsent(processId, id -> new InMemoryCache<>());
+    }
+
+    private static Long toMillis(ZonedDateTime date) {
+        return date == null ? null : date.toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.cache;
+
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.kie.kogito.index.query.OrderDirection;
+
+/**
+ * Index of cache entries ordered by a numeric attribute, typically a date in epoch milliseconds.
+ * Entries are returned in groups of equal values, entries without any value are ordered first
+ * in ascending order and last in descending order.
+ */
+public class SortedIndex<K, V> {
+
+    private final String attribute;
+    private final Function<V, Long> extractor;
+    private final ConcurrentSkipListMap<Long, Set<K>> keys = new ConcurrentSkipListMap<>();
+    private final Set<K> nulls = ConcurrentHashMap.newKeySet();
+    // index value of each key, stored values might have been modified in place so they are not reliable on removal
+    private final ConcurrentMap<K, Long> indexed = new ConcurrentHashMap<>();
+
+    public SortedIndex(String attribute, Function<V, Long> extractor) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Returns groups of keys with equal values in the given order.
+     */
+    public Stream<Set<K>> groups(OrderDirection direction) {
+        if (direction == OrderDirection.DESC) {
+            return Stream.concat(snapshot(keys.descendingMap()), Stream.of(nulls).map(HashSet::new));
+        }
+        return Stream.concat(Stream.of(nulls).map(HashSet::new), snapshot(keys));
+    }
+
+    /**
+     * Returns groups of keys with equal values in the given order, starting with the group of the given value.
+     */
+    public Stream<Set<K>> groups(OrderDirection direction, Long from) {
+        if (from == null) {
+            return direction == OrderDirection.DESC ? Stream.of(nulls).map(HashSet::new) : groups(direction);
+        }
+        if (direction == OrderDirection.DESC) {
+            return Stream.concat(snapshot(keys.headMap(from, true).descendingMap()), Stream.of(nulls).map(HashSet::new));
+        }
+        return snapshot(keys.tailMap(from, true));
+    }
+
+    /**
+     * Reindexes the entry of the given key, null value removes the entry from the index.
+     * Calls for the same key must not run concurrently.
+     */
+    void update(K key, V value) {
+        Long current = value == null ? null : extractor.apply(value);
+        Long previous = current == null ? indexed.remove(key) : indexed.put(key, current);
+        if (previous == null) {
+            nulls.remove(key);
+        } else if (!previous.equals(current)) {
+            keys.computeIfPresent(previous, (k, set) -> {
+                set.remove(key);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        if (value == null) {
+            return;
+        }
+        if (current == null) {
+            nulls.add(key);
+        } else if (!current.equals(previous)) {
+            keys.compute(current, (k, set) -> {
+                Set<K> updated = set == null ? ConcurrentHashMap.newKeySet() : set;
+                updated.add(key);
+                return updated;
+            });
+        }
+    }
+
+    private Stream<Set<K>> snapshot(NavigableMap<Long, Set<K>> groups) {
+        return groups.values().stream().map(HashSet::new);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.query;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.kie.kogito.index.inmemory.cache.HashIndex;
+import org.kie.kogito.index.inmemory.cache.InMemoryCache;
+import org.kie.kogito.index.inmemory.cache.InMemoryCacheManager;
+import org.kie.kogito.index.inmemory.cache.SortedIndex;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.query.AbstractFilter;
+import org.kie.kogito.index.query.Cursor;
+import org.kie.kogito.index.query.OrderBy;
+import org.kie.kogito.index.query.OrderDirection;
+import org.kie.kogito.index.query.ProcessInstanceFilter;
+import org.kie.kogito.index.query.QueryService;
+import org.kie.kogito.index.query.UserTaskInstanceFilter;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Evaluates filters directly against the in-memory caches. Candidates are looked up in the hash indexes of
+ * the filtered attributes, or walked in order of a sorted index when the results are ordered by a date,
+ * and every candidate is then checked against the whole filter. Whole instances are always returned,
+ * projection of the filter is not needed as nothing is transferred. Ickle query strings of domain queries
+ * are not supported, domain models can only be listed all at once.
+ */
+@ApplicationScoped
+public class InMemoryQueryService implements QueryService {
+
+    @Inject
+    InMemoryCacheManager manager;
+
+    @Override
+    public Collection<ObjectNode> queryDomain(String domain, String query) {
+        if (query != null) {
+            throw new UnsupportedOperationException("In-memory storage does not support domain queries, query: " + query);
+        }
+        return new ArrayList<>(manager.getDomainModelCache(domain).values());
+    }
+
+    @Override
+    public boolean supportsDomainQueries() {
+        return false;
+    }
+
+    @Override
+    public Collection<ProcessInstance> queryProcessInstances(ProcessInstanceFilter filter) {
+        InMemoryCache<String, ProcessInstance> cache = manager.getProcessInstancesCache();
+        if (filter == null) {
+            return new ArrayList<>(cache.values());
+        }
+        Map<String, List<?>> attributes = new LinkedHashMap<>();
+        attributes.put("state", filter.getState());
+        attributes.put("processId", filter.getProcessId());
+        attributes.put("parentProcessInstanceId", filter.getParentProcessInstanceId());
+        attributes.put("rootProcessInstanceId", filter.getRootProcessInstanceId());
+        Predicate<ProcessInstance> predicate = matches(ProcessInstance::getId, filter.getId())
+                .and(matches(ProcessInstance::getState, filter.getState()))
+                .and(matches(ProcessInstance::getProcessId, filter.getProcessId()))
+                .and(matches(ProcessInstance::getParentProcessInstanceId, filter.getParentProcessInstanceId()))
+                .and(matches(ProcessInstance::getRootProcessInstanceId, filter.getRootProcessInstanceId()));
+        return query(cache, candidates(cache, filter.getId(), attributes), predicate, filter, Cursor::values, Cursor.processInstanceAttributes());
+    }
+
+    @Override
+    public Collection<UserTaskInstance> queryUserTaskInstances(UserTaskInstanceFilter filter) {
+        InMemoryCache<String, UserTaskInstance> cache = manager.getUserTaskInstancesCache();
+        if (filter == null) {
+            return new ArrayList<>(cache.values());
+        }
+        Map<String, List<?>> attributes = new LinkedHashMap<>();
+        attributes.put("state", filter.getState());
+        attributes.put("actualOwner", filter.getActualOwner());
+        attributes.put("potentialGroups", filter.getPotentialGroups());
+        Predicate<UserTaskInstance> predicate = matches(UserTaskInstance::getId, filter.getId())
+                .and(matches(UserTaskInstance::getState, filter.getState()))
+                .and(matches(UserTaskInstance::getProcessInstanceId, filter.getProcessInstanceId()))
+                .and(matches(UserTaskInstance::getActualOwner, filter.getActualOwner()))
+                .and(matchesAny(UserTaskInstance::getPotentialUsers, filter.getPotentialUsers()))
+                .and(matchesAny(UserTaskInstance::getPotentialGroups, filter.getPotentialGroups()));
+        return query(cache, candidates(cache, filter.getId(), attributes), predicate, filter, Cursor::values, Cursor.userTaskInstanceAttributes());
+    }
+
+    /**
+     * Returns keys of entries that might match the filter according to the ids and hash indexes,
+     * or null when the filter does not restrict any of them.
+     */
+    private <V> Set<String> candidates(InMemoryCache<String, V> cache, List<String> ids, Map<String, List<?>> attributes) {
+        Set<String> candidates = ids == null || ids.isEmpty() ? null : new HashSet<>(ids);
+        for (Map.Entry<String, List<?>> attribute : attributes.entrySet()) {
+            HashIndex<String, V> index = cache.getHashIndex(attribute.getKey());
+            if (index == null || attribute.getValue() == null || attribute.getValue().isEmpty()) {
+                continue;
+            }
+            Set<String> found = index.get(attribute.getValue());
+            if (candidates == null) {
+                candidates = found;
+            } else {
+                candidates.retainAll(found);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    private <V> List<V> query(InMemoryCache<String, V> cache, Set<String> candidates, Predicate<V> predicate, AbstractFilter filter,
+                              Function<V, Map<String, Object>> values, Set<String> sortable) {
+        int offset = filter.getOffset() == null ? 0 : filter.getOffset();
+        long limit = filter.getLimit() == null ? Long.MAX_VALUE : filter.getLimit();
+        List<OrderBy> orderBy = orderBy(filter, sortable);
+        if (orderBy == null) {
+            return source(cache, candidates).filter(predicate).skip(offset).limit(limit).collect(toList());
+        }
+
+        Comparator<Map<String, Object>> comparator = comparator(orderBy);
+        Map<String, Object> after = filter.getAfter() == null ? null : Cursor.decode(filter.getAfter());
+        Predicate<Map<String, Object>> following = after == null ? v -> true : v -> comparator.compare(v, after) > 0;
+        SortedIndex<String, V> index = candidates == null ? cache.getSortedIndex(orderBy.get(0).getAttribute()) : null;
+        if (index == null) {
+            return sorted(source(cache, candidates), predicate, values, following, comparator)
+                    .skip(offset).limit(limit).collect(toList());
+        }
+
+        // groups of equal values of the first order attribute come in order, only groups needed for the page are sorted
+        OrderBy first = orderBy.get(0);
+        Stream<Set<String>> groups = after == null ? index.groups(first.getDirection()) : index.groups(first.getDirection(), toLong(after.get(first.getAttribute())));
+        long needed = limit == Long.MAX_VALUE ? Long.MAX_VALUE : offset + limit;
+        List<V> results = new ArrayList<>();
+        Iterator<Set<String>> iterator = groups.iterator();
+        while (iterator.hasNext() && results.size() < needed) {
+            sorted(cache.getAll(iterator.next()).values().stream(), predicate, values, following, comparator).forEach(results::add);
+        }
+        return results.stream().skip(offset).limit(limit).collect(toList());
+    }
+
+    private <V> Stream<V> source(InMemoryCache<String, V> cache, Set<String> candidates) {
+        return candidates == null ? cache.values().stream() : cache.getAll(candidates).values().stream();
+    }
+
+    private <V> Stream<V> sorted(Stream<V> source, Predicate<V> predicate, Function<V, Map<String, Object>> values,
+                                 Predicate<Map<String, Object>> following, Comparator<Map<String, Object>> comparator) {
+        return source.filter(predicate)
+                .map(value -> new SimpleImmutableEntry<>(values.apply(value), value))
+                .filter(entry -> following.test(entry.getKey()))
+                .sorted((e1, e2) -> comparator.compare(e1.getKey(), e2.getKey()))
+                .map(SimpleImmutableEntry::getValue);
+    }
+
+    /**
+     * Returns order of the results, with id as the last attribute so the order is total, or null when
+     * the results do not need to be ordered.
+     */
+    private List<OrderBy> orderBy(AbstractFilter filter, Set<String> sortable) {
+        if ((filter.getOrderBy() == null || filter.getOrderBy().isEmpty()) && filter.getAfter() == null) {
+            return null;
+        }
+        List<OrderBy> orderBy = new ArrayList<>();
+        if (filter.getOrderBy() != null) {
+            for (OrderBy order : filter.getOrderBy()) {
+                if (!sortable.contains(order.getAttribute())) {
+                    throw new IllegalArgumentException("Unable to order by " + order.getAttribute() + ", supported attributes are " + sortable);
+                }
+                orderBy.add(order);
+                if (Cursor.ID.equals(order.getAttribute())) {
+                    // further attributes would never be compared
+                    break;
+                }
+            }
+        }
+        if (orderBy.isEmpty() || !Cursor.ID.equals(orderBy.get(orderBy.size() - 1).getAttribute())) {
+            orderBy.add(new OrderBy(Cursor.ID, OrderDirection.ASC));
+        }
+        return orderBy;
+    }
+
+    /**
+     * Compares attribute values the same way the remote storage orders them, null values are first in ascending order.
+     */
+    private Comparator<Map<String, Object>> comparator(List<OrderBy> orderBy) {
+        Comparator<Map<String, Object>> comparator = null;
+        for (OrderBy order : orderBy) {
+            String attribute = order.getAttribute();
+            Comparator<Map<String, Object>> attributeComparator = (v1, v2) -> compareValues(v1.get(attribute), v2.get(attribute));
+            if (order.getDirection() == OrderDirection.DESC) {
+                attributeComparator = attributeComparator.reversed();
+            }
+            comparator = comparator == null ? attributeComparator : comparator.thenComparing(attributeComparator);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object v1, Object v2) {
+        if (v1 == null || v2 == null) {
+            return v1 == null ? (v2 == null ? 0 : -1) : 1;
+        }
+        if (v1 instanceof Number && v2 instanceof Number) {
+            // cursor values might be read back as a different number type
+            return Long.compare(((Number) v1).longValue(), ((Number) v2).longValue());
+        }
+        return ((Comparable<Object>) v1).compareTo(v2);
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static <V> Predicate<V> matches(Function<V, ?> getter, List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return value -> true;
+        }
+        return value -> contains(values, getter.apply(value));
+    }
+
+    private static <V> Predicate<V> matchesAny(Function<V, ? extends Collection<?>> getter, List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return value -> true;
+        }
+        return value -> {
+            Collection<?> attribute = getter.apply(value);
+            if (attribute == null || attribute.isEmpty()) {
+                return values.contains(null);
+            }
+            return attribute.stream().anyMatch(item -> contains(values, item));
+        };
+    }
+
+    private static boolean contains(List<?> values, Object value) {
+        if (value == null) {
+            return values.contains(null);
+        }
+        String text = value.toString();
+        return values.stream().anyMatch(v -> v != null && v.toString().equals(text));
+    }
+}
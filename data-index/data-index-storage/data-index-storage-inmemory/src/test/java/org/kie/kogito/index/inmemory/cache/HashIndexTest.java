@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.cache;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashIndexTest {
+
+    @Test
+    public void testUpdate() {
+        HashIndex<String, String[]> index = HashIndex.of("state", value -> value[0]);
+        index.update("1", new String[]{"ACTIVE"});
+        index.update("2", new String[]{"ACTIVE"});
+        index.update("3", new String[]{"COMPLETED"});
+
+        assertThat(index.get(singletonList("ACTIVE"))).containsExactlyInAnyOrder("1", "2");
+        assertThat(index.get(Arrays.asList("ACTIVE", "COMPLETED"))).containsExactlyInAnyOrder("1", "2", "3");
+        assertThat(index.get(singletonList("ABORTED"))).isEmpty();
+    }
+
+    @Test
+    public void testReplace() {
+        HashIndex<String, String[]> index = HashIndex.of("state", value -> value[0]);
+        index.update("1", new String[]{"ACTIVE"});
+        index.update("1", new String[]{"COMPLETED"});
+
+        assertThat(index.get(singletonList("ACTIVE"))).isEmpty();
+        assertThat(index.get(singletonList("COMPLETED"))).containsExactly("1");
+    }
+
+    @Test
+    public void testRemove() {
+        HashIndex<String, String[]> index = HashIndex.of("state", value -> value[0]);
+        index.update("1", new String[]{"ACTIVE"});
+        index.update("2", new String[]{"ACTIVE"});
+        index.update("1", null);
+        // removing entry that is not indexed is a no-op
+        index.update("3", null);
+
+        assertThat(index.get(singletonList("ACTIVE"))).containsExactly("2");
+    }
+
+    @Test
+    public void testNullValue() {
+        HashIndex<String, String[]> index = HashIndex.of("actualOwner", value -> value[0]);
+        index.update("1", new String[]{null});
+        index.update("2", new String[]{"john"});
+
+        assertThat(index.get(singletonList(null))).containsExactly("1");
+
+        index.update("1", new String[]{"john"});
+        assertThat(index.get(singletonList(null))).isEmpty();
+        assertThat(index.get(singletonList("john"))).containsExactlyInAnyOrder("1", "2");
+    }
+
+    @Test
+    public void testValuesComparedByString() {
+        HashIndex<String, Integer> index = HashIndex.of("state", value -> value);
+        index.update("1", 1);
+
+        assertThat(index.get(singletonList("1"))).containsExactly("1");
+        assertThat(index.get(singletonList(1))).containsExactly("1");
+    }
+
+    @Test
+    public void testCollection() {
+        HashIndex<String, String[]> index = HashIndex.ofCollection("potentialGroups", value -> value == null ? null : new HashSet<>(Arrays.asList(value)));
+        index.update("1", new String[]{"managers", "employees"});
+        index.update("2", new String[]{"employees"});
+        index.update("3", new String[0]);
+
+        assertThat(index.get(singletonList("employees"))).containsExactlyInAnyOrder("1", "2");
+        assertThat(index.get(singletonList("managers"))).containsExactly("1");
+        assertThat(index.get(singletonList(null))).containsExactly("3");
+
+        index.update("1", new String[]{"employees"});
+        assertThat(index.get(singletonList("managers"))).isEmpty();
+        assertThat(index.get(singletonList("employees"))).containsExactlyInAnyOrder("1", "2");
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.query.OrderDirection;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InMemoryCacheTest {
+
+    private final List<String> created = new ArrayList<>();
+    private final List<String> updated = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+    private InMemoryCache<String, String> cache;
+
+    @BeforeEach
+    public void setup() {
+        // values are "<state>:<number>"
+        cache = new InMemoryCache<String, String>()
+                .withIndex(HashIndex.of("state", value -> value.split(":")[0]))
+                .withIndex(new SortedIndex<>("number", value -> Long.valueOf(value.split(":")[1])));
+        cache.addObjectCreatedListener(created::add);
+        cache.addObjectUpdatedListener(updated::add);
+        cache.addObjectRemovedListener(removed::add);
+    }
+
+    @Test
+    public void testPut() {
+        cache.put("1", "ACTIVE:1");
+        cache.put("2", "ACTIVE:2");
+
+        assertThat(state("ACTIVE")).containsExactlyInAnyOrder("1", "2");
+        assertThat(created).containsExactly("ACTIVE:1", "ACTIVE:2");
+
+        assertThat(cache.put("1", "COMPLETED:3")).isEqualTo("ACTIVE:1");
+        assertThat(state("ACTIVE")).containsExactly("2");
+        assertThat(state("COMPLETED")).containsExactly("1");
+        assertThat(order()).containsExactly("2", "1");
+        assertThat(updated).containsExactly("COMPLETED:3");
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        cache.put("1", "ACTIVE:1");
+
+        assertThat(cache.putIfAbsent("1", "COMPLETED:1")).isEqualTo("ACTIVE:1");
+        assertThat(cache.putIfAbsent("2", "COMPLETED:2")).isNull();
+
+        assertThat(state("ACTIVE")).containsExactly("1");
+        assertThat(state("COMPLETED")).containsExactly("2");
+        assertThat(created).containsExactly("ACTIVE:1", "COMPLETED:2");
+        assertThat(updated).isEmpty();
+    }
+
+    @Test
+    public void testReplace() {
+        cache.put("1", "ACTIVE:1");
+
+        assertThat(cache.replace("2", "ACTIVE:2")).isNull();
+        assertThat(cache.replace("1", "ABORTED:1", "COMPLETED:1")).isFalse();
+        assertThat(cache.replace("1", "ACTIVE:1", "COMPLETED:1")).isTrue();
+
+        assertThat(cache).containsOnlyKeys("1");
+        assertThat(state("ACTIVE")).isEmpty();
+        assertThat(state("COMPLETED")).containsExactly("1");
+        assertThat(updated).containsExactly("COMPLETED:1");
+    }
+
+    @Test
+    public void testUpsert() {
+        cache.upsert("1", "ACTIVE:1", (current, value) -> value);
+        cache.upsert("1", "COMPLETED:1", (current, value) -> current.startsWith("ACTIVE") ? value : current);
+
+        assertThat(cache.get("1")).isEqualTo("COMPLETED:1");
+        assertThat(state("COMPLETED")).containsExactly("1");
+        assertThat(created).containsExactly("ACTIVE:1");
+        assertThat(updated).containsExactly("COMPLETED:1");
+    }
+
+    @Test
+    public void testUpsertAll() {
+        cache.put("1", "ACTIVE:1");
+        Map<String, UnaryOperator<String>> updates = new HashMap<>();
+        updates.put("1", current -> current.startsWith("ACTIVE") ? "COMPLETED:1" : current);
+        updates.put("2", current -> current == null ? "ACTIVE:2" : current);
+
+        assertThat(cache.upsertAll(updates)).containsEntry("1", "COMPLETED:1").containsEntry("2", "ACTIVE:2");
+        assertThat(state("COMPLETED")).containsExactly("1");
+        assertThat(state("ACTIVE")).containsExactly("2");
+        assertThat(created).containsExactly("ACTIVE:1", "ACTIVE:2");
+        assertThat(updated).containsExactly("COMPLETED:1");
+    }
+
+    @Test
+    public void testRemove() {
+        cache.put("1", "ACTIVE:1");
+        cache.put("2", "ACTIVE:2");
+
+        assertThat(cache.remove("3")).isNull();
+        assertThat(cache.remove("2", "COMPLETED:2")).isFalse();
+        assertThat(cache.remove("1")).isEqualTo("ACTIVE:1");
+        assertThat(cache.remove("2", "ACTIVE:2")).isTrue();
+
+        assertThat(cache).isEmpty();
+        assertThat(state("ACTIVE")).isEmpty();
+        assertThat(order()).isEmpty();
+        assertThat(removed).containsExactly("1", "2");
+    }
+
+    @Test
+    public void testCompute() {
+        cache.compute("1", (key, value) -> value == null ? "ACTIVE:1" : null);
+        assertThat(state("ACTIVE")).containsExactly("1");
+
+        cache.computeIfPresent("1", (key, value) -> "COMPLETED:1");
+        cache.computeIfAbsent("1", key -> "ABORTED:1");
+        assertThat(state("COMPLETED")).containsExactly("1");
+
+        cache.compute("1", (key, value) -> value == null ? "ACTIVE:1" : null);
+        assertThat(cache).isEmpty();
+        assertThat(state("COMPLETED")).isEmpty();
+
+        assertThat(created).containsExactly("ACTIVE:1");
+        assertThat(updated).containsExactly("COMPLETED:1");
+        assertThat(removed).containsExactly("1");
+    }
+
+    @Test
+    public void testReplaceAllAndClear() {
+        cache.put("1", "ACTIVE:1");
+        cache.put("2", "ACTIVE:2");
+
+        cache.replaceAll((key, value) -> value.replace("ACTIVE", "COMPLETED"));
+        assertThat(state("ACTIVE")).isEmpty();
+        assertThat(state("COMPLETED")).containsExactlyInAnyOrder("1", "2");
+
+        cache.clear();
+        assertThat(cache).isEmpty();
+        assertThat(state("COMPLETED")).isEmpty();
+        assertThat(removed).containsExactlyInAnyOrder("1", "2");
+    }
+
+    @Test
+    public void testViewsAreReadOnly() {
+        cache.put("1", "ACTIVE:1");
+
+        assertThatThrownBy(() -> cache.values().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> cache.keySet().remove("1")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> cache.entrySet().iterator().next().setValue("COMPLETED:1")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private List<String> state(String state) {
+        return new ArrayList<>(cache.getHashIndex("state").get(singletonList(state)));
+    }
+
+    private List<String> order() {
+        return cache.getSortedIndex("number").groups(OrderDirection.ASC).flatMap(group -> group.stream()).collect(toList());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.cache;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.query.OrderDirection;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SortedIndexTest {
+
+    private SortedIndex<String, Long> index;
+
+    @BeforeEach
+    public void setup() {
+        index = new SortedIndex<>("start", value -> value < 0 ? null : value);
+        index.update("1", 10L);
+        index.update("2", 20L);
+        index.update("3", 10L);
+        index.update("4", -1L);
+    }
+
+    @Test
+    public void testGroups() {
+        assertThat(index.groups(OrderDirection.ASC).collect(toList()))
+                .containsExactly(singleton("4"), set("1", "3"), singleton("2"));
+        assertThat(index.groups(OrderDirection.DESC).collect(toList()))
+                .containsExactly(singleton("2"), set("1", "3"), singleton("4"));
+    }
+
+    @Test
+    public void testGroupsFrom() {
+        assertThat(index.groups(OrderDirection.ASC, 15L).collect(toList())).containsExactly(singleton("2"));
+        assertThat(index.groups(OrderDirection.ASC, 10L).collect(toList())).containsExactly(set("1", "3"), singleton("2"));
+        assertThat(index.groups(OrderDirection.DESC, 15L).collect(toList())).containsExactly(set("1", "3"), singleton("4"));
+        // null values are first in ascending order
+        assertThat(index.groups(OrderDirection.ASC, null).collect(toList())).containsExactly(singleton("4"), set("1", "3"), singleton("2"));
+        assertThat(index.groups(OrderDirection.DESC, null).collect(toList())).containsExactly(singleton("4"));
+    }
+
+    @Test
+    public void testReplace() {
+        index.update("1", 30L);
+        index.update("4", 5L);
+        index.update("2", -1L);
+
+        assertThat(index.groups(OrderDirection.ASC).collect(toList()))
+                .containsExactly(singleton("2"), singleton("4"), singleton("3"), singleton("1"));
+    }
+
+    @Test
+    public void testRemove() {
+        index.update("1", null);
+        index.update("4", null);
+        index.update("2", null);
+
+        assertThat(index.groups(OrderDirection.ASC).collect(toList())).containsExactly(emptySet(), singleton("3"));
+    }
+
+    @Test
+    public void testGroupsAreSnapshots() {
+        Set<String> group = index.groups(OrderDirection.DESC).findFirst().get();
+        index.update("5", 20L);
+
+        assertThat(group).containsExactly("2");
+    }
+
+    private static Set<String> set(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.index.inmemory.query;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.kogito.index.inmemory.cache.InMemoryCacheManager;
+import org.kie.kogito.index.model.ProcessInstance;
+import org.kie.kogito.index.model.UserTaskInstance;
+import org.kie.kogito.index.query.Cursor;
+import org.kie.kogito.index.query.OrderBy;
+import org.kie.kogito.index.query.OrderDirection;
+import org.kie.kogito.index.query.ProcessInstanceFilter;
+import org.kie.kogito.index.query.UserTaskInstanceFilter;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InMemoryQueryServiceTest {
+
+    private static final int ACTIVE = 1;
+    private static final int COMPLETED = 2;
+
+    private InMemoryQueryService queryService;
+
+    @BeforeEach
+    public void setup() {
+        InMemoryCacheManager manager = new InMemoryCacheManager();
+        queryService = new InMemoryQueryService();
+        queryService.manager = manager;
+
+        put(manager, processInstance("1", "travels", ACTIVE, 100L, null));
+        put(manager, processInstance("2", "travels", COMPLETED, 200L, "1"));
+        put(manager, processInstance("3", "deals", ACTIVE, 200L, null));
+        put(manager, processInstance("4", "deals", COMPLETED, 300L, "3"));
+        put(manager, processInstance("5", "travels", ACTIVE, null, "1"));
+
+        put(manager, userTaskInstance("t1", "1", "Ready", null, asList("managers", "employees"), singletonList("john")));
+        put(manager, userTaskInstance("t2", "1", "Reserved", "mary", singletonList("employees"), null));
+        put(manager, userTaskInstance("t3", "3", "Completed", "john", null, null));
+    }
+
+    @Test
+    public void testNoFilter() {
+        assertThat(ids(queryService.queryProcessInstances(null))).containsExactlyInAnyOrder("1", "2", "3", "4", "5");
+        assertThat(queryService.queryUserTaskInstances(null)).hasSize(3);
+    }
+
+    @Test
+    public void testFilterByAttributes() {
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().state(singletonList(ACTIVE)).build())))
+                .containsExactlyInAnyOrder("1", "3", "5");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().state(singletonList(ACTIVE)).processId(singletonList("travels")).build())))
+                .containsExactlyInAnyOrder("1", "5");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().processId(asList("travels", "deals")).parentProcessInstanceId(singletonList("1")).build())))
+                .containsExactlyInAnyOrder("2", "5");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().rootProcessInstanceId(singletonList("3")).build())))
+                .containsExactly("4");
+        assertThat(queryService.queryProcessInstances(ProcessInstanceFilter.builder().state(singletonList(COMPLETED)).processId(singletonList("unknown")).build()))
+                .isEmpty();
+    }
+
+    @Test
+    public void testFilterById() {
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().id(asList("1", "2", "6")).build())))
+                .containsExactlyInAnyOrder("1", "2");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().id(asList("1", "2")).state(singletonList(COMPLETED)).build())))
+                .containsExactly("2");
+    }
+
+    @Test
+    public void testFilterReflectsUpdates() {
+        InMemoryCacheManager manager = queryService.manager;
+        put(manager, processInstance("1", "travels", COMPLETED, 100L, null));
+        manager.getProcessInstancesCache().remove("5");
+
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().state(singletonList(ACTIVE)).build())))
+                .containsExactly("3");
+    }
+
+    @Test
+    public void testOffsetAndLimit() {
+        ProcessInstanceFilter.Builder filter = ProcessInstanceFilter.builder().processId(singletonList("travels"));
+
+        assertThat(queryService.queryProcessInstances(filter.limit(2).build())).hasSize(2);
+        assertThat(queryService.queryProcessInstances(filter.limit(2).offset(2).build())).hasSize(1);
+        assertThat(queryService.queryProcessInstances(filter.limit(null).offset(3).build())).isEmpty();
+    }
+
+    @Test
+    public void testOrderBy() {
+        List<OrderBy> byStart = singletonList(new OrderBy("start", OrderDirection.ASC));
+        // equal dates are ordered by id, missing dates are first in ascending order
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byStart).build())))
+                .containsExactly("5", "1", "2", "3", "4");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byStart).offset(1).limit(2).build())))
+                .containsExactly("1", "2");
+
+        List<OrderBy> byStartDesc = singletonList(new OrderBy("start", OrderDirection.DESC));
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byStartDesc).build())))
+                .containsExactly("4", "2", "3", "1", "5");
+        // candidates of the filter are sorted as well
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().state(singletonList(ACTIVE)).orderBy(byStartDesc).build())))
+                .containsExactly("3", "1", "5");
+
+        List<OrderBy> byProcessId = asList(new OrderBy("processId", OrderDirection.ASC), new OrderBy("id", OrderDirection.DESC));
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byProcessId).build())))
+                .containsExactly("4", "3", "5", "2", "1");
+    }
+
+    @Test
+    public void testOrderByUnsupportedAttribute() {
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().orderBy(singletonList(new OrderBy("endpoint", OrderDirection.ASC))).build();
+
+        assertThatThrownBy(() -> queryService.queryProcessInstances(filter)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCursor() {
+        List<OrderBy> byStartDesc = singletonList(new OrderBy("start", OrderDirection.DESC));
+        List<ProcessInstance> page = queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byStartDesc).limit(2).build())
+                .stream().collect(toList());
+        assertThat(ids(page)).containsExactly("4", "2");
+
+        String after = Cursor.of(page.get(1));
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byStartDesc).after(after).limit(2).build())))
+                .containsExactly("3", "1");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byStartDesc).after(Cursor.of(processInstance("1", "travels", ACTIVE, 100L, null))).build())))
+                .containsExactly("5");
+
+        // cursor of an instance that is gone still continues right after its position
+        queryService.manager.getProcessInstancesCache().remove("2");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().orderBy(byStartDesc).after(after).limit(2).build())))
+                .containsExactly("3", "1");
+    }
+
+    @Test
+    public void testCursorWithoutOrderBy() {
+        String after = Cursor.of(processInstance("2", "travels", COMPLETED, 200L, "1"));
+
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().after(after).build())))
+                .containsExactly("3", "4", "5");
+        assertThat(ids(queryService.queryProcessInstances(ProcessInstanceFilter.builder().processId(singletonList("travels")).after(after).build())))
+                .containsExactly("5");
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        ProcessInstanceFilter filter = ProcessInstanceFilter.builder().after("invalid").build();
+
+        assertThatThrownBy(() -> queryService.queryProcessInstances(filter)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testUserTaskInstances() {
+        assertThat(taskIds(queryService.queryUserTaskInstances(UserTaskInstanceFilter.builder().potentialGroups(singletonList("employees")).build())))
+                .containsExactlyInAnyOrder("t1", "t2");
+        assertThat(taskIds(queryService.queryUserTaskInstances(UserTaskInstanceFilter.builder().potentialGroups(singletonList("managers")).state(singletonList("Ready")).build())))
+                .containsExactly("t1");
+        assertThat(taskIds(queryService.queryUserTaskInstances(UserTaskInstanceFilter.builder().potentialUsers(singletonList("john")).build())))
+                .containsExactly("t1");
+        assertThat(taskIds(queryService.queryUserTaskInstances(UserTaskInstanceFilter.builder().actualOwner(asList("john", "mary")).processInstanceId(singletonList("1")).build())))
+                .containsExactly("t2");
+        assertThat(taskIds(queryService.queryUserTaskInstances(UserTaskInstanceFilter.builder().orderBy(singletonList(new OrderBy("state", OrderDirection.DESC))).build())))
+                .containsExactly("t2", "t1", "t3");
+    }
+
+    @Test
+    public void testDomainQuery() {
+        assertThat(queryService.supportsDomainQueries()).isFalse();
+        assertThat(queryService.queryDomain("travels", null)).isEmpty();
+        assertThatThrownBy(() -> queryService.queryDomain("travels", "from org.acme.travels.Travels t where t.id:'1'")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static void put(InMemoryCacheManager manager, ProcessInstance pi) {
+        manager.getProcessInstancesCache().put(pi.getId(), pi);
+    }
+
+    private static void put(InMemoryCacheManager manager, UserTaskInstance ut) {
+        manager.getUserTaskInstancesCache().put(ut.getId(), ut);
+    }
+
+    private static List<String> ids(Collection<ProcessInstance> processInstances) {
+        return processInstances.stream().map(ProcessInstance::getId).collect(toList());
+    }
+
+    private static List<String> taskIds(Collection<UserTaskInstance> userTaskInstances) {
+        return userTaskInstances.stream().map(UserTaskInstance::getId).collect(toList());
+    }
+
+    private static ProcessInstance processInstance(String id, String processId, int state, Long start, String parentId) {
+        ProcessInstance pi = new ProcessInstance();
+        pi.setId(id);
+        pi.setProcessId(processId);
+        pi.setState(state);
+        pi.setStart(start == null ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(start), ZoneOffset.UTC));
+        pi.setParentProcessInstanceId(parentId);
+        pi.setRootProcessInstanceId(parentId);
+        return pi;
+    }
+
+    private static UserTaskInstance userTaskInstance(String id, String processInstanceId, String state, String actualOwner, List<String> potentialGroups, List<String> potentialUsers) {
+        UserTaskInstance ut = new UserTaskInstance();
+        ut.setId(id);
+        ut.setProcessInstanceId(processInstanceId);
+        ut.setState(state);
+        ut.setActualOwner(actualOwner);
+        ut.setPotentialGroups(potentialGroups == null ? null : new HashSet<>(potentialGroups));
+        ut.setPotentialUsers(potentialUsers == null ? null : new HashSet<>(potentialUsers));
+        return ut;
+    }
+}
@@ -67,6 +67,7 @@ import org.kie.services.time.impl.CronExpression;
 import org.kie.services.time.manager.TimerInstance;
 import org.kie.services.time.manager.TimerManager;
 import org.kie.services.time.manager.TimerManagerRuntime;
+import org.kie.services.time.store.StoredTimerJobFactoryManager;
 
 public class LightProcessRuntime implements InternalProcessRuntime {
 
@@ -95,7 +96,8 @@ public class LightProcessRuntime implements InternalProcessRuntime {
             ProcessRuntimeServiceProvider services) {
         this.knowledgeRuntime = new DummyKnowledgeRuntime(this);
         TimerService timerService = services.getTimerService();
-        if (!(timerService.getTimerJobFactoryManager() instanceof CommandServiceTimerJobFactoryManager)) {
+        if (!(timerService.getTimerJobFactoryManager() instanceof CommandServiceTimerJobFactoryManager)
+                && !(timerService.getTimerJobFactoryManager() instanceof StoredTimerJobFactoryManager)) {
             timerService.setTimerJobFactoryManager(new ThreadSafeTrackableTimeJobFactoryManager());
         }
 
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.workflow.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpm.process.core.event.EventFilter;
+import org.jbpm.process.core.event.EventTypeFilter;
+import org.jbpm.process.core.event.NonAcceptingEventTypeFilter;
+import org.jbpm.util.PatternConstants;
+import org.jbpm.workflow.core.node.BoundaryEventNode;
+import org.jbpm.workflow.core.node.CompositeNode;
+import org.jbpm.workflow.core.node.DynamicNode;
+import org.jbpm.workflow.core.node.EventNode;
+import org.jbpm.workflow.core.node.EventNodeInterface;
+import org.jbpm.workflow.core.node.EventSubProcessNode;
+import org.kie.api.definition.process.Node;
+
+/**
+ * Index of the nodes of a process by the event types they might accept, so a signal only has to be
+ * checked against nodes that can accept it instead of all nodes of the process.
+ * <p>
+ * Types are taken from the event filters of the nodes. Nodes whose accepted types cannot be known upfront,
+ * e.g. those with types given as #{} expressions resolved against process variables, are candidates
+ * for every event. Candidates are always a superset of the accepting nodes, they still have to be checked
+ * with {@link EventNodeInterface#acceptsEvent(String, Object, java.util.function.Function)}.
+ */
+public class EventTypeIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Node[] nodes;
+    // positions of the nodes by types they might accept
+    private final Map<String, int[]> positions = new HashMap<>();
+    // positions of the nodes that might accept any type
+    private final int[] anyType;
+    private final Map<String, List<Node>> startNodesByName = new HashMap<>();
+
+    public EventTypeIndex(Node[] nodes) {
+        this.nodes = nodes;
+        Map<String, List<Integer>> typePositions = new HashMap<>();
+        List<Integer> anyTypePositions = new ArrayList<>();
+        for (int i = 0; i < nodes.length; i++) {
+            Node node = nodes[i];
+            if (node instanceof EventNodeInterface) {
+                Set<String> types = resolvedTypes(node);
+                if (types == null) {
+                    anyTypePositions.add(i);
+                } else {
+                    for (String type : types) {
+                        typePositions.computeIfAbsent(type, t -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+            if (node.getName() != null && node.getIncomingConnections().isEmpty()) {
+                startNodesByName.computeIfAbsent(node.getName(), name -> new ArrayList<>()).add(node);
+            }
+        }
+        typePositions.forEach((type, list) -> positions.put(type, toArray(list)));
+        anyType = toArray(anyTypePositions);
+    }
+
+    /**
+     * Returns nodes that might accept event of the given type, in the order they are defined in the process.
+     */
+    public List<Node> getEventNodes(String type) {
+        int[] typed = positions.getOrDefault(type, NO_POSITIONS);
+        if (typed.length == 0 && anyType.length == 0) {
+            return Collections.emptyList();
+        }
+        // merges both sorted position arrays, keeping the process order
+        List<Node> result = new ArrayList<>(typed.length + anyType.length);
+        int i = 0;
+        int j = 0;
+        while (i < typed.length || j < anyType.length) {
+            if (j == anyType.length || (i < typed.length && typed[i] < anyType[j])) {
+                result.add(nodes[typed[i++]]);
+            } else {
+                result.add(nodes[anyType[j++]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns nodes of the given name without incoming connections, which are triggered by events in dynamic processes.
+     */
+    public List<Node> getStartNodes(String name) {
+        return startNodesByName.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * Types accepted by the node when checked with a variable resolver, null when they are not known upfront.
+     */
+    private static Set<String> resolvedTypes(Node node) {
+        if (node instanceof BoundaryEventNode) {
+            // any filter accepts with resolved type, or all of them accept without it
+            Set<String> types = new HashSet<>();
+            for (EventFilter filter : ((EventNode) node).getEventFilters()) {
+                if (filter instanceof NonAcceptingEventTypeFilter) {
+                    continue;
+                }
+                if (!(filter instanceof EventTypeFilter) || isExpression(((EventTypeFilter) filter).getType())) {
+                    return null;
+                }
+                addType(types, ((EventTypeFilter) filter).getType());
+            }
+            return union(types, types(node));
+        }
+        if (node instanceof EventSubProcessNode) {
+            Set<String> types = new HashSet<>();
+            for (EventTypeFilter filter : ((EventSubProcessNode) node).getEventTypeFilters()) {
+                if (filter instanceof NonAcceptingEventTypeFilter) {
+                    continue;
+                }
+                if (isExpression(filter.getType())) {
+                    return null;
+                }
+                addType(types, filter.getType());
+            }
+            return union(types, compositeTypes((CompositeNode) node));
+        }
+        if (node instanceof DynamicNode) {
+            // names of the inner nodes are matched as resolved substrings
+            return null;
+        }
+        if (node instanceof EventNode || node instanceof CompositeNode) {
+            return types(node);
+        }
+        return null;
+    }
+
+    /**
+     * Types accepted by the node when checked without a variable resolver, null when they are not known upfront.
+     */
+    private static Set<String> types(Node node) {
+        if (node instanceof EventSubProcessNode) {
+            Set<String> types = new HashSet<>();
+            for (EventTypeFilter filter : ((EventSubProcessNode) node).getEventTypeFilters()) {
+                if (filter instanceof NonAcceptingEventTypeFilter) {
+                    continue;
+                }
+                if (filter.getClass() != EventTypeFilter.class) {
+                    return null;
+                }
+                addType(types, filter.getType());
+            }
+            return union(types, compositeTypes((CompositeNode) node));
+        }
+        if (node instanceof DynamicNode) {
+            Set<String> types = new HashSet<>();
+            addType(types, ((DynamicNode) node).getActivationEventName());
+            for (Node inner : ((DynamicNode) node).getNodes()) {
+                if (inner.getIncomingConnections().isEmpty()) {
+                    addType(types, inner.getName());
+                }
+            }
+            return union(types, compositeTypes((CompositeNode) node));
+        }
+        if (node instanceof CompositeNode) {
+            return compositeTypes((CompositeNode) node);
+        }
+        if (node instanceof EventNode) {
+            // all filters have to accept, an exact type filter restricts the node to that type
+            String type = null;
+            for (EventFilter filter : ((EventNode) node).getEventFilters()) {
+                if (filter instanceof NonAcceptingEventTypeFilter) {
+                    return Collections.emptySet();
+                }
+                if (filter.getClass() == EventTypeFilter.class) {
+                    String filterType = ((EventTypeFilter) filter).getType();
+                    if (filterType == null || (type != null && !type.equals(filterType))) {
+                        return Collections.emptySet();
+                    }
+                    type = filterType;
+                }
+            }
+            return type == null ? null : Collections.singleton(type);
+        }
+        return node instanceof EventNodeInterface ? null : Collections.emptySet();
+    }
+
+    private static Set<String> compositeTypes(CompositeNode node) {
+        Set<String> types = new HashSet<>();
+        for (Node inner : node.internalGetNodes()) {
+            if (inner instanceof EventNodeInterface) {
+                Set<String> innerTypes = types(inner);
+                if (innerTypes == null) {
+                    return null;
+                }
+                types.addAll(innerTypes);
+            }
+        }
+        return types;
+    }
+
+    private static Set<String> union(Set<String> types, Set<String> other) {
+        if (other == null) {
+            return null;
+        }
+        types.addAll(other);
+        return types;
+    }
+
+    private static void addType(Set<String> types, String type) {
+        if (type != null) {
+            types.add(type);
+        }
+    }
+
+    private static boolean isExpression(String type) {
+        return type != null && PatternConstants.PARAMETER_MATCHER.matcher(type).find();
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
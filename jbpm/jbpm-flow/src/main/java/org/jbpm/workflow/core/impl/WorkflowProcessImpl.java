@@ -36,6 +36,8 @@ public class WorkflowProcessImpl extends ProcessImpl implements WorkflowProcess,
     private boolean autoComplete = false;
     private boolean dynamic = false;
     private org.jbpm.workflow.core.NodeContainer nodeContainer;
+    // built on first use and dropped whenever nodes change
+    private transient volatile EventTypeIndex eventTypeIndex;
     
     public WorkflowProcessImpl() {
         nodeContainer = (org.jbpm.workflow.core.NodeContainer) createNodeContainer();
@@ -68,11 +70,25 @@ public class WorkflowProcessImpl extends ProcessImpl implements WorkflowProcess,
     public void removeNode(final Node node) {
         nodeContainer.removeNode(node);
         ((org.jbpm.workflow.core.Node) node).setNodeContainer(null);
+        eventTypeIndex = null;
     }
 
     public void addNode(final Node node) {
         nodeContainer.addNode(node);
         ((org.jbpm.workflow.core.Node) node).setNodeContainer(this);
+        eventTypeIndex = null;
+    }
+
+    /**
+     * Returns index of the process nodes by event types they accept, used to dispatch signals.
+     */
+    public EventTypeIndex getEventTypeIndex() {
+        EventTypeIndex index = eventTypeIndex;
+        if (index == null) {
+            index = new EventTypeIndex(getNodes());
+            eventTypeIndex = index;
+        }
+        return index;
     }
     
     public boolean isAutoComplete() {
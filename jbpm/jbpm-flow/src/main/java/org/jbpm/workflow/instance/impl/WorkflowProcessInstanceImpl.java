@@ -17,6 +17,7 @@
 package org.jbpm.workflow.instance.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -24,7 +25,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -44,6 +44,7 @@ import org.jbpm.process.instance.impl.ProcessInstanceImpl;
 import org.jbpm.util.PatternConstants;
 import org.jbpm.workflow.core.DroolsAction;
 import org.jbpm.workflow.core.impl.NodeImpl;
+import org.jbpm.workflow.core.impl.WorkflowProcessImpl;
 import org.jbpm.workflow.core.node.ActionNode;
 import org.jbpm.workflow.core.node.DynamicNode;
 import org.jbpm.workflow.core.node.EndNode;
@@ -68,6 +69,7 @@ import org.kie.api.runtime.process.EventListener;
 import org.kie.api.runtime.process.NodeInstanceContainer;
 import org.kie.api.runtime.process.ProcessInstance;
 import org.kie.internal.process.CorrelationKey;
+import org.kie.kogito.id.IdGenerators;
 import org.kie.services.time.manager.TimerInstance;
 import org.mvel2.integration.VariableResolverFactory;
 import org.slf4j.Logger;
@@ -124,7 +126,7 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
         if (nodeInstance.getId() == null) {
             // assign new id only if it does not exist as it might already be set by marshalling
             // it's important to keep same ids of node instances as they might be references e.g. exclusive group
-            ((NodeInstanceImpl) nodeInstance).setId(UUID.randomUUID().toString());
+            ((NodeInstanceImpl) nodeInstance).setId(IdGenerators.generate());
         }
         this.nodeInstances.add(nodeInstance);
     }
@@ -610,7 +612,7 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
                         listener.signalEvent(type, event);
                     }
                 }
-                for (Node node : getWorkflowProcess().getNodes()) {
+                for (Node node : getEventNodes(type)) {
                     if (node instanceof EventNodeInterface
                             && ((EventNodeInterface) node).acceptsEvent(type, event, getResolver(node, currentView))) {
                         if (node instanceof EventNode && ((EventNode) node).getFrom() == null) {
@@ -636,7 +638,7 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
                     }
                 }
                 if (((org.jbpm.workflow.core.WorkflowProcess) getWorkflowProcess()).isDynamic()) {
-                    for (Node node : getWorkflowProcess().getNodes()) {
+                    for (Node node : getStartNodes(type)) {
                         if (type.equals(node.getName()) && node.getIncomingConnections().isEmpty()) {
                             NodeInstance nodeInstance = getNodeInstance(node);
                             if (event != null) {
@@ -662,6 +664,20 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
         }
     }
 
+    private Iterable<Node> getEventNodes(String type) {
+        if (getWorkflowProcess() instanceof WorkflowProcessImpl) {
+            return ((WorkflowProcessImpl) getWorkflowProcess()).getEventTypeIndex().getEventNodes(type);
+        }
+        return Arrays.asList(getWorkflowProcess().getNodes());
+    }
+
+    private Iterable<Node> getStartNodes(String name) {
+        if (getWorkflowProcess() instanceof WorkflowProcessImpl) {
+            return ((WorkflowProcessImpl) getWorkflowProcess()).getEventTypeIndex().getStartNodes(name);
+        }
+        return Arrays.asList(getWorkflowProcess().getNodes());
+    }
+
     private Function<String, String> getResolver(Node node, List<NodeInstance> currentView) {
         if (node instanceof DynamicNode) {
             // special handling for dynamic node to allow to resolve variables from individual node instances of the dynamic node
@@ -975,7 +991,7 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 
     @Override
     public void setErrorState(NodeInstance nodeInstanceInError, Exception e) {
-        String errorId = UUID.randomUUID().toString();
+        String errorId = IdGenerators.generate();
         this.nodeIdInError = nodeInstanceInError.getNodeDefinitionId();
         Throwable rootException = getRootException(e);
         this.errorMessage = errorId + " - " + rootException.getClass().getCanonicalName() + " - " + rootException.getMessage();
@@ -16,11 +16,14 @@
 package org.kie.kogito.process.impl;
 
 import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.jbpm.process.instance.LightProcessRuntime;
 import org.jbpm.process.instance.LightProcessRuntimeContext;
 import org.jbpm.process.instance.LightProcessRuntimeServiceProvider;
 import org.jbpm.process.instance.ProcessRuntimeServiceProvider;
+import org.jbpm.workflow.core.WorkflowProcess;
 import org.kie.api.runtime.process.EventListener;
 import org.kie.api.runtime.process.ProcessRuntime;
 import org.kie.kogito.Model;
@@ -31,6 +34,11 @@ import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.ProcessInstances;
 import org.kie.kogito.process.ProcessInstancesFactory;
 import org.kie.kogito.process.Signal;
+import org.kie.kogito.services.uow.UnitOfWorkExecutor;
+import org.kie.services.time.store.JobStore;
+import org.kie.services.time.store.StoredJob;
+import org.kie.services.time.store.StoredJobPoller;
+import org.kie.services.time.store.StoredTimerJobFactoryManager;
 
 public abstract class AbstractProcess<T extends Model> implements Process<T> {
 
@@ -42,6 +50,8 @@ public abstract class AbstractProcess<T extends Model> implements Process<T> {
 
     protected CompletionEventListener completionEventListener = new CompletionEventListener();
 
+    protected StoredJobPoller jobPoller;
+
     protected AbstractProcess() {
         this(new LightProcessRuntimeServiceProvider());
     }
@@ -80,7 +90,19 @@ public abstract class AbstractProcess<T extends Model> implements Process<T> {
 
     @Override
     public <S> void send(Signal<S> signal) {
-        instances().values().forEach(pi -> pi.send(signal));
+        if (isDynamic()) {
+            // dynamic processes accept events matching any node name, so all instances must be signaled
+            instances().values().forEach(pi -> pi.send(signal));
+            return;
+        }
+        try (Stream<? extends ProcessInstance<T>> waiting = instances().waitingForEvent(signal.channel())) {
+            waiting.forEach(pi -> pi.send(signal));
+        }
+    }
+    
+    protected boolean isDynamic() {
+        org.kie.api.definition.process.Process process = legacyProcess();
+        return process instanceof WorkflowProcess && ((WorkflowProcess) process).isDynamic();
     }
     
     @SuppressWarnings("unchecked")
@@ -117,6 +139,29 @@ public abstract class AbstractProcess<T extends Model> implements Process<T> {
         this.processInstancesFactory = processInstancesFactory;
     }
     
+    /**
+     * Keeps timers of this process' instances in given job store so they are fired even after
+     * the instance has been evicted from memory or the application restarted, possibly by
+     * another node sharing the store.
+     */
+    public void setJobStore(JobStore jobStore) {
+        if (jobPoller != null) {
+            jobPoller.close();
+        }
+        StoredTimerJobFactoryManager jobFactoryManager = new StoredTimerJobFactoryManager(jobStore, id());
+        services.getTimerService().setTimerJobFactoryManager(jobFactoryManager);
+        jobPoller = new StoredJobPoller(jobFactoryManager, this::fireStoredJob);
+        jobPoller.start();
+    }
+
+    protected boolean fireStoredJob(StoredJob job) {
+        return UnitOfWorkExecutor.executeInUnitOfWork(services.getUnitOfWorkManager(), () -> {
+            Optional<? extends ProcessInstance<T>> processInstance = instances().findById(job.getProcessInstanceId());
+            processInstance.ifPresent(pi -> pi.send(Sig.of("timerTriggered", job.getTimer())));
+            return processInstance.isPresent();
+        });
+    }
+
     private class CompletionEventListener implements EventListener {
         
         @Override
@@ -16,11 +16,15 @@
 package org.kie.kogito.process.impl;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -55,6 +59,7 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
     
     private Integer status;
     private String id;
+    private long version;
     
     private ProcessError processError;
     
@@ -98,6 +103,27 @@ public abstract class AbstractProcessInstance<T extends Model> implements Proces
         unbind(variables, legacyProcessInstance.getVariables());
     }
     
+    // for marshaller/persistence only
+    public void internalSetVersion(long version) {
+        this.version = version;
+    }
+    
+    /**
+     * Returns version of this process instance as known by the storage it was loaded from
+     * @return version of the process instance or 0 if it has not been stored yet
+     */
+    public long version() {
+        return this.version;
+    }
+    
+    // for persistence only
+    public Set<String> internalGetEventTypes() {
+        if (legacyProcessInstance == null) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(Arrays.asList(legacyProcessInstance.getEventTypes()));
+    }
+    
     public org.kie.api.runtime.process.ProcessInstance internalGetProcessInstance() {
         return legacyProcessInstance;
     }
@@ -17,12 +17,21 @@ package org.kie.kogito.process.impl;
 
 import org.jbpm.process.instance.AbstractProcessRuntimeServiceProvider;
 import org.kie.kogito.process.ProcessConfig;
+import org.kie.services.time.TimerService;
 import org.kie.services.time.impl.JDKTimerService;
 
 public class ConfiguredProcessServices extends AbstractProcessRuntimeServiceProvider {
 
     public ConfiguredProcessServices(ProcessConfig config) {
-        super(new JDKTimerService(),
+        this(config, new JDKTimerService());
+    }
+
+    /**
+     * Allows to replace the default timer service, e.g. with
+     * {@link org.kie.services.time.impl.TimingWheelTimerService} for large number of pending timers.
+     */
+    public ConfiguredProcessServices(ProcessConfig config, TimerService timerService) {
+        super(timerService,
               config.workItemHandlers(),
               config.processEventListeners(),
               config.signalManagerHub(),
@@ -16,15 +16,26 @@
 package org.kie.kogito.process.impl;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.kie.kogito.process.MutableProcessInstances;
 import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceOptimisticLockingException;
+import org.kie.kogito.process.ProcessInstances;
 
 class MapProcessInstances<T> implements MutableProcessInstances<T> {
 
     private final ConcurrentHashMap<String, ProcessInstance<T>> instances = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+    // event types each instance is waiting for and the reverse index used to signal only matching instances
+    private final ConcurrentHashMap<String, Set<String>> eventTypes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> waitingInstances = new ConcurrentHashMap<>();
 
     @Override
     public Optional<? extends ProcessInstance<T>> findById(String id) {
@@ -36,15 +47,78 @@ class MapProcessInstances<T> implements MutableProcessInstances<T> {
         return instances.values();
     }
 
+    @Override
+    public Collection<? extends ProcessInstance<T>> values(int offset, int limit) {
+        ProcessInstances.checkPage(offset, limit);
+        return instances.values().stream()
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<? extends ProcessInstance<T>> stream() {
+        return instances.values().stream();
+    }
+
+    @Override
+    public Stream<? extends ProcessInstance<T>> waitingForEvent(String eventType) {
+        return waitingInstances.getOrDefault(eventType, Collections.emptySet()).stream()
+                .map(instances::get)
+                .filter(Objects::nonNull);
+    }
+
     @Override
     public void update(String id, ProcessInstance<T> instance) {
         if (isActive(instance)) {
-            instances.put(id, instance);
+            long expected = version(instance);
+            versions.compute(id, (key, current) -> {
+                if (current != null && current != expected) {
+                    throw new ProcessInstanceOptimisticLockingException(id);
+                }
+                instances.put(id, instance);
+                index(id, instance);
+                return expected + 1;
+            });
+            if (instance instanceof AbstractProcessInstance) {
+                ((AbstractProcessInstance<?>) instance).internalSetVersion(expected + 1);
+            }
         }
     }
 
     @Override
     public void remove(String id) {
-        instances.remove(id);
+        versions.computeIfPresent(id, (key, current) -> {
+            instances.remove(id);
+            index(id, null);
+            return null;
+        });
+    }
+    
+    protected void index(String id, ProcessInstance<T> instance) {
+        Set<String> current = instance instanceof AbstractProcessInstance ? ((AbstractProcessInstance<?>) instance).internalGetEventTypes() : null;
+        Set<String> previous = current == null ? eventTypes.remove(id) : eventTypes.put(id, current);
+        if (previous != null) {
+            previous.stream()
+                    .filter(type -> current == null || !current.contains(type))
+                    .forEach(type -> waitingInstances.computeIfPresent(type, (key, ids) -> {
+                        ids.remove(id);
+                        return ids.isEmpty() ? null : ids;
+                    }));
+        }
+        if (current != null) {
+            current.forEach(type -> waitingInstances.compute(type, (key, ids) -> {
+                Set<String> waiting = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                waiting.add(id);
+                return waiting;
+            }));
+        }
+    }
+    
+    protected long version(ProcessInstance<T> instance) {
+        if (instance instanceof AbstractProcessInstance) {
+            return ((AbstractProcessInstance<?>) instance).version();
+        }
+        return versions.getOrDefault(instance.id(), 0L);
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.process.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessError;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.Signal;
+import org.kie.kogito.process.WorkItem;
+import org.kie.kogito.process.workitem.Policy;
+import org.kie.kogito.process.workitem.Transition;
+
+/**
+ * Process instance that carries only its variables and basic information, 
+ * it is not backed by the process runtime and thus cannot be modified.
+ *
+ * @param <T> type of the variables model
+ */
+public class ReadOnlyProcessInstance<T> implements ProcessInstance<T> {
+
+    private final Process<T> process;
+    private final String id;
+    private final int status;
+    private final T variables;
+    private final String errorNodeId;
+    private final String errorMessage;
+
+    public ReadOnlyProcessInstance(Process<T> process, String id, int status, T variables, String errorNodeId, String errorMessage) {
+        this.process = process;
+        this.id = id;
+        this.status = status;
+        this.variables = variables;
+        this.errorNodeId = errorNodeId;
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public Process<T> process() {
+        return process;
+    }
+
+    @Override
+    public void start() {
+        throw readOnly();
+    }
+
+    @Override
+    public void start(String trigger, String referenceId) {
+        throw readOnly();
+    }
+
+    @Override
+    public <S> void send(Signal<S> signal) {
+        throw readOnly();
+    }
+
+    @Override
+    public void abort() {
+        throw readOnly();
+    }
+
+    @Override
+    public T variables() {
+        return variables;
+    }
+
+    @Override
+    public void updateVariables(T updates) {
+        throw readOnly();
+    }
+
+    @Override
+    public int status() {
+        return status;
+    }
+
+    @Override
+    public void completeWorkItem(String id, Map<String, Object> variables, Policy<?>... policies) {
+        throw readOnly();
+    }
+
+    @Override
+    public void abortWorkItem(String id, Policy<?>... policies) {
+        throw readOnly();
+    }
+
+    @Override
+    public void transitionWorkItem(String id, Transition<?> transition) {
+        throw readOnly();
+    }
+
+    @Override
+    public WorkItem workItem(String workItemId, Policy<?>... policies) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<WorkItem> workItems(Policy<?>... policies) {
+        throw readOnly();
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public Optional<ProcessError> error() {
+        if (status != STATE_ERROR) {
+            return Optional.empty();
+        }
+        return Optional.of(new ProcessError() {
+
+            @Override
+            public String failedNodeId() {
+                return errorNodeId;
+            }
+
+            @Override
+            public String errorMessage() {
+                return errorMessage;
+            }
+
+            @Override
+            public void retrigger() {
+                throw readOnly();
+            }
+
+            @Override
+            public void skip() {
+                throw readOnly();
+            }
+        });
+    }
+
+    protected UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Process instance with id " + id + " was loaded in read only mode and cannot be modified");
+    }
+}
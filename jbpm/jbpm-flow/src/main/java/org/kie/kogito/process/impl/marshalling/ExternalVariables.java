@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.process.impl.marshalling;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Storage of process variable values kept outside of the marshalled process instance, the process
+ * instance then holds only references to the values. It allows storage to write only variables
+ * that have changed instead of rewriting all of them with every update of the process instance.
+ */
+public interface ExternalVariables {
+
+    /**
+     * Stores marshalled value of given variable.
+     *
+     * @param name name of the variable
+     * @param value marshalled value of the variable
+     * @return reference to the stored value that is kept in the process instance
+     */
+    String write(String name, byte[] value);
+
+    /**
+     * Loads marshalled values of variables.
+     *
+     * @param references references of the values as returned from {@link #write(String, byte[])}
+     * @return marshalled values of the variables by their reference
+     */
+    Map<String, byte[]> read(Collection<String> references);
+}
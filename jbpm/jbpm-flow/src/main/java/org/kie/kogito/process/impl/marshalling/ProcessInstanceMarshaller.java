@@ -17,17 +17,27 @@ package org.kie.kogito.process.impl.marshalling;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.ObjectInputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.drools.core.impl.EnvironmentImpl;
 import org.drools.core.marshalling.impl.ClassObjectMarshallingStrategyAcceptor;
 import org.drools.core.marshalling.impl.MarshallerReaderContext;
+import org.drools.core.marshalling.impl.MarshallerWriteContext;
 import org.drools.core.marshalling.impl.PersisterHelper;
 import org.drools.core.marshalling.impl.ProcessMarshallerWriteContext;
+import org.drools.core.marshalling.impl.ProtobufMessages.Header;
 import org.drools.core.marshalling.impl.SerializablePlaceholderResolverStrategy;
 import org.jbpm.marshalling.impl.JBPMMessages;
 import org.jbpm.marshalling.impl.ProcessMarshallerRegistry;
+import org.jbpm.marshalling.impl.ProtobufProcessMarshaller;
 import org.jbpm.marshalling.impl.ProtobufRuleFlowProcessInstanceMarshaller;
 import org.jbpm.process.instance.impl.ProcessInstanceImpl;
 import org.jbpm.workflow.instance.impl.WorkflowProcessInstanceImpl;
@@ -39,12 +49,31 @@ import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.impl.AbstractProcess;
 import org.kie.kogito.process.impl.AbstractProcessInstance;
+import org.kie.kogito.process.impl.ReadOnlyProcessInstance;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ExtensionRegistry;
 
 public class ProcessInstanceMarshaller {
     
+    // first byte of compact format, default format always starts with java object stream magic (0xACED)
+    private static final byte COMPACT_FORMAT_MARKER = 0x01;
+    // compact format still needs marshaller contexts which are object streams, they are given just the stream header
+    private static final byte[] EMPTY_OBJECT_STREAM = emptyObjectStream();
+    // strategy index of variables which value is stored in external variables, value holds the reference then
+    private static final int EXTERNAL_VARIABLE = -1;
+    
     private Environment env = new EnvironmentImpl();
+    private final ProcessInstanceMarshallingFormat format;
     
     public ProcessInstanceMarshaller(ObjectMarshallingStrategy... strategies) {
+        this(ProcessInstanceMarshallingFormat.DEFAULT, strategies);
+    }
+    
+    public ProcessInstanceMarshaller(ProcessInstanceMarshallingFormat format, ObjectMarshallingStrategy... strategies) {
+        this.format = format;
         ObjectMarshallingStrategy[] strats = null;
         if ( strategies == null ) {
             strats = new ObjectMarshallingStrategy[]{new SerializablePlaceholderResolverStrategy( ClassObjectMarshallingStrategyAcceptor.DEFAULT  )};
@@ -60,13 +89,25 @@ public class ProcessInstanceMarshaller {
         
         env.set( EnvironmentName.OBJECT_MARSHALLING_STRATEGIES, strats );
     }
-
+    
     public byte[] marhsallProcessInstance(ProcessInstance<?> processInstance) {
+        return marhsallProcessInstance(processInstance, null);
+    }
+    
+    /**
+     * Marshalls process instance, values of its variables are written to given external variables
+     * (if any) and only references to them are kept in the returned data.
+     */
+    public byte[] marhsallProcessInstance(ProcessInstance<?> processInstance, ExternalVariables externalVariables) {
         
         org.kie.api.runtime.process.ProcessInstance legacyProcessInstance = ((AbstractProcessInstance<?>) processInstance).internalGetProcessInstance();
         
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        if (format == ProcessInstanceMarshallingFormat.COMPACT) {
+            return marshallCompactProcessInstance(legacyProcessInstance, externalVariables);
+        }
         
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            
             ProcessMarshallerWriteContext context = new ProcessMarshallerWriteContext( baos,
                                                                                    null,
                                                                                    null,
@@ -75,7 +116,7 @@ public class ProcessInstanceMarshaller {
                                                                                    this.env );
             context.setProcessInstanceId(legacyProcessInstance.getId());
             context.setState(legacyProcessInstance.getState());
-
+            
             String processType = ((ProcessInstanceImpl) legacyProcessInstance).getProcess().getType();
             context.stream.writeUTF(processType);
             
@@ -84,8 +125,8 @@ public class ProcessInstanceMarshaller {
             Object result = marshaller.writeProcessInstance( context,
                                                              legacyProcessInstance);
             if( marshaller instanceof ProtobufRuleFlowProcessInstanceMarshaller && result != null ) {
-                JBPMMessages.ProcessInstance _instance = (JBPMMessages.ProcessInstance)result;
-                PersisterHelper.writeToStreamWithHeader( context, 
+                JBPMMessages.ProcessInstance _instance = writeExternalVariables( context, (JBPMMessages.ProcessInstance)result, externalVariables );
+                PersisterHelper.writeToStreamWithHeader( context,
                                                          _instance );
             }
             context.close();
@@ -97,33 +138,33 @@ public class ProcessInstanceMarshaller {
     }
     
     public ProcessInstance<?> unmarshallProcessInstance(byte[] data, Process<?> process) {
+        return unmarshallProcessInstance(data, process, (ExternalVariables) null);
+    }
+    
+    public ProcessInstance<?> unmarshallProcessInstance(byte[] data, Process<?> process, ExternalVariables externalVariables) {
         
         Model m = (Model) process.createModel();
         AbstractProcessInstance<?> processInstance = (AbstractProcessInstance<?>) process.createInstance(m);
         
-        return unmarshallProcessInstance(data, process, processInstance);
+        return unmarshallProcessInstance(data, process, processInstance, externalVariables);
     }
     
     public ProcessInstance<?> unmarshallProcessInstance(byte[] data, Process<?> process, AbstractProcessInstance<?> processInstance) {
+        return unmarshallProcessInstance(data, process, processInstance, null);
+    }
+    
+    public ProcessInstance<?> unmarshallProcessInstance(byte[] data, Process<?> process, AbstractProcessInstance<?> processInstance, ExternalVariables externalVariables) {
         
-        org.kie.api.runtime.process.ProcessInstance legacyProcessInstance = null;
-        try (ByteArrayInputStream bais = new ByteArrayInputStream( data )) {
-            MarshallerReaderContext context = new MarshallerReaderContext( bais,
-                                                                           Collections.singletonMap(process.id(), ((AbstractProcess<?>)process).legacyProcess()),
-                                                                           null,
-                                                                           null,
-                                                                           null,
-                                                                           this.env
-                                                                          );
-            ObjectInputStream stream = context.stream;
-            String processInstanceType = stream.readUTF();
-            
-            org.jbpm.marshalling.impl.ProcessInstanceMarshaller marshaller = ProcessMarshallerRegistry.INSTANCE.getMarshaller( processInstanceType );
-            
-            legacyProcessInstance = marshaller.readProcessInstance(context);
-     
-            context.close();
-
+        try {
+            ParsedProcessInstance parsed = parse(data, process, externalVariables);
+            
+            org.jbpm.marshalling.impl.ProcessInstanceMarshaller marshaller = ProcessMarshallerRegistry.INSTANCE.getMarshaller( parsed.processInstanceType );
+            
+            parsed.context.parameterObject = parsed.instance;
+            org.kie.api.runtime.process.ProcessInstance legacyProcessInstance = marshaller.readProcessInstance(parsed.context);
+            
+            parsed.context.close();
+            
             processInstance.internalSetProcessInstance(legacyProcessInstance);
             
             return processInstance;
@@ -131,4 +172,282 @@ public class ProcessInstanceMarshaller {
             throw new RuntimeException("Error while unmarshalling process instance", e);
         }
     }
+    
+    /**
+     * Unmarshalls only variables and basic information of the process instance without
+     * restoring it in the process runtime, resulting process instance is read only.
+     */
+    public ProcessInstance<?> unmarshallReadOnlyProcessInstance(byte[] data, Process<?> process) {
+        return unmarshallReadOnlyProcessInstance(data, process, null);
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ProcessInstance<?> unmarshallReadOnlyProcessInstance(byte[] data, Process<?> process, ExternalVariables externalVariables) {
+        
+        Model model = (Model) process.createModel();
+        if (model == null) {
+            // process does not provide its own model so variables cannot be bound without the runtime
+            return unmarshallProcessInstance(data, process, externalVariables);
+        }
+        
+        try {
+            // process instance type is not needed as node instances are not restored
+            ParsedProcessInstance parsed = parse(data, process, externalVariables);
+            JBPMMessages.ProcessInstance _instance = parsed.instance;
+            
+            Map<String, Object> variables = new HashMap<>();
+            for ( JBPMMessages.Variable _variable : _instance.getVariableList() ) {
+                variables.put( _variable.getName(), ProtobufProcessMarshaller.unmarshallVariableValue( parsed.context, _variable ) );
+            }
+            parsed.context.close();
+            
+            model.fromMap(_instance.getId(), variables);
+            
+            return new ReadOnlyProcessInstance(process,
+                                               _instance.getId(),
+                                               _instance.getState(),
+                                               model,
+                                               _instance.getErrorNodeId(),
+                                               _instance.getErrorMessage());
+        } catch (Exception e) {
+            throw new RuntimeException("Error while unmarshalling process instance", e);
+        }
+    }
+    
+    /**
+     * Returns references of variables stored in external variables by given marshalled process instance.
+     */
+    public Set<String> externalVariableReferences(byte[] data, Process<?> process) {
+        try {
+            ParsedProcessInstance parsed = parse(data, process, null);
+            parsed.context.close();
+            
+            return externalReferences(parsed.instance);
+        } catch (Exception e) {
+            throw new RuntimeException("Error while unmarshalling process instance", e);
+        }
+    }
+    
+    protected ParsedProcessInstance parse(byte[] data, Process<?> process, ExternalVariables externalVariables) throws IOException, ClassNotFoundException {
+        ParsedProcessInstance parsed = new ParsedProcessInstance();
+        if (isCompact(data)) {
+            CodedInputStream input = compactInput(data);
+            parsed.processInstanceType = input.readString();
+            parsed.context = compactReaderContext(input, process);
+            parsed.instance = JBPMMessages.ProcessInstance.parseFrom( input, PersisterHelper.buildRegistry( parsed.context, null ) );
+        } else {
+            parsed.context = readerContext( new ByteArrayInputStream( data ), process );
+            parsed.processInstanceType = parsed.context.stream.readUTF();
+            
+            ExtensionRegistry registry = PersisterHelper.buildRegistry( parsed.context, null );
+            Header _header = PersisterHelper.readFromStreamWithHeaderPreloaded( parsed.context, registry );
+            parsed.instance = JBPMMessages.ProcessInstance.parseFrom( _header.getPayload(), registry );
+        }
+        if (externalVariables != null) {
+            parsed.instance = readExternalVariables(parsed.context, parsed.instance, externalVariables);
+        }
+        return parsed;
+    }
+    
+    protected MarshallerReaderContext readerContext(ByteArrayInputStream stream, Process<?> process) throws IOException {
+        return new MarshallerReaderContext( stream,
+                                            Collections.singletonMap(process.id(), ((AbstractProcess<?>)process).legacyProcess()),
+                                            null,
+                                            null,
+                                            null,
+                                            this.env
+                                           );
+    }
+    
+    /*
+     * External variables: value of every variable that does not depend on strategy context is written
+     * as strategy name followed by the variable message, process instance keeps just the reference
+     */
+    
+    protected JBPMMessages.ProcessInstance writeExternalVariables(MarshallerWriteContext context, JBPMMessages.ProcessInstance _instance, ExternalVariables externalVariables) throws IOException {
+        if (externalVariables == null || _instance.getVariableCount() == 0) {
+            return _instance;
+        }
+        Map<Integer, ObjectMarshallingStrategy> strategies = new HashMap<>();
+        for (Entry<ObjectMarshallingStrategy, Integer> strategy : context.usedStrategies.entrySet()) {
+            strategies.put(strategy.getValue(), strategy.getKey());
+        }
+        
+        JBPMMessages.ProcessInstance.Builder _builder = _instance.toBuilder().clearVariable();
+        for ( JBPMMessages.Variable _variable : _instance.getVariableList() ) {
+            ObjectMarshallingStrategy strategy = strategies.get(_variable.getStrategyIndex());
+            if (!_variable.hasValue() || strategy == null || context.strategyContext.get(strategy) != null) {
+                // null values and values that depend on strategy context stay in the process instance
+                _builder.addVariable(_variable);
+                continue;
+            }
+            JBPMMessages.Variable _value = _variable.toBuilder().clearStrategyIndex().build();
+            byte[] value = new byte[CodedOutputStream.computeStringSizeNoTag(strategy.getName()) + _value.getSerializedSize()];
+            CodedOutputStream output = CodedOutputStream.newInstance(value);
+            output.writeStringNoTag(strategy.getName());
+            _value.writeTo(output);
+            output.checkNoSpaceLeft();
+            
+            String reference = externalVariables.write(_variable.getName(), value);
+            _builder.addVariable(JBPMMessages.Variable.newBuilder()
+                                 .setName(_variable.getName())
+                                 .setStrategyIndex(EXTERNAL_VARIABLE)
+                                 .setValue(ByteString.copyFromUtf8(reference)));
+        }
+        return _builder.build();
+    }
+    
+    protected JBPMMessages.ProcessInstance readExternalVariables(MarshallerReaderContext context, JBPMMessages.ProcessInstance _instance, ExternalVariables externalVariables) throws IOException {
+        Set<String> references = externalReferences(_instance);
+        if (references.isEmpty()) {
+            return _instance;
+        }
+        Map<String, byte[]> values = externalVariables.read(references);
+        
+        JBPMMessages.ProcessInstance.Builder _builder = _instance.toBuilder().clearVariable();
+        for ( JBPMMessages.Variable _variable : _instance.getVariableList() ) {
+            if (_variable.getStrategyIndex() != EXTERNAL_VARIABLE) {
+                _builder.addVariable(_variable);
+                continue;
+            }
+            byte[] value = values.get(_variable.getValue().toStringUtf8());
+            if (value == null) {
+                throw new IllegalStateException("Value of variable " + _variable.getName() + " of process instance " + _instance.getId() + " not found");
+            }
+            CodedInputStream input = CodedInputStream.newInstance(value);
+            input.setSizeLimit(Integer.MAX_VALUE);
+            String strategyName = input.readString();
+            _builder.addVariable(JBPMMessages.Variable.parseFrom(input).toBuilder()
+                                 .setStrategyIndex(strategyIndex(context, strategyName)));
+        }
+        return _builder.build();
+    }
+    
+    protected int strategyIndex(MarshallerReaderContext context, String strategyName) {
+        int next = 0;
+        for (Entry<Integer, ObjectMarshallingStrategy> strategy : context.usedStrategies.entrySet()) {
+            if (strategy.getValue().getName().equals(strategyName)) {
+                return strategy.getKey();
+            }
+            next = Math.max(next, strategy.getKey() + 1);
+        }
+        ObjectMarshallingStrategy strategy = context.resolverStrategyFactory.getStrategyObject( strategyName );
+        if ( strategy == null ) {
+            throw new IllegalStateException( "No strategy of type " + strategyName + " available." );
+        }
+        context.usedStrategies.put( next, strategy );
+        context.strategyContexts.put( strategy, strategy.createContext() );
+        return next;
+    }
+    
+    protected Set<String> externalReferences(JBPMMessages.ProcessInstance _instance) {
+        Set<String> references = new LinkedHashSet<>();
+        for ( JBPMMessages.Variable _variable : _instance.getVariableList() ) {
+            if (_variable.getStrategyIndex() == EXTERNAL_VARIABLE) {
+                references.add(_variable.getValue().toStringUtf8());
+            }
+        }
+        return references;
+    }
+    
+    /*
+     * Compact format: marker byte, process instance type, used strategies (id and name) and
+     * process instance protobuf message, all written directly with protobuf encoding
+     */
+    
+    protected byte[] marshallCompactProcessInstance(org.kie.api.runtime.process.ProcessInstance legacyProcessInstance, ExternalVariables externalVariables) {
+        try {
+            ProcessMarshallerWriteContext context = new ProcessMarshallerWriteContext( new ByteArrayOutputStream(EMPTY_OBJECT_STREAM.length),
+                                                                                   null,
+                                                                                   null,
+                                                                                   null,
+                                                                                   null,
+                                                                                   this.env );
+            context.setProcessInstanceId(legacyProcessInstance.getId());
+            context.setState(legacyProcessInstance.getState());
+            
+            String processType = ((ProcessInstanceImpl) legacyProcessInstance).getProcess().getType();
+            org.jbpm.marshalling.impl.ProcessInstanceMarshaller marshaller = ProcessMarshallerRegistry.INSTANCE.getMarshaller( processType );
+            if (!(marshaller instanceof ProtobufRuleFlowProcessInstanceMarshaller)) {
+                throw new IllegalStateException("Compact format is not supported for process instances of type " + processType);
+            }
+            JBPMMessages.ProcessInstance _instance = (JBPMMessages.ProcessInstance) marshaller.writeProcessInstance( context, legacyProcessInstance );
+            _instance = writeExternalVariables( context, _instance, externalVariables );
+            context.close();
+            
+            // sizes are known upfront so the result is written into exactly sized array without intermediate buffers
+            int size = 1 + CodedOutputStream.computeStringSizeNoTag(processType) + CodedOutputStream.computeUInt32SizeNoTag(context.usedStrategies.size());
+            for (Entry<ObjectMarshallingStrategy, Integer> strategy : context.usedStrategies.entrySet()) {
+                if (context.strategyContext.get(strategy.getKey()) != null) {
+                    // only strategy with context is the java serialization fallback
+                    throw new IllegalStateException("Process instance " + legacyProcessInstance.getId() + " has variables that cannot be marshalled without java serialization");
+                }
+                size += CodedOutputStream.computeUInt32SizeNoTag(strategy.getValue()) + CodedOutputStream.computeStringSizeNoTag(strategy.getKey().getName());
+            }
+            size += _instance.getSerializedSize();
+            
+            byte[] data = new byte[size];
+            CodedOutputStream output = CodedOutputStream.newInstance(data);
+            output.writeRawByte(COMPACT_FORMAT_MARKER);
+            output.writeStringNoTag(processType);
+            output.writeUInt32NoTag(context.usedStrategies.size());
+            for (Entry<ObjectMarshallingStrategy, Integer> strategy : context.usedStrategies.entrySet()) {
+                output.writeUInt32NoTag(strategy.getValue());
+                output.writeStringNoTag(strategy.getKey().getName());
+            }
+            _instance.writeTo(output);
+            output.checkNoSpaceLeft();
+            
+            ((WorkflowProcessInstanceImpl) legacyProcessInstance).disconnect();
+            return data;
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error while marshalling process instance", e);
+        }
+    }
+    
+    protected MarshallerReaderContext compactReaderContext(CodedInputStream input, Process<?> process) throws IOException {
+        MarshallerReaderContext context = readerContext( new ByteArrayInputStream( EMPTY_OBJECT_STREAM ), process );
+        int strategies = input.readUInt32();
+        for (int i = 0; i < strategies; i++) {
+            int id = input.readUInt32();
+            String name = input.readString();
+            ObjectMarshallingStrategy strategy = context.resolverStrategyFactory.getStrategyObject( name );
+            if ( strategy == null ) {
+                throw new IllegalStateException( "No strategy of type " + name + " available." );
+            }
+            context.usedStrategies.put( id, strategy );
+            context.strategyContexts.put( strategy, strategy.createContext() );
+        }
+        return context;
+    }
+    
+    protected CodedInputStream compactInput(byte[] data) {
+        CodedInputStream input = CodedInputStream.newInstance(data, 1, data.length - 1);
+        // same as default format, there is no limit on size of the process instance
+        input.setSizeLimit(Integer.MAX_VALUE);
+        return input;
+    }
+    
+    protected boolean isCompact(byte[] data) {
+        return data.length > 0 && data[0] == COMPACT_FORMAT_MARKER;
+    }
+    
+    private static byte[] emptyObjectStream() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream stream = new ObjectOutputStream(baos)) {
+            stream.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return baos.toByteArray();
+    }
+    
+    protected static class ParsedProcessInstance {
+        
+        private String processInstanceType;
+        private MarshallerReaderContext context;
+        private JBPMMessages.ProcessInstance instance;
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.kogito.process.impl.marshalling;
+
+/**
+ * Binary format used by {@link ProcessInstanceMarshaller} when writing process instances.
+ * Both formats can always be read regardless of the configured one.
+ */
+public enum ProcessInstanceMarshallingFormat {
+
+    /**
+     * Protobuf message wrapped in a signed header written through java object stream,
+     * variables not handled by any of the given strategies fall back to java serialization
+     */
+    DEFAULT,
+    /**
+     * Protobuf message written directly, preceded only by process type and used strategies,
+     * variables must be handled by one of the given strategies
+     */
+    COMPACT
+}
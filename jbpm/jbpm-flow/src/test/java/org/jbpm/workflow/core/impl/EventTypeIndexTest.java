@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.workflow.core.impl;
+
+import org.jbpm.process.core.event.BroadcastEventTypeFilter;
+import org.jbpm.process.core.event.EventTypeFilter;
+import org.jbpm.process.core.event.NonAcceptingEventTypeFilter;
+import org.jbpm.ruleflow.core.RuleFlowProcess;
+import org.jbpm.workflow.core.node.ActionNode;
+import org.jbpm.workflow.core.node.BoundaryEventNode;
+import org.jbpm.workflow.core.node.EventNode;
+import org.jbpm.workflow.core.node.EventSubProcessNode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventTypeIndexTest {
+
+    @Test
+    public void testEventNodesByType() {
+        RuleFlowProcess process = new RuleFlowProcess();
+        EventNode orderEvent = eventNode(1, new EventTypeFilter(), "order");
+        EventNode escalation = eventNode(2, new BroadcastEventTypeFilter(), "Escalation");
+        BoundaryEventNode expressionBoundary = new BoundaryEventNode();
+        expressionBoundary.setId(3);
+        expressionBoundary.addEventFilter(filter(new EventTypeFilter(), "Message-#{orderId}"));
+        EventNode nonAccepting = eventNode(4, new NonAcceptingEventTypeFilter(), "order");
+        EventSubProcessNode subProcess = new EventSubProcessNode();
+        subProcess.setId(5);
+        subProcess.addEvent(filter(new EventTypeFilter(), "cancel"));
+        ActionNode action = new ActionNode();
+        action.setId(6);
+        process.addNode(orderEvent);
+        process.addNode(escalation);
+        process.addNode(expressionBoundary);
+        process.addNode(nonAccepting);
+        process.addNode(subProcess);
+        process.addNode(action);
+
+        EventTypeIndex index = process.getEventTypeIndex();
+
+        assertThat(index.getEventNodes("order")).containsExactly(orderEvent, escalation, expressionBoundary);
+        assertThat(index.getEventNodes("cancel")).containsExactly(escalation, expressionBoundary, subProcess);
+        assertThat(index.getEventNodes("other")).containsExactly(escalation, expressionBoundary);
+    }
+
+    @Test
+    public void testIndexRebuiltWhenNodeAdded() {
+        RuleFlowProcess process = new RuleFlowProcess();
+        process.addNode(eventNode(1, new EventTypeFilter(), "order"));
+        assertThat(process.getEventTypeIndex().getEventNodes("cancel")).isEmpty();
+
+        EventNode cancelEvent = eventNode(2, new EventTypeFilter(), "cancel");
+        process.addNode(cancelEvent);
+
+        assertThat(process.getEventTypeIndex().getEventNodes("cancel")).containsExactly(cancelEvent);
+    }
+
+    @Test
+    public void testStartNodesByName() {
+        RuleFlowProcess process = new RuleFlowProcess();
+        ActionNode action = new ActionNode();
+        action.setId(1);
+        action.setName("Review");
+        process.addNode(action);
+
+        assertThat(process.getEventTypeIndex().getStartNodes("Review")).containsExactly(action);
+        assertThat(process.getEventTypeIndex().getStartNodes("Approve")).isEmpty();
+    }
+
+    private static EventNode eventNode(long id, EventTypeFilter filter, String type) {
+        EventNode node = new EventNode();
+        node.setId(id);
+        node.addEventFilter(filter(filter, type));
+        return node;
+    }
+
+    private static EventTypeFilter filter(EventTypeFilter filter, String type) {
+        filter.setType(type);
+        return filter;
+    }
+}
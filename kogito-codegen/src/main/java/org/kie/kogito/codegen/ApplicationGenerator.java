@@ -35,6 +35,7 @@ import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.BooleanLiteralExpr;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.expr.SimpleName;
@@ -126,10 +127,15 @@ public class ApplicationGenerator {
         FieldDeclaration kogitoServiceField = new FieldDeclaration().addVariable(new VariableDeclarator()
                                                                                 .setType(new ClassOrInterfaceType(null, String.class.getCanonicalName()))
                                                                                 .setName("kogitoService"));
+        FieldDeclaration kogitoEventsVariablesDiffField = new FieldDeclaration().addVariable(new VariableDeclarator()
+                                                                                .setType(new ClassOrInterfaceType(null, Boolean.class.getCanonicalName()))
+                                                                                .setName("kogitoEventsVariablesDiff")
+                                                                                .setInitializer(new BooleanLiteralExpr(false)));
 
 
         cls.addMember(eventPublishersFieldDeclaration);
         cls.addMember(kogitoServiceField);
+        cls.addMember(kogitoEventsVariablesDiffField);
         if (useInjection()) {
             annotator.withSingletonComponent(cls);
 
@@ -141,6 +147,7 @@ public class ApplicationGenerator {
             eventPublishersDeclarator = new VariableDeclarator(new ClassOrInterfaceType(null, new SimpleName(annotator.multiInstanceInjectionType()), NodeList.nodeList(new ClassOrInterfaceType(null, EventPublisher.class.getCanonicalName()))), "eventPublishers");
 
             annotator.withConfigInjection("kogito.service.url", "", kogitoServiceField);
+            annotator.withConfigInjection("kogito.events.variables-diff", "false", kogitoEventsVariablesDiffField);
         } else {
             eventPublishersDeclarator = new VariableDeclarator(new ClassOrInterfaceType(null, new SimpleName(List.class.getCanonicalName()), NodeList.nodeList(new ClassOrInterfaceType(null, EventPublisher.class.getCanonicalName()))), "eventPublishers");
         }
@@ -216,6 +216,9 @@ public class ResourceGenerator {
             
             template.findAll(FieldDeclaration.class,
                              CodegenUtils::isApplicationField).forEach(fd -> annotator.withInjection(fd));
+            
+            template.findAll(FieldDeclaration.class,
+                             fd -> fd.getVariable(0).getNameAsString().equals("maxPageSize")).forEach(fd -> annotator.withConfigInjection("kogito.rest.max-page-size", "100", fd));
         } else {
             template.findAll(FieldDeclaration.class,
                              CodegenUtils::isProcessField).forEach(this::initializeProcessField);
@@ -60,6 +60,10 @@ import org.kie.kogito.codegen.process.persistence.proto.ProtoGenerator;
 public class PersistenceGenerator extends AbstractGenerator {
     
     private static final String TEMPLATE_NAME = "templateName";
+    private static final String NEAR_CACHE_MAX_SIZE = "nearCacheMaxSize";
+    private static final String COMPACT_FORMAT = "compactFormat";
+    private static final String SPLIT_VARIABLES = "splitVariables";
+    private static final String EVENT_INDEX = "eventIndex";
     private static final String KOGITO_APPLICATION_PROTO = "kogito-application.proto";
 
     private final File targetDirectory;
@@ -170,6 +174,62 @@ public class PersistenceGenerator extends AbstractGenerator {
                 
                 persistenceProviderClazz.addMember(templateNameField);
                 persistenceProviderClazz.addMember(templateNameMethod);
+                
+                FieldDeclaration nearCacheMaxSizeField = new FieldDeclaration().addVariable(new VariableDeclarator()
+                                                                                            .setType(new ClassOrInterfaceType(null, Long.class.getCanonicalName()))
+                                                                                            .setName(NEAR_CACHE_MAX_SIZE));
+                annotator.withConfigInjection("kogito.persistence.infinispan.near-cache.max-size", "0", nearCacheMaxSizeField);
+                // allow to enable a local near cache of process instances by setting its max size, disabled by default
+                MethodDeclaration nearCacheMaxSizeMethod = new MethodDeclaration()
+                        .addModifier(Keyword.PUBLIC)
+                        .setName(NEAR_CACHE_MAX_SIZE)
+                        .setType(long.class)
+                        .setBody(new BlockStmt().addStatement(new ReturnStmt(new NameExpr(NEAR_CACHE_MAX_SIZE))));
+                
+                persistenceProviderClazz.addMember(nearCacheMaxSizeField);
+                persistenceProviderClazz.addMember(nearCacheMaxSizeMethod);
+                
+                FieldDeclaration compactFormatField = new FieldDeclaration().addVariable(new VariableDeclarator()
+                                                                                         .setType(new ClassOrInterfaceType(null, Boolean.class.getCanonicalName()))
+                                                                                         .setName(COMPACT_FORMAT));
+                annotator.withConfigInjection("kogito.persistence.infinispan.compact-format", "false", compactFormatField);
+                // allow to switch to compact binary format of stored process instances
+                MethodDeclaration compactFormatMethod = new MethodDeclaration()
+                        .addModifier(Keyword.PUBLIC)
+                        .setName(COMPACT_FORMAT)
+                        .setType(boolean.class)
+                        .setBody(new BlockStmt().addStatement(new ReturnStmt(new NameExpr(COMPACT_FORMAT))));
+                
+                persistenceProviderClazz.addMember(compactFormatField);
+                persistenceProviderClazz.addMember(compactFormatMethod);
+                
+                FieldDeclaration splitVariablesField = new FieldDeclaration().addVariable(new VariableDeclarator()
+                                                                                          .setType(new ClassOrInterfaceType(null, Boolean.class.getCanonicalName()))
+                                                                                          .setName(SPLIT_VARIABLES));
+                annotator.withConfigInjection("kogito.persistence.infinispan.split-variables", "false", splitVariablesField);
+                // allow to store process variables separately so only changed ones are written
+                MethodDeclaration splitVariablesMethod = new MethodDeclaration()
+                        .addModifier(Keyword.PUBLIC)
+                        .setName(SPLIT_VARIABLES)
+                        .setType(boolean.class)
+                        .setBody(new BlockStmt().addStatement(new ReturnStmt(new NameExpr(SPLIT_VARIABLES))));
+                
+                persistenceProviderClazz.addMember(splitVariablesField);
+                persistenceProviderClazz.addMember(splitVariablesMethod);
+                
+                FieldDeclaration eventIndexField = new FieldDeclaration().addVariable(new VariableDeclarator()
+                                                                                       .setType(new ClassOrInterfaceType(null, Boolean.class.getCanonicalName()))
+                                                                                       .setName(EVENT_INDEX));
+                annotator.withConfigInjection("kogito.persistence.infinispan.event-index", "false", eventIndexField);
+                // allow to index process instances by event types they are waiting for
+                MethodDeclaration eventIndexMethod = new MethodDeclaration()
+                        .addModifier(Keyword.PUBLIC)
+                        .setName(EVENT_INDEX)
+                        .setType(boolean.class)
+                        .setBody(new BlockStmt().addStatement(new ReturnStmt(new NameExpr(EVENT_INDEX))));
+                
+                persistenceProviderClazz.addMember(eventIndexField);
+                persistenceProviderClazz.addMember(eventIndexMethod);
             }
             List<String> variableMarshallers = new ArrayList<>();  
             // handler process variable marshallers
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -22,6 +23,7 @@ import org.kie.kogito.auth.SecurityPolicy;
 import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.ProcessInstanceExecutionException;
+import org.kie.kogito.process.ProcessInstanceReadMode;
 import org.kie.kogito.process.WorkItem;
 import org.kie.kogito.process.workitem.Policy;
 
@@ -32,6 +34,8 @@ public class $Type$Resource {
     
     Application application;
 
+    Integer maxPageSize = 100;
+
     @POST()
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)    
@@ -50,8 +54,11 @@ public class $Type$Resource {
 
     @GET()
     @Produces(MediaType.APPLICATION_JSON)
-    public List<$Type$> getResources_$name$() {
-        return process.instances().values().stream()
+    public List<$Type$> getResources_$name$(@QueryParam("offset") @DefaultValue("0") final int offset, @QueryParam("limit") @DefaultValue("10") final int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new BadRequestException("Offset and limit must not be negative");
+        }
+        return process.instances().values(offset, Math.min(limit, maxPageSize)).stream()
                 .map(ProcessInstance::variables)
                 .collect(Collectors.toList());
     }
@@ -61,7 +68,7 @@ public class $Type$Resource {
     @Produces(MediaType.APPLICATION_JSON)
     public $Type$ getResource_$name$(@PathParam("id") String id) {
         return process.instances()
-                .findById(id)
+                .findById(id, ProcessInstanceReadMode.READ_ONLY)
                 .map(ProcessInstance::variables)
                 .orElse(null);
     }
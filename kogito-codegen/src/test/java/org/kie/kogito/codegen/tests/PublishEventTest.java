@@ -36,6 +36,7 @@ import org.kie.kogito.process.Process;
 import org.kie.kogito.process.ProcessError;
 import org.kie.kogito.process.ProcessInstance;
 import org.kie.kogito.process.WorkItem;
+import org.kie.kogito.process.impl.Sig;
 import org.kie.kogito.services.event.ProcessInstanceDataEvent;
 import org.kie.kogito.services.event.UserTaskInstanceDataEvent;
 import org.kie.kogito.services.event.impl.ProcessInstanceEventBody;
@@ -349,6 +350,56 @@ public class PublishEventTest extends AbstractCodegenTest {
         assertThat(body.getNodeInstances()).extractingResultOf("getLeaveTime").allMatch(v -> v != null);
     }
     
+    @Test
+    public void testProcessWithVariablesDiff() throws Exception {
+        
+        Application app = generateCode(Collections.singletonList("signalevent/IntermediateCatchEventSignal.bpmn2"), Collections.singletonList("ruletask/BusinessRuleTask.drl"));
+        assertThat(app).isNotNull();
+        TestEventPublisher publisher = new TestEventPublisher();
+        app.unitOfWorkManager().eventManager().setService("http://myhost");
+        app.unitOfWorkManager().eventManager().setVariablesDiff(true);
+        app.unitOfWorkManager().eventManager().addPublisher(publisher);
+        
+        Process<? extends Model> p = app.processes().processById("IntermediateCatchEvent");
+        
+        Model m = p.createModel();
+        m.fromMap(Collections.singletonMap("name", "john"));
+        
+        UnitOfWork uow = app.unitOfWorkManager().newUnitOfWork();                        
+        uow.start();
+        ProcessInstance<?> processInstance = p.createInstance(m);
+        processInstance.start();
+        uow.end();
+        // started instance sends all variables
+        List<DataEvent<?>> events = publisher.extract();
+        assertThat(events).isNotNull().hasSize(2);
+        ProcessInstanceEventBody body = assertProcessInstanceEvent(events.get(0), "IntermediateCatchEvent", "IntermediateCatchEvent Process", 1);
+        assertThat(body.getPartialVariables()).isNull();
+        assertThat(body.getVariables()).containsEntry("name", "john");
+        
+        List<WorkItem> workItems = processInstance.workItems();
+        uow = app.unitOfWorkManager().newUnitOfWork();                        
+        uow.start();
+        processInstance.completeWorkItem(workItems.get(0).getId(), null);
+        uow.end();
+        // no variable changed
+        events = publisher.extract();
+        body = assertProcessInstanceEvent(events.get(0), "IntermediateCatchEvent", "IntermediateCatchEvent Process", 1);
+        assertThat(body.getPartialVariables()).isTrue();
+        assertThat(body.getVariables()).isEmpty();
+        
+        uow = app.unitOfWorkManager().newUnitOfWork();                        
+        uow.start();
+        processInstance.send(Sig.of("MyMessage", "test"));
+        uow.end();
+        // completed instance sends all variables
+        assertThat(processInstance.status()).isEqualTo(ProcessInstance.STATE_COMPLETED);
+        events = publisher.extract();
+        body = assertProcessInstanceEvent(events.get(0), "IntermediateCatchEvent", "IntermediateCatchEvent Process", 2);
+        assertThat(body.getPartialVariables()).isNull();
+        assertThat(body.getVariables()).containsEntry("name", "john").containsEntry("x", "test");
+    }
+    
     @SuppressWarnings({"unchecked", "rawtypes"})
     @Test
     public void testServiceTaskProcessWithError() throws Exception {
@@ -166,4 +166,33 @@ public class SignalEventTest extends AbstractCodegenTest {
         // after unit of work is ended instance is gone from the list
         assertThat(p.instances().values()).hasSize(0);
     }
+    
+    @Test
+    public void testProcessSignalDeliveredOnlyToWaitingInstances() throws Exception {
+        
+        Application app = generateCode(Collections.singletonList("signalevent/IntermediateCatchEventSignal.bpmn2"), Collections.singletonList("ruletask/BusinessRuleTask.drl"));        
+        assertThat(app).isNotNull();
+                
+        Process<? extends Model> p = app.processes().processById("IntermediateCatchEvent");
+        
+        ProcessInstance<?> waiting = p.createInstance(p.createModel());
+        waiting.start();
+        ProcessInstance<?> notWaiting = p.createInstance(p.createModel());
+        notWaiting.start();
+        
+        assertThat(p.instances().waitingForEvent("MyMessage").count()).isEqualTo(0);
+        
+        List<WorkItem> workItems = waiting.workItems();
+        assertThat(workItems).hasSize(1);
+        waiting.completeWorkItem(workItems.get(0).getId(), null);
+        
+        assertThat(p.instances().waitingForEvent("MyMessage").map(pi -> pi.id())).containsExactly(waiting.id());
+        
+        p.send(Sig.of("MyMessage", "test"));
+        
+        assertThat(waiting.status()).isEqualTo(ProcessInstance.STATE_COMPLETED);
+        assertThat(notWaiting.status()).isEqualTo(ProcessInstance.STATE_ACTIVE);
+        assertThat(p.instances().values()).hasSize(1);
+        assertThat(p.instances().waitingForEvent("MyMessage").count()).isEqualTo(0);
+    }
 }